@@ -100,6 +100,23 @@ $$;
 
 CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 
+-- Time ordered version 7 UUID (RFC 9562): 48 bit Unix milliseconds followed by random bits
+CREATE OR REPLACE FUNCTION uuid_generate_v7()
+    RETURNS UUID
+    LANGUAGE plpgsql
+    VOLATILE
+AS
+\$\$
+DECLARE
+    bytes BYTEA := uuid_send(gen_random_uuid());
+    ms    BIGINT := floor(extract(EPOCH FROM clock_timestamp()) * 1000);
+BEGIN
+    bytes := overlay(bytes PLACING substring(int8send(ms) FROM 3) FROM 1 FOR 6);
+    bytes := set_byte(bytes, 6, (get_byte(bytes, 6) & 15) | 112);
+    RETURN encode(bytes, 'hex')::UUID;
+END
+\$\$;
+
 CREATE TYPE trade_direction_type AS ENUM ('LONG', 'SHORT', 'WAIT');
 CREATE TYPE trade_action_type AS ENUM ('hold', 'open', 'close');
 CREATE TYPE trade_asset_type AS ENUM ('WIN$', 'WDO$');
@@ -208,8 +225,11 @@ CREATE TABLE IF NOT EXISTS candlestick_fact
     volume           DOUBLE PRECISION      NOT NULL,
     PRIMARY KEY (data_feed_uuid, trade_asset, trade_time_frame, datetime_id)
 ) PARTITION BY LIST (trade_time_frame);
-CREATE TABLE candlestick_fact_m1 PARTITION OF candlestick_fact FOR VALUES IN ('m1');
-CREATE TABLE candlestick_fact_m5 PARTITION OF candlestick_fact FOR VALUES IN ('m5');
+-- m1 and m5 are range partitioned by datetime_id; the backend partition manager creates the periods
+CREATE TABLE candlestick_fact_m1 PARTITION OF candlestick_fact FOR VALUES IN ('m1') PARTITION BY RANGE (datetime_id);
+CREATE TABLE candlestick_fact_m1_default PARTITION OF candlestick_fact_m1 DEFAULT;
+CREATE TABLE candlestick_fact_m5 PARTITION OF candlestick_fact FOR VALUES IN ('m5') PARTITION BY RANGE (datetime_id);
+CREATE TABLE candlestick_fact_m5_default PARTITION OF candlestick_fact_m5 DEFAULT;
 CREATE TABLE candlestick_fact_m15 PARTITION OF candlestick_fact FOR VALUES IN ('m15');
 CREATE TABLE candlestick_fact_m30 PARTITION OF candlestick_fact FOR VALUES IN ('m30');
 CREATE TABLE candlestick_fact_h1 PARTITION OF candlestick_fact FOR VALUES IN ('H1');
@@ -223,6 +243,26 @@ CREATE INDEX IF NOT EXISTS candlestick_fact_trade_time_frame_idx ON candlestick_
 CREATE INDEX IF NOT EXISTS candlestick_fact_dt_idx ON candlestick_fact (datetime_id);
 CREATE INDEX IF NOT EXISTS candlestick_fact_m5_dt_idx ON candlestick_fact_m5 (datetime_id);
 
+CREATE TABLE IF NOT EXISTS candlestick_quality_fact
+(
+    data_feed_uuid           UUID                  NOT NULL REFERENCES data_feed_fact (data_feed_uuid) ON DELETE CASCADE,
+    trade_asset              trade_asset_type      NOT NULL,
+    trade_time_frame         trade_time_frame_type NOT NULL,
+    first_datetime_id        BIGINT,
+    last_scanned_datetime_id BIGINT,
+    candlesticks             BIGINT                NOT NULL DEFAULT 0 CHECK (candlesticks >= 0),
+    missing                  BIGINT                NOT NULL DEFAULT 0 CHECK (missing >= 0),
+    gaps                     BIGINT                NOT NULL DEFAULT 0 CHECK (gaps >= 0),
+    largest_gap              BIGINT                NOT NULL DEFAULT 0 CHECK (largest_gap >= 0),
+    duplicates               BIGINT                NOT NULL DEFAULT 0 CHECK (duplicates >= 0),
+    spikes                   BIGINT                NOT NULL DEFAULT 0 CHECK (spikes >= 0),
+    invariant_violations     BIGINT                NOT NULL DEFAULT 0 CHECK (invariant_violations >= 0),
+    zero_volume              BIGINT                NOT NULL DEFAULT 0 CHECK (zero_volume >= 0),
+    issues                   TEXT,
+    scanned_at               TIMESTAMP             NOT NULL,
+    PRIMARY KEY (data_feed_uuid, trade_asset, trade_time_frame)
+);
+
 CREATE TABLE IF NOT EXISTS agent_dim
 (
     agent_dim_uuid UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
@@ -263,7 +303,7 @@ VALUES ('386adf36-0584-44e1-8ae4-0b8fc4686b04',
 
 CREATE TABLE IF NOT EXISTS trade_zero_fact
 (
-    trade_zero_fact_uuid UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    trade_zero_fact_uuid UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
     trade_zero_dim_uuid  UUID NOT NULL REFERENCES trade_zero_dim (trade_zero_dim_uuid),
     agent_dim_uuid       UUID NOT NULL REFERENCES agent_dim (agent_dim_uuid),
     epoch                INT CHECK (epoch >= 0),
@@ -277,7 +317,7 @@ VALUES ('def4d891-3654-4121-8dbc-93b2bc1dac8e', '386adf36-0584-44e1-8ae4-0b8fc46
 
 CREATE TABLE IF NOT EXISTS portfolio_fact
 (
-    portfolio_uuid       UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    portfolio_uuid       UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
     trade_zero_fact_uuid UUID         NOT NULL REFERENCES trade_zero_fact (trade_zero_fact_uuid),
     name                 VARCHAR(255) NOT NULL,
     description          TEXT
@@ -320,7 +360,7 @@ VALUES ('market', 'LONG', 'open', 'WIN$', 1),
 
 CREATE TABLE IF NOT EXISTS order_fact
 (
-    order_fact_uuid      UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    order_fact_uuid      UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
     order_dim_uuid       UUID              NOT NULL REFERENCES order_dim (order_dim_uuid),
     order_venue_dim_uuid UUID              NOT NULL REFERENCES order_venue_dim (order_venue_dim_uuid),
     datetime_id          BIGINT            NOT NULL REFERENCES datetime_dim (datetime_id),
@@ -341,7 +381,7 @@ CREATE INDEX IF NOT EXISTS order_routing_status_idx ON order_fact (order_status)
 
 CREATE TABLE IF NOT EXISTS balance_fact
 (
-    balance_uuid   UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    balance_uuid   UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
     portfolio_uuid UUID             NOT NULL REFERENCES portfolio_fact (portfolio_uuid),
     datetime_id    BIGINT           NOT NULL REFERENCES datetime_dim (datetime_id),
     initial        DOUBLE PRECISION NOT NULL CHECK (initial >= 0),
@@ -392,7 +432,7 @@ VALUES ('WIN$', 'LONG', 0),
 
 CREATE TABLE IF NOT EXISTS position_fact
 (
-    position_uuid     UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    position_uuid     UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
     portfolio_uuid    UUID             NOT NULL REFERENCES portfolio_fact (portfolio_uuid),
     position_dim_uuid UUID             NOT NULL REFERENCES position_dim (position_dim_uuid),
     datetime_id       BIGINT           NOT NULL REFERENCES datetime_dim (datetime_id),
@@ -404,7 +444,7 @@ CREATE INDEX IF NOT EXISTS position_fact_dt_idx ON position_fact (datetime_id);
 
 CREATE TABLE IF NOT EXISTS risk_management_fact
 (
-    risk_management_uuid UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    risk_management_uuid UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
     trade_zero_fact_uuid UUID                NOT NULL REFERENCES trade_zero_fact (trade_zero_fact_uuid),
     actions              INTEGER             NOT NULL CHECK (actions >= 0),
     valid_inputs         trade_action_type[] NOT NULL
@@ -413,7 +453,7 @@ CREATE INDEX IF NOT EXISTS risk_management_fact_trade_idx ON risk_management_fac
 
 CREATE TABLE IF NOT EXISTS action_fact
 (
-    action_fact_uuid     UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    action_fact_uuid     UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
     risk_management_uuid UUID   NOT NULL REFERENCES risk_management_fact (risk_management_uuid),
     action_dim_uuid      UUID   NOT NULL REFERENCES action_dim (action_dim_uuid),
     datetime_id          BIGINT NOT NULL REFERENCES datetime_dim (datetime_id)
@@ -424,7 +464,7 @@ CREATE INDEX IF NOT EXISTS action_fact_dt_idx ON action_fact (datetime_id);
 
 CREATE TABLE IF NOT EXISTS risk_metrics_fact
 (
-    risk_metrics_uuid    UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    risk_metrics_uuid    UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
     risk_management_uuid UUID             NOT NULL REFERENCES risk_management_fact (risk_management_uuid),
     datetime_id          BIGINT           NOT NULL REFERENCES datetime_dim (datetime_id),
     margin_used          DOUBLE PRECISION NOT NULL CHECK (margin_used >= 0),
@@ -435,4 +475,23 @@ CREATE TABLE IF NOT EXISTS risk_metrics_fact
 CREATE INDEX IF NOT EXISTS risk_metrics_fact_portfolio_idx ON risk_metrics_fact (risk_management_uuid);
 CREATE INDEX IF NOT EXISTS risk_metrics_fact_dt_idx ON risk_metrics_fact (datetime_id);
 
+-- Last write-behind sequence committed from each local fact journal, updated in the flush transaction
+CREATE TABLE IF NOT EXISTS ingest_checkpoint
+(
+    journal_uuid UUID PRIMARY KEY,
+    sequence     BIGINT NOT NULL CHECK (sequence >= 0)
+);
+
+-- Write-behind rows the database rejected, stored with the checkpoint that skips them
+CREATE TABLE IF NOT EXISTS ingest_dead_letter
+(
+    journal_uuid UUID        NOT NULL,
+    sequence     BIGINT      NOT NULL,
+    table_name   TEXT        NOT NULL,
+    row_data     JSONB       NOT NULL,
+    error        TEXT        NOT NULL,
+    created_at   TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (journal_uuid, sequence)
+);
+
 EOSQL
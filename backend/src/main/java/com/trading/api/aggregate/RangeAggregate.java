@@ -0,0 +1,47 @@
+package com.trading.api.aggregate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Aggregate of the candlesticks between two indexes of a series.
+ * Indexes refer to the series the aggregate was queried with.
+ */
+@Data
+@AllArgsConstructor
+public class RangeAggregate {
+
+    private int firstIndex;
+
+    private int lastIndex;
+
+    /**
+     * Index of the first candlestick with the highest high.
+     */
+    private int highIndex;
+
+    /**
+     * Index of the first candlestick with the lowest low.
+     */
+    private int lowIndex;
+
+    private double volume;
+
+    /**
+     * Sum of typical price ((high + low + close) / 3) times volume, the VWAP numerator.
+     */
+    private double turnover;
+
+    public int getCount() {
+        return lastIndex - firstIndex + 1;
+    }
+
+    /**
+     * Get the volume weighted average typical price.
+     *
+     * @return the VWAP, or NaN if the range has no volume
+     */
+    public double getVwap() {
+        return volume > 0 ? turnover / volume : Double.NaN;
+    }
+}
@@ -0,0 +1,128 @@
+package com.trading.api.aggregate;
+
+import com.trading.api.cache.CandlestickSeries;
+import com.trading.api.cache.CandlestickSeriesKey;
+import com.trading.api.event.CandlestickFactChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps a {@link RangeAggregateIndex} per cached candlestick series.
+ * <p>
+ * An index belongs to the generation of the series it was built from: when a series of the same
+ * generation has grown only the new bars are indexed, and a series of another generation rebuilds
+ * the index from the start. Indexes are evicted in least recently used order once their arrays
+ * exceed the configured memory budget or their number exceeds the configured maximum.
+ */
+@Component
+public class RangeAggregateEngine {
+
+    private final int maxIndexes;
+    private final long maxBytes;
+
+    private final LinkedHashMap<CandlestickSeriesKey, RangeAggregateIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private long indexedBytes;
+
+    public RangeAggregateEngine(@Value("${tradezero.aggregate.max-indexes:256}") int maxIndexes,
+                                @Value("${tradezero.aggregate.max-bytes:268435456}") long maxBytes) {
+        this.maxIndexes = maxIndexes;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Aggregate the bars between two indexes of a series.
+     *
+     * @param series the series
+     * @param from the inclusive first bar index
+     * @param to the inclusive last bar index
+     * @return the aggregate of the range
+     */
+    public RangeAggregate aggregate(CandlestickSeries series, int from, int to) {
+        if (series.getGeneration() == 0) {
+            // Not read through the cache; nothing tells whether a kept index still matches it
+            RangeAggregateIndex index = new RangeAggregateIndex(0);
+            index.advance(series, Math.min(to + 1, series.size()));
+            return index.query(series, from, to);
+        }
+        RangeAggregateIndex index = index(series.getKey(), series.getGeneration());
+        synchronized (index) {
+            if (index.getGeneration() != series.getGeneration()) {
+                index.reset(series.getGeneration());
+            }
+            index.advance(series, series.size());
+            RangeAggregate aggregate = index.query(series, from, to);
+            account(series.getKey(), index);
+            return aggregate;
+        }
+    }
+
+    /**
+     * Total size in bytes of the arrays of the kept indexes.
+     */
+    public long getIndexedBytes() {
+        synchronized (indexes) {
+            return indexedBytes;
+        }
+    }
+
+    /**
+     * Drop the index a committed candlestick change lands in to release its memory early; an index
+     * of a superseded generation would be rebuilt on its next use anyway.
+     *
+     * @param event the candlestick change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCandlestickFactChanged(CandlestickFactChangedEvent event) {
+        CandlestickSeriesKey key = new CandlestickSeriesKey(event.getDataFeedUuid(), event.getTradeAsset(),
+                event.getTradeTimeFrame());
+        synchronized (indexes) {
+            RangeAggregateIndex index = indexes.get(key);
+            if (index != null && index.lastDatetimeId() >= event.getFromDatetimeId()) {
+                indexes.remove(key);
+                indexedBytes -= index.accountedBytes;
+            }
+        }
+    }
+
+    private RangeAggregateIndex index(CandlestickSeriesKey key, long generation) {
+        synchronized (indexes) {
+            RangeAggregateIndex index = indexes.get(key);
+            if (index == null) {
+                index = new RangeAggregateIndex(generation);
+                indexes.put(key, index);
+                if (indexes.size() > maxIndexes) {
+                    Map.Entry<CandlestickSeriesKey, RangeAggregateIndex> eldest = indexes.entrySet().iterator().next();
+                    indexedBytes -= eldest.getValue().accountedBytes;
+                    indexes.remove(eldest.getKey());
+                }
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Charge the current size of an index to the memory budget and evict the least recently used
+     * indexes while the budget is exceeded. Called with the lock of the index held.
+     */
+    private void account(CandlestickSeriesKey key, RangeAggregateIndex index) {
+        long bytes = index.estimatedBytes();
+        synchronized (indexes) {
+            if (indexes.get(key) != index) {
+                return;
+            }
+            indexedBytes += bytes - index.accountedBytes;
+            index.accountedBytes = bytes;
+            Iterator<Map.Entry<CandlestickSeriesKey, RangeAggregateIndex>> eldest = indexes.entrySet().iterator();
+            while (indexedBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<CandlestickSeriesKey, RangeAggregateIndex> entry = eldest.next();
+                indexedBytes -= entry.getValue().accountedBytes;
+                eldest.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.trading.api.aggregate;
+
+import com.trading.api.cache.CandlestickSeries;
+
+import java.util.Arrays;
+
+/**
+ * Range aggregate index over the head of a candlestick series.
+ * <p>
+ * Volume and turnover are prefix sums, so their range sums are one subtraction. Highs and lows go
+ * through a sparse table over blocks of {@link #BLOCK_SIZE} bars: level k holds, for every block j,
+ * the index of the extremum of blocks j to j + 2^k - 1, and any run of whole blocks is covered by two
+ * overlapping entries of one level. The bars of the partial blocks at both ends of a range are
+ * scanned, at most {@code 2 * (BLOCK_SIZE - 1)} of them, so a query is constant time while the
+ * table takes {@code log2(n / BLOCK_SIZE)} ints per block instead of {@code log2(n)} per bar.
+ * <p>
+ * Appending a bar updates the prefix sums and, once it completes a block, one entry per level.
+ * An index belongs to the generation of the series it was advanced to; series of one generation
+ * share their head, so an index of the same generation only needs the bars appended since.
+ * Instances are not thread safe.
+ */
+public final class RangeAggregateIndex {
+
+    /**
+     * Number of bars per sparse table block.
+     */
+    public static final int BLOCK_SIZE = 16;
+
+    private long[] datetimeIds = new long[0];
+    private double[] prefixVolume = new double[1];
+    private double[] prefixTurnover = new double[1];
+    private int[][] highTable = new int[0][];
+    private int[][] lowTable = new int[0][];
+    private int blocks;
+    private int size;
+    private long generation;
+
+    // Size last charged to the memory budget of the engine, guarded by its index map
+    long accountedBytes;
+
+    public RangeAggregateIndex(long generation) {
+        this.generation = generation;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long lastDatetimeId() {
+        return size > 0 ? datetimeIds[size - 1] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Drop every indexed bar and start over for another generation of the series.
+     *
+     * @param generation the generation of the series
+     */
+    public void reset(long generation) {
+        datetimeIds = new long[0];
+        prefixVolume = new double[1];
+        prefixTurnover = new double[1];
+        highTable = new int[0][];
+        lowTable = new int[0][];
+        blocks = 0;
+        size = 0;
+        this.generation = generation;
+    }
+
+    /**
+     * Estimate the memory taken by the arrays of the index.
+     *
+     * @return the size in bytes
+     */
+    public long estimatedBytes() {
+        long bytes = (long) datetimeIds.length * Long.BYTES
+                + (long) (prefixVolume.length + prefixTurnover.length) * Double.BYTES;
+        for (int level = 0; level < highTable.length; level++) {
+            if (highTable[level] != null) {
+                bytes += (long) (highTable[level].length + lowTable[level].length) * Integer.BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Index the bars of a series after the ones already indexed.
+     *
+     * @param series the series, of the generation of the index
+     * @param target the exclusive index of the last bar to index
+     */
+    public void advance(CandlestickSeries series, int target) {
+        if (target <= size) {
+            return;
+        }
+        if (target > datetimeIds.length) {
+            int capacity = Math.max(target, datetimeIds.length + (datetimeIds.length >> 1));
+            datetimeIds = Arrays.copyOf(datetimeIds, capacity);
+            prefixVolume = Arrays.copyOf(prefixVolume, capacity + 1);
+            prefixTurnover = Arrays.copyOf(prefixTurnover, capacity + 1);
+        }
+        for (int i = size; i < target; i++) {
+            datetimeIds[i] = series.datetimeId(i);
+            double volume = series.volume(i);
+            double typical = (series.high(i) + series.low(i) + series.close(i)) / 3;
+            prefixVolume[i + 1] = prefixVolume[i] + volume;
+            prefixTurnover[i + 1] = prefixTurnover[i] + typical * volume;
+            if ((i + 1) % BLOCK_SIZE == 0) {
+                appendBlock(series, i / BLOCK_SIZE);
+            }
+        }
+        size = target;
+    }
+
+    /**
+     * Aggregate the bars between two indexes.
+     *
+     * @param series the series the index was advanced to
+     * @param from the inclusive first bar index
+     * @param to the inclusive last bar index
+     * @return the aggregate of the range
+     * @throws IndexOutOfBoundsException if the range is empty or not indexed
+     */
+    public RangeAggregate query(CandlestickSeries series, int from, int to) {
+        if (from < 0 || to >= size || from > to) {
+            throw new IndexOutOfBoundsException("Invalid range [" + from + ", " + to + "] of " + size + " bars");
+        }
+        int firstBlock = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int lastBlock = (to + 1) / BLOCK_SIZE - 1;
+
+        int high = from;
+        int low = from;
+        if (firstBlock > lastBlock) {
+            for (int i = from + 1; i <= to; i++) {
+                high = series.high(i) > series.high(high) ? i : high;
+                low = series.low(i) < series.low(low) ? i : low;
+            }
+        } else {
+            for (int i = from + 1; i < firstBlock * BLOCK_SIZE; i++) {
+                high = series.high(i) > series.high(high) ? i : high;
+                low = series.low(i) < series.low(low) ? i : low;
+            }
+            int level = 31 - Integer.numberOfLeadingZeros(lastBlock - firstBlock + 1);
+            int second = lastBlock - (1 << level) + 1;
+            high = higher(series, higher(series, high, highTable[level][firstBlock]), highTable[level][second]);
+            low = lower(series, lower(series, low, lowTable[level][firstBlock]), lowTable[level][second]);
+            for (int i = (lastBlock + 1) * BLOCK_SIZE; i <= to; i++) {
+                high = series.high(i) > series.high(high) ? i : high;
+                low = series.low(i) < series.low(low) ? i : low;
+            }
+        }
+        return new RangeAggregate(from, to, high, low, prefixVolume[to + 1] - prefixVolume[from],
+                prefixTurnover[to + 1] - prefixTurnover[from]);
+    }
+
+    private void appendBlock(CandlestickSeries series, int block) {
+        int start = block * BLOCK_SIZE;
+        int high = start;
+        int low = start;
+        for (int i = start + 1; i < start + BLOCK_SIZE; i++) {
+            high = series.high(i) > series.high(high) ? i : high;
+            low = series.low(i) < series.low(low) ? i : low;
+        }
+        blocks = block + 1;
+        ensureLevels();
+        highTable[0][block] = high;
+        lowTable[0][block] = low;
+        // The new block completes the entry of every level that ends at it
+        for (int level = 1; (1 << level) <= blocks; level++) {
+            int entry = block - (1 << level) + 1;
+            int half = entry + (1 << (level - 1));
+            highTable[level][entry] = higher(series, highTable[level - 1][entry], highTable[level - 1][half]);
+            lowTable[level][entry] = lower(series, lowTable[level - 1][entry], lowTable[level - 1][half]);
+        }
+    }
+
+    private void ensureLevels() {
+        int levels = 32 - Integer.numberOfLeadingZeros(blocks);
+        if (levels > highTable.length) {
+            highTable = Arrays.copyOf(highTable, levels);
+            lowTable = Arrays.copyOf(lowTable, levels);
+        }
+        for (int level = 0; level < levels; level++) {
+            if (highTable[level] == null || highTable[level].length < blocks) {
+                int capacity = highTable[level] == null ? Math.max(blocks, 16) : Math.max(blocks, highTable[level].length * 2);
+                highTable[level] = highTable[level] == null ? new int[capacity] : Arrays.copyOf(highTable[level], capacity);
+                lowTable[level] = lowTable[level] == null ? new int[capacity] : Arrays.copyOf(lowTable[level], capacity);
+            }
+        }
+    }
+
+    private static int higher(CandlestickSeries series, int left, int right) {
+        return series.high(right) > series.high(left) || (series.high(right) == series.high(left) && right < left)
+                ? right : left;
+    }
+
+    private static int lower(CandlestickSeries series, int left, int right) {
+        return series.low(right) < series.low(left) || (series.low(right) == series.low(left) && right < left)
+                ? right : left;
+    }
+}
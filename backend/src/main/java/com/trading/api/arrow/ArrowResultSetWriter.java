@@ -0,0 +1,211 @@
+package com.trading.api.arrow;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a JDBC result set as an Arrow IPC stream.
+ * <p>
+ * Column values are copied from the result set straight into Arrow vectors and sent in record
+ * batches, so a reader such as {@code pyarrow.ipc.open_stream} can hand the column buffers to
+ * pandas or NumPy without parsing. Integer, floating point, boolean, date and timestamp columns
+ * keep their type; every other column (UUIDs, enums, text) is written as UTF-8 text.
+ */
+public final class ArrowResultSetWriter {
+
+    /**
+     * Media type of the Arrow IPC stream format.
+     */
+    public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+
+    private static final BufferAllocator ROOT_ALLOCATOR = new RootAllocator();
+
+    // Column kinds, resolved once per result set so the row loop does not look at JDBC metadata
+    private static final int BIGINT = 0;
+    private static final int INT = 1;
+    private static final int DOUBLE = 2;
+    private static final int BOOLEAN = 3;
+    private static final int DATE = 4;
+    private static final int TIMESTAMP = 5;
+    private static final int TEXT = 6;
+
+    private ArrowResultSetWriter() {
+    }
+
+    /**
+     * Write every row of a result set to the output stream.
+     *
+     * @param resultSet the result set, positioned before the first row
+     * @param outputStream the output stream to write to, flushed and closed once the stream is written
+     * @param batchSize the number of rows per record batch
+     * @return the number of rows written
+     * @throws SQLException if the result set cannot be read
+     * @throws IOException if the output stream cannot be written
+     */
+    public static long write(ResultSet resultSet, OutputStream outputStream, int batchSize)
+            throws SQLException, IOException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        List<Field> fields = new ArrayList<>(columnCount);
+        int[] kinds = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            kinds[i] = kindOf(metaData.getColumnType(i + 1));
+            fields.add(new Field(metaData.getColumnLabel(i + 1), FieldType.nullable(arrowTypeOf(kinds[i])), null));
+        }
+
+        long rows = 0;
+        try (BufferAllocator allocator = ROOT_ALLOCATOR.newChildAllocator("arrow-export", 0, Long.MAX_VALUE);
+             VectorSchemaRoot root = VectorSchemaRoot.create(new Schema(fields), allocator);
+             ArrowStreamWriter writer = new ArrowStreamWriter(root, null, outputStream)) {
+            writer.start();
+            List<FieldVector> vectors = root.getFieldVectors();
+            allocate(vectors, batchSize);
+            int batchRows = 0;
+            while (resultSet.next()) {
+                for (int i = 0; i < columnCount; i++) {
+                    setValue(vectors.get(i), kinds[i], batchRows, resultSet, i + 1);
+                }
+                batchRows++;
+                rows++;
+                if (batchRows == batchSize) {
+                    root.setRowCount(batchRows);
+                    writer.writeBatch();
+                    allocate(vectors, batchSize);
+                    batchRows = 0;
+                }
+            }
+            if (batchRows > 0 || rows == 0) {
+                root.setRowCount(batchRows);
+                writer.writeBatch();
+            }
+            writer.end();
+        }
+        return rows;
+    }
+
+    private static int kindOf(int sqlType) {
+        return switch (sqlType) {
+            case Types.BIGINT -> BIGINT;
+            case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> INT;
+            case Types.DOUBLE, Types.FLOAT, Types.REAL, Types.NUMERIC, Types.DECIMAL -> DOUBLE;
+            case Types.BOOLEAN, Types.BIT -> BOOLEAN;
+            case Types.DATE -> DATE;
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> TIMESTAMP;
+            default -> TEXT;
+        };
+    }
+
+    private static ArrowType arrowTypeOf(int kind) {
+        return switch (kind) {
+            case BIGINT -> new ArrowType.Int(64, true);
+            case INT -> new ArrowType.Int(32, true);
+            case DOUBLE -> new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+            case BOOLEAN -> ArrowType.Bool.INSTANCE;
+            case DATE -> new ArrowType.Date(DateUnit.DAY);
+            case TIMESTAMP -> new ArrowType.Timestamp(TimeUnit.MICROSECOND, null);
+            default -> ArrowType.Utf8.INSTANCE;
+        };
+    }
+
+    private static void allocate(List<FieldVector> vectors, int batchSize) {
+        for (FieldVector vector : vectors) {
+            vector.setInitialCapacity(batchSize);
+            vector.allocateNew();
+        }
+    }
+
+    private static void setValue(FieldVector vector, int kind, int row, ResultSet resultSet, int column)
+            throws SQLException {
+        switch (kind) {
+            case BIGINT -> {
+                long value = resultSet.getLong(column);
+                if (resultSet.wasNull()) {
+                    vector.setNull(row);
+                } else {
+                    ((BigIntVector) vector).setSafe(row, value);
+                }
+            }
+            case INT -> {
+                int value = resultSet.getInt(column);
+                if (resultSet.wasNull()) {
+                    vector.setNull(row);
+                } else {
+                    ((IntVector) vector).setSafe(row, value);
+                }
+            }
+            case DOUBLE -> {
+                double value = resultSet.getDouble(column);
+                if (resultSet.wasNull()) {
+                    vector.setNull(row);
+                } else {
+                    ((Float8Vector) vector).setSafe(row, value);
+                }
+            }
+            case BOOLEAN -> {
+                boolean value = resultSet.getBoolean(column);
+                if (resultSet.wasNull()) {
+                    vector.setNull(row);
+                } else {
+                    ((BitVector) vector).setSafe(row, value ? 1 : 0);
+                }
+            }
+            case DATE -> {
+                Date value = resultSet.getDate(column);
+                if (value == null) {
+                    vector.setNull(row);
+                } else {
+                    ((DateDayVector) vector).setSafe(row, (int) value.toLocalDate().toEpochDay());
+                }
+            }
+            case TIMESTAMP -> {
+                Timestamp value = resultSet.getTimestamp(column);
+                if (value == null) {
+                    vector.setNull(row);
+                } else {
+                    // TIMESTAMP columns carry no zone, so the wall clock time is written as UTC
+                    long micros = value.toLocalDateTime().toEpochSecond(ZoneOffset.UTC) * 1_000_000
+                            + value.getNanos() / 1000;
+                    ((TimeStampMicroVector) vector).setSafe(row, micros);
+                }
+            }
+            default -> {
+                String value = resultSet.getString(column);
+                if (value == null) {
+                    vector.setNull(row);
+                } else {
+                    ((VarCharVector) vector).setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+}
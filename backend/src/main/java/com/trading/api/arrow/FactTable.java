@@ -0,0 +1,26 @@
+package com.trading.api.arrow;
+
+/**
+ * Fact tables exportable as Arrow streams, with the order their rows are written in.
+ */
+public enum FactTable {
+    action_fact("datetime_id, action_fact_uuid"),
+    balance_fact("datetime_id, balance_uuid"),
+    data_feed_fact("data_feed_uuid"),
+    order_fact("datetime_id, order_fact_uuid"),
+    portfolio_fact("portfolio_uuid"),
+    position_fact("datetime_id, position_uuid"),
+    risk_management_fact("risk_management_uuid"),
+    risk_metrics_fact("datetime_id, risk_metrics_uuid"),
+    trade_zero_fact("trade_zero_fact_uuid");
+
+    private final String orderBy;
+
+    FactTable(String orderBy) {
+        this.orderBy = orderBy;
+    }
+
+    public String getOrderBy() {
+        return orderBy;
+    }
+}
@@ -0,0 +1,190 @@
+package com.trading.api.bulk;
+
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Shared steps of the bulk fact inserts.
+ * <p>
+ * Rows are validated up front, the foreign keys of a whole request are checked with one set based
+ * query per referenced table, and the facts are persisted against uninitialized references and
+ * flushed every JDBC batch, so Hibernate sends batched inserts (rewritten into multi-row inserts by
+ * the PostgreSQL driver) and the persistence context never grows beyond one batch.
+ * Every method must run inside the transaction of the bulk insert.
+ */
+@Component
+public class BulkFactWriter {
+
+    /**
+     * Maximum number of identifiers bound to one IN list, below the PostgreSQL limit of 32767 parameters.
+     */
+    private static final int MAX_IN_LIST = 10000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxRows;
+
+    public BulkFactWriter(Validator validator,
+                          @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1000}") int batchSize,
+                          @Value("${tradezero.bulk.max-rows:100000}") int maxRows) {
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * Validate the size of a bulk request and the bean constraints of each of its rows.
+     *
+     * @param rows the rows
+     * @throws BadRequestException naming the first invalid row
+     */
+    public void validate(List<?> rows) {
+        if (rows == null || rows.isEmpty() || rows.size() > maxRows) {
+            throw new BadRequestException("A bulk request must hold between 1 and " + maxRows + " rows");
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            validateRow(rows.get(i), "Row " + i);
+        }
+    }
+
+    /**
+     * Validate the bean constraints of one row.
+     *
+     * @param row the row
+     * @param name the name of the row prefixed to the error message, for example "Row 3"
+     * @throws BadRequestException if the row is null or invalid
+     */
+    public void validateRow(Object row, String name) {
+        if (row == null) {
+            throw new BadRequestException(name + ": row is null");
+        }
+        Set<? extends ConstraintViolation<?>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<?> violation = violations.iterator().next();
+            throw new BadRequestException(name + ": " + violation.getMessage());
+        }
+    }
+
+    /**
+     * Check that every referenced row of a table exists, with one query per chunk of identifiers.
+     *
+     * @param type the referenced entity class
+     * @param label the entity label of the not found message, for example "Portfolio fact"
+     * @param rows the rows holding the references
+     * @param id the reference of a row
+     * @throws ResourceNotFoundException naming a missing referenced row
+     */
+    public <R> void requireExisting(Class<?> type, String label, List<R> rows, Function<R, UUID> id) {
+        Set<UUID> missing = distinct(rows, id);
+        missing.removeAll(findExistingIds(type, missing));
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException(label + " not found with id: " + missing.iterator().next());
+        }
+    }
+
+    /**
+     * Find which identifiers of a table exist.
+     *
+     * @param type the entity class
+     * @param ids the identifiers
+     * @return the existing identifiers
+     */
+    public Set<UUID> findExistingIds(Class<?> type, Collection<UUID> ids) {
+        String idAttribute = entityManager.getMetamodel().entity(type).getId(UUID.class).getName();
+        String jpql = "SELECT e." + idAttribute + " FROM " + type.getSimpleName() + " e WHERE e." + idAttribute + " IN :ids";
+        Set<UUID> existing = new HashSet<>();
+        List<UUID> chunk = new ArrayList<>(Math.min(ids.size(), MAX_IN_LIST));
+        for (UUID id : ids) {
+            chunk.add(id);
+            if (chunk.size() == MAX_IN_LIST) {
+                existing.addAll(entityManager.createQuery(jpql, UUID.class).setParameter("ids", chunk).getResultList());
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            existing.addAll(entityManager.createQuery(jpql, UUID.class).setParameter("ids", chunk).getResultList());
+        }
+        return existing;
+    }
+
+    /**
+     * Get an uninitialized reference to a row already checked to exist.
+     *
+     * @param type the entity class
+     * @param id the identifier
+     * @return the reference
+     */
+    public <T> T reference(Class<T> type, Object id) {
+        return entityManager.getReference(type, id);
+    }
+
+    /**
+     * Persist new entities, flushing and clearing the persistence context after every JDBC batch.
+     *
+     * @param entities the new entities, in insert order
+     */
+    public void persistAll(List<?> entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Collect the distinct non-null values of a column of the rows.
+     *
+     * @param rows the rows
+     * @param id the column
+     * @return the values in first seen order
+     */
+    public static <R> Set<UUID> distinct(List<R> rows, Function<R, UUID> id) {
+        Set<UUID> ids = new LinkedHashSet<>();
+        for (R row : rows) {
+            ids.add(id.apply(row));
+        }
+        ids.remove(null);
+        return ids;
+    }
+
+    /**
+     * Rows per second of a bulk insert.
+     *
+     * @param rows the number of rows
+     * @param elapsedNanos the elapsed time in nanoseconds
+     * @return the throughput
+     */
+    public static double rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos > 0 ? rows * 1e9 / elapsedNanos : 0;
+    }
+}
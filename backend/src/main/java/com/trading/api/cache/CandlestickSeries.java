@@ -0,0 +1,314 @@
+package com.trading.api.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Columnar, primitive representation of a candlestick series ordered by datetime ID.
+ * A candlestick costs 48 bytes (one long and five doubles) instead of an entity and a DTO.
+ * Instances are filled by {@link Builder} and never change afterwards; {@link #extend} returns a
+ * longer series that may write its candlesticks into the spare capacity of the same column arrays,
+ * past the size of every series already sharing them.
+ * <p>
+ * The generation identifies the history the series was read from: two series of a key with the
+ * same generation hold the same candlesticks up to the end of the shorter one. State derived from
+ * a series is reusable for a later series only if their generations match.
+ */
+public final class CandlestickSeries {
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    /**
+     * Bytes held per candlestick by the column arrays.
+     */
+    public static final int BYTES_PER_CANDLESTICK = Long.BYTES + 5 * Double.BYTES;
+
+    private final CandlestickSeriesKey key;
+    private final long[] datetimeIds;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final double[] volumes;
+    private final int size;
+    private final long generation;
+    private final AtomicBoolean extended = new AtomicBoolean();
+
+    private CandlestickSeries(CandlestickSeriesKey key, long[] datetimeIds, double[] opens, double[] highs,
+                              double[] lows, double[] closes, double[] volumes, int size, long generation) {
+        this.key = key;
+        this.datetimeIds = datetimeIds;
+        this.opens = opens;
+        this.highs = highs;
+        this.lows = lows;
+        this.closes = closes;
+        this.volumes = volumes;
+        this.size = size;
+        this.generation = generation;
+    }
+
+    public CandlestickSeriesKey getKey() {
+        return key;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long datetimeId(int index) {
+        return datetimeIds[index];
+    }
+
+    public double open(int index) {
+        return opens[index];
+    }
+
+    public double high(int index) {
+        return highs[index];
+    }
+
+    public double low(int index) {
+        return lows[index];
+    }
+
+    public double close(int index) {
+        return closes[index];
+    }
+
+    public double volume(int index) {
+        return volumes[index];
+    }
+
+    /**
+     * Get the index of the first candlestick at or after a datetime ID.
+     *
+     * @param datetimeId the datetime ID
+     * @return the index, or {@link #size()} if every candlestick is before the datetime ID
+     */
+    public int lowerBound(long datetimeId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (datetimeIds[mid] < datetimeId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the index following the last candlestick at or before a datetime ID.
+     *
+     * @param datetimeId the datetime ID
+     * @return the exclusive end index
+     */
+    public int upperBound(long datetimeId) {
+        return datetimeId == Long.MAX_VALUE ? size : lowerBound(datetimeId + 1);
+    }
+
+    /**
+     * Copy the datetime ID column between two indexes.
+     *
+     * @param from the inclusive start index
+     * @param to the exclusive end index
+     * @return the datetime IDs
+     */
+    public long[] datetimeIds(int from, int to) {
+        return Arrays.copyOfRange(datetimeIds, from, to);
+    }
+
+    public double[] opens(int from, int to) {
+        return Arrays.copyOfRange(opens, from, to);
+    }
+
+    public double[] highs(int from, int to) {
+        return Arrays.copyOfRange(highs, from, to);
+    }
+
+    public double[] lows(int from, int to) {
+        return Arrays.copyOfRange(lows, from, to);
+    }
+
+    public double[] closes(int from, int to) {
+        return Arrays.copyOfRange(closes, from, to);
+    }
+
+    public double[] volumes(int from, int to) {
+        return Arrays.copyOfRange(volumes, from, to);
+    }
+
+    /**
+     * Get the series followed by the candlesticks of a builder, in the same generation.
+     * The column arrays are shared when they have room for the candlesticks and no other series
+     * was extended from this one; otherwise they are copied with spare capacity for later appends.
+     *
+     * @param tail the candlesticks to append, all after the last candlestick of the series
+     * @return the extended series, or this series if the builder is empty
+     * @throws IllegalArgumentException if the candlesticks do not follow the series
+     */
+    public CandlestickSeries extend(Builder tail) {
+        if (tail.size == 0) {
+            return this;
+        }
+        if (size > 0 && tail.datetimeIds[0] <= datetimeIds[size - 1]) {
+            throw new IllegalArgumentException("Appended candlesticks must follow the series");
+        }
+        int newSize = size + tail.size;
+        long[] newDatetimeIds = datetimeIds;
+        double[] newOpens = opens;
+        double[] newHighs = highs;
+        double[] newLows = lows;
+        double[] newCloses = closes;
+        double[] newVolumes = volumes;
+        if (newSize > datetimeIds.length || !extended.compareAndSet(false, true)) {
+            int capacity = Math.max(newSize, size + (size >> 1));
+            newDatetimeIds = Arrays.copyOf(datetimeIds, capacity);
+            newOpens = Arrays.copyOf(opens, capacity);
+            newHighs = Arrays.copyOf(highs, capacity);
+            newLows = Arrays.copyOf(lows, capacity);
+            newCloses = Arrays.copyOf(closes, capacity);
+            newVolumes = Arrays.copyOf(volumes, capacity);
+        }
+        System.arraycopy(tail.datetimeIds, 0, newDatetimeIds, size, tail.size);
+        System.arraycopy(tail.opens, 0, newOpens, size, tail.size);
+        System.arraycopy(tail.highs, 0, newHighs, size, tail.size);
+        System.arraycopy(tail.lows, 0, newLows, size, tail.size);
+        System.arraycopy(tail.closes, 0, newCloses, size, tail.size);
+        System.arraycopy(tail.volumes, 0, newVolumes, size, tail.size);
+        return new CandlestickSeries(key, newDatetimeIds, newOpens, newHighs, newLows, newCloses, newVolumes,
+                newSize, generation);
+    }
+
+    /**
+     * Get a copy of the series whose last candlestick is replaced, in a new generation.
+     * The copy keeps the capacity of the column arrays, so it has the same estimated size.
+     *
+     * @param open the open price of the last candlestick
+     * @param high the high price of the last candlestick
+     * @param low the low price of the last candlestick
+     * @param close the close price of the last candlestick
+     * @param volume the volume of the last candlestick
+     * @param generation the generation of the history holding the replaced candlestick
+     * @return the series with the replaced last candlestick
+     * @throws IllegalStateException if the series is empty
+     */
+    public CandlestickSeries withLast(double open, double high, double low, double close, double volume,
+                                      long generation) {
+        if (size == 0) {
+            throw new IllegalStateException("An empty series has no last candlestick");
+        }
+        CandlestickSeries copy = new CandlestickSeries(key, Arrays.copyOf(datetimeIds, datetimeIds.length),
+                Arrays.copyOf(opens, opens.length), Arrays.copyOf(highs, highs.length),
+                Arrays.copyOf(lows, lows.length), Arrays.copyOf(closes, closes.length),
+                Arrays.copyOf(volumes, volumes.length), size, generation);
+        copy.opens[size - 1] = open;
+        copy.highs[size - 1] = high;
+        copy.lows[size - 1] = low;
+        copy.closes[size - 1] = close;
+        copy.volumes[size - 1] = volume;
+        return copy;
+    }
+
+    /**
+     * Get the approximate heap size of the series.
+     *
+     * @return the size in bytes
+     */
+    public long estimatedBytes() {
+        return (long) datetimeIds.length * BYTES_PER_CANDLESTICK + 128;
+    }
+
+    /**
+     * Builder appending candlesticks in datetime ID order into growable column arrays.
+     */
+    public static final class Builder {
+
+        private final CandlestickSeriesKey key;
+        private long[] datetimeIds;
+        private double[] opens;
+        private double[] highs;
+        private double[] lows;
+        private double[] closes;
+        private double[] volumes;
+        private int size;
+
+        public Builder(CandlestickSeriesKey key) {
+            this(key, INITIAL_CAPACITY);
+        }
+
+        /**
+         * Create a builder sized for an expected number of candlesticks, such as the few bars
+         * appended to a cached series.
+         *
+         * @param key the series key
+         * @param initialCapacity the initial capacity of the column arrays, at least 1
+         */
+        public Builder(CandlestickSeriesKey key, int initialCapacity) {
+            this.key = key;
+            this.datetimeIds = new long[initialCapacity];
+            this.opens = new double[initialCapacity];
+            this.highs = new double[initialCapacity];
+            this.lows = new double[initialCapacity];
+            this.closes = new double[initialCapacity];
+            this.volumes = new double[initialCapacity];
+        }
+
+        /**
+         * Append a candlestick; datetime IDs must be strictly increasing.
+         */
+        public void add(long datetimeId, double open, double high, double low, double close, double volume) {
+            if (size == datetimeIds.length) {
+                grow();
+            }
+            datetimeIds[size] = datetimeId;
+            opens[size] = open;
+            highs[size] = high;
+            lows[size] = low;
+            closes[size] = close;
+            volumes[size] = volume;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private void grow() {
+            int capacity = datetimeIds.length * 2;
+            datetimeIds = Arrays.copyOf(datetimeIds, capacity);
+            opens = Arrays.copyOf(opens, capacity);
+            highs = Arrays.copyOf(highs, capacity);
+            lows = Arrays.copyOf(lows, capacity);
+            closes = Arrays.copyOf(closes, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+        }
+
+        /**
+         * Build a series outside any generation, trimming the column arrays to the number of candlesticks.
+         *
+         * @return the series
+         */
+        public CandlestickSeries build() {
+            return build(0);
+        }
+
+        /**
+         * Build the series, trimming the column arrays to the number of candlesticks.
+         *
+         * @param generation the generation of the history the candlesticks were read from
+         * @return the series
+         */
+        public CandlestickSeries build(long generation) {
+            return new CandlestickSeries(key, Arrays.copyOf(datetimeIds, size), Arrays.copyOf(opens, size),
+                    Arrays.copyOf(highs, size), Arrays.copyOf(lows, size), Arrays.copyOf(closes, size),
+                    Arrays.copyOf(volumes, size), size, generation);
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.trading.api.cache;
+
+import com.trading.api.dto.CandlestickFactDTO;
+import com.trading.api.event.CandlestickFactChangedEvent;
+import com.trading.api.event.CandlestickFactChangedEvent.ChangeType;
+import com.trading.api.repository.CandlestickFactJdbcRepository;
+import com.trading.api.store.CandlestickFileStore;
+import com.trading.api.store.MappedCandlestickSeries;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of whole candlestick series in columnar form.
+ * <p>
+ * Series are evicted in least recently used order once the cached column arrays exceed the
+ * configured memory budget. A committed write that only appends candlesticks leaves the cached
+ * series in place, and the next read extends it with the candlesticks after its end. An update of
+ * the last candlestick, such as the resampler folding a new m1 bar into the open bucket, replaces
+ * it in the cached series. Any other write invalidates the series, and a load racing with an
+ * invalidation is served to its caller but not cached. The bookkeeping of a key is dropped with its
+ * series.
+ * <p>
+ * Every loaded series carries the generation of its key at the start of the load. A committed change
+ * moves the key to a new generation unless it only appends candlesticks after the end of every series
+ * loaded in the current generation and no load is in flight, so series of one generation are always
+ * prefixes of one another. Generations are unique across keys.
+ */
+@Component
+public class CandlestickSeriesCache {
+
+    /**
+     * Initial capacity of the builder of the candlesticks appended to a cached series.
+     */
+    private static final int APPEND_CAPACITY = 16;
+
+    private final CandlestickFactJdbcRepository candlestickFactJdbcRepository;
+    private final CandlestickFileStore candlestickFileStore;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final long maxBytes;
+
+    private final LinkedHashMap<CandlestickSeriesKey, Cached> series = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<CandlestickSeriesKey, CompletableFuture<CandlestickSeries>> loading = new ConcurrentHashMap<>();
+    private final Map<CandlestickSeriesKey, Long> versions = new ConcurrentHashMap<>();
+    private final Map<CandlestickSeriesKey, Long> appends = new ConcurrentHashMap<>();
+    private final Map<CandlestickSeriesKey, Lineage> lineages = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+    // Values of versions and appends are unique, so an entry dropped and set again never repeats a value read before
+    private final AtomicLong stamps = new AtomicLong();
+    private long cachedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CandlestickSeriesCache(CandlestickFactJdbcRepository candlestickFactJdbcRepository,
+                                  CandlestickFileStore candlestickFileStore,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${tradezero.candlestick.cache.enabled:true}") boolean enabled,
+                                  @Value("${tradezero.candlestick.cache.max-bytes:268435456}") long maxBytes) {
+        this.candlestickFactJdbcRepository = candlestickFactJdbcRepository;
+        this.candlestickFileStore = candlestickFileStore;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get a whole series, loading it from the database on a miss and reading only the appended
+     * candlesticks when the cached series has been appended to.
+     *
+     * @param key the series key
+     * @return the series, possibly empty
+     */
+    public CandlestickSeries get(CandlestickSeriesKey key) {
+        if (!enabled) {
+            return load(key, null);
+        }
+        long appended = appends.getOrDefault(key, 0L);
+        CandlestickSeries base = null;
+        synchronized (series) {
+            Cached cached = series.get(key);
+            if (cached != null) {
+                if (cached.appends == appended) {
+                    hits.incrementAndGet();
+                    return cached.series;
+                }
+                base = cached.series;
+            }
+        }
+        misses.incrementAndGet();
+
+        // Concurrent misses on the same series share one database load
+        CompletableFuture<CandlestickSeries> future = new CompletableFuture<>();
+        CompletableFuture<CandlestickSeries> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return inFlight.join();
+        }
+        try {
+            long version = versions.getOrDefault(key, 0L);
+            CandlestickSeries loaded = load(key, base);
+            put(key, loaded, version, appended);
+            future.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Drop a series from the cache.
+     *
+     * @param key the series key
+     */
+    public void invalidate(CandlestickSeriesKey key) {
+        // A load registers in loading before it reads the version, so only loads in flight need a new one
+        if (loading.containsKey(key)) {
+            versions.put(key, stamps.incrementAndGet());
+        } else {
+            versions.remove(key);
+        }
+        synchronized (series) {
+            Cached removed = series.remove(key);
+            if (removed != null) {
+                cachedBytes -= removed.series.estimatedBytes();
+            }
+        }
+        appends.remove(key);
+    }
+
+    /**
+     * Handle a committed candlestick change: a change that only appends candlesticks marks the
+     * cached series to be extended on its next read, an update of the last candlestick of the cached
+     * series replaces it in a new generation, and any other change moves the key to a new generation
+     * and invalidates the series.
+     *
+     * @param event the candlestick change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCandlestickFactChanged(CandlestickFactChangedEvent event) {
+        CandlestickSeriesKey key = new CandlestickSeriesKey(event.getDataFeedUuid(), event.getTradeAsset(),
+                event.getTradeTimeFrame());
+        Lineage lineage = lineages.get(key);
+        if (lineage != null) {
+            synchronized (lineage) {
+                if (lineage.loads == 0 && event.getChangeType() != ChangeType.DELETED) {
+                    if (event.getFromDatetimeId() > lineage.tail) {
+                        appends.put(key, stamps.incrementAndGet());
+                        return;
+                    }
+                    if (event.getChangeType() == ChangeType.UPDATED && event.getCandlestick() != null
+                            && event.getFromDatetimeId() == lineage.tail && event.getToDatetimeId() == lineage.tail) {
+                        long generation = generations.incrementAndGet();
+                        if (replaceLast(key, event.getCandlestick(), generation)) {
+                            lineage.generation = generation;
+                            return;
+                        }
+                    }
+                }
+                lineage.generation = generations.incrementAndGet();
+                lineage.tail = Long.MIN_VALUE;
+                if (lineage.loads == 0) {
+                    lineages.remove(key, lineage);
+                }
+            }
+        }
+        invalidate(key);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getCachedBytes() {
+        synchronized (series) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * Load a series. A base series of the current generation is extended with the candlesticks
+     * after its end; otherwise the history is copied from the mapped file when the file store has
+     * one and only the candlesticks after the end of the file are read from the database.
+     */
+    private CandlestickSeries load(CandlestickSeriesKey key, CandlestickSeries base) {
+        Lineage lineage;
+        long generation;
+        while (true) {
+            lineage = lineages.computeIfAbsent(key, k -> new Lineage(generations.incrementAndGet()));
+            synchronized (lineage) {
+                // A lineage pruned since the lookup no longer receives the changes of the key
+                if (lineages.get(key) == lineage) {
+                    lineage.loads++;
+                    generation = lineage.generation;
+                    break;
+                }
+            }
+        }
+        CandlestickSeries loaded = null;
+        try {
+            if (base != null && base.getGeneration() == generation) {
+                loaded = base.extend(readAfter(base));
+            } else {
+                loaded = read(key).build(generation);
+            }
+            return loaded;
+        } finally {
+            synchronized (lineage) {
+                lineage.loads--;
+                if (loaded != null && loaded.size() > 0 && lineage.generation == generation) {
+                    lineage.tail = Math.max(lineage.tail, loaded.datetimeId(loaded.size() - 1));
+                }
+                if (lineage.loads == 0 && lineage.tail == Long.MIN_VALUE) {
+                    // Nothing was read in this generation; a later load starts a new one
+                    lineages.remove(key, lineage);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace the last candlestick of the cached series of a key if it is the updated candlestick.
+     * The column arrays are copied, since readers may still hold the cached series.
+     *
+     * @return whether the cached series was replaced
+     */
+    private boolean replaceLast(CandlestickSeriesKey key, CandlestickFactDTO candlestick, long generation) {
+        synchronized (series) {
+            Cached cached = series.get(key);
+            if (cached == null || cached.series.size() == 0
+                    || cached.series.datetimeId(cached.series.size() - 1) != candlestick.getDatetimeId()) {
+                return false;
+            }
+            series.put(key, new Cached(cached.series.withLast(candlestick.getOpen(), candlestick.getHigh(),
+                    candlestick.getLow(), candlestick.getClose(), candlestick.getVolume(), generation),
+                    cached.appends));
+            return true;
+        }
+    }
+
+    /**
+     * Drop the bookkeeping of an evicted key unless it was cached again in the meantime.
+     * A lineage with loads in flight is kept, the load prunes it when it ends.
+     */
+    private void prune(CandlestickSeriesKey key) {
+        synchronized (series) {
+            if (series.containsKey(key)) {
+                return;
+            }
+        }
+        appends.remove(key);
+        if (!loading.containsKey(key)) {
+            versions.remove(key);
+        }
+        Lineage lineage = lineages.get(key);
+        if (lineage != null) {
+            synchronized (lineage) {
+                if (lineage.loads == 0) {
+                    lineages.remove(key, lineage);
+                }
+            }
+        }
+    }
+
+    private CandlestickSeries.Builder read(CandlestickSeriesKey key) {
+        CandlestickSeries.Builder builder = new CandlestickSeries.Builder(key);
+        long from = Long.MIN_VALUE;
+        Optional<MappedCandlestickSeries> file = candlestickFileStore.find(key);
+        if (file.isPresent()) {
+            MappedCandlestickSeries mapped = file.get();
+            for (int i = 0; i < mapped.size(); i++) {
+                builder.add(mapped.datetimeId(i), mapped.open(i), mapped.high(i), mapped.low(i),
+                        mapped.close(i), mapped.volume(i));
+            }
+            if (mapped.size() > 0) {
+                from = mapped.lastDatetimeId() + 1;
+            }
+        }
+        long tailFrom = from;
+        readOnlyTransaction.executeWithoutResult(status -> candlestickFactJdbcRepository.streamSeries(
+                key.getDataFeedUuid(), key.getTradeAsset(), key.getTradeTimeFrame(),
+                tailFrom, Long.MAX_VALUE, builder::add));
+        return builder;
+    }
+
+    private CandlestickSeries.Builder readAfter(CandlestickSeries base) {
+        CandlestickSeries.Builder builder = new CandlestickSeries.Builder(base.getKey(), APPEND_CAPACITY);
+        CandlestickSeriesKey key = base.getKey();
+        long from = base.size() > 0 ? base.datetimeId(base.size() - 1) + 1 : Long.MIN_VALUE;
+        readOnlyTransaction.executeWithoutResult(status -> candlestickFactJdbcRepository.streamSeries(
+                key.getDataFeedUuid(), key.getTradeAsset(), key.getTradeTimeFrame(),
+                from, Long.MAX_VALUE, builder::add));
+        return builder;
+    }
+
+    /**
+     * Generation of the history of a key, the last datetime ID a series loaded in it reached and the
+     * number of loads in flight.
+     */
+    private static final class Lineage {
+
+        private long generation;
+        private long tail = Long.MIN_VALUE;
+        private int loads;
+
+        private Lineage(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Cached series and the append stamp of its key it includes.
+     */
+    private static final class Cached {
+
+        private final CandlestickSeries series;
+        private final long appends;
+
+        private Cached(CandlestickSeries series, long appends) {
+            this.series = series;
+            this.appends = appends;
+        }
+    }
+
+    private void put(CandlestickSeriesKey key, CandlestickSeries loaded, long version, long appended) {
+        long bytes = loaded.estimatedBytes();
+        if (bytes > maxBytes) {
+            return;
+        }
+        List<CandlestickSeriesKey> evicted = new ArrayList<>();
+        synchronized (series) {
+            if (versions.getOrDefault(key, 0L) != version) {
+                return;
+            }
+            Cached previous = series.put(key, new Cached(loaded, appended));
+            if (previous != null) {
+                cachedBytes -= previous.series.estimatedBytes();
+            }
+            cachedBytes += bytes;
+
+            Iterator<Map.Entry<CandlestickSeriesKey, Cached>> eldest = series.entrySet().iterator();
+            while (cachedBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<CandlestickSeriesKey, Cached> entry = eldest.next();
+                if (entry.getKey().equals(key)) {
+                    continue;
+                }
+                cachedBytes -= entry.getValue().series.estimatedBytes();
+                evicted.add(entry.getKey());
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        // Lineages are locked before the series, so they are pruned outside the series lock
+        evicted.forEach(this::prune);
+    }
+}
@@ -0,0 +1,22 @@
+package com.trading.api.cache;
+
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Identity of a candlestick series: data feed, trade asset and trade time frame.
+ */
+@Data
+@AllArgsConstructor
+public class CandlestickSeriesKey {
+
+    private final UUID dataFeedUuid;
+
+    private final TradeAssetType tradeAsset;
+
+    private final TradeTimeFrameType tradeTimeFrame;
+}
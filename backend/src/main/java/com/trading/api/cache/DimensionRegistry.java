@@ -0,0 +1,210 @@
+package com.trading.api.cache;
+
+import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.model.ActionDim;
+import com.trading.api.model.AgentDim;
+import com.trading.api.model.OrderDim;
+import com.trading.api.model.OrderVenueDim;
+import com.trading.api.model.PositionDim;
+import com.trading.api.model.StockDim;
+import com.trading.api.model.TradeZeroDim;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of the identifiers of the dimension tables, resolving fact foreign keys without a query.
+ * <p>
+ * Dimension tables are small and rows are hardly ever deleted, so every identifier is loaded at
+ * startup and a known identifier is answered with an uninitialized Hibernate reference. An unknown
+ * identifier falls back to one lookup and is remembered if the row exists, which also covers rows
+ * inserted by another instance. Only identifiers are kept, so updates of dimension rows never make
+ * the registry stale; the dimension services register committed inserts and forget deletes.
+ */
+@Slf4j
+@Component
+public class DimensionRegistry {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<Class<?>, Dimension> dimensions = new LinkedHashMap<>();
+
+    public DimensionRegistry(MeterRegistry meterRegistry) {
+        add(ActionDim.class, "Action dimension", meterRegistry);
+        add(AgentDim.class, "Agent dimension", meterRegistry);
+        add(OrderDim.class, "Order dimension", meterRegistry);
+        add(OrderVenueDim.class, "Order venue dimension", meterRegistry);
+        add(PositionDim.class, "Position dimension", meterRegistry);
+        add(StockDim.class, "Stock dimension", meterRegistry);
+        add(TradeZeroDim.class, "Trade zero dimension", meterRegistry);
+    }
+
+    /**
+     * The known identifiers of one dimension table with its lookup counters.
+     */
+    private static final class Dimension {
+
+        private final String label;
+        private volatile Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        private Dimension(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Reload the identifiers of every dimension table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void refresh() {
+        dimensions.forEach((type, dimension) -> {
+            Set<UUID> ids = ConcurrentHashMap.newKeySet();
+            ids.addAll(entityManager.createQuery(idQuery(type), UUID.class).getResultList());
+            dimension.ids = ids;
+        });
+        log.info("Dimension registry loaded: {}", dimensions.entrySet().stream()
+                .map(entry -> entry.getKey().getSimpleName() + "=" + entry.getValue().ids.size())
+                .reduce((a, b) -> a + ", " + b).orElse(""));
+    }
+
+    /**
+     * Get a reference to a dimension row for a foreign key.
+     * Must be called inside the transaction writing the fact.
+     *
+     * @param type the dimension entity class
+     * @param id the dimension UUID
+     * @return an uninitialized reference if the UUID is known, otherwise the loaded row
+     * @throws ResourceNotFoundException if the dimension row does not exist
+     */
+    public <T> T reference(Class<T> type, UUID id) {
+        Dimension dimension = dimension(type);
+        if (id != null && dimension.ids.contains(id)) {
+            dimension.hits.incrementAndGet();
+            return entityManager.getReference(type, id);
+        }
+        dimension.misses.incrementAndGet();
+        T row = id != null ? entityManager.find(type, id) : null;
+        if (row == null) {
+            throw new ResourceNotFoundException(dimension.label + " not found with id: " + id);
+        }
+        dimension.ids.add(id);
+        return row;
+    }
+
+    /**
+     * Check that dimension rows exist, with at most one query for the identifiers not known yet.
+     * Must be called inside a transaction.
+     *
+     * @param type the dimension entity class
+     * @param ids the dimension UUIDs
+     * @throws ResourceNotFoundException naming a missing dimension row
+     */
+    public void requireAll(Class<?> type, Collection<UUID> ids) {
+        Dimension dimension = dimension(type);
+        Set<UUID> unknown = new HashSet<>();
+        for (UUID id : ids) {
+            if (!dimension.ids.contains(id)) {
+                unknown.add(id);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+        dimension.misses.addAndGet(unknown.size());
+        List<UUID> found = entityManager.createQuery(idQuery(type) + " WHERE d." + idAttribute(type) + " IN :ids", UUID.class)
+                .setParameter("ids", unknown)
+                .getResultList();
+        dimension.ids.addAll(found);
+        found.forEach(unknown::remove);
+        if (!unknown.isEmpty()) {
+            throw new ResourceNotFoundException(dimension.label + " not found with id: " + unknown.iterator().next());
+        }
+    }
+
+    /**
+     * Register an inserted dimension row once its transaction commits.
+     *
+     * @param type the dimension entity class
+     * @param id the dimension UUID
+     */
+    public void register(Class<?> type, UUID id) {
+        Dimension dimension = dimension(type);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dimension.ids.add(id);
+                }
+            });
+        } else {
+            dimension.ids.add(id);
+        }
+    }
+
+    /**
+     * Forget a deleted dimension row. Forgetting early is safe: a rolled back delete only costs a lookup.
+     *
+     * @param type the dimension entity class
+     * @param id the dimension UUID
+     */
+    public void evict(Class<?> type, UUID id) {
+        dimension(type).ids.remove(id);
+    }
+
+    private String idAttribute(Class<?> type) {
+        return entityManager.getMetamodel().entity(type).getId(UUID.class).getName();
+    }
+
+    private String idQuery(Class<?> type) {
+        return "SELECT d." + idAttribute(type) + " FROM " + type.getSimpleName() + " d";
+    }
+
+    private Dimension dimension(Class<?> type) {
+        Dimension dimension = dimensions.get(type);
+        if (dimension == null) {
+            throw new IllegalArgumentException("Not a registered dimension: " + type.getSimpleName());
+        }
+        return dimension;
+    }
+
+    private void add(Class<?> type, String label, MeterRegistry meterRegistry) {
+        Dimension dimension = new Dimension(label);
+        dimensions.put(type, dimension);
+        String name = type.getSimpleName();
+        FunctionCounter.builder("tradezero.dimension.registry.lookups", dimension.hits, AtomicLong::get)
+                .description("Dimension foreign key lookups by result")
+                .tag("dimension", name).tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("tradezero.dimension.registry.lookups", dimension.misses, AtomicLong::get)
+                .description("Dimension foreign key lookups by result")
+                .tag("dimension", name).tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("tradezero.dimension.registry.size", dimension, d -> d.ids.size())
+                .description("Dimension identifiers held by the registry")
+                .tag("dimension", name)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,249 @@
+package com.trading.api.calendar;
+
+import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.model.DateTimeDim;
+import com.trading.api.repository.DateTimeDimRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * In-process copy of datetime_dim.
+ * <p>
+ * datetime_dim holds one row per minute between two datetimes, every column derived from the
+ * minute itself by init-db.sh, so rows are computed here with the same rules instead of being read:
+ * ISO day of week (Monday is 1), week of month {@code (day of month - 1) / 7 + 1} as
+ * {@code TO_CHAR(datum, 'W')}, ISO week of year, Monday start of week, and epoch seconds of the
+ * datetime read as UTC as {@code EXTRACT(EPOCH FROM datum)} on a timestamp without time zone.
+ * The range must match the years loaded by init-db.sh.
+ */
+@Component
+public class DateTimeCalendar {
+
+    private final DateTimeDimRepository dateTimeDimRepository;
+    private final LocalDateTime first;
+    private final LocalDateTime last;
+    private final long firstDatetimeId;
+    private final long lastDatetimeId;
+
+    public DateTimeCalendar(DateTimeDimRepository dateTimeDimRepository,
+                            @Value("${tradezero.calendar.first-datetime:2017-01-01T00:00}") String first,
+                            @Value("${tradezero.calendar.last-datetime:2025-12-31T23:59}") String last) {
+        this.dateTimeDimRepository = dateTimeDimRepository;
+        this.first = LocalDateTime.parse(first);
+        this.last = LocalDateTime.parse(last);
+        this.firstDatetimeId = toDatetimeId(this.first);
+        this.lastDatetimeId = toDatetimeId(this.last);
+    }
+
+    public long getFirstDatetimeId() {
+        return firstDatetimeId;
+    }
+
+    public long getLastDatetimeId() {
+        return lastDatetimeId;
+    }
+
+    /**
+     * Check that a datetime ID is a valid minute inside the calendar range.
+     *
+     * @param datetimeId the datetime ID
+     * @return true if datetime_dim holds the datetime ID
+     */
+    public boolean contains(long datetimeId) {
+        if (datetimeId < firstDatetimeId || datetimeId > lastDatetimeId) {
+            return false;
+        }
+        int minute = (int) (datetimeId % 100);
+        int hour = (int) (datetimeId / 100 % 100);
+        int day = (int) (datetimeId / 10000 % 100);
+        int month = (int) (datetimeId / 1000000 % 100);
+        int year = (int) (datetimeId / 100000000L);
+        return minute < 60 && hour < 24 && month >= 1 && month <= 12
+                && day >= 1 && day <= LocalDate.of(year, month, 1).lengthOfMonth();
+    }
+
+    /**
+     * Check that the datetime ID of every row is in datetime_dim.
+     *
+     * @param rows the rows
+     * @param datetimeId the datetime ID of a row
+     * @throws ResourceNotFoundException naming a datetime ID datetime_dim does not hold
+     */
+    public <R> void requireAll(List<R> rows, Function<R, Long> datetimeId) {
+        for (R row : rows) {
+            Long id = datetimeId.apply(row);
+            if (id == null || !contains(id)) {
+                throw new ResourceNotFoundException("DateTime dimension not found with id: " + id);
+            }
+        }
+    }
+
+    /**
+     * Compute the datetime_dim row of a datetime ID.
+     *
+     * @param datetimeId the datetime ID
+     * @return the row, not attached to the persistence context
+     * @throws ResourceNotFoundException if datetime_dim does not hold the datetime ID
+     */
+    public DateTimeDim get(long datetimeId) {
+        if (!contains(datetimeId)) {
+            throw new ResourceNotFoundException("Datetime not found with id: " + datetimeId);
+        }
+        LocalDateTime datetime = toLocalDateTime(datetimeId);
+        LocalDate date = datetime.toLocalDate();
+        int dayOfWeek = date.getDayOfWeek().getValue();
+        return new DateTimeDim(datetimeId, datetime, datetime.toEpochSecond(ZoneOffset.UTC),
+                (short) dayOfWeek,
+                (short) date.getDayOfMonth(),
+                (short) date.getDayOfYear(),
+                (short) ((date.getDayOfMonth() - 1) / 7 + 1),
+                (short) date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR),
+                (short) date.getMonthValue(),
+                (short) ((date.getMonthValue() - 1) / 3 + 1),
+                (short) date.getYear(),
+                date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                date.withDayOfMonth(1),
+                dayOfWeek >= 6,
+                (short) datetime.getHour(),
+                (short) datetime.getMinute());
+    }
+
+    /**
+     * Compute the datetime_dim rows of a range of datetime IDs, clamped to the calendar range.
+     *
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param limit the maximum number of rows
+     * @return the rows in datetime ID order
+     */
+    public List<DateTimeDim> range(long fromDatetimeId, long toDatetimeId, int limit) {
+        List<DateTimeDim> rows = new ArrayList<>(Math.min(limit, 1024));
+        Long datetimeId = ceiling(fromDatetimeId);
+        long to = Math.min(toDatetimeId, lastDatetimeId);
+        while (datetimeId != null && datetimeId <= to && rows.size() < limit) {
+            rows.add(get(datetimeId));
+            datetimeId = next(datetimeId);
+        }
+        return rows;
+    }
+
+    /**
+     * Get the first datetime ID of the calendar at or after a datetime ID, which need not be a valid minute.
+     *
+     * @param datetimeId the datetime ID
+     * @return the datetime ID, or null if it is after the calendar range
+     */
+    public Long ceiling(long datetimeId) {
+        if (datetimeId <= firstDatetimeId) {
+            return firstDatetimeId;
+        }
+        if (datetimeId > lastDatetimeId) {
+            return null;
+        }
+        if (contains(datetimeId)) {
+            return datetimeId;
+        }
+        // Carry invalid fields into the next valid one, e.g. 202301311260 -> 202301311300, 202302300000 -> 202303010000
+        long minute = datetimeId % 100;
+        long hour = datetimeId / 100 % 100;
+        long day = datetimeId / 10000 % 100;
+        long month = datetimeId / 1000000 % 100;
+        long year = datetimeId / 100000000L;
+        LocalDateTime datetime;
+        if (month < 1) {
+            datetime = LocalDateTime.of((int) year, 1, 1, 0, 0);
+        } else if (month > 12) {
+            datetime = LocalDateTime.of((int) year + 1, 1, 1, 0, 0);
+        } else {
+            LocalDate monthStart = LocalDate.of((int) year, (int) month, 1);
+            if (day < 1) {
+                datetime = monthStart.atStartOfDay();
+            } else if (day > monthStart.lengthOfMonth()) {
+                datetime = monthStart.plusMonths(1).atStartOfDay();
+            } else if (hour > 23) {
+                datetime = monthStart.withDayOfMonth((int) day).plusDays(1).atStartOfDay();
+            } else {
+                datetime = monthStart.withDayOfMonth((int) day).atTime((int) hour, 0).plusHours(1);
+            }
+        }
+        long ceiling = toDatetimeId(datetime);
+        return ceiling <= lastDatetimeId ? ceiling : null;
+    }
+
+    /**
+     * Get the datetime ID one minute after a valid datetime ID.
+     *
+     * @param datetimeId the datetime ID
+     * @return the next datetime ID, or null after the end of the calendar range
+     */
+    public Long next(long datetimeId) {
+        long next = datetimeId % 100 < 59 ? datetimeId + 1 : toDatetimeId(toLocalDateTime(datetimeId).plusMinutes(1));
+        return next <= lastDatetimeId ? next : null;
+    }
+
+    /**
+     * Get a reference to the datetime_dim row of a datetime ID for a foreign key, without reading it.
+     *
+     * @param datetimeId the datetime ID
+     * @return the lazy reference
+     * @throws ResourceNotFoundException if datetime_dim does not hold the datetime ID
+     */
+    public DateTimeDim reference(Long datetimeId) {
+        if (datetimeId == null || !contains(datetimeId)) {
+            throw new ResourceNotFoundException("DateTime dimension not found with id: " + datetimeId);
+        }
+        return dateTimeDimRepository.getReferenceById(datetimeId);
+    }
+
+    /**
+     * Convert a datetime ID to the epoch column of datetime_dim.
+     *
+     * @param datetimeId the datetime ID
+     * @return the epoch seconds
+     */
+    public static long toEpoch(long datetimeId) {
+        return toLocalDateTime(datetimeId).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Convert epoch seconds to the datetime ID of their minute.
+     *
+     * @param epoch the epoch seconds
+     * @return the datetime ID
+     */
+    public static long fromEpoch(long epoch) {
+        return toDatetimeId(LocalDateTime.ofEpochSecond(Math.floorDiv(epoch, 60) * 60, 0, ZoneOffset.UTC));
+    }
+
+    /**
+     * Convert a datetime to its datetime ID.
+     *
+     * @param datetime the datetime
+     * @return the datetime ID (yyyyMMddHHmm)
+     */
+    public static long toDatetimeId(LocalDateTime datetime) {
+        return datetime.getYear() * 100000000L + datetime.getMonthValue() * 1000000L
+                + datetime.getDayOfMonth() * 10000L + datetime.getHour() * 100L + datetime.getMinute();
+    }
+
+    /**
+     * Convert a datetime ID to its datetime.
+     *
+     * @param datetimeId the datetime ID (yyyyMMddHHmm)
+     * @return the datetime
+     */
+    public static LocalDateTime toLocalDateTime(long datetimeId) {
+        return LocalDateTime.of((int) (datetimeId / 100000000L), (int) (datetimeId / 1000000 % 100),
+                (int) (datetimeId / 10000 % 100), (int) (datetimeId / 100 % 100), (int) (datetimeId % 100));
+    }
+}
@@ -0,0 +1,129 @@
+package com.trading.api.calendar;
+
+import java.util.BitSet;
+
+/**
+ * Immutable bitmap over a dense index with a rank directory.
+ * <p>
+ * Bits are packed in 64 bit words and every word carries the number of set bits before it, so
+ * membership, rank and range counts are O(1) and select is a binary search over the directory
+ * followed by a scan of one word.
+ */
+public final class MinuteBitmap {
+
+    private final long[] words;
+    private final int[] ranks;
+    private final int size;
+
+    /**
+     * Create a bitmap.
+     *
+     * @param bits the set bits
+     * @param size the number of bits of the index, bits at or above it are ignored
+     */
+    public MinuteBitmap(BitSet bits, int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+        long[] source = bits.get(0, size).toLongArray();
+        System.arraycopy(source, 0, words, 0, source.length);
+        this.ranks = new int[words.length + 1];
+        for (int w = 0; w < words.length; w++) {
+            ranks[w + 1] = ranks[w] + Long.bitCount(words[w]);
+        }
+    }
+
+    /**
+     * Get the number of bits of the index.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of set bits.
+     *
+     * @return the cardinality
+     */
+    public int cardinality() {
+        return ranks[words.length];
+    }
+
+    /**
+     * Check a bit.
+     *
+     * @param index the index, out of range indexes are not set
+     * @return true if the bit is set
+     */
+    public boolean contains(long index) {
+        return index >= 0 && index < size && (words[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+
+    /**
+     * Count the set bits before an index.
+     *
+     * @param index the exclusive index, clamped to the bitmap
+     * @return the number of set bits in {@code [0, index)}
+     */
+    public int rank(long index) {
+        if (index <= 0) {
+            return 0;
+        }
+        if (index >= size) {
+            return cardinality();
+        }
+        int i = (int) index;
+        int w = i >>> 6;
+        return ranks[w] + Long.bitCount(words[w] & ((1L << i) - 1));
+    }
+
+    /**
+     * Count the set bits of a range.
+     *
+     * @param fromIndex the inclusive lower index
+     * @param toIndex the exclusive upper index
+     * @return the number of set bits in {@code [fromIndex, toIndex)}
+     */
+    public int count(long fromIndex, long toIndex) {
+        return fromIndex < toIndex ? rank(toIndex) - rank(fromIndex) : 0;
+    }
+
+    /**
+     * Get the index of a set bit by its rank.
+     *
+     * @param rank the zero based rank of the set bit
+     * @return the index, or -1 if fewer bits are set
+     */
+    public int select(int rank) {
+        if (rank < 0 || rank >= cardinality()) {
+            return -1;
+        }
+        // Last word whose preceding count is at most the rank
+        int low = 0;
+        int high = words.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (ranks[mid] <= rank) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        long word = words[low];
+        for (int skip = rank - ranks[low]; skip > 0; skip--) {
+            word &= word - 1;
+        }
+        return (low << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Get the first set bit at or after an index.
+     *
+     * @param index the index
+     * @return the index of the set bit, or -1 if there is none
+     */
+    public int next(long index) {
+        return select(rank(index));
+    }
+}
@@ -0,0 +1,395 @@
+package com.trading.api.calendar;
+
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.model.enums.TradeAssetType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * B3 trading session calendar over the days of {@link DateTimeCalendar}.
+ * <p>
+ * Trading minutes are kept as a {@link MinuteBitmap} over a dense minute index starting at midnight
+ * of the first calendar day, so "is trading minute", "count trading minutes between" and "next N
+ * trading minutes" never touch the database. Bucketed time frames get their own bitmap, built on
+ * first use, with one bit per bucket that overlaps a trading minute.
+ * <p>
+ * Trading days are the weekdays that are not B3 holidays: the national holidays, Carnival Monday and
+ * Tuesday, Good Friday, Corpus Christi, Christmas Eve and the last weekday of the year, plus the
+ * configured extra holidays (for example São Paulo municipal closures). The session opens late on
+ * Ash Wednesday.
+ */
+@Component
+public class TradingSessionCalendar {
+
+    /**
+     * Futures month codes, January first.
+     */
+    private static final char[] MONTH_CODES = "FGHJKMNQUVXZ".toCharArray();
+
+    private static final int MINUTES_PER_DAY = 1440;
+
+    private static final Set<MonthDay> FIXED_HOLIDAYS = Set.of(
+            MonthDay.of(1, 1), MonthDay.of(4, 21), MonthDay.of(5, 1), MonthDay.of(9, 7), MonthDay.of(10, 12),
+            MonthDay.of(11, 2), MonthDay.of(11, 15), MonthDay.of(12, 24), MonthDay.of(12, 25));
+
+    /**
+     * First year of the national Black Consciousness Day holiday.
+     */
+    private static final int BLACK_CONSCIOUSNESS_DAY_SINCE = 2024;
+
+    /**
+     * The contract a continuous series switches away from after its last trading day.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Rollover {
+
+        private String contract;
+
+        private LocalDate lastTradingDate;
+
+        /**
+         * Datetime ID of the first trading minute of the next contract, or null after the end of the calendar.
+         */
+        private Long rolloverDatetimeId;
+    }
+
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final int sessionStartMinute;
+    private final int sessionEndMinute;
+    private final int lateOpenMinute;
+    private final Set<LocalDate> extraHolidays;
+    private final Set<LocalDate> extraTradingDays;
+    private final BitSet tradingDays;
+    private final MinuteBitmap minutes;
+    private final ConcurrentMap<Integer, MinuteBitmap> buckets = new ConcurrentHashMap<>();
+
+    public TradingSessionCalendar(DateTimeCalendar dateTimeCalendar,
+                                  @Value("${tradezero.calendar.session.start:09:00}") String sessionStart,
+                                  @Value("${tradezero.calendar.session.end:18:30}") String sessionEnd,
+                                  @Value("${tradezero.calendar.session.late-open:13:00}") String lateOpen,
+                                  @Value("${tradezero.calendar.session.extra-holidays:}") List<String> extraHolidays,
+                                  @Value("${tradezero.calendar.session.extra-trading-days:}") List<String> extraTradingDays) {
+        this.firstDate = DateTimeCalendar.toLocalDateTime(dateTimeCalendar.getFirstDatetimeId()).toLocalDate();
+        this.lastDate = DateTimeCalendar.toLocalDateTime(dateTimeCalendar.getLastDatetimeId()).toLocalDate();
+        this.sessionStartMinute = LocalTime.parse(sessionStart).toSecondOfDay() / 60;
+        this.sessionEndMinute = LocalTime.parse(sessionEnd).toSecondOfDay() / 60;
+        this.lateOpenMinute = LocalTime.parse(lateOpen).toSecondOfDay() / 60;
+        this.extraHolidays = parseDates(extraHolidays);
+        this.extraTradingDays = parseDates(extraTradingDays);
+
+        int days = (int) ChronoUnit.DAYS.between(firstDate, lastDate) + 1;
+        this.tradingDays = new BitSet(days);
+        BitSet bits = new BitSet(days * MINUTES_PER_DAY);
+        for (int day = 0; day < days; day++) {
+            LocalDate date = firstDate.plusDays(day);
+            if (computeTradingDay(date)) {
+                tradingDays.set(day);
+                int open = date.equals(easter(date.getYear()).minusDays(46)) ? lateOpenMinute : sessionStartMinute;
+                bits.set(day * MINUTES_PER_DAY + open, day * MINUTES_PER_DAY + sessionEndMinute);
+            }
+        }
+        this.minutes = new MinuteBitmap(bits, days * MINUTES_PER_DAY);
+    }
+
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    /**
+     * Check whether a date has a trading session.
+     *
+     * @param date the date
+     * @return true if B3 trades on the date, false outside the calendar
+     */
+    public boolean isTradingDay(LocalDate date) {
+        long day = ChronoUnit.DAYS.between(firstDate, date);
+        return day >= 0 && day <= ChronoUnit.DAYS.between(firstDate, lastDate) && tradingDays.get((int) day);
+    }
+
+    /**
+     * Check whether a minute is inside a trading session.
+     *
+     * @param datetimeId the datetime ID
+     * @return true if the minute is traded
+     */
+    public boolean isTradingMinute(long datetimeId) {
+        return minutes.contains(minuteIndex(datetimeId));
+    }
+
+    /**
+     * Count the trading minutes of a range.
+     *
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @return the number of trading minutes
+     */
+    public long countTradingMinutes(long fromDatetimeId, long toDatetimeId) {
+        return minutes.count(minuteIndex(fromDatetimeId), minuteIndex(toDatetimeId) + 1);
+    }
+
+    /**
+     * Get the trading minutes following a datetime.
+     *
+     * @param afterDatetimeId the exclusive datetime ID the minutes follow
+     * @param count the maximum number of minutes
+     * @return the datetime IDs of the minutes, fewer than requested at the end of the calendar
+     */
+    public long[] nextTradingMinutes(long afterDatetimeId, int count) {
+        int rank = minutes.rank(minuteIndex(afterDatetimeId) + 1);
+        int available = Math.max(0, Math.min(count, minutes.cardinality() - rank));
+        long[] datetimeIds = new long[available];
+        for (int i = 0; i < available; i++) {
+            datetimeIds[i] = datetimeId(minutes.select(rank + i));
+        }
+        return datetimeIds;
+    }
+
+    /**
+     * Check whether the bucket of a datetime overlaps a trading session.
+     *
+     * @param datetimeId a datetime ID of the bucket
+     * @param stepMinutes the bucket length in minutes, dividing a day
+     * @return true if the bucket holds a trading minute
+     */
+    public boolean isTradingBucket(long datetimeId, int stepMinutes) {
+        return buckets(stepMinutes).contains(Math.floorDiv(minuteIndex(datetimeId), stepMinutes));
+    }
+
+    /**
+     * Count the buckets overlapping a trading session strictly between the buckets of two datetimes.
+     *
+     * @param previousDatetimeId a datetime ID of the earlier bucket
+     * @param datetimeId a datetime ID of the later bucket
+     * @param stepMinutes the bucket length in minutes, dividing a day
+     * @return the number of expected buckets between them
+     */
+    public int countTradingBucketsBetween(long previousDatetimeId, long datetimeId, int stepMinutes) {
+        return buckets(stepMinutes).count(Math.floorDiv(minuteIndex(previousDatetimeId), stepMinutes) + 1,
+                Math.floorDiv(minuteIndex(datetimeId), stepMinutes));
+    }
+
+    /**
+     * Get the first bucket overlapping a trading session after the bucket of a datetime.
+     *
+     * @param datetimeId a datetime ID of the bucket
+     * @param stepMinutes the bucket length in minutes, dividing a day
+     * @return the datetime ID of the first minute of the bucket, or -1 at the end of the calendar
+     */
+    public long nextTradingBucket(long datetimeId, int stepMinutes) {
+        int bucket = buckets(stepMinutes).next(Math.max(Math.floorDiv(minuteIndex(datetimeId), stepMinutes) + 1, 0));
+        return bucket < 0 ? -1 : datetimeId((long) bucket * stepMinutes);
+    }
+
+    /**
+     * Get the rollovers of the continuous series of an asset.
+     * WIN contracts of even months expire on the Wednesday closest to the 15th, or the next trading day.
+     * WDO contracts of every month expire on its first trading day and trade until the trading day before.
+     *
+     * @param tradeAsset the trade asset
+     * @param fromDate the inclusive lower bound of the last trading dates
+     * @param toDate the inclusive upper bound of the last trading dates
+     * @return the rollovers in order
+     */
+    public List<Rollover> rollovers(TradeAssetType tradeAsset, LocalDate fromDate, LocalDate toDate) {
+        List<Rollover> rollovers = new ArrayList<>();
+        LocalDate from = fromDate.isBefore(firstDate) ? firstDate : fromDate;
+        LocalDate to = toDate.isAfter(lastDate) ? lastDate : toDate;
+        for (LocalDate month = from.withDayOfMonth(1).minusMonths(1); !month.isAfter(to.plusMonths(1)); month = month.plusMonths(1)) {
+            LocalDate lastTradingDate;
+            if (tradeAsset == TradeAssetType.WIN$) {
+                if (month.getMonthValue() % 2 != 0) {
+                    continue;
+                }
+                LocalDate fifteenth = month.withDayOfMonth(15);
+                int offset = DayOfWeek.WEDNESDAY.getValue() - fifteenth.getDayOfWeek().getValue();
+                lastTradingDate = tradingDayOnOrAfter(fifteenth.plusDays(offset > 3 ? offset - 7 : offset < -3 ? offset + 7 : offset));
+            } else {
+                lastTradingDate = tradingDayBefore(tradingDayOnOrAfter(month));
+            }
+            if (lastTradingDate == null || lastTradingDate.isBefore(from) || lastTradingDate.isAfter(to)) {
+                continue;
+            }
+            String contract = tradeAsset.name().substring(0, 3) + MONTH_CODES[month.getMonthValue() - 1] +
+                    String.format("%02d", month.getYear() % 100);
+            long next = nextTradingMinute(DateTimeCalendar.toDatetimeId(lastTradingDate.atTime(23, 59)));
+            rollovers.add(new Rollover(contract, lastTradingDate, next < 0 ? null : next));
+        }
+        return rollovers;
+    }
+
+    /**
+     * Get the holidays of a range, weekends excluded.
+     *
+     * @param fromDate the inclusive lower date bound
+     * @param toDate the inclusive upper date bound
+     * @return the weekdays without a trading session
+     */
+    public List<LocalDate> holidays(LocalDate fromDate, LocalDate toDate) {
+        List<LocalDate> holidays = new ArrayList<>();
+        LocalDate from = fromDate.isBefore(firstDate) ? firstDate : fromDate;
+        for (LocalDate date = from; !date.isAfter(toDate) && !date.isAfter(lastDate); date = date.plusDays(1)) {
+            if (date.getDayOfWeek().getValue() < 6 && !isTradingDay(date)) {
+                holidays.add(date);
+            }
+        }
+        return holidays;
+    }
+
+    /**
+     * Convert a datetime ID to its minute index.
+     *
+     * @param datetimeId the datetime ID
+     * @return the minutes since midnight of the first calendar day, negative before it
+     * @throws BadRequestException if the datetime ID is not a valid minute
+     */
+    public long minuteIndex(long datetimeId) {
+        long minute = datetimeId % 100;
+        long hour = datetimeId / 100 % 100;
+        if (minute > 59 || hour > 23) {
+            throw new BadRequestException("Invalid datetime ID: " + datetimeId);
+        }
+        long day;
+        try {
+            day = LocalDate.of((int) (datetimeId / 100000000L), (int) (datetimeId / 1000000 % 100),
+                    (int) (datetimeId / 10000 % 100)).toEpochDay() - firstDate.toEpochDay();
+        } catch (DateTimeException e) {
+            throw new BadRequestException("Invalid datetime ID: " + datetimeId);
+        }
+        return day * MINUTES_PER_DAY + hour * 60 + minute;
+    }
+
+    /**
+     * Convert a minute index to its datetime ID.
+     *
+     * @param minuteIndex the minutes since midnight of the first calendar day
+     * @return the datetime ID
+     */
+    public long datetimeId(long minuteIndex) {
+        LocalDate date = LocalDate.ofEpochDay(firstDate.toEpochDay() + Math.floorDiv(minuteIndex, MINUTES_PER_DAY));
+        int minute = Math.floorMod(minuteIndex, MINUTES_PER_DAY);
+        return date.getYear() * 100000000L + date.getMonthValue() * 1000000L + date.getDayOfMonth() * 10000L
+                + (minute / 60) * 100L + minute % 60;
+    }
+
+    private long nextTradingMinute(long afterDatetimeId) {
+        int index = minutes.next(Math.max(minuteIndex(afterDatetimeId) + 1, 0));
+        return index < 0 ? -1 : datetimeId(index);
+    }
+
+    private MinuteBitmap buckets(int stepMinutes) {
+        if (stepMinutes <= 0 || MINUTES_PER_DAY % stepMinutes != 0) {
+            throw new IllegalArgumentException("Bucket length must divide a day: " + stepMinutes);
+        }
+        if (stepMinutes == 1) {
+            return minutes;
+        }
+        return buckets.computeIfAbsent(stepMinutes, step -> {
+            int size = minutes.size() / step;
+            BitSet bits = new BitSet(size);
+            for (int index = minutes.next(0); index >= 0; index = minutes.next((index / step + 1) * step)) {
+                bits.set(index / step);
+            }
+            return new MinuteBitmap(bits, size);
+        });
+    }
+
+    private LocalDate tradingDayOnOrAfter(LocalDate date) {
+        for (LocalDate day = date; !day.isAfter(lastDate); day = day.plusDays(1)) {
+            if (isTradingDay(day)) {
+                return day;
+            }
+        }
+        return null;
+    }
+
+    private LocalDate tradingDayBefore(LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        for (LocalDate day = date.minusDays(1); !day.isBefore(firstDate); day = day.minusDays(1)) {
+            if (isTradingDay(day)) {
+                return day;
+            }
+        }
+        return null;
+    }
+
+    private boolean computeTradingDay(LocalDate date) {
+        if (extraTradingDays.contains(date)) {
+            return true;
+        }
+        if (date.getDayOfWeek().getValue() >= 6 || extraHolidays.contains(date)
+                || FIXED_HOLIDAYS.contains(MonthDay.from(date))) {
+            return false;
+        }
+        if (date.getYear() >= BLACK_CONSCIOUSNESS_DAY_SINCE && date.getMonthValue() == 11 && date.getDayOfMonth() == 20) {
+            return false;
+        }
+        LocalDate easter = easter(date.getYear());
+        if (date.equals(easter.minusDays(48)) || date.equals(easter.minusDays(47))
+                || date.equals(easter.minusDays(2)) || date.equals(easter.plusDays(60))) {
+            return false;
+        }
+        // No session on the last weekday of the year
+        LocalDate lastWeekday = LocalDate.of(date.getYear(), 12, 31);
+        while (lastWeekday.getDayOfWeek().getValue() >= 6) {
+            lastWeekday = lastWeekday.minusDays(1);
+        }
+        return !date.equals(lastWeekday);
+    }
+
+    /**
+     * Compute the Gregorian Easter Sunday of a year (anonymous Gregorian algorithm).
+     *
+     * @param year the year
+     * @return the date of Easter Sunday
+     */
+    static LocalDate easter(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+
+    private static Set<LocalDate> parseDates(List<String> dates) {
+        return dates.stream()
+                .map(String::trim)
+                .filter(date -> !date.isEmpty())
+                .map(LocalDate::parse)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+}
@@ -0,0 +1,376 @@
+package com.trading.api.codec;
+
+import com.trading.api.dto.CandlestickWindowDTO;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of a candlestick series.
+ * <p>
+ * Layout (all multi-byte integers big-endian):
+ * <pre>
+ * magic "TZCS" | version u8 | data feed UUID (16 bytes)
+ * trade asset (u8 length + UTF-8) | trade time frame (u8 length + UTF-8) | count (varint)
+ * times:   first epoch minute (zigzag varint), first delta (zigzag varint),
+ *          then one delta-of-delta per candlestick (zigzag varint)
+ * columns: open, high, low, close, volume, each a Gorilla XOR bit stream padded to a byte
+ * </pre>
+ * Times are the datetime IDs as minutes since 1970-01-01 00:00, so a regular series costs one
+ * byte per timestamp, and a repeated or slowly changing price costs one to a few bits.
+ * {@code training/candlestick_codec.py} decodes the same format.
+ */
+public final class CandlestickSeriesCodec {
+
+    /**
+     * Media type of the encoded series.
+     */
+    public static final String MEDIA_TYPE = "application/vnd.tradezero.candlestick-series";
+
+    private static final byte[] MAGIC = {'T', 'Z', 'C', 'S'};
+    private static final int VERSION = 1;
+
+    private CandlestickSeriesCodec() {
+    }
+
+    /**
+     * Encode a columnar window of a series.
+     *
+     * @param window the window
+     * @param outputStream the output stream to write to
+     * @throws IOException if the output stream cannot be written
+     */
+    public static void encode(CandlestickWindowDTO window, OutputStream outputStream) throws IOException {
+        int count = window.getSize();
+        ByteArrayOutputStream header = new ByteArrayOutputStream(64);
+        header.write(MAGIC);
+        header.write(VERSION);
+        ByteBuffer uuid = ByteBuffer.allocate(16);
+        uuid.putLong(window.getDataFeedUuid().getMostSignificantBits());
+        uuid.putLong(window.getDataFeedUuid().getLeastSignificantBits());
+        header.write(uuid.array());
+        writeString(header, window.getTradeAsset().name());
+        writeString(header, window.getTradeTimeFrame().name());
+        writeVarint(header, count);
+        header.writeTo(outputStream);
+
+        // Timestamps: delta-of-delta of the epoch minute
+        ByteArrayOutputStream times = new ByteArrayOutputStream(count + 16);
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long minute = toEpochMinute(window.getDatetimeId()[i]);
+            if (i == 0) {
+                writeVarint(times, zigzag(minute));
+            } else if (i == 1) {
+                previousDelta = minute - previous;
+                writeVarint(times, zigzag(previousDelta));
+            } else {
+                long delta = minute - previous;
+                writeVarint(times, zigzag(delta - previousDelta));
+                previousDelta = delta;
+            }
+            previous = minute;
+        }
+        times.writeTo(outputStream);
+
+        BitOutput bits = new BitOutput(count * 2 + 16);
+        for (double[] column : new double[][]{window.getOpen(), window.getHigh(), window.getLow(),
+                window.getClose(), window.getVolume()}) {
+            encodeXor(column, count, bits);
+            bits.alignToByte();
+        }
+        bits.writeTo(outputStream);
+    }
+
+    /**
+     * Decode an encoded series.
+     *
+     * @param inputStream the input stream to read from
+     * @return the decoded window
+     * @throws IOException if the input is not an encoded series or cannot be read
+     */
+    public static CandlestickWindowDTO decode(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        byte[] magic = new byte[4];
+        in.readFully(magic);
+        if (magic[0] != MAGIC[0] || magic[1] != MAGIC[1] || magic[2] != MAGIC[2] || magic[3] != MAGIC[3]) {
+            throw new IOException("Not an encoded candlestick series");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported candlestick series version: " + version);
+        }
+        UUID dataFeedUuid = new UUID(in.readLong(), in.readLong());
+        TradeAssetType tradeAsset = TradeAssetType.valueOf(readString(in));
+        TradeTimeFrameType tradeTimeFrame = TradeTimeFrameType.valueOf(readString(in));
+        int count = (int) readVarint(in);
+
+        long[] datetimeIds = new long[count];
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long minute;
+            if (i == 0) {
+                minute = unzigzag(readVarint(in));
+            } else if (i == 1) {
+                previousDelta = unzigzag(readVarint(in));
+                minute = previous + previousDelta;
+            } else {
+                previousDelta += unzigzag(readVarint(in));
+                minute = previous + previousDelta;
+            }
+            datetimeIds[i] = fromEpochMinute(minute);
+            previous = minute;
+        }
+
+        BitInput bits = new BitInput(in);
+        double[][] columns = new double[5][];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = decodeXor(count, bits);
+            bits.alignToByte();
+        }
+        return new CandlestickWindowDTO(dataFeedUuid, tradeAsset, tradeTimeFrame, count, datetimeIds,
+                columns[0], columns[1], columns[2], columns[3], columns[4]);
+    }
+
+    /**
+     * Gorilla XOR encoding: the first value is stored raw, then a 0 bit for a value equal to the
+     * previous one, or a 1 bit followed by the meaningful bits of the XOR with the previous value,
+     * reusing the previous leading/trailing zero window when the new bits fit in it.
+     */
+    private static void encodeXor(double[] values, int count, BitOutput bits) {
+        long previous = 0;
+        int previousLeading = Integer.MAX_VALUE;
+        int previousTrailing = 0;
+        for (int i = 0; i < count; i++) {
+            long value = Double.doubleToRawLongBits(values[i]);
+            if (i == 0) {
+                bits.write(value, 64);
+                previous = value;
+                continue;
+            }
+            long xor = value ^ previous;
+            previous = value;
+            if (xor == 0) {
+                bits.write(0, 1);
+                continue;
+            }
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading != Integer.MAX_VALUE && leading >= previousLeading && trailing >= previousTrailing) {
+                bits.write(0b10, 2);
+                bits.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                bits.write(0b11, 2);
+                bits.write(leading, 5);
+                // 64 meaningful bits do not fit in 6 bits and are written as 0
+                bits.write(meaningful & 63, 6);
+                bits.write(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+    }
+
+    private static double[] decodeXor(int count, BitInput bits) throws IOException {
+        double[] values = new double[count];
+        long previous = 0;
+        int previousLeading = 0;
+        int previousTrailing = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                previous = bits.read(64);
+            } else if (bits.read(1) == 1) {
+                if (bits.read(1) == 1) {
+                    previousLeading = (int) bits.read(5);
+                    int meaningful = (int) bits.read(6);
+                    if (meaningful == 0) {
+                        meaningful = 64;
+                    }
+                    previousTrailing = 64 - previousLeading - meaningful;
+                }
+                long xor = bits.read(64 - previousLeading - previousTrailing) << previousTrailing;
+                previous ^= xor;
+            }
+            values[i] = Double.longBitsToDouble(previous);
+        }
+        return values;
+    }
+
+    /**
+     * Convert a datetime ID to minutes since 1970-01-01 00:00.
+     *
+     * @param datetimeId the datetime ID (yyyyMMddHHmm)
+     * @return the epoch minute
+     */
+    public static long toEpochMinute(long datetimeId) {
+        long day = LocalDate.of((int) (datetimeId / 100000000L), (int) (datetimeId / 1000000 % 100),
+                (int) (datetimeId / 10000 % 100)).toEpochDay();
+        return day * 1440 + (datetimeId / 100 % 100) * 60 + datetimeId % 100;
+    }
+
+    /**
+     * Convert minutes since 1970-01-01 00:00 to a datetime ID.
+     *
+     * @param epochMinute the epoch minute
+     * @return the datetime ID (yyyyMMddHHmm)
+     */
+    public static long fromEpochMinute(long epochMinute) {
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(epochMinute, 1440));
+        long minuteOfDay = Math.floorMod(epochMinute, 1440);
+        return date.getYear() * 100000000L + date.getMonthValue() * 1000000L + date.getDayOfMonth() * 10000L
+                + minuteOfDay / 60 * 100 + minuteOfDay % 60;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedByte()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Growable most-significant-bit-first bit writer.
+     */
+    private static final class BitOutput {
+
+        private byte[] buffer;
+        private int bytes;
+        private long current;
+        private int used;
+
+        private BitOutput(int capacity) {
+            this.buffer = new byte[Math.max(capacity, 16)];
+        }
+
+        private void write(long value, int bitCount) {
+            while (bitCount > 0) {
+                int take = Math.min(bitCount, 64 - used);
+                long chunk = take == 64 ? value : (value >>> (bitCount - take)) & ((1L << take) - 1);
+                current = take == 64 ? chunk : (current << take) | chunk;
+                used += take;
+                bitCount -= take;
+                if (used == 64) {
+                    flushWord();
+                }
+            }
+        }
+
+        private void alignToByte() {
+            int pad = (8 - used % 8) % 8;
+            if (pad > 0) {
+                write(0, pad);
+            }
+        }
+
+        private void flushWord() {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[bytes++] = (byte) (current >>> shift);
+            }
+            current = 0;
+            used = 0;
+        }
+
+        private void writeTo(OutputStream out) throws IOException {
+            // Callers align to a byte before writing, so only whole bytes remain
+            ensureCapacity(8);
+            for (int shift = used - 8; shift >= 0; shift -= 8) {
+                buffer[bytes++] = (byte) (current >>> shift);
+            }
+            current = 0;
+            used = 0;
+            out.write(buffer, 0, bytes);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (bytes + extra > buffer.length) {
+                byte[] grown = new byte[Math.max(buffer.length * 2, bytes + extra)];
+                System.arraycopy(buffer, 0, grown, 0, bytes);
+                buffer = grown;
+            }
+        }
+    }
+
+    /**
+     * Most-significant-bit-first bit reader.
+     */
+    private static final class BitInput {
+
+        private final InputStream in;
+        private int current;
+        private int remaining;
+
+        private BitInput(InputStream in) {
+            this.in = in;
+        }
+
+        private long read(int bitCount) throws IOException {
+            long value = 0;
+            while (bitCount > 0) {
+                if (remaining == 0) {
+                    current = in.read();
+                    if (current < 0) {
+                        throw new EOFException("Truncated candlestick series");
+                    }
+                    remaining = 8;
+                }
+                int take = Math.min(bitCount, remaining);
+                int chunk = (current >>> (remaining - take)) & ((1 << take) - 1);
+                value = (value << take) | chunk;
+                remaining -= take;
+                bitCount -= take;
+            }
+            return value;
+        }
+
+        private void alignToByte() {
+            remaining = 0;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.trading.api.codec;
+
+import com.trading.api.model.enums.OrderStatusType;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Decoder of the compact binary stream of per-step fact telemetry.
+ * <p>
+ * Layout (all multi-byte numbers big-endian):
+ * <pre>
+ * magic "TZFS" | version u8 | frames until the end of the stream
+ * frame:   type u8 | body length (varint) | body
+ * 0x01 dictionary:   UUIDs (16 bytes each), appended to the dictionary of the stream
+ * 0x02 action fact:  risk management ref | action dim ref | datetime ID
+ * 0x03 balance fact: portfolio ref | datetime ID | initial, current, max, min (float64)
+ * 0x04 order fact:   order dim ref | order venue dim ref | portfolio ref | datetime ID |
+ *                    order status (u8 ordinal) | presence bits (u8) | the present of
+ *                    executed price, limit price, stop price, fees, slippage (float64), latency ms (varint)
+ * </pre>
+ * A ref is the varint index of a UUID in the dictionary, so a foreign key repeated on every step
+ * costs one byte after the frame that defines it. A datetime ID is the zigzag varint difference to
+ * the datetime ID of the previous fact of the stream, starting from zero. Presence bit i is set when
+ * the i-th optional order column is sent. Frames of an unknown type are skipped, so new fact types
+ * can be added without a version change. {@code training/fact_stream_codec.py} encodes the same format.
+ * <p>
+ * A frame holds at most {@code MAX_FRAME_BYTES}, the dictionary at most the given number of UUIDs
+ * and the stream at most the given number of frames of any type, so neither dictionary frames nor
+ * skipped frames let a stream grow without bound.
+ * <p>
+ * A decoder is not thread safe; it reads each frame into one buffer reused for the whole stream and
+ * hands the columns of every fact to its handler without building an object per row.
+ */
+public final class FactStreamDecoder {
+
+    /**
+     * Media type of the encoded stream.
+     */
+    public static final String MEDIA_TYPE = "application/vnd.tradezero.fact-stream";
+
+    private static final byte[] MAGIC = {'T', 'Z', 'F', 'S'};
+    private static final int VERSION = 1;
+
+    private static final int DICTIONARY = 0x01;
+    private static final int ACTION_FACT = 0x02;
+    private static final int BALANCE_FACT = 0x03;
+    private static final int ORDER_FACT = 0x04;
+
+    private static final int UUID_BYTES = 16;
+    private static final int MAX_FRAME_BYTES = 1 << 20;
+    private static final OrderStatusType[] ORDER_STATUSES = OrderStatusType.values();
+
+    /**
+     * Receiver of the decoded facts. References arrive as the UUID instances of the dictionary, so a
+     * handler can remember which ones it has already checked.
+     */
+    public interface Handler {
+
+        void actionFact(UUID riskManagementUuid, UUID actionDimUuid, long datetimeId);
+
+        void balanceFact(UUID portfolioUuid, long datetimeId, double initial, double current, double max, double min);
+
+        void orderFact(UUID orderDimUuid, UUID orderVenueDimUuid, UUID portfolioUuid, long datetimeId,
+                       OrderStatusType orderStatus, Double executedPrice, Double limitPrice, Double stopPrice,
+                       Double fees, Double slippage, Integer latencyMs);
+    }
+
+    private final DataInputStream in;
+    private final int maxDictionarySize;
+    private final long maxFrames;
+    private final List<UUID> dictionary = new ArrayList<>();
+    private ByteBuffer frame = ByteBuffer.allocate(256);
+    private long datetimeId;
+    private long bytes;
+    private long frames;
+
+    /**
+     * Create a decoder.
+     *
+     * @param inputStream the encoded stream
+     * @param maxDictionarySize the maximum number of UUIDs in the dictionary of the stream
+     * @param maxFrames the maximum number of frames of the stream, of any type
+     */
+    public FactStreamDecoder(InputStream inputStream, int maxDictionarySize, long maxFrames) {
+        this.in = new DataInputStream(inputStream);
+        this.maxDictionarySize = maxDictionarySize;
+        this.maxFrames = maxFrames;
+    }
+
+    public int getDictionarySize() {
+        return dictionary.size();
+    }
+
+    /**
+     * Number of bytes read, including the stream header.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Read the whole stream, handing every fact to the handler in stream order.
+     *
+     * @param handler the handler
+     * @return the number of facts decoded
+     * @throws IOException if the input is not an encoded fact stream or cannot be read
+     */
+    public long decode(Handler handler) throws IOException {
+        byte[] magic = new byte[4];
+        readFully(magic, magic.length);
+        if (magic[0] != MAGIC[0] || magic[1] != MAGIC[1] || magic[2] != MAGIC[2] || magic[3] != MAGIC[3]) {
+            throw new IOException("Not an encoded fact stream");
+        }
+        int version = in.read();
+        if (version != VERSION) {
+            throw new IOException("Unsupported fact stream version: " + version);
+        }
+        bytes = magic.length + 1;
+
+        long facts = 0;
+        int type;
+        while ((type = in.read()) >= 0) {
+            bytes++;
+            if (++frames > maxFrames) {
+                throw new IOException("Fact stream exceeds " + maxFrames + " frames");
+            }
+            readFrame();
+            try {
+                switch (type) {
+                    case DICTIONARY -> readDictionary();
+                    case ACTION_FACT -> {
+                        handler.actionFact(readRef(), readRef(), readDatetimeId());
+                        facts++;
+                    }
+                    case BALANCE_FACT -> {
+                        handler.balanceFact(readRef(), readDatetimeId(),
+                                frame.getDouble(), frame.getDouble(), frame.getDouble(), frame.getDouble());
+                        facts++;
+                    }
+                    case ORDER_FACT -> {
+                        readOrderFact(handler);
+                        facts++;
+                    }
+                    default -> frame.position(frame.limit());
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated fact stream frame of type " + type);
+            }
+            if (frame.hasRemaining()) {
+                throw new IOException("Fact stream frame of type " + type + " holds " + frame.remaining() + " unread bytes");
+            }
+        }
+        return facts;
+    }
+
+    private void readFrame() throws IOException {
+        long length = readStreamVarint();
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Fact stream frame of " + length + " bytes out of range 0 to " + MAX_FRAME_BYTES);
+        }
+        if (frame.capacity() < length) {
+            frame = ByteBuffer.allocate(Integer.highestOneBit((int) length) << 1);
+        }
+        frame.clear();
+        readFully(frame.array(), (int) length);
+        frame.limit((int) length);
+        bytes += length;
+    }
+
+    private void readFully(byte[] buffer, int length) throws IOException {
+        try {
+            in.readFully(buffer, 0, length);
+        } catch (EOFException e) {
+            throw new EOFException("Truncated fact stream");
+        }
+    }
+
+    private void readDictionary() throws IOException {
+        if (frame.remaining() % UUID_BYTES != 0) {
+            throw new IOException("Fact stream dictionary frame of " + frame.remaining() + " bytes");
+        }
+        if (frame.remaining() / UUID_BYTES > maxDictionarySize - dictionary.size()) {
+            throw new IOException("Fact stream dictionary exceeds " + maxDictionarySize + " UUIDs");
+        }
+        while (frame.hasRemaining()) {
+            dictionary.add(new UUID(frame.getLong(), frame.getLong()));
+        }
+    }
+
+    private void readOrderFact(Handler handler) throws IOException {
+        UUID orderDimUuid = readRef();
+        UUID orderVenueDimUuid = readRef();
+        UUID portfolioUuid = readRef();
+        long orderDatetimeId = readDatetimeId();
+        int status = frame.get() & 0xFF;
+        if (status >= ORDER_STATUSES.length) {
+            throw new IOException("Unknown order status ordinal: " + status);
+        }
+        int present = frame.get() & 0xFF;
+        Double executedPrice = (present & 0x01) != 0 ? frame.getDouble() : null;
+        Double limitPrice = (present & 0x02) != 0 ? frame.getDouble() : null;
+        Double stopPrice = (present & 0x04) != 0 ? frame.getDouble() : null;
+        Double fees = (present & 0x08) != 0 ? frame.getDouble() : null;
+        Double slippage = (present & 0x10) != 0 ? frame.getDouble() : null;
+        Integer latencyMs = null;
+        if ((present & 0x20) != 0) {
+            long latency = readVarint();
+            if (latency < 0 || latency > Integer.MAX_VALUE) {
+                throw new IOException("Latency of " + latency + " ms out of range");
+            }
+            latencyMs = (int) latency;
+        }
+        handler.orderFact(orderDimUuid, orderVenueDimUuid, portfolioUuid, orderDatetimeId, ORDER_STATUSES[status],
+                executedPrice, limitPrice, stopPrice, fees, slippage, latencyMs);
+    }
+
+    private UUID readRef() throws IOException {
+        long index = readVarint();
+        if (index < 0 || index >= dictionary.size()) {
+            throw new IOException("Fact stream reference " + index + " is not in the dictionary of "
+                    + dictionary.size() + " UUIDs");
+        }
+        return dictionary.get((int) index);
+    }
+
+    private long readDatetimeId() throws IOException {
+        long value = readVarint();
+        datetimeId += (value >>> 1) ^ -(value & 1);
+        return datetimeId;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!frame.hasRemaining()) {
+                throw new IOException("Truncated fact stream frame");
+            }
+            int b = frame.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private long readStreamVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated fact stream");
+            }
+            bytes++;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,13 @@
+package com.trading.api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration enabling scheduled background jobs.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Scheduled jobs are declared with @Scheduled on the components that own them
+}
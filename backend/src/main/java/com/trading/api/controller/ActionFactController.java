@@ -1,7 +1,13 @@
 package com.trading.api.controller;
 
+import com.trading.api.arrow.ArrowResultSetWriter;
+import com.trading.api.arrow.FactTable;
+import com.trading.api.dto.BulkInsertReportDTO;
 import com.trading.api.dto.ActionFactDTO;
+import com.trading.api.dto.IngestAcceptedDTO;
+import com.trading.api.ingest.WriteBehindBuffer;
 import com.trading.api.service.ActionFactService;
+import com.trading.api.service.ArrowExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,8 +18,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -28,6 +36,8 @@ import java.util.UUID;
 public class ActionFactController {
 
     private final ActionFactService actionFactService;
+    private final ArrowExportService arrowExportService;
+    private final WriteBehindBuffer writeBehindBuffer;
 
     /**
      * GET /api/action-facts : Get all action facts.
@@ -45,6 +55,25 @@ public class ActionFactController {
         return ResponseEntity.ok(actionFacts);
     }
 
+    /**
+     * GET /api/action-facts : Stream all action facts as an Arrow IPC stream.
+     *
+     * @return the ResponseEntity with status 200 (OK) and the action facts streamed in body
+     */
+    @GetMapping(produces = ArrowResultSetWriter.MEDIA_TYPE)
+    @Operation(summary = "Stream all action facts as Arrow", description = "Returns all action facts as an Arrow IPC stream " +
+            "when the request accepts " + ArrowResultSetWriter.MEDIA_TYPE)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed action facts",
+                    content = @Content(mediaType = ArrowResultSetWriter.MEDIA_TYPE))
+    })
+    public ResponseEntity<StreamingResponseBody> getAllActionFactsArrow() {
+        StreamingResponseBody body = outputStream -> arrowExportService.exportFacts(FactTable.action_fact, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ArrowResultSetWriter.MEDIA_TYPE))
+                .body(body);
+    }
+
     /**
      * GET /api/action-facts/{uuid} : Get action fact by UUID.
      *
@@ -126,6 +155,57 @@ public class ActionFactController {
         return new ResponseEntity<>(createdActionFact, HttpStatus.CREATED);
     }
 
+    /**
+     * POST /api/action-facts/bulk : Create action facts in one JDBC-batched transaction.
+     * Either every row is inserted or none is.
+     *
+     * @param actionFactDTOs the action facts to create
+     * @return the ResponseEntity with status 201 (Created) and with body the generated UUIDs and insert throughput,
+     * or with status 400 (Bad Request) if a row is invalid, or with status 404 (Not Found) if a referenced row is missing
+     */
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Bulk create action facts", description = "Validates every row, checks the referenced rows " +
+            "with one set-based query per table and inserts all rows through JDBC batching in a single transaction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successfully created action facts",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkInsertReportDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Referenced row not found")
+    })
+    public ResponseEntity<BulkInsertReportDTO> createActionFacts(
+            @Parameter(description = "Action facts to be created", required = true)
+            @RequestBody List<ActionFactDTO> actionFactDTOs) {
+        BulkInsertReportDTO report = actionFactService.createAll(actionFactDTOs);
+        return new ResponseEntity<>(report, HttpStatus.CREATED);
+    }
+
+    /**
+     * POST /api/action-facts/async : Queue action facts for asynchronous insertion.
+     *
+     * @param actionFactDTOs the action facts to create
+     * @return the ResponseEntity with status 202 (Accepted) and with body the acceptance receipt,
+     * or with status 503 (Service Unavailable) if the write-behind buffer is full
+     */
+    @PostMapping("/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Queue action facts for asynchronous insertion",
+            description = "Validates the rows and their references and queues " +
+            "them in the write-behind buffer, which commits them in batches. Requires tradezero.ingest.async.enabled")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Successfully queued action facts",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = IngestAcceptedDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Asynchronous ingestion disabled or referenced row not found"),
+            @ApiResponse(responseCode = "503", description = "Write-behind buffer full, retry later")
+    })
+    public ResponseEntity<IngestAcceptedDTO> enqueueActionFacts(
+            @Parameter(description = "Action facts to be created", required = true)
+            @RequestBody List<ActionFactDTO> actionFactDTOs) {
+        IngestAcceptedDTO accepted = writeBehindBuffer.enqueue(FactTable.action_fact, actionFactDTOs);
+        return new ResponseEntity<>(accepted, HttpStatus.ACCEPTED);
+    }
+
     /**
      * PUT /api/action-facts/{uuid} : Update an existing action fact.
      *
@@ -0,0 +1,55 @@
+package com.trading.api.controller;
+
+import com.trading.api.dto.UuidKeyBenchmarkDTO;
+import com.trading.api.service.UuidKeyBenchmarkService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for database benchmarks.
+ */
+@RestController
+@RequestMapping("/api/benchmarks")
+@RequiredArgsConstructor
+@Tag(name = "Benchmarks", description = "Database benchmark APIs")
+public class BenchmarkController {
+
+    private final UuidKeyBenchmarkService uuidKeyBenchmarkService;
+
+    /**
+     * POST /api/benchmarks/uuid-keys : Compare random and time ordered UUID primary keys.
+     *
+     * @param rows the number of rows inserted per key version
+     * @param batchSize the number of rows per JDBC batch
+     * @return the ResponseEntity with status 200 (OK) and the result of each key version in body
+     */
+    @PostMapping("/uuid-keys")
+    @Operation(summary = "Benchmark UUID primary keys",
+               description = "Inserts the same rows into scratch tables keyed by version 4 and version 7 UUIDs and " +
+                       "returns the insert throughput and primary key index size of each. Requires " +
+                       "tradezero.benchmark.enabled")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully ran the benchmark",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UuidKeyBenchmarkDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid row count or batch size"),
+            @ApiResponse(responseCode = "404", description = "Benchmarks disabled")
+    })
+    public ResponseEntity<List<UuidKeyBenchmarkDTO>> benchmarkUuidKeys(
+            @Parameter(description = "Rows inserted per key version")
+            @RequestParam(defaultValue = "1000000") int rows,
+            @Parameter(description = "Rows per JDBC batch")
+            @RequestParam(defaultValue = "1000") int batchSize) {
+        List<UuidKeyBenchmarkDTO> results = uuidKeyBenchmarkService.run(rows, batchSize);
+        return ResponseEntity.ok(results);
+    }
+}
@@ -1,9 +1,22 @@
 package com.trading.api.controller;
 
+import com.trading.api.arrow.ArrowResultSetWriter;
+import com.trading.api.codec.CandlestickSeriesCodec;
 import com.trading.api.dto.CandlestickFactDTO;
+import com.trading.api.dto.CandlestickImportReportDTO;
+import com.trading.api.dto.CandlestickIndicatorsDTO;
+import com.trading.api.dto.CandlestickMatrixDTO;
+import com.trading.api.dto.CandlestickPageDTO;
+import com.trading.api.dto.CandlestickRangeStatsDTO;
+import com.trading.api.dto.CandlestickResampleReportDTO;
+import com.trading.api.dto.CandlestickWindowDTO;
 import com.trading.api.model.enums.TradeAssetType;
 import com.trading.api.model.enums.TradeTimeFrameType;
+import com.trading.api.service.ArrowExportService;
+import com.trading.api.service.CandlestickExportService;
 import com.trading.api.service.CandlestickFactService;
+import com.trading.api.service.CandlestickImportService;
+import com.trading.api.service.CandlestickResamplingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,9 +27,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,6 +48,10 @@ import java.util.UUID;
 public class CandlestickFactController {
 
     private final CandlestickFactService candlestickFactService;
+    private final CandlestickExportService candlestickExportService;
+    private final CandlestickImportService candlestickImportService;
+    private final CandlestickResamplingService candlestickResamplingService;
+    private final ArrowExportService arrowExportService;
 
     /**
      * GET /api/candlesticks : Get all candlesticks.
@@ -47,6 +69,42 @@ public class CandlestickFactController {
         return ResponseEntity.ok(candlesticks);
     }
 
+    /**
+     * GET /api/candlesticks : Stream candlesticks as an Arrow IPC stream.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @return the ResponseEntity with status 200 (OK) and the candlesticks streamed in body
+     */
+    @GetMapping(produces = ArrowResultSetWriter.MEDIA_TYPE)
+    @Operation(summary = "Stream candlesticks as Arrow",
+               description = "Returns the candlesticks matching the optional filters ordered by series and datetime ID " +
+                       "as an Arrow IPC stream when the request accepts " + ArrowResultSetWriter.MEDIA_TYPE)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed candlesticks",
+                    content = @Content(mediaType = ArrowResultSetWriter.MEDIA_TYPE))
+    })
+    public ResponseEntity<StreamingResponseBody> getAllCandlesticksArrow(
+            @Parameter(description = "Data feed UUID of the candlesticks to be obtained")
+            @RequestParam(required = false) UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the candlesticks to be obtained")
+            @RequestParam(required = false) TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the candlesticks to be obtained")
+            @RequestParam(required = false) TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId) {
+        StreamingResponseBody body = outputStream -> arrowExportService.exportCandlesticks(
+                dataFeedUuid, tradeAsset, tradeTimeFrame, fromDatetimeId, toDatetimeId, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ArrowResultSetWriter.MEDIA_TYPE))
+                .body(body);
+    }
+
     /**
      * GET /api/candlesticks/datafeed/{dataFeedUuid} : Get candlesticks by data feed UUID.
      *
@@ -125,18 +183,27 @@ public class CandlestickFactController {
 
     /**
      * GET /api/candlesticks/search : Get candlesticks by data feed UUID, trade asset, and trade time frame.
+     * Deprecated in favour of /series: the response holds one keyset page at most, and the cursor of the
+     * following page is returned in the X-Next-Cursor header.
      *
      * @param dataFeedUuid the data feed UUID
      * @param tradeAsset the trade asset
      * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param limit the maximum number of candlesticks
      * @return the ResponseEntity with status 200 (OK) and the list of candlesticks in body
      */
+    @Deprecated
     @GetMapping("/search")
-    @Operation(summary = "Get candlesticks by data feed UUID, trade asset, and trade time frame", 
-               description = "Returns candlesticks by data feed UUID, trade asset, and trade time frame")
+    @Operation(summary = "Get candlesticks by data feed UUID, trade asset, and trade time frame", deprecated = true,
+               description = "Returns at most limit candlesticks by data feed UUID, trade asset, and trade time frame " +
+                       "ordered by datetime ID. When more follow, the X-Next-Cursor header holds the cursor to pass " +
+                       "to /series. Use /series instead.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved candlesticks",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickFactDTO.class)))
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickFactDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
     })
     public ResponseEntity<List<CandlestickFactDTO>> getCandlesticksByDataFeedUuidAndTradeAssetAndTradeTimeFrame(
             @Parameter(description = "Data feed UUID of the candlesticks to be obtained", required = true)
@@ -144,10 +211,388 @@ public class CandlestickFactController {
             @Parameter(description = "Trade asset of the candlesticks to be obtained", required = true)
             @RequestParam TradeAssetType tradeAsset,
             @Parameter(description = "Trade time frame of the candlesticks to be obtained", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId,
+            @Parameter(description = "Maximum number of candlesticks (1 to " + CandlestickFactService.MAX_PAGE_SIZE + ")")
+            @RequestParam(required = false) Integer limit) {
+        CandlestickPageDTO page = candlestickFactService.findSeriesPage(
+                dataFeedUuid, tradeAsset, tradeTimeFrame, fromDatetimeId, toDatetimeId, null, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getContent());
+    }
+
+    /**
+     * GET /api/candlesticks/search : Get the first candlesticks of a series in the compact binary format.
+     * Deprecated in favour of /window; a response of limit candlesticks may be followed by more.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param limit the maximum number of candlesticks
+     * @return the ResponseEntity with status 200 (OK) and the encoded series in body
+     */
+    @Deprecated
+    @GetMapping(value = "/search", produces = CandlestickSeriesCodec.MEDIA_TYPE)
+    @Operation(summary = "Get a candlestick series in binary form", deprecated = true,
+               description = "Returns at most limit candlesticks by data feed UUID, trade asset and trade time frame " +
+                       "encoded with delta-of-delta timestamps and XOR compressed prices when the request accepts " +
+                       CandlestickSeriesCodec.MEDIA_TYPE + ". Use /window instead.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved candlesticks",
+                    content = @Content(mediaType = CandlestickSeriesCodec.MEDIA_TYPE)),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    public ResponseEntity<StreamingResponseBody> getCandlesticksByDataFeedUuidAndTradeAssetAndTradeTimeFrameEncoded(
+            @Parameter(description = "Data feed UUID of the candlesticks to be obtained", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the candlesticks to be obtained", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the candlesticks to be obtained", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId,
+            @Parameter(description = "Maximum number of candlesticks (1 to " + CandlestickFactService.MAX_PAGE_SIZE + ")")
+            @RequestParam(required = false) Integer limit) {
+        CandlestickWindowDTO window = candlestickFactService.findWindowHead(
+                dataFeedUuid, tradeAsset, tradeTimeFrame, fromDatetimeId, toDatetimeId, limit);
+        return encoded(window);
+    }
+
+    /**
+     * GET /api/candlesticks/series : Get a keyset page of a candlestick series.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param cursor the next cursor returned by the previous page
+     * @param size the page size
+     * @return the ResponseEntity with status 200 (OK) and the page of candlesticks in body
+     */
+    @GetMapping("/series")
+    @Operation(summary = "Get a page of a candlestick series",
+               description = "Returns candlesticks by data feed UUID, trade asset and trade time frame ordered by datetime ID, " +
+                       "one keyset page at a time. Pass the returned nextCursor to get the following page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved candlesticks",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    public ResponseEntity<CandlestickPageDTO> getCandlestickSeriesPage(
+            @Parameter(description = "Data feed UUID of the candlesticks to be obtained", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the candlesticks to be obtained", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the candlesticks to be obtained", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId,
+            @Parameter(description = "Next cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (1 to " + CandlestickFactService.MAX_PAGE_SIZE + ")")
+            @RequestParam(required = false) Integer size) {
+        CandlestickPageDTO page = candlestickFactService.findSeriesPage(
+                dataFeedUuid, tradeAsset, tradeTimeFrame, fromDatetimeId, toDatetimeId, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * GET /api/candlesticks/window : Get a window of a candlestick series from memory.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param count the number of candlesticks ending at the upper bound
+     * @return the ResponseEntity with status 200 (OK) and the window in body
+     */
+    @GetMapping("/window")
+    @Operation(summary = "Get a window of a candlestick series",
+               description = "Returns the candlesticks between two datetime IDs, or the last count candlesticks at or " +
+                       "before the upper bound, in columnar form from the in-memory series cache")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved candlesticks",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickWindowDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid count")
+    })
+    public ResponseEntity<CandlestickWindowDTO> getCandlestickWindow(
+            @Parameter(description = "Data feed UUID of the candlesticks to be obtained", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the candlesticks to be obtained", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the candlesticks to be obtained", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId,
+            @Parameter(description = "Number of candlesticks ending at the upper bound")
+            @RequestParam(required = false) Integer count) {
+        CandlestickWindowDTO window = candlestickFactService.findWindow(
+                dataFeedUuid, tradeAsset, tradeTimeFrame, fromDatetimeId, toDatetimeId, count);
+        return ResponseEntity.ok(window);
+    }
+
+    /**
+     * GET /api/candlesticks/window : Get a window of a candlestick series in the compact binary format.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param count the number of candlesticks ending at the upper bound
+     * @return the ResponseEntity with status 200 (OK) and the encoded window in body
+     */
+    @GetMapping(value = "/window", produces = CandlestickSeriesCodec.MEDIA_TYPE)
+    @Operation(summary = "Get a window of a candlestick series in binary form",
+               description = "Returns the same window as the JSON variant encoded with delta-of-delta timestamps and " +
+                       "XOR compressed prices when the request accepts " + CandlestickSeriesCodec.MEDIA_TYPE)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved candlesticks",
+                    content = @Content(mediaType = CandlestickSeriesCodec.MEDIA_TYPE)),
+            @ApiResponse(responseCode = "400", description = "Invalid count")
+    })
+    public ResponseEntity<StreamingResponseBody> getCandlestickWindowEncoded(
+            @Parameter(description = "Data feed UUID of the candlesticks to be obtained", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the candlesticks to be obtained", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the candlesticks to be obtained", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId,
+            @Parameter(description = "Number of candlesticks ending at the upper bound")
+            @RequestParam(required = false) Integer count) {
+        CandlestickWindowDTO window = candlestickFactService.findWindow(
+                dataFeedUuid, tradeAsset, tradeTimeFrame, fromDatetimeId, toDatetimeId, count);
+        return encoded(window);
+    }
+
+    /**
+     * GET /api/candlesticks/indicators : Get technical indicators over a window of a candlestick series.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param indicators the comma separated indicator definitions
+     * @return the ResponseEntity with status 200 (OK) and the indicator columns in body
+     */
+    @GetMapping("/indicators")
+    @Operation(summary = "Get technical indicators of a candlestick series",
+               description = "Returns one column per indicator output between two datetime IDs. Supported indicators " +
+                       "are ema:period, sma:period, rsi:period, atr:period, bb:period:multiplier, macd:fast:slow:signal " +
+                       "and vwap, for example ema:20,rsi:14")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed indicators",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickIndicatorsDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid indicator definition")
+    })
+    public ResponseEntity<CandlestickIndicatorsDTO> getCandlestickIndicators(
+            @Parameter(description = "Data feed UUID of the candlesticks", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the candlesticks", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the candlesticks", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId,
+            @Parameter(description = "Comma separated indicator definitions", required = true)
+            @RequestParam String indicators) {
+        CandlestickIndicatorsDTO result = candlestickFactService.findIndicators(
+                dataFeedUuid, tradeAsset, tradeTimeFrame, fromDatetimeId, toDatetimeId, indicators);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * GET /api/candlesticks/range-stats : Get the OHLCV aggregate of a candlestick series between two datetime IDs.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @return the ResponseEntity with status 200 (OK) and with body the aggregate, or with status 404 (Not Found)
+     */
+    @GetMapping("/range-stats")
+    @Operation(summary = "Get range statistics of a candlestick series",
+               description = "Returns the open, high, low, close, volume and VWAP of the candlesticks between two " +
+                       "datetime IDs in constant time from an in-memory range aggregate index")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved range statistics",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickRangeStatsDTO.class))),
+            @ApiResponse(responseCode = "404", description = "No candlestick in the range")
+    })
+    public ResponseEntity<CandlestickRangeStatsDTO> getCandlestickRangeStats(
+            @Parameter(description = "Data feed UUID of the candlesticks to be aggregated", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the candlesticks to be aggregated", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the candlesticks to be aggregated", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId) {
+        CandlestickRangeStatsDTO stats = candlestickFactService.findRangeStats(
+                dataFeedUuid, tradeAsset, tradeTimeFrame, fromDatetimeId, toDatetimeId);
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * GET /api/candlesticks/matrix : Get the candlesticks of several assets aligned on their datetime IDs.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAssets the trade assets
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param missingBars the missing bar policy
+     * @param limit the maximum number of datetime IDs
+     * @return the ResponseEntity with status 200 (OK) and the aligned candlesticks in body
+     */
+    @GetMapping("/matrix")
+    @Operation(summary = "Get a time aligned candlestick matrix of several assets",
+               description = "Returns at most limit datetime IDs of a flat row-major [time, asset, OHLCV] matrix of the " +
+                       "given assets between two datetime IDs. Datetime IDs missing in some assets are dropped (skip), " +
+                       "filled with a flat bar at the previous close (ffill) or left empty (nan); empty bars are marked " +
+                       "in the missing mask. When more datetime IDs follow, nextFromDatetimeId is the first of them")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved candlesticks",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickMatrixDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Missing or repeated trade assets, or invalid limit")
+    })
+    public ResponseEntity<CandlestickMatrixDTO> getCandlestickMatrix(
+            @Parameter(description = "Data feed UUID of the candlesticks to be obtained", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Comma separated trade assets, in matrix order", required = true)
+            @RequestParam List<TradeAssetType> tradeAssets,
+            @Parameter(description = "Trade time frame of the candlesticks to be obtained", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId,
+            @Parameter(description = "Missing bar policy")
+            @RequestParam(defaultValue = "nan") CandlestickFactService.MissingBarPolicy missingBars,
+            @Parameter(description = "Maximum number of datetime IDs (1 to " + CandlestickFactService.MAX_PAGE_SIZE + ")")
+            @RequestParam(required = false) Integer limit) {
+        CandlestickMatrixDTO matrix = candlestickFactService.findMatrix(
+                dataFeedUuid, tradeAssets, tradeTimeFrame, fromDatetimeId, toDatetimeId, missingBars, limit);
+        return ResponseEntity.ok(matrix);
+    }
+
+    /**
+     * GET /api/candlesticks/latest : Get the latest candlestick of a series.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @return the ResponseEntity with status 200 (OK) and with body the latest candlestick, or with status 404 (Not Found)
+     */
+    @GetMapping("/latest")
+    @Operation(summary = "Get the latest candlestick of a series",
+               description = "Returns the candlestick with the highest datetime ID of a data feed UUID, trade asset and trade time frame")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved candlestick",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickFactDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Series is empty")
+    })
+    public ResponseEntity<CandlestickFactDTO> getLatestCandlestick(
+            @Parameter(description = "Data feed UUID of the candlestick to be obtained", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the candlestick to be obtained", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the candlestick to be obtained", required = true)
             @RequestParam TradeTimeFrameType tradeTimeFrame) {
-        List<CandlestickFactDTO> candlesticks = candlestickFactService.findByDataFeedUuidAndTradeAssetAndTradeTimeFrame(
-                dataFeedUuid, tradeAsset, tradeTimeFrame);
-        return ResponseEntity.ok(candlesticks);
+        CandlestickFactDTO candlestick = candlestickFactService.findLatest(dataFeedUuid, tradeAsset, tradeTimeFrame);
+        return ResponseEntity.ok(candlestick);
+    }
+
+    /**
+     * GET /api/candlesticks/stream : Subscribe to the changes of a candlestick series.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @return the Server-Sent Events emitter of the subscription
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream the changes of a candlestick series",
+               description = "Sends the latest candlestick on connect, then a 'candlestick' event for every created or " +
+                       "updated candlestick and a 'deleted' event for every deleted one. Repeated updates of a bar not " +
+                       "yet delivered to a slow consumer are coalesced into its last state")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully subscribed",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE))
+    })
+    public SseEmitter streamCandlesticks(
+            @Parameter(description = "Data feed UUID of the candlesticks to be streamed", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the candlesticks to be streamed", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the candlesticks to be streamed", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame) {
+        return candlestickFactService.subscribe(dataFeedUuid, tradeAsset, tradeTimeFrame);
+    }
+
+    /**
+     * GET /api/candlesticks/export : Stream a candlestick series as NDJSON or CSV.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param format the export format
+     * @return the ResponseEntity with status 200 (OK) and the series streamed in body
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Export a candlestick series",
+               description = "Streams the candlesticks of a data feed UUID, trade asset and trade time frame ordered by " +
+                       "datetime ID, one NDJSON object or CSV line per candlestick")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed candlesticks",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")})
+    })
+    public ResponseEntity<StreamingResponseBody> exportCandlesticks(
+            @Parameter(description = "Data feed UUID of the candlesticks to be exported", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the candlesticks to be exported", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the candlesticks to be exported", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId,
+            @Parameter(description = "Export format")
+            @RequestParam(defaultValue = "ndjson") CandlestickExportService.ExportFormat format) {
+        StreamingResponseBody body = outputStream -> candlestickExportService.export(
+                dataFeedUuid, tradeAsset, tradeTimeFrame, fromDatetimeId, toDatetimeId, format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .body(body);
     }
 
     /**
@@ -171,6 +616,72 @@ public class CandlestickFactController {
         return new ResponseEntity<>(createdCandlestick, HttpStatus.CREATED);
     }
 
+    /**
+     * POST /api/candlesticks/import : Bulk import an MT5 candlestick export.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param inputStream the MT5 tab separated export
+     * @return the ResponseEntity with status 200 (OK) and the import report in body
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = {"text/tab-separated-values", MediaType.TEXT_PLAIN_VALUE,
+            MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Bulk import an MT5 candlestick export",
+               description = "Loads an MT5 tab separated export (<DATE> <TIME> <OPEN> <HIGH> <LOW> <CLOSE> <TICKVOL> " +
+                       "<VOL> <SPREAD>) with PostgreSQL COPY and merges it into the partition of the trade time frame. " +
+                       "Candlesticks already present are kept.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully imported candlesticks",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickImportReportDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid MT5 header"),
+            @ApiResponse(responseCode = "404", description = "Data feed not found")
+    })
+    public ResponseEntity<CandlestickImportReportDTO> importCandlesticks(
+            @Parameter(description = "Data feed UUID of the imported candlesticks", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the imported candlesticks", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the imported candlesticks", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            InputStream inputStream) throws IOException {
+        CandlestickImportReportDTO report = candlestickImportService.importMt5(
+                dataFeedUuid, tradeAsset, tradeTimeFrame, inputStream);
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * POST /api/candlesticks/resample : Rebuild the higher time frames of a data feed from its m1 candlesticks.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAssets the trade assets to resample
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @return the ResponseEntity with status 200 (OK) and one resample report per trade asset in body
+     */
+    @PostMapping("/resample")
+    @Operation(summary = "Resample m1 candlesticks into the higher time frames",
+               description = "Builds the m5, m15, m30, H1, H4, D1 and W1 candlesticks of a data feed from its m1 " +
+                       "candlesticks in a single pass, one trade asset per thread. The range is widened to whole weeks.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully resampled candlesticks",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickResampleReportDTO.class)))
+    })
+    public ResponseEntity<List<CandlestickResampleReportDTO>> resampleCandlesticks(
+            @Parameter(description = "Data feed UUID of the candlesticks to be resampled", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade assets to be resampled (all when omitted)")
+            @RequestParam(required = false) List<TradeAssetType> tradeAssets,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId) {
+        List<CandlestickResampleReportDTO> reports = candlestickResamplingService.backfill(
+                dataFeedUuid, tradeAssets, fromDatetimeId, toDatetimeId);
+        return ResponseEntity.ok(reports);
+    }
+
     /**
      * PUT /api/candlesticks : Update an existing candlestick.
      *
@@ -234,4 +745,11 @@ public class CandlestickFactController {
         candlestickFactService.delete(dataFeedUuid, tradeAsset, tradeTimeFrame, datetimeId);
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity<StreamingResponseBody> encoded(CandlestickWindowDTO window) {
+        StreamingResponseBody body = outputStream -> CandlestickSeriesCodec.encode(window, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(CandlestickSeriesCodec.MEDIA_TYPE))
+                .body(body);
+    }
 }
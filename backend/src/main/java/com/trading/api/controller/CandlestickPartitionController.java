@@ -0,0 +1,94 @@
+package com.trading.api.controller;
+
+import com.trading.api.dto.CandlestickPartitionDTO;
+import com.trading.api.dto.CandlestickPartitionMaintenanceDTO;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import com.trading.api.service.CandlestickPartitionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST controller for the partitions of candlestick_fact.
+ */
+@RestController
+@RequestMapping("/api/candlesticks/partitions")
+@RequiredArgsConstructor
+@Tag(name = "Candlestick Partitions", description = "Candlestick partition management APIs")
+public class CandlestickPartitionController {
+
+    private final CandlestickPartitionService candlestickPartitionService;
+
+    /**
+     * GET /api/candlesticks/partitions : Get the partitions of candlestick_fact with their sizes.
+     *
+     * @return the ResponseEntity with status 200 (OK) and the list of partitions in body
+     */
+    @GetMapping
+    @Operation(summary = "Get candlestick partitions",
+               description = "Returns the time frame partitions and their datetime ID range partitions with estimated " +
+                       "rows, table and index sizes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved partitions",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickPartitionDTO.class)))
+    })
+    public ResponseEntity<List<CandlestickPartitionDTO>> getPartitions() {
+        List<CandlestickPartitionDTO> partitions = candlestickPartitionService.findAll();
+        return ResponseEntity.ok(partitions);
+    }
+
+    /**
+     * POST /api/candlesticks/partitions/maintain : Create the missing range partitions.
+     *
+     * @return the ResponseEntity with status 200 (OK) and the created partitions in body
+     */
+    @PostMapping("/maintain")
+    @Operation(summary = "Create missing candlestick partitions",
+               description = "Creates the current and upcoming periods of every range partitioned time frame and " +
+                       "moves the rows of the default partitions into their periods")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully maintained partitions",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickPartitionMaintenanceDTO.class)))
+    })
+    public ResponseEntity<CandlestickPartitionMaintenanceDTO> maintainPartitions() {
+        CandlestickPartitionMaintenanceDTO result = candlestickPartitionService.maintain();
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * POST /api/candlesticks/partitions/detach : Detach the range partitions of a time frame before a datetime ID.
+     *
+     * @param tradeTimeFrame the trade time frame
+     * @param beforeDatetimeId the exclusive datetime ID the detached partitions end at or before
+     * @param drop whether to drop the detached tables
+     * @return the ResponseEntity with status 200 (OK) and the detached partitions in body
+     */
+    @PostMapping("/detach")
+    @Operation(summary = "Detach old candlestick partitions",
+               description = "Detaches every range partition of a time frame ending at or before a datetime ID, " +
+                       "keeping it as a standalone table unless drop is set")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully detached partitions",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickPartitionMaintenanceDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Time frame not range partitioned")
+    })
+    public ResponseEntity<CandlestickPartitionMaintenanceDTO> detachPartitions(
+            @Parameter(description = "Trade time frame of the partitions", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Exclusive datetime ID the detached partitions end at or before", required = true)
+            @RequestParam Long beforeDatetimeId,
+            @Parameter(description = "Drop the detached tables")
+            @RequestParam(defaultValue = "false") boolean drop) {
+        CandlestickPartitionMaintenanceDTO result = candlestickPartitionService.detach(tradeTimeFrame, beforeDatetimeId, drop);
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,144 @@
+package com.trading.api.controller;
+
+import com.trading.api.dto.CandlestickQualityReportDTO;
+import com.trading.api.dto.CandlestickRepairReportDTO;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import com.trading.api.service.CandlestickQualityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST controller for candlestick data quality reports and repairs.
+ */
+@RestController
+@RequestMapping("/api/candlesticks/quality")
+@RequiredArgsConstructor
+@Tag(name = "Candlestick Quality", description = "Candlestick data quality APIs")
+public class CandlestickQualityController {
+
+    private final CandlestickQualityService candlestickQualityService;
+
+    /**
+     * GET /api/candlesticks/quality : Get the stored quality reports.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @return the ResponseEntity with status 200 (OK) and the list of quality reports in body
+     */
+    @GetMapping
+    @Operation(summary = "Get candlestick quality reports", description = "Returns the stored quality reports, optionally of one data feed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved quality reports",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickQualityReportDTO.class)))
+    })
+    public ResponseEntity<List<CandlestickQualityReportDTO>> getQualityReports(
+            @Parameter(description = "Data feed UUID of the reports to be obtained")
+            @RequestParam(required = false) UUID dataFeedUuid) {
+        List<CandlestickQualityReportDTO> reports = candlestickQualityService.findAll(dataFeedUuid);
+        return ResponseEntity.ok(reports);
+    }
+
+    /**
+     * GET /api/candlesticks/quality/series : Get the quality report of a series.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @return the ResponseEntity with status 200 (OK) and with body the quality report, or with status 404 (Not Found)
+     */
+    @GetMapping("/series")
+    @Operation(summary = "Get the quality report of a candlestick series",
+               description = "Returns the quality report of a data feed UUID, trade asset and trade time frame")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved quality report",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickQualityReportDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Series never scanned")
+    })
+    public ResponseEntity<CandlestickQualityReportDTO> getQualityReport(
+            @Parameter(description = "Data feed UUID of the series", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the series", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the series", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame) {
+        CandlestickQualityReportDTO report = candlestickQualityService.findById(dataFeedUuid, tradeAsset, tradeTimeFrame);
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * POST /api/candlesticks/quality/scan : Scan candlestick series for quality issues.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeTimeFrames the trade time frames
+     * @param full whether to rescan from the start of the series
+     * @return the ResponseEntity with status 200 (OK) and the updated quality reports in body
+     */
+    @PostMapping("/scan")
+    @Operation(summary = "Scan candlestick series for quality issues",
+               description = "Checks every series of the selected partitions in parallel for gaps, repeated bars, " +
+                       "spikes and OHLC invariant violations, continuing from the last scanned datetime ID unless full is set")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully scanned candlesticks",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickQualityReportDTO.class)))
+    })
+    public ResponseEntity<List<CandlestickQualityReportDTO>> scanCandlesticks(
+            @Parameter(description = "Data feed UUID of the series to be scanned (all when omitted)")
+            @RequestParam(required = false) UUID dataFeedUuid,
+            @Parameter(description = "Trade time frames to be scanned (all when omitted)")
+            @RequestParam(required = false) List<TradeTimeFrameType> tradeTimeFrames,
+            @Parameter(description = "Discard the stored reports and scan from the start of the series")
+            @RequestParam(defaultValue = "false") boolean full) {
+        List<CandlestickQualityReportDTO> reports = candlestickQualityService.scan(dataFeedUuid, tradeTimeFrames, full);
+        return ResponseEntity.ok(reports);
+    }
+
+    /**
+     * POST /api/candlesticks/quality/repair : Copy a series into another data feed with its gaps forward-filled.
+     *
+     * @param dataFeedUuid the source data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param targetDataFeedUuid the target data feed UUID
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @return the ResponseEntity with status 200 (OK) and the repair report in body
+     */
+    @PostMapping("/repair")
+    @Operation(summary = "Repair a candlestick series into another data feed",
+               description = "Copies a series into the target data feed, filling intraday gaps inside the session with " +
+                       "flat bars at the previous close and zero volume, and widening high and low to contain open and close")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully repaired candlesticks",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = CandlestickRepairReportDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Target data feed is the source data feed"),
+            @ApiResponse(responseCode = "404", description = "Target data feed not found")
+    })
+    public ResponseEntity<CandlestickRepairReportDTO> repairCandlesticks(
+            @Parameter(description = "Data feed UUID of the series to be repaired", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade asset of the series to be repaired", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Trade time frame of the series to be repaired", required = true)
+            @RequestParam TradeTimeFrameType tradeTimeFrame,
+            @Parameter(description = "Data feed UUID receiving the repaired series", required = true)
+            @RequestParam UUID targetDataFeedUuid,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId) {
+        CandlestickRepairReportDTO report = candlestickQualityService.repair(dataFeedUuid, tradeAsset, tradeTimeFrame,
+                targetDataFeedUuid, fromDatetimeId, toDatetimeId);
+        return ResponseEntity.ok(report);
+    }
+}
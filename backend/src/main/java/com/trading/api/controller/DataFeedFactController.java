@@ -1,6 +1,9 @@
 package com.trading.api.controller;
 
+import com.trading.api.arrow.ArrowResultSetWriter;
+import com.trading.api.arrow.FactTable;
 import com.trading.api.dto.DataFeedFactDTO;
+import com.trading.api.service.ArrowExportService;
 import com.trading.api.service.DataFeedFactService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,8 +15,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -28,6 +33,7 @@ import java.util.UUID;
 public class DataFeedFactController {
 
     private final DataFeedFactService dataFeedFactService;
+    private final ArrowExportService arrowExportService;
 
     /**
      * GET /api/datafeeds : Get all data feeds.
@@ -45,6 +51,25 @@ public class DataFeedFactController {
         return ResponseEntity.ok(dataFeeds);
     }
 
+    /**
+     * GET /api/datafeeds : Stream all data feeds as an Arrow IPC stream.
+     *
+     * @return the ResponseEntity with status 200 (OK) and the data feeds streamed in body
+     */
+    @GetMapping(produces = ArrowResultSetWriter.MEDIA_TYPE)
+    @Operation(summary = "Stream all data feeds as Arrow", description = "Returns all data feeds as an Arrow IPC stream " +
+            "when the request accepts " + ArrowResultSetWriter.MEDIA_TYPE)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed data feeds",
+                    content = @Content(mediaType = ArrowResultSetWriter.MEDIA_TYPE))
+    })
+    public ResponseEntity<StreamingResponseBody> getAllDataFeedsArrow() {
+        StreamingResponseBody body = outputStream -> arrowExportService.exportFacts(FactTable.data_feed_fact, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ArrowResultSetWriter.MEDIA_TYPE))
+                .body(body);
+    }
+
     /**
      * GET /api/datafeeds/{uuid} : Get data feed by UUID.
      *
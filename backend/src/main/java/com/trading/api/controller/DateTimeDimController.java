@@ -1,6 +1,7 @@
 package com.trading.api.controller;
 
 import com.trading.api.dto.DateTimeDimDTO;
+import com.trading.api.dto.DateTimeDimPageDTO;
 import com.trading.api.service.DateTimeDimService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,8 +16,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * REST controller for managing DateTimeDim entities.
  */
@@ -29,19 +28,31 @@ public class DateTimeDimController {
     private final DateTimeDimService dateTimeDimService;
 
     /**
-     * GET /api/datetimes : Get all datetime records.
+     * GET /api/datetimes : Get a page of the datetime records of a range.
      *
-     * @return the ResponseEntity with status 200 (OK) and the list of datetime records in body
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param size the page size
+     * @return the ResponseEntity with status 200 (OK) and the page of datetime records in body
      */
     @GetMapping
-    @Operation(summary = "Get all datetime records", description = "Returns all datetime records")
+    @Operation(summary = "Get a page of datetime records",
+               description = "Returns the datetime records of a datetime ID range in order, one page at a time. " +
+                       "Pass the returned nextDatetimeId as fromDatetimeId to get the following page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved datetime records",
-                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = DateTimeDimDTO.class)))
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = DateTimeDimPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page size")
     })
-    public ResponseEntity<List<DateTimeDimDTO>> getAllDateTimes() {
-        List<DateTimeDimDTO> dateTimes = dateTimeDimService.findAll();
-        return ResponseEntity.ok(dateTimes);
+    public ResponseEntity<DateTimeDimPageDTO> getAllDateTimes(
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId,
+            @Parameter(description = "Page size (1 to " + DateTimeDimService.MAX_PAGE_SIZE + ")")
+            @RequestParam(required = false) Integer size) {
+        DateTimeDimPageDTO page = dateTimeDimService.findRange(fromDatetimeId, toDatetimeId, size);
+        return ResponseEntity.ok(page);
     }
 
     /**
@@ -0,0 +1,87 @@
+package com.trading.api.controller;
+
+import com.trading.api.codec.FactStreamDecoder;
+import com.trading.api.dto.EpisodeDTO;
+import com.trading.api.dto.EpisodeIngestReportDTO;
+import com.trading.api.dto.FactStreamIngestReportDTO;
+import com.trading.api.service.EpisodeIngestService;
+import com.trading.api.service.FactStreamIngestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+/**
+ * REST controller for ingesting self-play episodes.
+ */
+@RestController
+@RequestMapping("/api/episodes")
+@RequiredArgsConstructor
+@Tag(name = "Episodes", description = "Episode ingestion APIs")
+public class EpisodeController {
+
+    private final EpisodeIngestService episodeIngestService;
+    private final FactStreamIngestService factStreamIngestService;
+
+    /**
+     * POST /api/episodes : Ingest the facts of an episode, or of a chunk of its steps, in one transaction.
+     *
+     * @param episodeDTO the episode
+     * @return the ResponseEntity with status 201 (Created) and with body the number of facts written by type,
+     * or with status 400 (Bad Request) if a fact is invalid, or with status 404 (Not Found) if a referenced row is missing
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Ingest an episode",
+               description = "Writes the action, order, position, balance and risk metrics facts of every step in " +
+                       "one transaction with batched inserts. Facts inherit the risk management and portfolio of " +
+                       "the episode and the datetime ID of their step when they leave them out")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successfully ingested episode",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = EpisodeIngestReportDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Referenced row not found")
+    })
+    public ResponseEntity<EpisodeIngestReportDTO> ingestEpisode(
+            @Parameter(description = "Episode to be ingested", required = true)
+            @Valid @RequestBody EpisodeDTO episodeDTO) {
+        EpisodeIngestReportDTO report = episodeIngestService.ingest(episodeDTO);
+        return new ResponseEntity<>(report, HttpStatus.CREATED);
+    }
+
+    /**
+     * POST /api/episodes : Ingest the per-step facts of an episode sent as a binary fact stream.
+     *
+     * @param inputStream the encoded fact stream
+     * @return the ResponseEntity with status 201 (Created) and with body the number of facts written by type,
+     * or with status 400 (Bad Request) if the stream is malformed or a fact is invalid, or with status 404 (Not Found)
+     * if a referenced row is missing
+     */
+    @PostMapping(consumes = FactStreamDecoder.MEDIA_TYPE)
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Ingest an episode as a binary fact stream",
+               description = "Writes the action, balance and order facts of a length-prefixed binary stream in one " +
+                       "transaction with batched inserts. UUIDs are sent once as 16 raw bytes in the dictionary of " +
+                       "the stream and referenced by index, and order statuses as ordinals. Selected by the content " +
+                       "type " + FactStreamDecoder.MEDIA_TYPE)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successfully ingested fact stream",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = FactStreamIngestReportDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Malformed stream or invalid fact"),
+            @ApiResponse(responseCode = "404", description = "Referenced row not found")
+    })
+    public ResponseEntity<FactStreamIngestReportDTO> ingestFactStream(InputStream inputStream) {
+        FactStreamIngestReportDTO report = factStreamIngestService.ingest(inputStream);
+        return new ResponseEntity<>(report, HttpStatus.CREATED);
+    }
+}
@@ -1,7 +1,13 @@
 package com.trading.api.controller;
 
+import com.trading.api.arrow.ArrowResultSetWriter;
+import com.trading.api.arrow.FactTable;
+import com.trading.api.dto.BulkInsertReportDTO;
 import com.trading.api.dto.OrderFactDTO;
+import com.trading.api.dto.IngestAcceptedDTO;
+import com.trading.api.ingest.WriteBehindBuffer;
 import com.trading.api.model.enums.OrderStatusType;
+import com.trading.api.service.ArrowExportService;
 import com.trading.api.service.OrderFactService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,8 +19,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -29,6 +37,8 @@ import java.util.UUID;
 public class OrderFactController {
 
     private final OrderFactService orderFactService;
+    private final ArrowExportService arrowExportService;
+    private final WriteBehindBuffer writeBehindBuffer;
 
     /**
      * GET /api/order-facts : Get all order facts.
@@ -46,6 +56,25 @@ public class OrderFactController {
         return ResponseEntity.ok(orderFacts);
     }
 
+    /**
+     * GET /api/order-facts : Stream all order facts as an Arrow IPC stream.
+     *
+     * @return the ResponseEntity with status 200 (OK) and the order facts streamed in body
+     */
+    @GetMapping(produces = ArrowResultSetWriter.MEDIA_TYPE)
+    @Operation(summary = "Stream all order facts as Arrow", description = "Returns all order facts as an Arrow IPC stream " +
+            "when the request accepts " + ArrowResultSetWriter.MEDIA_TYPE)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed order facts",
+                    content = @Content(mediaType = ArrowResultSetWriter.MEDIA_TYPE))
+    })
+    public ResponseEntity<StreamingResponseBody> getAllOrderFactsArrow() {
+        StreamingResponseBody body = outputStream -> arrowExportService.exportFacts(FactTable.order_fact, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ArrowResultSetWriter.MEDIA_TYPE))
+                .body(body);
+    }
+
     /**
      * GET /api/order-facts/{uuid} : Get order fact by UUID.
      *
@@ -163,6 +192,57 @@ public class OrderFactController {
         return new ResponseEntity<>(createdOrderFact, HttpStatus.CREATED);
     }
 
+    /**
+     * POST /api/order-facts/bulk : Create order facts in one JDBC-batched transaction.
+     * Either every row is inserted or none is.
+     *
+     * @param orderFactDTOs the order facts to create
+     * @return the ResponseEntity with status 201 (Created) and with body the generated UUIDs and insert throughput,
+     * or with status 400 (Bad Request) if a row is invalid, or with status 404 (Not Found) if a referenced row is missing
+     */
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Bulk create order facts", description = "Validates every row, checks the referenced rows " +
+            "with one set-based query per table and inserts all rows through JDBC batching in a single transaction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successfully created order facts",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkInsertReportDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Referenced row not found")
+    })
+    public ResponseEntity<BulkInsertReportDTO> createOrderFacts(
+            @Parameter(description = "Order facts to be created", required = true)
+            @RequestBody List<OrderFactDTO> orderFactDTOs) {
+        BulkInsertReportDTO report = orderFactService.createAll(orderFactDTOs);
+        return new ResponseEntity<>(report, HttpStatus.CREATED);
+    }
+
+    /**
+     * POST /api/order-facts/async : Queue order facts for asynchronous insertion.
+     *
+     * @param orderFactDTOs the order facts to create
+     * @return the ResponseEntity with status 202 (Accepted) and with body the acceptance receipt,
+     * or with status 503 (Service Unavailable) if the write-behind buffer is full
+     */
+    @PostMapping("/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Queue order facts for asynchronous insertion",
+            description = "Validates the rows and their references and queues " +
+            "them in the write-behind buffer, which commits them in batches. Requires tradezero.ingest.async.enabled")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Successfully queued order facts",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = IngestAcceptedDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Asynchronous ingestion disabled or referenced row not found"),
+            @ApiResponse(responseCode = "503", description = "Write-behind buffer full, retry later")
+    })
+    public ResponseEntity<IngestAcceptedDTO> enqueueOrderFacts(
+            @Parameter(description = "Order facts to be created", required = true)
+            @RequestBody List<OrderFactDTO> orderFactDTOs) {
+        IngestAcceptedDTO accepted = writeBehindBuffer.enqueue(FactTable.order_fact, orderFactDTOs);
+        return new ResponseEntity<>(accepted, HttpStatus.ACCEPTED);
+    }
+
     /**
      * PUT /api/order-facts/{uuid} : Update an existing order fact.
      *
@@ -1,6 +1,9 @@
 package com.trading.api.controller;
 
+import com.trading.api.arrow.ArrowResultSetWriter;
+import com.trading.api.arrow.FactTable;
 import com.trading.api.dto.PortfolioFactDTO;
+import com.trading.api.service.ArrowExportService;
 import com.trading.api.service.PortfolioFactService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,8 +15,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -28,6 +33,7 @@ import java.util.UUID;
 public class PortfolioFactController {
 
     private final PortfolioFactService portfolioFactService;
+    private final ArrowExportService arrowExportService;
 
     /**
      * GET /api/portfolios : Get all portfolios.
@@ -45,6 +51,25 @@ public class PortfolioFactController {
         return ResponseEntity.ok(portfolios);
     }
 
+    /**
+     * GET /api/portfolios : Stream all portfolios as an Arrow IPC stream.
+     *
+     * @return the ResponseEntity with status 200 (OK) and the portfolios streamed in body
+     */
+    @GetMapping(produces = ArrowResultSetWriter.MEDIA_TYPE)
+    @Operation(summary = "Stream all portfolios as Arrow", description = "Returns all portfolios as an Arrow IPC stream " +
+            "when the request accepts " + ArrowResultSetWriter.MEDIA_TYPE)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed portfolios",
+                    content = @Content(mediaType = ArrowResultSetWriter.MEDIA_TYPE))
+    })
+    public ResponseEntity<StreamingResponseBody> getAllPortfoliosArrow() {
+        StreamingResponseBody body = outputStream -> arrowExportService.exportFacts(FactTable.portfolio_fact, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ArrowResultSetWriter.MEDIA_TYPE))
+                .body(body);
+    }
+
     /**
      * GET /api/portfolios/{uuid} : Get portfolio by UUID.
      *
@@ -1,6 +1,12 @@
 package com.trading.api.controller;
 
+import com.trading.api.arrow.ArrowResultSetWriter;
+import com.trading.api.arrow.FactTable;
+import com.trading.api.dto.BulkInsertReportDTO;
 import com.trading.api.dto.PositionFactDTO;
+import com.trading.api.dto.IngestAcceptedDTO;
+import com.trading.api.ingest.WriteBehindBuffer;
+import com.trading.api.service.ArrowExportService;
 import com.trading.api.service.PositionFactService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,8 +18,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -28,6 +36,8 @@ import java.util.UUID;
 public class PositionFactController {
 
     private final PositionFactService positionFactService;
+    private final ArrowExportService arrowExportService;
+    private final WriteBehindBuffer writeBehindBuffer;
 
     /**
      * GET /api/positions : Get all position facts.
@@ -45,6 +55,25 @@ public class PositionFactController {
         return ResponseEntity.ok(positionFacts);
     }
 
+    /**
+     * GET /api/positions : Stream all position facts as an Arrow IPC stream.
+     *
+     * @return the ResponseEntity with status 200 (OK) and the position facts streamed in body
+     */
+    @GetMapping(produces = ArrowResultSetWriter.MEDIA_TYPE)
+    @Operation(summary = "Stream all position facts as Arrow", description = "Returns all position facts as an Arrow IPC stream " +
+            "when the request accepts " + ArrowResultSetWriter.MEDIA_TYPE)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed position facts",
+                    content = @Content(mediaType = ArrowResultSetWriter.MEDIA_TYPE))
+    })
+    public ResponseEntity<StreamingResponseBody> getAllPositionFactsArrow() {
+        StreamingResponseBody body = outputStream -> arrowExportService.exportFacts(FactTable.position_fact, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ArrowResultSetWriter.MEDIA_TYPE))
+                .body(body);
+    }
+
     /**
      * GET /api/positions/{uuid} : Get position fact by UUID.
      *
@@ -143,6 +172,57 @@ public class PositionFactController {
         return new ResponseEntity<>(createdPositionFact, HttpStatus.CREATED);
     }
 
+    /**
+     * POST /api/positions/bulk : Create position facts in one JDBC-batched transaction.
+     * Either every row is inserted or none is.
+     *
+     * @param positionFactDTOs the position facts to create
+     * @return the ResponseEntity with status 201 (Created) and with body the generated UUIDs and insert throughput,
+     * or with status 400 (Bad Request) if a row is invalid, or with status 404 (Not Found) if a referenced row is missing
+     */
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Bulk create position facts", description = "Validates every row, checks the referenced rows " +
+            "with one set-based query per table and inserts all rows through JDBC batching in a single transaction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successfully created position facts",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkInsertReportDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Referenced row not found")
+    })
+    public ResponseEntity<BulkInsertReportDTO> createPositionFacts(
+            @Parameter(description = "Position facts to be created", required = true)
+            @RequestBody List<PositionFactDTO> positionFactDTOs) {
+        BulkInsertReportDTO report = positionFactService.createAll(positionFactDTOs);
+        return new ResponseEntity<>(report, HttpStatus.CREATED);
+    }
+
+    /**
+     * POST /api/positions/async : Queue position facts for asynchronous insertion.
+     *
+     * @param positionFactDTOs the position facts to create
+     * @return the ResponseEntity with status 202 (Accepted) and with body the acceptance receipt,
+     * or with status 503 (Service Unavailable) if the write-behind buffer is full
+     */
+    @PostMapping("/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Queue position facts for asynchronous insertion",
+            description = "Validates the rows and their references and queues " +
+            "them in the write-behind buffer, which commits them in batches. Requires tradezero.ingest.async.enabled")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Successfully queued position facts",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = IngestAcceptedDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Asynchronous ingestion disabled or referenced row not found"),
+            @ApiResponse(responseCode = "503", description = "Write-behind buffer full, retry later")
+    })
+    public ResponseEntity<IngestAcceptedDTO> enqueuePositionFacts(
+            @Parameter(description = "Position facts to be created", required = true)
+            @RequestBody List<PositionFactDTO> positionFactDTOs) {
+        IngestAcceptedDTO accepted = writeBehindBuffer.enqueue(FactTable.position_fact, positionFactDTOs);
+        return new ResponseEntity<>(accepted, HttpStatus.ACCEPTED);
+    }
+
     /**
      * PUT /api/positions/{uuid} : Update an existing position fact.
      *
@@ -0,0 +1,143 @@
+package com.trading.api.controller;
+
+import com.trading.api.dto.ContractRolloverDTO;
+import com.trading.api.dto.TradingMinuteCountDTO;
+import com.trading.api.dto.TradingMinuteDTO;
+import com.trading.api.dto.TradingMinutesDTO;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.service.TradingCalendarService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * REST controller for the B3 trading session calendar.
+ */
+@RestController
+@RequestMapping("/api/calendar")
+@RequiredArgsConstructor
+@Tag(name = "Trading Calendar", description = "B3 trading session calendar APIs")
+public class TradingCalendarController {
+
+    private final TradingCalendarService tradingCalendarService;
+
+    /**
+     * GET /api/calendar/trading-minutes/{datetimeId} : Check whether a minute is a trading minute.
+     *
+     * @param datetimeId the datetime ID
+     * @return the ResponseEntity with status 200 (OK) and with body the trading session status of the minute
+     */
+    @GetMapping("/trading-minutes/{datetimeId}")
+    @Operation(summary = "Check a trading minute", description = "Returns whether a datetime ID falls on a trading day and inside its session")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully checked the minute",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = TradingMinuteDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid datetime ID")
+    })
+    public ResponseEntity<TradingMinuteDTO> getTradingMinute(
+            @Parameter(description = "Datetime ID of the minute", required = true)
+            @PathVariable long datetimeId) {
+        return ResponseEntity.ok(tradingCalendarService.findTradingMinute(datetimeId));
+    }
+
+    /**
+     * GET /api/calendar/trading-minutes/next : Get the trading minutes following a datetime.
+     *
+     * @param afterDatetimeId the exclusive datetime ID the minutes follow
+     * @param count the number of minutes
+     * @return the ResponseEntity with status 200 (OK) and with body the trading minutes
+     */
+    @GetMapping("/trading-minutes/next")
+    @Operation(summary = "Get the next trading minutes", description = "Returns the datetime IDs of the next trading minutes after a datetime ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved trading minutes",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = TradingMinutesDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid datetime ID or count")
+    })
+    public ResponseEntity<TradingMinutesDTO> getNextTradingMinutes(
+            @Parameter(description = "Exclusive datetime ID the minutes follow", required = true)
+            @RequestParam long afterDatetimeId,
+            @Parameter(description = "Number of minutes (1 to " + TradingCalendarService.MAX_TRADING_MINUTES + ")")
+            @RequestParam(defaultValue = "1") int count) {
+        return ResponseEntity.ok(tradingCalendarService.findNextTradingMinutes(afterDatetimeId, count));
+    }
+
+    /**
+     * GET /api/calendar/trading-minutes/count : Count the trading minutes between two datetimes.
+     *
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @return the ResponseEntity with status 200 (OK) and with body the number of trading minutes
+     */
+    @GetMapping("/trading-minutes/count")
+    @Operation(summary = "Count trading minutes", description = "Returns the number of trading minutes between two datetime IDs, both inclusive")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully counted trading minutes",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = TradingMinuteCountDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid datetime ID")
+    })
+    public ResponseEntity<TradingMinuteCountDTO> countTradingMinutes(
+            @Parameter(description = "Inclusive lower datetime ID bound", required = true)
+            @RequestParam long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound", required = true)
+            @RequestParam long toDatetimeId) {
+        return ResponseEntity.ok(tradingCalendarService.countTradingMinutes(fromDatetimeId, toDatetimeId));
+    }
+
+    /**
+     * GET /api/calendar/holidays : Get the weekdays without a trading session.
+     *
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @return the ResponseEntity with status 200 (OK) and the list of holidays in body
+     */
+    @GetMapping("/holidays")
+    @Operation(summary = "Get holidays", description = "Returns the weekdays without a B3 trading session")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved holidays"),
+            @ApiResponse(responseCode = "400", description = "Invalid datetime ID")
+    })
+    public ResponseEntity<List<LocalDate>> getHolidays(
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId) {
+        return ResponseEntity.ok(tradingCalendarService.findHolidays(fromDatetimeId, toDatetimeId));
+    }
+
+    /**
+     * GET /api/calendar/rollovers : Get the contract rollovers of a continuous futures series.
+     *
+     * @param tradeAsset the trade asset
+     * @param fromDatetimeId the inclusive lower bound of the last trading days
+     * @param toDatetimeId the inclusive upper bound of the last trading days
+     * @return the ResponseEntity with status 200 (OK) and the list of rollovers in body
+     */
+    @GetMapping("/rollovers")
+    @Operation(summary = "Get contract rollovers",
+               description = "Returns the last trading day of every contract of a continuous series and the first trading minute of the next one")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved rollovers",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ContractRolloverDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid datetime ID")
+    })
+    public ResponseEntity<List<ContractRolloverDTO>> getRollovers(
+            @Parameter(description = "Trade asset of the continuous series", required = true)
+            @RequestParam TradeAssetType tradeAsset,
+            @Parameter(description = "Inclusive lower bound of the last trading days")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper bound of the last trading days")
+            @RequestParam(required = false) Long toDatetimeId) {
+        return ResponseEntity.ok(tradingCalendarService.findRollovers(tradeAsset, fromDatetimeId, toDatetimeId));
+    }
+}
@@ -0,0 +1,146 @@
+package com.trading.api.controller;
+
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.service.TrainingWindowService;
+import com.trading.api.training.TrainingFeatures;
+import com.trading.api.training.WindowSampler;
+import com.trading.api.training.WindowStartIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST controller for exporting model training data.
+ */
+@RestController
+@RequestMapping("/api/training")
+@RequiredArgsConstructor
+@Tag(name = "Training", description = "Model training data APIs")
+public class TrainingController {
+
+    private final TrainingWindowService trainingWindowService;
+
+    /**
+     * GET /api/training/windows : Stream sliding windows of normalized features for a trade zero dimension.
+     *
+     * @param tradeZeroDimUuid the trade zero dimension UUID
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAssets the trade assets to export
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param stride the number of bars between consecutive windows
+     * @param format the export format
+     * @return the ResponseEntity with status 200 (OK) and the windows streamed in body
+     */
+    @GetMapping("/windows")
+    @Operation(summary = "Export training windows",
+               description = "Streams sliding windows of lookBack + lookForward bars of the trade zero dimension time " +
+                       "frame, with DAY-SIN/DAY-COS and rolling z-scores of OPEN/HIGH/LOW/CLOSE/VOL per bar")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed training windows",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "application/octet-stream")}),
+            @ApiResponse(responseCode = "400", description = "Trade asset not part of the trade zero dimension"),
+            @ApiResponse(responseCode = "404", description = "Trade zero dimension not found")
+    })
+    public ResponseEntity<StreamingResponseBody> getTrainingWindows(
+            @Parameter(description = "UUID of the trade zero dimension defining the windows", required = true)
+            @RequestParam UUID tradeZeroDimUuid,
+            @Parameter(description = "Data feed UUID of the candlesticks", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade assets to be exported (all assets of the dimension when omitted)")
+            @RequestParam(required = false) List<TradeAssetType> tradeAssets,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId,
+            @Parameter(description = "Number of bars between the starts of consecutive windows")
+            @RequestParam(defaultValue = "1") int stride,
+            @Parameter(description = "Export format")
+            @RequestParam(defaultValue = "ndjson") TrainingWindowService.WindowFormat format) {
+        if (stride <= 0) {
+            throw new BadRequestException("Stride must be positive");
+        }
+        TrainingWindowService.WindowPlan plan = trainingWindowService.plan(tradeZeroDimUuid, tradeAssets);
+        StreamingResponseBody body = outputStream -> trainingWindowService.export(
+                plan, dataFeedUuid, fromDatetimeId, toDatetimeId, stride, format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header("X-Window-Length", Integer.toString(plan.getWindowLength()))
+                .header("X-Feature-Names", String.join(",", TrainingFeatures.FEATURE_NAMES))
+                .body(body);
+    }
+
+    /**
+     * GET /api/training/batches : Stream random minibatches of training windows for a trade zero dimension.
+     *
+     * @param tradeZeroDimUuid the trade zero dimension UUID
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAssets the trade assets to sample
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param batchSize the number of windows per batch
+     * @param batches the number of batches
+     * @param seed the seed of the random generator
+     * @param stratify the stratification of the draws
+     * @return the ResponseEntity with status 200 (OK) and the batches streamed in body
+     */
+    @GetMapping("/batches")
+    @Operation(summary = "Sample training minibatches",
+               description = "Streams batches of windows of lookBack + lookForward bars drawn with replacement from the " +
+                       "windows that do not cross a data gap, uniformly or with equal weight per hour and/or day of week. " +
+                       "Every batch is one little-endian float32 block of shape [batchSize, window length, feature count]")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed training batches",
+                    content = @Content(mediaType = "application/octet-stream")),
+            @ApiResponse(responseCode = "400", description = "Invalid batch size, batch too large or no valid window in the range"),
+            @ApiResponse(responseCode = "404", description = "Trade zero dimension not found")
+    })
+    public ResponseEntity<StreamingResponseBody> getTrainingBatches(
+            @Parameter(description = "UUID of the trade zero dimension defining the windows", required = true)
+            @RequestParam UUID tradeZeroDimUuid,
+            @Parameter(description = "Data feed UUID of the candlesticks", required = true)
+            @RequestParam UUID dataFeedUuid,
+            @Parameter(description = "Trade assets to be sampled (all assets of the dimension when omitted)")
+            @RequestParam(required = false) List<TradeAssetType> tradeAssets,
+            @Parameter(description = "Inclusive lower datetime ID bound")
+            @RequestParam(required = false) Long fromDatetimeId,
+            @Parameter(description = "Inclusive upper datetime ID bound")
+            @RequestParam(required = false) Long toDatetimeId,
+            @Parameter(description = "Number of windows per batch (1 to " + TrainingWindowService.MAX_BATCH_SIZE
+                    + ", at most " + TrainingWindowService.MAX_BATCH_BYTES + " bytes per batch)")
+            @RequestParam(defaultValue = "256") int batchSize,
+            @Parameter(description = "Number of batches")
+            @RequestParam(defaultValue = "1") int batches,
+            @Parameter(description = "Seed of the random generator")
+            @RequestParam(defaultValue = "0") long seed,
+            @Parameter(description = "Stratification of the draws")
+            @RequestParam(defaultValue = "none") WindowStartIndex.Stratification stratify) {
+        if (batches <= 0) {
+            throw new BadRequestException("Batches must be positive");
+        }
+        TrainingWindowService.WindowPlan plan = trainingWindowService.plan(tradeZeroDimUuid, tradeAssets);
+        trainingWindowService.batchBytes(plan, batchSize);
+        WindowSampler sampler = trainingWindowService.sampler(plan, dataFeedUuid, fromDatetimeId, toDatetimeId, stratify);
+        StreamingResponseBody body = outputStream -> trainingWindowService.sample(
+                sampler, batchSize, batches, seed, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header("X-Window-Length", Integer.toString(plan.getWindowLength()))
+                .header("X-Feature-Names", String.join(",", TrainingFeatures.FEATURE_NAMES))
+                .header("X-Batch-Size", Integer.toString(batchSize))
+                .header("X-Valid-Windows", Long.toString(sampler.getValidWindows()))
+                .body(body);
+    }
+}
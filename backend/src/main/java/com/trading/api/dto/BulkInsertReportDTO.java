@@ -0,0 +1,26 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO reporting the outcome of a bulk fact insert.
+ * The generated UUIDs are in the order of the submitted rows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkInsertReportDTO {
+
+    private int rows;
+
+    private List<UUID> uuids;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+}
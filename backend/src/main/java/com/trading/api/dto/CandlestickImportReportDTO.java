@@ -0,0 +1,34 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO reporting the outcome of a bulk candlestick import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickImportReportDTO {
+
+    private long linesRead;
+
+    private long rowsCopied;
+
+    private long rowsInserted;
+
+    private long rowsAlreadyPresent;
+
+    private long rowsWithoutDatetime;
+
+    private long rejectedLines;
+
+    private List<String> rejections;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+}
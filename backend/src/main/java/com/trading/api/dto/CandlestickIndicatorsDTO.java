@@ -0,0 +1,32 @@
+package com.trading.api.dto;
+
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO for technical indicators over a window of a candlestick series in columnar form.
+ * Every indicator output column holds one value per datetime ID, NaN while the indicator warms up.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickIndicatorsDTO {
+
+    private UUID dataFeedUuid;
+
+    private TradeAssetType tradeAsset;
+
+    private TradeTimeFrameType tradeTimeFrame;
+
+    private int size;
+
+    private long[] datetimeId;
+
+    private Map<String, double[]> indicators;
+}
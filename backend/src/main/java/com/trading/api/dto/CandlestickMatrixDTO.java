@@ -0,0 +1,46 @@
+package com.trading.api.dto;
+
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for the candlesticks of several assets aligned on a common datetime ID axis.
+ * {@code values} is a flat row-major array of the given {@code shape} {@code [size, assets, fields]}:
+ * {@code values[(t * assets + a) * fields + f]} holds field {@code fields[f]} of asset {@code tradeAssets[a]}
+ * at {@code datetimeId[t]}. {@code missing[t * assets + a]} is true where the asset has no bar and the
+ * policy does not fill it; its values are 0 there. The next from datetime ID is null when the range
+ * has no more datetime IDs.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickMatrixDTO {
+
+    private UUID dataFeedUuid;
+
+    private TradeTimeFrameType tradeTimeFrame;
+
+    private List<TradeAssetType> tradeAssets;
+
+    private List<String> fields;
+
+    private String missingBars;
+
+    private int size;
+
+    private int[] shape;
+
+    private long[] datetimeId;
+
+    private double[] values;
+
+    private boolean[] missing;
+
+    private Long nextFromDatetimeId;
+}
@@ -0,0 +1,23 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a keyset page of a candlestick series.
+ * The next cursor is null when the series has no more candlesticks in the requested range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickPageDTO {
+
+    private List<CandlestickFactDTO> content;
+
+    private int size;
+
+    private String nextCursor;
+}
@@ -0,0 +1,47 @@
+package com.trading.api.dto;
+
+import com.trading.api.model.enums.TradeTimeFrameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a partition of candlestick_fact with its size.
+ * Sizes of a partitioned table are the sums over its partitions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickPartitionDTO {
+
+    private String name;
+
+    private String parentName;
+
+    private TradeTimeFrameType tradeTimeFrame;
+
+    private boolean partitioned;
+
+    private boolean defaultPartition;
+
+    /**
+     * Inclusive lower datetime ID bound of a range partition.
+     */
+    private Long fromDatetimeId;
+
+    /**
+     * Exclusive upper datetime ID bound of a range partition.
+     */
+    private Long toDatetimeId;
+
+    /**
+     * Planner row estimate, or null if the partition was never analyzed.
+     */
+    private Long estimatedRows;
+
+    private long tableBytes;
+
+    private long indexBytes;
+
+    private long totalBytes;
+}
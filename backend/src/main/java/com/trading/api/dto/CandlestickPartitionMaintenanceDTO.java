@@ -0,0 +1,26 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the result of creating or detaching candlestick_fact partitions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickPartitionMaintenanceDTO {
+
+    /**
+     * Names of the partitions created, attached or detached.
+     */
+    private List<String> partitions;
+
+    /**
+     * Rows moved out of the default partitions into the created partitions.
+     */
+    private long movedRows;
+}
@@ -0,0 +1,52 @@
+package com.trading.api.dto;
+
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for the data quality report of a candlestick series.
+ * Counters accumulate over incremental scans; issues holds the most recent findings,
+ * one "TYPE datetimeId detail" line each.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickQualityReportDTO {
+
+    private UUID dataFeedUuid;
+
+    private TradeAssetType tradeAsset;
+
+    private TradeTimeFrameType tradeTimeFrame;
+
+    private Long firstDatetimeId;
+
+    private Long lastScannedDatetimeId;
+
+    private long candlesticks;
+
+    private long missing;
+
+    private long gaps;
+
+    private long largestGap;
+
+    private long duplicates;
+
+    private long spikes;
+
+    private long invariantViolations;
+
+    private long zeroVolume;
+
+    private List<String> issues;
+
+    private LocalDateTime scannedAt;
+}
@@ -0,0 +1,47 @@
+package com.trading.api.dto;
+
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for the OHLCV aggregate of the candlesticks of a series between two datetime IDs.
+ * VWAP weighs the typical price (high + low + close) / 3 of every candlestick by its volume.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickRangeStatsDTO {
+
+    private UUID dataFeedUuid;
+
+    private TradeAssetType tradeAsset;
+
+    private TradeTimeFrameType tradeTimeFrame;
+
+    private long firstDatetimeId;
+
+    private long lastDatetimeId;
+
+    private int count;
+
+    private double open;
+
+    private double high;
+
+    private long highDatetimeId;
+
+    private double low;
+
+    private long lowDatetimeId;
+
+    private double close;
+
+    private double volume;
+
+    private double vwap;
+}
@@ -0,0 +1,34 @@
+package com.trading.api.dto;
+
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO reporting the outcome of copying a candlestick series into a repaired data feed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickRepairReportDTO {
+
+    private UUID sourceDataFeedUuid;
+
+    private UUID targetDataFeedUuid;
+
+    private TradeAssetType tradeAsset;
+
+    private TradeTimeFrameType tradeTimeFrame;
+
+    private long copied;
+
+    private long filled;
+
+    private long corrected;
+
+    private long elapsedMillis;
+}
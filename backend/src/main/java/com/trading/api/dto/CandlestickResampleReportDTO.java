@@ -0,0 +1,29 @@
+package com.trading.api.dto;
+
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO reporting the outcome of resampling the m1 series of one trade asset.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickResampleReportDTO {
+
+    private UUID dataFeedUuid;
+
+    private TradeAssetType tradeAsset;
+
+    private long sourceCandlesticks;
+
+    private Map<TradeTimeFrameType, Long> candlesticksWritten;
+
+    private long elapsedMillis;
+}
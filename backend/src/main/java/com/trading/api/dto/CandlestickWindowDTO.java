@@ -0,0 +1,39 @@
+package com.trading.api.dto;
+
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for a window of a candlestick series in columnar form.
+ * The series key is sent once and every column holds one value per candlestick.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickWindowDTO {
+
+    private UUID dataFeedUuid;
+
+    private TradeAssetType tradeAsset;
+
+    private TradeTimeFrameType tradeTimeFrame;
+
+    private int size;
+
+    private long[] datetimeId;
+
+    private double[] open;
+
+    private double[] high;
+
+    private double[] low;
+
+    private double[] close;
+
+    private double[] volume;
+}
@@ -0,0 +1,26 @@
+package com.trading.api.dto;
+
+import com.trading.api.model.enums.TradeAssetType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for the rollover of a continuous futures series from an expiring contract to the next one.
+ * The rollover datetime ID is the first trading minute of the next contract.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContractRolloverDTO {
+
+    private TradeAssetType tradeAsset;
+
+    private String contract;
+
+    private LocalDate lastTradingDate;
+
+    private Long rolloverDatetimeId;
+}
@@ -0,0 +1,23 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a page of a datetime range.
+ * The next datetime ID is null when the range has no more datetimes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DateTimeDimPageDTO {
+
+    private List<DateTimeDimDTO> content;
+
+    private int size;
+
+    private Long nextDatetimeId;
+}
@@ -0,0 +1,30 @@
+package com.trading.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for a self-play episode, or a chunk of its steps, ingested in one transaction.
+ * The facts of every step inherit the risk management and portfolio of the episode when they leave them out.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EpisodeDTO {
+
+    @NotNull(message = "Risk management UUID is required")
+    private UUID riskManagementUuid;
+
+    @NotNull(message = "Portfolio UUID is required")
+    private UUID portfolioUuid;
+
+    @NotEmpty(message = "Steps are required")
+    private List<@Valid EpisodeStepDTO> steps;
+}
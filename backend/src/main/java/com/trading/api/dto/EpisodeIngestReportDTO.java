@@ -0,0 +1,30 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the summary of an ingested episode.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EpisodeIngestReportDTO {
+
+    private int steps;
+
+    private int actionFacts;
+
+    private int orderFacts;
+
+    private int positionFacts;
+
+    private int balanceFacts;
+
+    private int riskMetricsFacts;
+
+    private long elapsedMillis;
+
+    private double stepsPerSecond;
+}
@@ -0,0 +1,29 @@
+package com.trading.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the facts produced by one environment step of an episode.
+ * Every fact is optional, and each one inherits the datetime ID of the step when it leaves it out.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EpisodeStepDTO {
+
+    @NotNull(message = "Datetime ID is required")
+    private Long datetimeId;
+
+    private ActionFactDTO action;
+
+    private OrderFactDTO order;
+
+    private PositionFactDTO position;
+
+    private BalanceFactDTO balance;
+
+    private RiskMetricsFactDTO riskMetrics;
+}
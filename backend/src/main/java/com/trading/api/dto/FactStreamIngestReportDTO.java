@@ -0,0 +1,28 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the summary of an ingested binary fact stream.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FactStreamIngestReportDTO {
+
+    private long bytes;
+
+    private int dictionarySize;
+
+    private int actionFacts;
+
+    private int balanceFacts;
+
+    private int orderFacts;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+}
@@ -0,0 +1,26 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the receipt of rows accepted by the write-behind buffer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestAcceptedDTO {
+
+    private int rows;
+
+    /**
+     * Sequence of the last accepted row. Rows are committed in sequence order.
+     */
+    private long sequence;
+
+    /**
+     * Rows waiting in the buffer after this request, including its own.
+     */
+    private int pendingRows;
+}
@@ -0,0 +1,20 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the number of trading minutes between two datetime IDs, both inclusive.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradingMinuteCountDTO {
+
+    private long fromDatetimeId;
+
+    private long toDatetimeId;
+
+    private long tradingMinutes;
+}
@@ -0,0 +1,20 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the trading session status of a minute.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradingMinuteDTO {
+
+    private long datetimeId;
+
+    private boolean tradingDay;
+
+    private boolean tradingMinute;
+}
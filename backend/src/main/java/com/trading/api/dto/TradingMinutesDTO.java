@@ -0,0 +1,21 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the trading minutes following a datetime.
+ * Fewer minutes than requested are returned at the end of the calendar.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradingMinutesDTO {
+
+    private long afterDatetimeId;
+
+    private int count;
+
+    private long[] datetimeIds;
+}
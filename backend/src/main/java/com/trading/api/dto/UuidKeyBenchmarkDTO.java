@@ -0,0 +1,37 @@
+package com.trading.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the insert throughput and index size of one primary key generator.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UuidKeyBenchmarkDTO {
+
+    /**
+     * UUID version of the keys, 4 for random keys or 7 for time ordered keys.
+     */
+    private int uuidVersion;
+
+    private int rows;
+
+    private int batchSize;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    /**
+     * Heap size of the table after the inserts.
+     */
+    private long tableBytes;
+
+    /**
+     * Size of the primary key index after the inserts.
+     */
+    private long indexBytes;
+}
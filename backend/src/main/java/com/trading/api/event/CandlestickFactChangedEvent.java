@@ -0,0 +1,63 @@
+package com.trading.api.event;
+
+import com.trading.api.dto.CandlestickFactDTO;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * Event published when candlesticks of a series are created, updated, deleted or bulk loaded.
+ * Listeners are notified after the writing transaction commits.
+ */
+@Data
+@AllArgsConstructor
+public class CandlestickFactChangedEvent {
+
+    /**
+     * Kind of change applied to the series.
+     */
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        BULK_LOADED
+    }
+
+    private ChangeType changeType;
+
+    private UUID dataFeedUuid;
+
+    private TradeAssetType tradeAsset;
+
+    private TradeTimeFrameType tradeTimeFrame;
+
+    /**
+     * Inclusive lower datetime ID of the changed range.
+     */
+    private long fromDatetimeId;
+
+    /**
+     * Inclusive upper datetime ID of the changed range.
+     */
+    private long toDatetimeId;
+
+    /**
+     * The candlestick after the change, or null for deletes and bulk loads.
+     */
+    private CandlestickFactDTO candlestick;
+
+    /**
+     * Create the event of a single created or updated candlestick.
+     *
+     * @param changeType the change type
+     * @param candlestick the candlestick after the change
+     * @return the event
+     */
+    public static CandlestickFactChangedEvent of(ChangeType changeType, CandlestickFactDTO candlestick) {
+        return new CandlestickFactChangedEvent(changeType, candlestick.getDataFeedUuid(), candlestick.getTradeAsset(),
+                candlestick.getTradeTimeFrame(), candlestick.getDatetimeId(), candlestick.getDatetimeId(), candlestick);
+    }
+}
@@ -0,0 +1,15 @@
+package com.trading.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when the asynchronous ingestion buffer has no room for a request.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IngestBufferFullException extends RuntimeException {
+
+    public IngestBufferFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,36 @@
+package com.trading.api.indicator;
+
+/**
+ * Average true range with Wilder smoothing.
+ */
+final class Atr implements Indicator {
+
+    private final int period;
+    private int count;
+    private double previousClose;
+    private double value;
+
+    Atr(int period) {
+        this.period = period;
+    }
+
+    @Override
+    public int outputCount() {
+        return 1;
+    }
+
+    @Override
+    public void update(long datetimeId, double open, double high, double low, double close, double volume, double[] out) {
+        double trueRange = count == 0 ? high - low
+                : Math.max(high, previousClose) - Math.min(low, previousClose);
+        previousClose = close;
+        if (count < period) {
+            count++;
+            value += (trueRange - value) / count;
+            out[0] = count == period ? value : Double.NaN;
+            return;
+        }
+        value = (value * (period - 1) + trueRange) / period;
+        out[0] = value;
+    }
+}
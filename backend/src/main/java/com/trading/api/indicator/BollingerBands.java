@@ -0,0 +1,51 @@
+package com.trading.api.indicator;
+
+/**
+ * Bollinger bands of the close: middle simple average and bands at a multiple of the population
+ * standard deviation, from running sums of the window and of its squares.
+ */
+final class BollingerBands implements Indicator {
+
+    private final double[] window;
+    private final double multiplier;
+    private int count;
+    private int next;
+    private double sum;
+    private double sumOfSquares;
+
+    BollingerBands(int period, double multiplier) {
+        this.window = new double[period];
+        this.multiplier = multiplier;
+    }
+
+    @Override
+    public int outputCount() {
+        return 3;
+    }
+
+    @Override
+    public void update(long datetimeId, double open, double high, double low, double close, double volume, double[] out) {
+        if (count == window.length) {
+            double evicted = window[next];
+            sum -= evicted;
+            sumOfSquares -= evicted * evicted;
+        } else {
+            count++;
+        }
+        window[next] = close;
+        sum += close;
+        sumOfSquares += close * close;
+        next = (next + 1) % window.length;
+        if (count < window.length) {
+            out[0] = Double.NaN;
+            out[1] = Double.NaN;
+            out[2] = Double.NaN;
+            return;
+        }
+        double mean = sum / count;
+        double deviation = Math.sqrt(Math.max(sumOfSquares / count - mean * mean, 0));
+        out[0] = mean - multiplier * deviation;
+        out[1] = mean;
+        out[2] = mean + multiplier * deviation;
+    }
+}
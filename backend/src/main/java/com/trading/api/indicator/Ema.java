@@ -0,0 +1,43 @@
+package com.trading.api.indicator;
+
+/**
+ * Exponential moving average of the close, seeded with the simple average of the first period.
+ */
+final class Ema implements Indicator {
+
+    private final int period;
+    private final double alpha;
+    private int count;
+    private double value;
+
+    Ema(int period) {
+        this.period = period;
+        this.alpha = 2.0 / (period + 1);
+    }
+
+    @Override
+    public int outputCount() {
+        return 1;
+    }
+
+    @Override
+    public void update(long datetimeId, double open, double high, double low, double close, double volume, double[] out) {
+        out[0] = next(close);
+    }
+
+    /**
+     * Advance the average by one value.
+     *
+     * @param x the value
+     * @return the average, or NaN before the first period is complete
+     */
+    double next(double x) {
+        if (count < period) {
+            count++;
+            value += (x - value) / count;
+            return count == period ? value : Double.NaN;
+        }
+        value += alpha * (x - value);
+        return value;
+    }
+}
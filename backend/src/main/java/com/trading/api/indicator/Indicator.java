@@ -0,0 +1,30 @@
+package com.trading.api.indicator;
+
+/**
+ * Incremental technical indicator over a candlestick series.
+ * <p>
+ * An indicator holds the state needed to produce its outputs for the next bar, so each bar costs
+ * O(1) regardless of the indicator period. Outputs are NaN until the indicator is warmed up.
+ */
+public interface Indicator {
+
+    /**
+     * Get the number of values produced per bar.
+     *
+     * @return the output count
+     */
+    int outputCount();
+
+    /**
+     * Advance the indicator by one bar.
+     *
+     * @param datetimeId the datetime ID of the bar
+     * @param open the open price
+     * @param high the high price
+     * @param low the low price
+     * @param close the close price
+     * @param volume the volume
+     * @param out the array receiving the {@link #outputCount()} outputs of the bar
+     */
+    void update(long datetimeId, double open, double high, double low, double close, double volume, double[] out);
+}
@@ -0,0 +1,212 @@
+package com.trading.api.indicator;
+
+import com.trading.api.cache.CandlestickSeries;
+import com.trading.api.cache.CandlestickSeriesKey;
+import com.trading.api.event.CandlestickFactChangedEvent;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Computes indicators over cached candlestick series and keeps their state warm.
+ * <p>
+ * For every series and indicator the engine keeps the indicator state after the last bar seen
+ * together with the output columns computed so far. The state belongs to the generation of the
+ * series it was computed from: when a series of the same generation has grown only the new bars
+ * are fed to the state, and a series of another generation recomputes the indicator from the start.
+ * Warm states are evicted in least recently used order once their output columns exceed the
+ * configured memory budget or their number exceeds the configured maximum.
+ */
+@Component
+public class IndicatorEngine {
+
+    private final int maxWarmStates;
+    private final long maxWarmBytes;
+
+    private final LinkedHashMap<WarmKey, WarmState> warmStates = new LinkedHashMap<>(16, 0.75f, true);
+    private long warmBytes;
+
+    public IndicatorEngine(@Value("${tradezero.indicator.max-warm-states:1024}") int maxWarmStates,
+                           @Value("${tradezero.indicator.max-warm-bytes:268435456}") long maxWarmBytes) {
+        this.maxWarmStates = maxWarmStates;
+        this.maxWarmBytes = maxWarmBytes;
+    }
+
+    /**
+     * Compute the outputs of an indicator for the bars {@code [from, to)} of a series.
+     *
+     * @param series the series
+     * @param spec the indicator spec
+     * @param from the inclusive index of the first bar
+     * @param to the exclusive index of the last bar
+     * @return one column per output, each holding {@code to - from} values
+     */
+    public double[][] compute(CandlestickSeries series, IndicatorSpec spec, int from, int to) {
+        Objects.checkFromToIndex(from, to, series.size());
+        if (series.getGeneration() == 0) {
+            // Not read through the cache; nothing tells whether a warm state still matches it
+            WarmState state = new WarmState(spec, 0);
+            state.advance(series, to);
+            return state.slice(from, to);
+        }
+        WarmKey key = new WarmKey(series.getKey(), spec.toString());
+        WarmState state = warmState(key, spec, series.getGeneration());
+        synchronized (state) {
+            if (state.generation != series.getGeneration()) {
+                state.reset(spec, series.getGeneration());
+            }
+            state.advance(series, series.size());
+            double[][] columns = state.slice(from, to);
+            account(key, state);
+            return columns;
+        }
+    }
+
+    /**
+     * Total size in bytes of the output columns of the warm states.
+     */
+    public long getWarmBytes() {
+        synchronized (warmStates) {
+            return warmBytes;
+        }
+    }
+
+    /**
+     * Drop the warm states a committed candlestick change lands in to release their memory early;
+     * states of a superseded generation would be recomputed on their next use anyway.
+     *
+     * @param event the candlestick change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCandlestickFactChanged(CandlestickFactChangedEvent event) {
+        CandlestickSeriesKey key = new CandlestickSeriesKey(event.getDataFeedUuid(), event.getTradeAsset(),
+                event.getTradeTimeFrame());
+        synchronized (warmStates) {
+            Iterator<Map.Entry<WarmKey, WarmState>> entries = warmStates.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<WarmKey, WarmState> entry = entries.next();
+                if (entry.getKey().getSeriesKey().equals(key)
+                        && entry.getValue().lastDatetimeId >= event.getFromDatetimeId()) {
+                    warmBytes -= entry.getValue().accountedBytes;
+                    entries.remove();
+                }
+            }
+        }
+    }
+
+    private WarmState warmState(WarmKey key, IndicatorSpec spec, long generation) {
+        synchronized (warmStates) {
+            WarmState state = warmStates.get(key);
+            if (state == null) {
+                state = new WarmState(spec, generation);
+                warmStates.put(key, state);
+                if (warmStates.size() > maxWarmStates) {
+                    Map.Entry<WarmKey, WarmState> eldest = warmStates.entrySet().iterator().next();
+                    warmBytes -= eldest.getValue().accountedBytes;
+                    warmStates.remove(eldest.getKey());
+                }
+            }
+            return state;
+        }
+    }
+
+    /**
+     * Charge the current size of a warm state to the memory budget and evict the least recently
+     * used states while the budget is exceeded. Called with the lock of the state held.
+     */
+    private void account(WarmKey key, WarmState state) {
+        long bytes = state.estimatedBytes();
+        synchronized (warmStates) {
+            if (warmStates.get(key) != state) {
+                return;
+            }
+            warmBytes += bytes - state.accountedBytes;
+            state.accountedBytes = bytes;
+            Iterator<Map.Entry<WarmKey, WarmState>> eldest = warmStates.entrySet().iterator();
+            while (warmBytes > maxWarmBytes && eldest.hasNext()) {
+                Map.Entry<WarmKey, WarmState> entry = eldest.next();
+                warmBytes -= entry.getValue().accountedBytes;
+                eldest.remove();
+            }
+        }
+    }
+
+    @Data
+    private static final class WarmKey {
+
+        private final CandlestickSeriesKey seriesKey;
+
+        private final String spec;
+    }
+
+    /**
+     * Indicator state after the first {@code size} bars of the series of one generation and the
+     * outputs of those bars.
+     */
+    private static final class WarmState {
+
+        private Indicator indicator;
+        private double[][] columns;
+        private int size;
+        private long generation;
+        private long lastDatetimeId;
+        private long accountedBytes;
+
+        WarmState(IndicatorSpec spec, long generation) {
+            reset(spec, generation);
+        }
+
+        void reset(IndicatorSpec spec, long generation) {
+            indicator = spec.create();
+            columns = new double[indicator.outputCount()][0];
+            size = 0;
+            this.generation = generation;
+            lastDatetimeId = Long.MIN_VALUE;
+        }
+
+        long estimatedBytes() {
+            return (long) columns.length * (columns.length > 0 ? columns[0].length : 0) * Double.BYTES;
+        }
+
+        /**
+         * Feed the bars up to {@code target} to the indicator. Series of one generation share their
+         * head, so the bars already seen are never fed again.
+         */
+        void advance(CandlestickSeries series, int target) {
+            if (target <= size) {
+                return;
+            }
+            if (columns.length > 0 && target > columns[0].length) {
+                int capacity = Math.max(target, columns[0].length + (columns[0].length >> 1));
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = Arrays.copyOf(columns[i], capacity);
+                }
+            }
+            double[] out = new double[columns.length];
+            for (int i = size; i < target; i++) {
+                indicator.update(series.datetimeId(i), series.open(i), series.high(i), series.low(i),
+                        series.close(i), series.volume(i), out);
+                for (int j = 0; j < out.length; j++) {
+                    columns[j][i] = out[j];
+                }
+            }
+            size = target;
+            lastDatetimeId = series.datetimeId(target - 1);
+        }
+
+        double[][] slice(int from, int to) {
+            double[][] slice = new double[columns.length][];
+            for (int i = 0; i < slice.length; i++) {
+                slice[i] = Arrays.copyOfRange(columns[i], from, to);
+            }
+            return slice;
+        }
+    }
+}
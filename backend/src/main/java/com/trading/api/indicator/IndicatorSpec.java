@@ -0,0 +1,128 @@
+package com.trading.api.indicator;
+
+import com.trading.api.exception.BadRequestException;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed indicator definition such as {@code ema:20}, {@code bb:20:2} or {@code macd:12:26:9}.
+ * Omitted parameters take their usual defaults.
+ */
+@Data
+public class IndicatorSpec {
+
+    private final String name;
+
+    private final double[] parameters;
+
+    /**
+     * Parse a comma separated list of indicator definitions.
+     *
+     * @param indicators the definitions, for example {@code ema:20,rsi:14}
+     * @return the specs in request order
+     * @throws BadRequestException if a definition is unknown or malformed
+     */
+    public static List<IndicatorSpec> parseList(String indicators) {
+        List<IndicatorSpec> specs = new ArrayList<>();
+        for (String indicator : indicators.split(",")) {
+            if (!indicator.isBlank()) {
+                specs.add(parse(indicator.trim()));
+            }
+        }
+        if (specs.isEmpty()) {
+            throw new BadRequestException("At least one indicator is required");
+        }
+        return specs;
+    }
+
+    /**
+     * Parse one indicator definition.
+     *
+     * @param indicator the definition
+     * @return the spec
+     * @throws BadRequestException if the definition is unknown or malformed
+     */
+    public static IndicatorSpec parse(String indicator) {
+        String[] parts = indicator.toLowerCase().split(":");
+        double[] defaults = switch (parts[0]) {
+            case "ema", "sma" -> new double[]{20};
+            case "rsi", "atr" -> new double[]{14};
+            case "bb" -> new double[]{20, 2};
+            case "macd" -> new double[]{12, 26, 9};
+            case "vwap" -> new double[0];
+            default -> throw new BadRequestException("Unknown indicator: " + parts[0]);
+        };
+        if (parts.length - 1 > defaults.length) {
+            throw new BadRequestException("Too many parameters for indicator: " + indicator);
+        }
+        double[] parameters = defaults.clone();
+        for (int i = 1; i < parts.length; i++) {
+            try {
+                parameters[i - 1] = Double.parseDouble(parts[i]);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid parameter for indicator: " + indicator);
+            }
+        }
+        for (int i = 0; i < parameters.length; i++) {
+            // Every parameter is a period except the Bollinger band multiplier
+            boolean period = !(parts[0].equals("bb") && i == 1);
+            if (parameters[i] <= 0 || (period && (parameters[i] != Math.rint(parameters[i]) || parameters[i] > 100_000))) {
+                throw new BadRequestException("Invalid parameter for indicator: " + indicator);
+            }
+        }
+        return new IndicatorSpec(parts[0], parameters);
+    }
+
+    /**
+     * Create a fresh indicator state for this spec.
+     *
+     * @return the indicator
+     */
+    public Indicator create() {
+        return switch (name) {
+            case "ema" -> new Ema(period(0));
+            case "sma" -> new Sma(period(0));
+            case "rsi" -> new Rsi(period(0));
+            case "atr" -> new Atr(period(0));
+            case "bb" -> new BollingerBands(period(0), parameters[1]);
+            case "macd" -> new Macd(period(0), period(1), period(2));
+            case "vwap" -> new Vwap();
+            default -> throw new IllegalStateException("Unknown indicator: " + name);
+        };
+    }
+
+    /**
+     * Get the names of the outputs, {@code <spec>} for single output indicators and
+     * {@code <spec>.<output>} otherwise.
+     *
+     * @return the output names
+     */
+    public String[] outputNames() {
+        String id = toString();
+        return switch (name) {
+            case "bb" -> new String[]{id + ".lower", id + ".middle", id + ".upper"};
+            case "macd" -> new String[]{id + ".macd", id + ".signal", id + ".histogram"};
+            default -> new String[]{id};
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder id = new StringBuilder(name);
+        for (double parameter : parameters) {
+            id.append(':');
+            if (parameter == Math.rint(parameter)) {
+                id.append((long) parameter);
+            } else {
+                id.append(parameter);
+            }
+        }
+        return id.toString();
+    }
+
+    private int period(int index) {
+        return (int) parameters[index];
+    }
+}
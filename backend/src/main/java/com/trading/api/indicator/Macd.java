@@ -0,0 +1,39 @@
+package com.trading.api.indicator;
+
+/**
+ * Moving average convergence divergence of the close: MACD line, signal line and histogram.
+ */
+final class Macd implements Indicator {
+
+    private final Ema fast;
+    private final Ema slow;
+    private final Ema signal;
+
+    Macd(int fastPeriod, int slowPeriod, int signalPeriod) {
+        this.fast = new Ema(fastPeriod);
+        this.slow = new Ema(slowPeriod);
+        this.signal = new Ema(signalPeriod);
+    }
+
+    @Override
+    public int outputCount() {
+        return 3;
+    }
+
+    @Override
+    public void update(long datetimeId, double open, double high, double low, double close, double volume, double[] out) {
+        double fastValue = fast.next(close);
+        double slowValue = slow.next(close);
+        if (Double.isNaN(fastValue) || Double.isNaN(slowValue)) {
+            out[0] = Double.NaN;
+            out[1] = Double.NaN;
+            out[2] = Double.NaN;
+            return;
+        }
+        double macd = fastValue - slowValue;
+        double signalValue = signal.next(macd);
+        out[0] = macd;
+        out[1] = signalValue;
+        out[2] = macd - signalValue;
+    }
+}
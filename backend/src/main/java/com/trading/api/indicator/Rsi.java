@@ -0,0 +1,50 @@
+package com.trading.api.indicator;
+
+/**
+ * Relative strength index of the close with Wilder smoothing of gains and losses.
+ */
+final class Rsi implements Indicator {
+
+    private final int period;
+    private int count;
+    private double previousClose;
+    private double averageGain;
+    private double averageLoss;
+
+    Rsi(int period) {
+        this.period = period;
+    }
+
+    @Override
+    public int outputCount() {
+        return 1;
+    }
+
+    @Override
+    public void update(long datetimeId, double open, double high, double low, double close, double volume, double[] out) {
+        if (count == 0) {
+            count++;
+            previousClose = close;
+            out[0] = Double.NaN;
+            return;
+        }
+        double change = close - previousClose;
+        previousClose = close;
+        double gain = Math.max(change, 0);
+        double loss = Math.max(-change, 0);
+        if (count <= period) {
+            // The first averages are plain means of the first period of changes
+            averageGain += (gain - averageGain) / count;
+            averageLoss += (loss - averageLoss) / count;
+            count++;
+            if (count <= period) {
+                out[0] = Double.NaN;
+                return;
+            }
+        } else {
+            averageGain = (averageGain * (period - 1) + gain) / period;
+            averageLoss = (averageLoss * (period - 1) + loss) / period;
+        }
+        out[0] = averageLoss == 0 ? (averageGain == 0 ? 50 : 100) : 100 - 100 / (1 + averageGain / averageLoss);
+    }
+}
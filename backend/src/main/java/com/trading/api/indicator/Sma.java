@@ -0,0 +1,34 @@
+package com.trading.api.indicator;
+
+/**
+ * Simple moving average of the close over a ring buffer with a running sum.
+ */
+final class Sma implements Indicator {
+
+    private final double[] window;
+    private int count;
+    private int next;
+    private double sum;
+
+    Sma(int period) {
+        this.window = new double[period];
+    }
+
+    @Override
+    public int outputCount() {
+        return 1;
+    }
+
+    @Override
+    public void update(long datetimeId, double open, double high, double low, double close, double volume, double[] out) {
+        if (count == window.length) {
+            sum -= window[next];
+        } else {
+            count++;
+        }
+        window[next] = close;
+        sum += close;
+        next = (next + 1) % window.length;
+        out[0] = count == window.length ? sum / count : Double.NaN;
+    }
+}
@@ -0,0 +1,30 @@
+package com.trading.api.indicator;
+
+/**
+ * Volume weighted average of the typical price, reset at the start of every day.
+ */
+final class Vwap implements Indicator {
+
+    private long day = -1;
+    private double priceVolume;
+    private double volume;
+
+    @Override
+    public int outputCount() {
+        return 1;
+    }
+
+    @Override
+    public void update(long datetimeId, double open, double high, double low, double close, double volume, double[] out) {
+        // datetime IDs are yyyyMMddHHmm, so dropping HHmm gives the day
+        long barDay = datetimeId / 10000;
+        if (barDay != day) {
+            day = barDay;
+            priceVolume = 0;
+            this.volume = 0;
+        }
+        priceVolume += (high + low + close) / 3 * volume;
+        this.volume += volume;
+        out[0] = this.volume > 0 ? priceVolume / this.volume : Double.NaN;
+    }
+}
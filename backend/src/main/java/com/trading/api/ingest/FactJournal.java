@@ -0,0 +1,265 @@
+package com.trading.api.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.api.arrow.FactTable;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local append-only journal of the fact rows accepted by the write-behind buffer.
+ * <p>
+ * Rows are appended to preallocated segment files mapped into memory, so an append is a copy into
+ * the page cache and a request is acknowledged without a system call. Rows written this way survive
+ * a crash of the process; with {@code force} on, the written pages are also forced to the device
+ * before the acknowledgement so they survive a crash of the machine.
+ * <p>
+ * A segment starts with an 8 byte header ({@code TZJL} and the format version) followed by frames:
+ * <pre>
+ * int    body length
+ * int    CRC32C of the body
+ * body:  long sequence, byte table name length, table name (ASCII), row (JSON)
+ * </pre>
+ * The length is written last, so a frame cut short by a crash reads as the zero length that ends a
+ * segment; a frame torn by the machine going down fails its CRC. Segments are named after their first
+ * sequence and deleted once every row in them is committed. The directory holds a {@code journal.id}
+ * file with the UUID its committed sequence is stored under in ingest_checkpoint.
+ */
+@Slf4j
+@Component
+public class FactJournal {
+
+    private static final int MAGIC = 0x545A4A4C;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String ID_FILE = "journal.id";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean force;
+
+    /**
+     * Segment files by their first sequence. The last one is the segment being appended to, if mapped.
+     */
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private MappedByteBuffer segment;
+
+    public FactJournal(ObjectMapper objectMapper,
+                       @Value("${tradezero.ingest.journal.enabled:false}") boolean enabled,
+                       @Value("${tradezero.ingest.journal.directory:data/ingest-journal}") String directory,
+                       @Value("${tradezero.ingest.journal.segment-bytes:67108864}") int segmentBytes,
+                       @Value("${tradezero.ingest.journal.force:false}") boolean force) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.force = force;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Open the journal directory, creating it and its UUID on first use.
+     *
+     * @return the UUID of the journal
+     * @throws IOException if the directory cannot be read or written
+     */
+    public synchronized UUID open() throws IOException {
+        Files.createDirectories(directory);
+        Path idFile = directory.resolve(ID_FILE);
+        if (!Files.exists(idFile)) {
+            Path tmp = directory.resolve(ID_FILE + ".tmp");
+            Files.writeString(tmp, UUID.randomUUID().toString());
+            Files.move(tmp, idFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+        UUID journalUuid = UUID.fromString(Files.readString(idFile).trim());
+
+        segments.clear();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(FactJournal::isSegment)
+                    .forEach(file -> segments.put(firstSequenceOf(file), file));
+        }
+        return journalUuid;
+    }
+
+    /**
+     * Read the rows of the journal that are not committed yet, deleting the segments that are.
+     * The last segment is kept until a later segment follows it; appends always start a new segment
+     * after recovery.
+     *
+     * @param committedSequence the last committed sequence
+     * @return the uncommitted rows in sequence order, with their row as a JSON map
+     * @throws IOException if a segment cannot be read
+     */
+    public synchronized List<IngestRecord> recover(long committedSequence) throws IOException {
+        release(committedSequence);
+        List<IngestRecord> records = new ArrayList<>();
+        CRC32C crc = new CRC32C();
+        for (Path file : segments.values()) {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.limit() < SEGMENT_HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " journal segment: " + file);
+            }
+            int position = SEGMENT_HEADER_BYTES;
+            while (position + FRAME_HEADER_BYTES <= buffer.limit()) {
+                int length = buffer.getInt(position);
+                if (length == 0) {
+                    break;
+                }
+                int body = position + FRAME_HEADER_BYTES;
+                if (length < 0 || body + length > buffer.limit() || crcOf(crc, buffer, body, length) != buffer.getInt(position + 4)) {
+                    log.warn("Ignoring the torn tail of journal segment {} at byte {}", file.getFileName(), position);
+                    break;
+                }
+                IngestRecord record = decode(buffer, body, length);
+                if (record.getSequence() > committedSequence) {
+                    records.add(record);
+                }
+                position = body + length;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Append accepted rows, forcing the written pages to the device when force is on.
+     *
+     * @param records the rows, in sequence order
+     * @throws IOException if the rows cannot be written
+     */
+    public synchronized void append(List<IngestRecord> records) throws IOException {
+        byte[][] rows = new byte[records.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = objectMapper.writeValueAsBytes(records.get(i).getRow());
+        }
+
+        CRC32C crc = new CRC32C();
+        int start = segment != null ? segment.position() : 0;
+        for (int i = 0; i < rows.length; i++) {
+            IngestRecord record = records.get(i);
+            byte[] table = record.getTable().name().getBytes(StandardCharsets.US_ASCII);
+            byte[] row = rows[i];
+            int length = Long.BYTES + 1 + table.length + row.length;
+            if (segment == null || segment.remaining() < FRAME_HEADER_BYTES + length + Integer.BYTES) {
+                forceWritten(start);
+                rotate(record.getSequence(), length);
+                start = segment.position();
+            }
+
+            int position = segment.position();
+            int body = position + FRAME_HEADER_BYTES;
+            segment.position(body);
+            segment.putLong(record.getSequence());
+            segment.put((byte) table.length);
+            segment.put(table);
+            segment.put(row);
+            segment.putInt(position + 4, crcOf(crc, segment, body, length));
+            segment.putInt(position, length);
+        }
+        forceWritten(start);
+    }
+
+    /**
+     * Delete the closed segments whose rows are all committed.
+     *
+     * @param committedSequence the last committed sequence
+     * @throws IOException if a segment cannot be deleted
+     */
+    public synchronized void release(long committedSequence) throws IOException {
+        Iterator<Map.Entry<Long, Path>> iterator = segments.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Path> entry = iterator.next();
+            Long next = segments.higherKey(entry.getKey());
+            if (next == null || next - 1 > committedSequence) {
+                return;
+            }
+            Files.deleteIfExists(entry.getValue());
+            iterator.remove();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+    }
+
+    private void rotate(long firstSequence, int frameLength) throws IOException {
+        close();
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        int size = Math.max(segmentBytes, SEGMENT_HEADER_BYTES + FRAME_HEADER_BYTES + frameLength + Integer.BYTES);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size);
+            segment = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        segment.putInt(MAGIC);
+        segment.putInt(VERSION);
+        segments.put(firstSequence, file);
+    }
+
+    private void forceWritten(int start) {
+        if (force && segment != null && segment.position() > start) {
+            segment.force(start, segment.position() - start);
+        }
+    }
+
+    private IngestRecord decode(MappedByteBuffer buffer, int body, int length) throws IOException {
+        long sequence = buffer.getLong(body);
+        int tableLength = buffer.get(body + Long.BYTES) & 0xFF;
+        byte[] table = new byte[tableLength];
+        buffer.get(body + Long.BYTES + 1, table);
+        int rowOffset = body + Long.BYTES + 1 + tableLength;
+        byte[] row = new byte[body + length - rowOffset];
+        buffer.get(rowOffset, row);
+        return new IngestRecord(sequence, FactTable.valueOf(new String(table, StandardCharsets.US_ASCII)),
+                objectMapper.readValue(row, Object.class));
+    }
+
+    private static int crcOf(CRC32C crc, MappedByteBuffer buffer, int offset, int length) {
+        crc.reset();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
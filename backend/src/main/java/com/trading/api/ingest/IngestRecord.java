@@ -0,0 +1,27 @@
+package com.trading.api.ingest;
+
+import com.trading.api.arrow.FactTable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A fact row accepted by the write-behind buffer, in the order it was accepted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestRecord {
+
+    /**
+     * Position of the row in the accepted stream, starting at 1 and never reused by a write-ahead log.
+     */
+    private long sequence;
+
+    private FactTable table;
+
+    /**
+     * The DTO of the row. Read back from the write-ahead log as a JSON map until converted.
+     */
+    private Object row;
+}
@@ -0,0 +1,98 @@
+package com.trading.api.ingest;
+
+import com.trading.api.arrow.FactTable;
+import com.trading.api.repository.IngestCheckpointJdbcRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes view of the fact rows accepted by the write-behind buffer but not committed yet.
+ * <p>
+ * A read takes the matching accepted rows first and queries the database second. The query must
+ * run in a REPEATABLE READ transaction, and the committed sequence is read in that same snapshot;
+ * only the accepted rows above it are appended. A row committed in between is therefore returned
+ * once, by the database, and a row not committed yet is returned once, from memory, without an ID.
+ */
+@Component
+public class RecentFactOverlay {
+
+    private final IngestCheckpointJdbcRepository ingestCheckpointJdbcRepository;
+    private final Map<FactTable, ConcurrentSkipListMap<Long, Object>> rows = new EnumMap<>(FactTable.class);
+    private volatile UUID checkpointUuid;
+
+    public RecentFactOverlay(IngestCheckpointJdbcRepository ingestCheckpointJdbcRepository) {
+        this.ingestCheckpointJdbcRepository = ingestCheckpointJdbcRepository;
+        for (FactTable table : FactTable.values()) {
+            rows.put(table, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Query committed rows and append the matching accepted rows the query cannot see yet.
+     * Must be called inside a REPEATABLE READ transaction.
+     *
+     * @param table the fact table
+     * @param type the DTO class of the rows
+     * @param filter the condition of the query, applied to the accepted rows
+     * @param query the database query
+     * @return the committed rows followed by the uncommitted ones in acceptance order
+     */
+    public <T> List<T> withRecent(FactTable table, Class<T> type, Predicate<T> filter, Supplier<List<T>> query) {
+        UUID uuid = checkpointUuid;
+        if (uuid == null) {
+            return query.get();
+        }
+        List<Map.Entry<Long, T>> recent = new ArrayList<>();
+        for (Map.Entry<Long, Object> entry : rows.get(table).entrySet()) {
+            T row = type.cast(entry.getValue());
+            if (filter.test(row)) {
+                recent.add(Map.entry(entry.getKey(), row));
+            }
+        }
+
+        List<T> result = new ArrayList<>(query.get());
+        if (!recent.isEmpty()) {
+            long committedSequence = ingestCheckpointJdbcRepository.findSequence(uuid);
+            for (Map.Entry<Long, T> entry : recent) {
+                if (entry.getKey() > committedSequence) {
+                    result.add(entry.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Start serving accepted rows, checked against the committed sequence stored under a UUID.
+     *
+     * @param checkpointUuid the UUID of the checkpoint of the buffer
+     */
+    void activate(UUID checkpointUuid) {
+        this.checkpointUuid = checkpointUuid;
+    }
+
+    void add(List<IngestRecord> records) {
+        for (IngestRecord record : records) {
+            rows.get(record.getTable()).put(record.getSequence(), record.getRow());
+        }
+    }
+
+    /**
+     * Forget rows once they are committed or dead-lettered.
+     *
+     * @param records the rows
+     */
+    void remove(List<IngestRecord> records) {
+        for (IngestRecord record : records) {
+            rows.get(record.getTable()).remove(record.getSequence());
+        }
+    }
+}
@@ -0,0 +1,541 @@
+package com.trading.api.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.api.arrow.FactTable;
+import com.trading.api.bulk.BulkFactWriter;
+import com.trading.api.dto.ActionFactDTO;
+import com.trading.api.dto.BalanceFactDTO;
+import com.trading.api.dto.BulkInsertReportDTO;
+import com.trading.api.dto.IngestAcceptedDTO;
+import com.trading.api.dto.OrderFactDTO;
+import com.trading.api.dto.PositionFactDTO;
+import com.trading.api.dto.RiskMetricsFactDTO;
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.exception.IngestBufferFullException;
+import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.repository.IngestCheckpointJdbcRepository;
+import com.trading.api.repository.IngestDeadLetterJdbcRepository;
+import com.trading.api.service.ActionFactService;
+import com.trading.api.service.BalanceFactService;
+import com.trading.api.service.OrderFactService;
+import com.trading.api.service.PositionFactService;
+import com.trading.api.service.RiskMetricsFactService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Asynchronous write-behind buffer for the per-step facts of self-play episodes.
+ * <p>
+ * Accepted rows wait in a bounded in-memory queue and are visible to reads through the
+ * {@link RecentFactOverlay} until they are committed. A single flusher thread, the materializer, takes up to
+ * {@code flush.max-rows} rows once that many are pending or {@code flush.interval-ms} after the
+ * first one arrived, groups them by table and inserts every group through the JDBC-batched bulk
+ * insert of its service in one transaction, so a flush costs one commit. A request that does not fit
+ * in the queue waits up to {@code offer-timeout-ms} for the flusher to make room, then is rejected so
+ * the client backs off. Rows are validated and their foreign keys checked before they are accepted,
+ * so a bad row is rejected with its request.
+ * <p>
+ * Every flush commits its last sequence to ingest_checkpoint together with its rows, and the
+ * checkpoint never passes a row that was not written. A flush that fails because of the database is
+ * retried with exponential backoff, from {@code flush.retry-initial-ms} up to
+ * {@code flush.retry-max-ms}, holding back the rows behind it; the queue then fills and requests are
+ * rejected until the database is back. A flush that fails because of its rows is split in halves until
+ * the rejected rows are isolated, and each of them is stored in ingest_dead_letter in the transaction
+ * that moves the checkpoint past it. Without the {@link FactJournal}, rows still in the queue are lost
+ * if the process dies. With it, rows are in the journal before the request is acknowledged, a segment
+ * is released only once every row in it is committed or dead-lettered, and the rows replayed from it at
+ * startup are exactly the ones that were not; a buffer stopped while the database fails leaves its
+ * rows there.
+ */
+@Slf4j
+@Component
+public class WriteBehindBuffer {
+
+    private final BulkFactWriter bulkFactWriter;
+    private final FactJournal factJournal;
+    private final RecentFactOverlay recentFactOverlay;
+    private final IngestCheckpointJdbcRepository ingestCheckpointJdbcRepository;
+    private final IngestDeadLetterJdbcRepository ingestDeadLetterJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int capacity;
+    private final long offerTimeoutNanos;
+    private final int flushMaxRows;
+    private final long flushIntervalNanos;
+    private final long retryInitialMillis;
+    private final long retryMaxMillis;
+    private final long shutdownTimeoutMillis;
+
+    private final Map<FactTable, Sink<?>> sinks = new EnumMap<>(FactTable.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<IngestRecord> pending = new ArrayDeque<>();
+    private long sequence;
+    private volatile int depth;
+    private volatile boolean running;
+    private Thread flusher;
+    private UUID checkpointUuid;
+
+    private final Counter acceptedRows;
+    private final Counter rejectedRows;
+    private final Counter flushedRows;
+    private final Counter deadLetteredRows;
+    private final Counter flushRetries;
+    private final Timer flushLatency;
+    private final DistributionSummary flushSize;
+
+    public WriteBehindBuffer(ActionFactService actionFactService,
+                             BalanceFactService balanceFactService,
+                             OrderFactService orderFactService,
+                             PositionFactService positionFactService,
+                             RiskMetricsFactService riskMetricsFactService,
+                             BulkFactWriter bulkFactWriter,
+                             FactJournal factJournal,
+                             RecentFactOverlay recentFactOverlay,
+                             IngestCheckpointJdbcRepository ingestCheckpointJdbcRepository,
+                             IngestDeadLetterJdbcRepository ingestDeadLetterJdbcRepository,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${tradezero.ingest.async.enabled:false}") boolean enabled,
+                             @Value("${tradezero.ingest.buffer.capacity:100000}") int capacity,
+                             @Value("${tradezero.ingest.buffer.offer-timeout-ms:1000}") long offerTimeoutMillis,
+                             @Value("${tradezero.ingest.flush.max-rows:5000}") int flushMaxRows,
+                             @Value("${tradezero.ingest.flush.interval-ms:200}") long flushIntervalMillis,
+                             @Value("${tradezero.ingest.flush.retry-initial-ms:100}") long retryInitialMillis,
+                             @Value("${tradezero.ingest.flush.retry-max-ms:30000}") long retryMaxMillis,
+                             @Value("${tradezero.ingest.flush.shutdown-timeout-ms:30000}") long shutdownTimeoutMillis) {
+        this.bulkFactWriter = bulkFactWriter;
+        this.factJournal = factJournal;
+        this.recentFactOverlay = recentFactOverlay;
+        this.ingestCheckpointJdbcRepository = ingestCheckpointJdbcRepository;
+        this.ingestDeadLetterJdbcRepository = ingestDeadLetterJdbcRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        this.flushMaxRows = flushMaxRows;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.retryInitialMillis = retryInitialMillis;
+        this.retryMaxMillis = retryMaxMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+
+        sinks.put(FactTable.action_fact, new Sink<>(ActionFactDTO.class,
+                actionFactService::requireReferences, actionFactService::createAll));
+        sinks.put(FactTable.balance_fact, new Sink<>(BalanceFactDTO.class,
+                balanceFactService::requireReferences, balanceFactService::createAll));
+        sinks.put(FactTable.order_fact, new Sink<>(OrderFactDTO.class,
+                orderFactService::requireReferences, orderFactService::createAll));
+        sinks.put(FactTable.position_fact, new Sink<>(PositionFactDTO.class,
+                positionFactService::requireReferences, positionFactService::createAll));
+        sinks.put(FactTable.risk_metrics_fact, new Sink<>(RiskMetricsFactDTO.class,
+                riskMetricsFactService::requireReferences, riskMetricsFactService::createAll));
+
+        Gauge.builder("tradezero.ingest.buffer.depth", this, buffer -> buffer.depth)
+                .description("Rows waiting in the write-behind buffer")
+                .register(meterRegistry);
+        Gauge.builder("tradezero.ingest.buffer.capacity", this, buffer -> buffer.capacity)
+                .description("Rows the write-behind buffer holds at most")
+                .register(meterRegistry);
+        this.acceptedRows = rowCounter(meterRegistry, "accepted");
+        this.rejectedRows = rowCounter(meterRegistry, "rejected");
+        this.flushedRows = rowCounter(meterRegistry, "flushed");
+        this.deadLetteredRows = rowCounter(meterRegistry, "dead_lettered");
+        this.flushRetries = Counter.builder("tradezero.ingest.flush.retries")
+                .description("Write-behind flushes retried after the database failed")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("tradezero.ingest.flush.latency")
+                .description("Time to commit one write-behind flush")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.flushSize = DistributionSummary.builder("tradezero.ingest.flush.rows")
+                .description("Rows committed by one write-behind flush")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Bulk insert of one fact table with the DTO class its rows are read back as and the check of
+     * their foreign keys.
+     */
+    private static final class Sink<T> {
+
+        private final Class<T> type;
+        private final Consumer<List<T>> requireReferences;
+        private final Function<List<T>, BulkInsertReportDTO> bulkInsert;
+
+        private Sink(Class<T> type, Consumer<List<T>> requireReferences,
+                     Function<List<T>, BulkInsertReportDTO> bulkInsert) {
+            this.type = type;
+            this.requireReferences = requireReferences;
+            this.bulkInsert = bulkInsert;
+        }
+
+        private void requireReferences(List<?> rows) {
+            requireReferences.accept(rows.stream().map(type::cast).toList());
+        }
+
+        private void insert(List<Object> rows) {
+            bulkInsert.apply(rows.stream().map(type::cast).toList());
+        }
+    }
+
+    /**
+     * Replay the journal, if enabled, and start the flusher.
+     * Without the journal the checkpoint is kept under a UUID of this process, for the overlay only.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (factJournal.isEnabled()) {
+            try {
+                checkpointUuid = factJournal.open();
+                long committedSequence = ingestCheckpointJdbcRepository.findSequence(checkpointUuid);
+                List<IngestRecord> records = factJournal.recover(committedSequence);
+                for (IngestRecord record : records) {
+                    record.setRow(objectMapper.convertValue(record.getRow(), sink(record.getTable()).type));
+                    pending.add(record);
+                }
+                recentFactOverlay.add(records);
+                sequence = records.isEmpty() ? committedSequence : records.get(records.size() - 1).getSequence();
+                depth = pending.size();
+                log.info("Replaying {} uncommitted rows of journal {}", records.size(), checkpointUuid);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to recover the journal", e);
+            }
+        } else {
+            checkpointUuid = UUID.randomUUID();
+        }
+        recentFactOverlay.activate(checkpointUuid);
+        running = true;
+        flusher = new Thread(this::flushLoop, "write-behind-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Validate rows and queue them for insertion, waiting for room if the buffer is full.
+     *
+     * @param table the fact table of the rows
+     * @param rows the DTOs of the rows
+     * @return the acceptance receipt
+     * @throws ResourceNotFoundException if asynchronous ingestion is disabled or a referenced row is not found
+     * @throws BadRequestException if a row is invalid
+     * @throws IngestBufferFullException if the buffer has no room before the offer timeout
+     */
+    public IngestAcceptedDTO enqueue(FactTable table, List<?> rows) {
+        if (!enabled) {
+            throw new ResourceNotFoundException("Asynchronous ingestion is disabled, set tradezero.ingest.async.enabled=true");
+        }
+        Sink<?> sink = sink(table);
+        bulkFactWriter.validate(rows);
+        if (rows.size() > capacity) {
+            throw new BadRequestException("An asynchronous request must hold at most " + capacity + " rows");
+        }
+        sink.requireReferences(rows);
+
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IngestBufferFullException("Write-behind buffer is not running");
+            }
+            long nanos = offerTimeoutNanos;
+            while (pending.size() + rows.size() > capacity) {
+                if (nanos <= 0 || !running) {
+                    rejectedRows.increment(rows.size());
+                    throw new IngestBufferFullException("Write-behind buffer is full with " + pending.size() + " rows");
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+
+            List<IngestRecord> records = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                records.add(new IngestRecord(++sequence, table, row));
+            }
+            if (factJournal.isEnabled()) {
+                factJournal.append(records);
+            }
+            recentFactOverlay.add(records);
+            boolean wake = pending.isEmpty() || pending.size() + records.size() >= flushMaxRows;
+            pending.addAll(records);
+            depth = pending.size();
+            if (wake) {
+                notEmpty.signal();
+            }
+            acceptedRows.increment(rows.size());
+            return new IngestAcceptedDTO(rows.size(), sequence, pending.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestBufferFullException("Interrupted while waiting for room in the write-behind buffer");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to the journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Stop accepting rows and flush the pending ones.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join(shutdownTimeoutMillis);
+        if (flusher.isAlive()) {
+            log.warn("Write-behind buffer stopped with {} rows not flushed", depth);
+        } else if (!factJournal.isEnabled()) {
+            ingestCheckpointJdbcRepository.deleteSequence(checkpointUuid);
+        }
+    }
+
+    private void flushLoop() {
+        List<IngestRecord> batch;
+        while ((batch = take()) != null) {
+            if (!flush(batch)) {
+                log.warn("Write-behind buffer stopped with the database failing, {} rows left in journal {}",
+                        batch.size() + depth, checkpointUuid);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Wait for a full batch or for the flush interval to pass since the first pending row.
+     *
+     * @return the rows to flush, or null once stopped and drained
+     */
+    private List<IngestRecord> take() {
+        lock.lock();
+        try {
+            while (pending.isEmpty()) {
+                if (!running) {
+                    return null;
+                }
+                notEmpty.awaitUninterruptibly();
+            }
+            long nanos = flushIntervalNanos;
+            while (running && pending.size() < flushMaxRows && nanos > 0) {
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+
+            List<IngestRecord> batch = new ArrayList<>(Math.min(pending.size(), flushMaxRows));
+            while (!pending.isEmpty() && batch.size() < flushMaxRows) {
+                batch.add(pending.poll());
+            }
+            depth = pending.size();
+            notFull.signalAll();
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write a batch, then forget its rows and release the journal segments they are committed from.
+     *
+     * @param batch the rows, in sequence order
+     * @return false if the buffer stopped before the rows were written; they stay in the journal
+     */
+    private boolean flush(List<IngestRecord> batch) {
+        long start = System.nanoTime();
+        if (!write(batch)) {
+            return false;
+        }
+        recentFactOverlay.remove(batch);
+        flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        flushSize.record(batch.size());
+
+        if (factJournal.isEnabled()) {
+            try {
+                factJournal.release(batch.get(batch.size() - 1).getSequence());
+            } catch (IOException e) {
+                log.warn("Failed to release journal segments: {}", e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Insert rows and advance the checkpoint past them in one transaction, retrying while the database
+     * fails and splitting the rows while some of them are rejected.
+     *
+     * @param records the rows, in sequence order
+     * @return false if the buffer stopped before the rows were written
+     */
+    private boolean write(List<IngestRecord> records) {
+        Map<FactTable, List<Object>> groups = new EnumMap<>(FactTable.class);
+        for (IngestRecord record : records) {
+            groups.computeIfAbsent(record.getTable(), table -> new ArrayList<>()).add(record.getRow());
+        }
+        long lastSequence = records.get(records.size() - 1).getSequence();
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    groups.forEach((table, rows) -> sink(table).insert(rows));
+                    checkpoint(lastSequence);
+                });
+                flushedRows.increment(records.size());
+                return true;
+            } catch (RuntimeException e) {
+                if (isRowError(e)) {
+                    if (records.size() == 1) {
+                        return deadLetter(records.get(0), e);
+                    }
+                    int half = records.size() / 2;
+                    return write(records.subList(0, half)) && write(records.subList(half, records.size()));
+                }
+                if (!awaitRetry(attempt, records.size(), e)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Store a rejected row and advance the checkpoint past it in one transaction, retrying while the
+     * database fails.
+     *
+     * @param record the row
+     * @param error the reason the row was rejected
+     * @return false if the buffer stopped before the row was stored
+     */
+    private boolean deadLetter(IngestRecord record, RuntimeException error) {
+        String row;
+        try {
+            row = objectMapper.writeValueAsString(record.getRow());
+        } catch (IOException e) {
+            row = "null";
+        }
+        String json = row;
+        log.error("Dead-lettered {} row {}: {}", record.getTable(), record.getSequence(), error.getMessage());
+        for (int attempt = 0; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    ingestDeadLetterJdbcRepository.save(checkpointUuid, record.getSequence(), record.getTable().name(),
+                            json, error.getMessage());
+                    checkpoint(record.getSequence());
+                });
+                deadLetteredRows.increment();
+                return true;
+            } catch (RuntimeException e) {
+                if (!awaitRetry(attempt, 1, e)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait before the next attempt of a write that failed because of the database. Once the buffer is
+     * stopping, a journal gives up the attempts: its rows are replayed at the next start. Without one,
+     * the attempts go on until the shutdown timeout.
+     *
+     * @return false to give up the write
+     */
+    private boolean awaitRetry(int attempt, int rows, RuntimeException e) {
+        if (!running && factJournal.isEnabled()) {
+            return false;
+        }
+        long delay = Math.min(retryMaxMillis, retryInitialMillis << Math.min(attempt, 20));
+        flushRetries.increment();
+        log.warn("Write of {} rows failed, retrying in {} ms: {}", rows, delay, e.getMessage());
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Whether a write failed because of its rows rather than because the database is unavailable:
+     * a missing reference, an invalid row, or an SQL state of class 22 (data exception) or 23
+     * (integrity constraint violation). Retrying such a write cannot succeed.
+     *
+     * @param e the failure
+     * @return true if some of the rows are rejected
+     */
+    static boolean isRowError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof ResourceNotFoundException || cause instanceof BadRequestException
+                    || cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && (sqlException.getSQLState().startsWith("22") || sqlException.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkpoint(long lastSequence) {
+        ingestCheckpointJdbcRepository.saveSequence(checkpointUuid, lastSequence);
+    }
+
+    private Sink<?> sink(FactTable table) {
+        Sink<?> sink = sinks.get(table);
+        if (sink == null) {
+            throw new IllegalArgumentException("Asynchronous ingestion is not supported for " + table);
+        }
+        return sink;
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("tradezero.ingest.rows")
+                .description("Write-behind rows by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
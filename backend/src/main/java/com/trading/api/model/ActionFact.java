@@ -1,5 +1,6 @@
 package com.trading.api.model;
 
+import com.trading.api.model.id.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -18,7 +19,7 @@ import java.util.UUID;
 public class ActionFact {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedUuid
     @Column(name = "action_fact_uuid")
     private UUID actionFactUuid;
 
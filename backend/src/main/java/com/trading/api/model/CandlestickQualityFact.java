@@ -0,0 +1,83 @@
+package com.trading.api.model;
+
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entity representing the candlestick_quality_fact table in the database.
+ * Holds the accumulated data quality report of one candlestick series.
+ */
+@Entity
+@Table(name = "candlestick_quality_fact")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandlestickQualityFact {
+
+    @EmbeddedId
+    private CandlestickQualityFactId id;
+
+    @Column(name = "first_datetime_id")
+    private Long firstDatetimeId;
+
+    @Column(name = "last_scanned_datetime_id")
+    private Long lastScannedDatetimeId;
+
+    @Column(name = "candlesticks", nullable = false)
+    private Long candlesticks;
+
+    @Column(name = "missing", nullable = false)
+    private Long missing;
+
+    @Column(name = "gaps", nullable = false)
+    private Long gaps;
+
+    @Column(name = "largest_gap", nullable = false)
+    private Long largestGap;
+
+    @Column(name = "duplicates", nullable = false)
+    private Long duplicates;
+
+    @Column(name = "spikes", nullable = false)
+    private Long spikes;
+
+    @Column(name = "invariant_violations", nullable = false)
+    private Long invariantViolations;
+
+    @Column(name = "zero_volume", nullable = false)
+    private Long zeroVolume;
+
+    @Column(name = "issues")
+    private String issues;
+
+    @Column(name = "scanned_at", nullable = false)
+    private LocalDateTime scannedAt;
+
+    /**
+     * Composite primary key for CandlestickQualityFact.
+     */
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CandlestickQualityFactId {
+
+        @Column(name = "data_feed_uuid", nullable = false)
+        private UUID dataFeedUuid;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "trade_asset", nullable = false)
+        private TradeAssetType tradeAsset;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "trade_time_frame", nullable = false)
+        private TradeTimeFrameType tradeTimeFrame;
+    }
+}
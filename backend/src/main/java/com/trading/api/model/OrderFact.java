@@ -1,6 +1,7 @@
 package com.trading.api.model;
 
 import com.trading.api.model.enums.OrderStatusType;
+import com.trading.api.model.id.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -19,7 +20,7 @@ import java.util.UUID;
 public class OrderFact {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedUuid
     @Column(name = "order_fact_uuid")
     private UUID orderFactUuid;
 
@@ -1,6 +1,7 @@
 package com.trading.api.model;
 
 import com.trading.api.model.enums.TradeActionType;
+import com.trading.api.model.id.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -20,7 +21,7 @@ import java.util.UUID;
 public class RiskManagementFact {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedUuid
     @Column(name = "risk_management_uuid")
     private UUID riskManagementUuid;
 
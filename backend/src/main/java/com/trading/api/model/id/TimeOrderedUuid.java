@@ -0,0 +1,21 @@
+package com.trading.api.model.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generate the annotated UUID identifier as a time ordered version 7 UUID.
+ * <p>
+ * Consecutive inserts land on the rightmost leaf of the primary key index instead of a random
+ * page, which keeps the index dense and its hot pages in shared buffers. Replaces
+ * {@code @GeneratedValue} on the identifier.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedUuid {
+}
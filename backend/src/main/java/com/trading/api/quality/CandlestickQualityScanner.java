@@ -0,0 +1,251 @@
+package com.trading.api.quality;
+
+import com.trading.api.calendar.TradingSessionCalendar;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import com.trading.api.service.CandlestickResamplingService;
+import com.trading.api.training.RollingStatistics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Single pass data quality checks over the candlesticks of one series, fed in datetime ID order.
+ * <p>
+ * Intraday series are checked against the {@link TradingSessionCalendar}: between two consecutive
+ * bars every bucket of the time frame overlapping a trading session is expected, so missing buckets
+ * are reported as gaps, while nights, weekends and holidays are not. D1/W1 series are not checked
+ * for gaps. Every bar is also checked for OHLC invariants, alignment to its bucket, zero volume
+ * inside a session, repetition of the previous bar and log return spikes against the rolling
+ * deviation of the previous returns.
+ */
+public final class CandlestickQualityScanner {
+
+    public static final String GAP = "GAP";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String SPIKE = "SPIKE";
+    public static final String INVARIANT = "INVARIANT";
+    public static final String MISALIGNED = "MISALIGNED";
+    public static final String ZERO_VOLUME = "ZERO_VOLUME";
+
+    private final TradeTimeFrameType tradeTimeFrame;
+    private final int stepMinutes;
+    private final TradingSessionCalendar tradingSessionCalendar;
+    private final double spikeSigma;
+    private final int spikeWindow;
+    private final int maxIssues;
+
+    private final RollingStatistics returns;
+    private int returnCount;
+    private final Deque<String> issues;
+
+    private boolean hasPrevious;
+    private long previousDatetimeId;
+    private double previousOpen;
+    private double previousHigh;
+    private double previousLow;
+    private double previousClose;
+    private double previousVolume;
+
+    private long firstDatetimeId = Long.MIN_VALUE;
+    private long candlesticks;
+    private long missing;
+    private long gaps;
+    private long largestGap;
+    private long duplicates;
+    private long spikes;
+    private long invariantViolations;
+    private long zeroVolume;
+
+    /**
+     * Create a scanner.
+     *
+     * @param tradeTimeFrame the trade time frame of the series
+     * @param tradingSessionCalendar the trading session calendar
+     * @param spikeSigma the number of rolling standard deviations a log return must exceed to be a spike
+     * @param spikeWindow the number of previous returns of the rolling deviation
+     * @param maxIssues the number of most recent issues kept
+     * @param previousIssues the issues of the previous scan, oldest first
+     */
+    public CandlestickQualityScanner(TradeTimeFrameType tradeTimeFrame, TradingSessionCalendar tradingSessionCalendar,
+                                     double spikeSigma, int spikeWindow, int maxIssues, List<String> previousIssues) {
+        this.tradeTimeFrame = tradeTimeFrame;
+        this.stepMinutes = stepMinutes(tradeTimeFrame);
+        this.tradingSessionCalendar = tradingSessionCalendar;
+        this.spikeSigma = spikeSigma;
+        this.spikeWindow = spikeWindow;
+        this.maxIssues = maxIssues;
+        this.returns = new RollingStatistics(spikeWindow);
+        this.issues = new ArrayDeque<>(maxIssues);
+        for (String issue : previousIssues) {
+            addIssue(issue);
+        }
+    }
+
+    /**
+     * Get the bucket length of an intraday trade time frame.
+     *
+     * @param tradeTimeFrame the trade time frame
+     * @return the length in minutes, or 0 for D1 and W1
+     */
+    public static int stepMinutes(TradeTimeFrameType tradeTimeFrame) {
+        switch (tradeTimeFrame) {
+            case m1:
+                return 1;
+            case m5:
+                return 5;
+            case m15:
+                return 15;
+            case m30:
+                return 30;
+            case H1:
+                return 60;
+            case H4:
+                return 240;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Feed a bar already covered by a previous scan to restore the rolling state without counting it.
+     */
+    public void warmUp(long datetimeId, double open, double high, double low, double close, double volume) {
+        if (firstDatetimeId == Long.MIN_VALUE) {
+            firstDatetimeId = datetimeId;
+        }
+        addReturn(close);
+        setPrevious(datetimeId, open, high, low, close, volume);
+    }
+
+    /**
+     * Check a bar.
+     */
+    public void accept(long datetimeId, double open, double high, double low, double close, double volume) {
+        if (firstDatetimeId == Long.MIN_VALUE) {
+            firstDatetimeId = datetimeId;
+        }
+        candlesticks++;
+
+        if (!(low <= Math.min(open, close) && Math.max(open, close) <= high && low > 0 && volume >= 0)) {
+            invariantViolations++;
+            addIssue(INVARIANT + " " + datetimeId + " o=" + open + " h=" + high + " l=" + low + " c=" + close +
+                    " v=" + volume);
+        }
+        if (CandlestickResamplingService.bucketStart(datetimeId, tradeTimeFrame) != datetimeId) {
+            invariantViolations++;
+            addIssue(MISALIGNED + " " + datetimeId);
+        }
+        if (volume == 0 && inSession(datetimeId)) {
+            zeroVolume++;
+            addIssue(ZERO_VOLUME + " " + datetimeId);
+        }
+
+        if (hasPrevious) {
+            long count = stepMinutes == 0 ? 0
+                    : tradingSessionCalendar.countTradingBucketsBetween(previousDatetimeId, datetimeId, stepMinutes);
+            if (count > 0) {
+                missing += count;
+                gaps++;
+                largestGap = Math.max(largestGap, count);
+                addIssue(GAP + " " + tradingSessionCalendar.nextTradingBucket(previousDatetimeId, stepMinutes) + " " + count);
+            }
+            if (volume > 0 && open == previousOpen && high == previousHigh && low == previousLow
+                    && close == previousClose && volume == previousVolume) {
+                duplicates++;
+                addIssue(DUPLICATE + " " + datetimeId);
+            }
+            if (close > 0 && previousClose > 0 && returnCount >= spikeWindow) {
+                double logReturn = Math.log(close / previousClose);
+                double std = returns.std();
+                if (std > 0 && Math.abs(logReturn - returns.mean()) > spikeSigma * std) {
+                    spikes++;
+                    addIssue(SPIKE + " " + datetimeId + " " + (float) ((logReturn - returns.mean()) / std));
+                }
+            }
+        }
+        addReturn(close);
+        setPrevious(datetimeId, open, high, low, close, volume);
+    }
+
+    public Long getFirstDatetimeId() {
+        return firstDatetimeId == Long.MIN_VALUE ? null : firstDatetimeId;
+    }
+
+    public Long getLastDatetimeId() {
+        return hasPrevious ? previousDatetimeId : null;
+    }
+
+    public long getCandlesticks() {
+        return candlesticks;
+    }
+
+    public long getMissing() {
+        return missing;
+    }
+
+    public long getGaps() {
+        return gaps;
+    }
+
+    public long getLargestGap() {
+        return largestGap;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getSpikes() {
+        return spikes;
+    }
+
+    public long getInvariantViolations() {
+        return invariantViolations;
+    }
+
+    public long getZeroVolume() {
+        return zeroVolume;
+    }
+
+    /**
+     * Get the most recent issues, oldest first.
+     *
+     * @return the issues
+     */
+    public List<String> getIssues() {
+        return new ArrayList<>(issues);
+    }
+
+    private boolean inSession(long datetimeId) {
+        return stepMinutes == 0 || tradingSessionCalendar.isTradingBucket(datetimeId, stepMinutes);
+    }
+
+    private void addReturn(double close) {
+        if (hasPrevious && close > 0 && previousClose > 0) {
+            returns.add(Math.log(close / previousClose));
+            returnCount++;
+        }
+    }
+
+    private void setPrevious(long datetimeId, double open, double high, double low, double close, double volume) {
+        hasPrevious = true;
+        previousDatetimeId = datetimeId;
+        previousOpen = open;
+        previousHigh = high;
+        previousLow = low;
+        previousClose = close;
+        previousVolume = volume;
+    }
+
+    private void addIssue(String issue) {
+        if (maxIssues == 0) {
+            return;
+        }
+        if (issues.size() == maxIssues) {
+            issues.removeFirst();
+        }
+        issues.addLast(issue);
+    }
+}
@@ -0,0 +1,111 @@
+package com.trading.api.repository;
+
+import com.trading.api.arrow.ArrowResultSetWriter;
+import com.trading.api.arrow.FactTable;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC repository writing query results as Arrow IPC streams.
+ * Rows are read through a forward-only cursor and copied into Arrow record batches as they arrive.
+ */
+@Repository
+public class ArrowJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+    private final int batchSize;
+
+    public ArrowJdbcRepository(JdbcTemplate jdbcTemplate,
+                               @Value("${spring.jpa.properties.hibernate.default_schema}") String schema,
+                               @Value("${tradezero.arrow.batch-size:65536}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Write the candlesticks matching the optional filters ordered by series and datetime ID.
+     * Must be called inside a transaction so the cursor is fetched in batches.
+     *
+     * @param dataFeedUuid the data feed UUID, or null for all data feeds
+     * @param tradeAsset the trade asset, or null for all trade assets
+     * @param tradeTimeFrame the trade time frame, or null for all trade time frames
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null
+     * @param outputStream the output stream to write to
+     * @return the number of rows written
+     */
+    public long writeCandlesticks(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame,
+                                  Long fromDatetimeId, Long toDatetimeId, OutputStream outputStream) {
+        StringBuilder sql = new StringBuilder("SELECT data_feed_uuid, trade_asset, trade_time_frame, datetime_id, " +
+                "open, high, low, close, volume FROM " + schema + ".candlestick_fact WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+        if (dataFeedUuid != null) {
+            sql.append(" AND data_feed_uuid = ?");
+            args.add(dataFeedUuid);
+        }
+        if (tradeAsset != null) {
+            sql.append(" AND trade_asset = CAST(? AS ").append(schema).append(".trade_asset_type)");
+            args.add(tradeAsset.name());
+        }
+        if (tradeTimeFrame != null) {
+            sql.append(" AND trade_time_frame = CAST(? AS ").append(schema).append(".trade_time_frame_type)");
+            args.add(tradeTimeFrame.name());
+        }
+        if (fromDatetimeId != null) {
+            sql.append(" AND datetime_id >= ?");
+            args.add(fromDatetimeId);
+        }
+        if (toDatetimeId != null) {
+            sql.append(" AND datetime_id <= ?");
+            args.add(toDatetimeId);
+        }
+        sql.append(" ORDER BY data_feed_uuid, trade_asset, trade_time_frame, datetime_id");
+        return write(sql.toString(), args, outputStream);
+    }
+
+    /**
+     * Write every row of a fact table.
+     * Must be called inside a transaction so the cursor is fetched in batches.
+     *
+     * @param table the fact table
+     * @param outputStream the output stream to write to
+     * @return the number of rows written
+     */
+    public long writeFacts(FactTable table, OutputStream outputStream) {
+        return write("SELECT * FROM " + schema + "." + table.name() + " ORDER BY " + table.getOrderBy(),
+                List.of(), outputStream);
+    }
+
+    private long write(String sql, List<Object> args, OutputStream outputStream) {
+        Long rows = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(batchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, rs -> {
+            try {
+                return ArrowResultSetWriter.write(rs, outputStream, batchSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+}
@@ -0,0 +1,364 @@
+package com.trading.api.repository;
+
+import com.trading.api.cache.CandlestickSeriesKey;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import lombok.Data;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC repository for CandlestickFact series reads that must not materialize entities.
+ * Rows are read through a forward-only cursor and handed to the caller one at a time as primitives.
+ */
+@Repository
+public class CandlestickFactJdbcRepository {
+
+    private static final String IMPORT_STAGING_TABLE = "candlestick_import_staging";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+    private final int fetchSize;
+
+    public CandlestickFactJdbcRepository(JdbcTemplate jdbcTemplate,
+                                         @Value("${spring.jpa.properties.hibernate.default_schema}") String schema,
+                                         @Value("${tradezero.candlestick.jdbc.fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Get the schema of the candlestick tables.
+     *
+     * @return the schema name
+     */
+    public String getSchema() {
+        return schema;
+    }
+
+    /**
+     * Stream a candlestick series ordered by datetime ID.
+     * PostgreSQL only honours the fetch size inside a transaction, so callers must run this
+     * within a (read-only) transaction to keep memory constant.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param handler the handler called for every row
+     */
+    public void streamSeries(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame,
+                             long fromDatetimeId, long toDatetimeId, CandlestickRowHandler handler) {
+        String sql = "SELECT datetime_id, open, high, low, close, volume FROM " + schema + ".candlestick_fact " +
+                "WHERE data_feed_uuid = ? " +
+                "AND trade_asset = CAST(? AS " + schema + ".trade_asset_type) " +
+                "AND trade_time_frame = CAST(? AS " + schema + ".trade_time_frame_type) " +
+                "AND datetime_id BETWEEN ? AND ? " +
+                "ORDER BY datetime_id";
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setObject(1, dataFeedUuid);
+            ps.setString(2, tradeAsset.name());
+            ps.setString(3, tradeTimeFrame.name());
+            ps.setLong(4, fromDatetimeId);
+            ps.setLong(5, toDatetimeId);
+            return ps;
+        }, rs -> {
+            try {
+                handler.onRow(rs.getLong(1), rs.getDouble(2), rs.getDouble(3),
+                        rs.getDouble(4), rs.getDouble(5), rs.getDouble(6));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Read the last candlestick of a series.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param handler the handler receiving the row, not called for an empty series
+     */
+    public void findLatest(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame,
+                           CandlestickRowHandler handler) {
+        String sql = "SELECT datetime_id, open, high, low, close, volume FROM " + partitionOf(tradeTimeFrame) + " " +
+                "WHERE data_feed_uuid = ? " +
+                "AND trade_asset = CAST(? AS " + schema + ".trade_asset_type) " +
+                "ORDER BY datetime_id DESC LIMIT 1";
+
+        jdbcTemplate.query(sql, rs -> {
+            try {
+                handler.onRow(rs.getLong(1), rs.getDouble(2), rs.getDouble(3),
+                        rs.getDouble(4), rs.getDouble(5), rs.getDouble(6));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, dataFeedUuid, tradeAsset.name());
+    }
+
+    /**
+     * Read the last candlesticks of a series up to a datetime ID, in ascending order.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param limit the maximum number of candlesticks
+     * @param handler the handler receiving each row
+     */
+    public void streamSeriesTail(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame,
+                                 long toDatetimeId, int limit, CandlestickRowHandler handler) {
+        String sql = "SELECT datetime_id, open, high, low, close, volume FROM (" +
+                "SELECT datetime_id, open, high, low, close, volume FROM " + partitionOf(tradeTimeFrame) + " " +
+                "WHERE data_feed_uuid = ? " +
+                "AND trade_asset = CAST(? AS " + schema + ".trade_asset_type) " +
+                "AND datetime_id <= ? " +
+                "ORDER BY datetime_id DESC LIMIT ?) tail " +
+                "ORDER BY datetime_id";
+
+        jdbcTemplate.query(sql, rs -> {
+            try {
+                handler.onRow(rs.getLong(1), rs.getDouble(2), rs.getDouble(3),
+                        rs.getDouble(4), rs.getDouble(5), rs.getDouble(6));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, dataFeedUuid, tradeAsset.name(), toDatetimeId, limit);
+    }
+
+    /**
+     * Count the candlesticks of a series up to a datetime ID and fingerprint their values.
+     * The fingerprint is the sum over the candlesticks of
+     * {@code (2 * datetime_id + 1) * (open + 3 * high + 5 * low + 7 * close + 11 * volume)} modulo 2^64,
+     * every value taken as the 64 bits of its IEEE 754 representation, so it equals the running
+     * fingerprint {@code CandlestickFileStore} keeps for the same candlesticks.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @return the number of candlesticks and their fingerprint
+     */
+    public SeriesFingerprint fingerprint(UUID dataFeedUuid, TradeAssetType tradeAsset,
+                                         TradeTimeFrameType tradeTimeFrame, long toDatetimeId) {
+        String sql = "SELECT COUNT(*), COALESCE(SUM((2 * datetime_id::numeric + 1) * (" + bits("open") +
+                " + 3 * " + bits("high") + " + 5 * " + bits("low") + " + 7 * " + bits("close") +
+                " + 11 * " + bits("volume") + ")), 0) FROM " + partitionOf(tradeTimeFrame) + " " +
+                "WHERE data_feed_uuid = ? " +
+                "AND trade_asset = CAST(? AS " + schema + ".trade_asset_type) " +
+                "AND datetime_id <= ?";
+
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new SeriesFingerprint(rs.getLong(1),
+                        rs.getObject(2, BigDecimal.class).toBigInteger().longValue()),
+                dataFeedUuid, tradeAsset.name(), toDatetimeId);
+    }
+
+    /**
+     * List the series stored in the partition of a trade time frame.
+     *
+     * @param tradeTimeFrame the trade time frame
+     * @return the keys of the series
+     */
+    public List<CandlestickSeriesKey> findSeriesKeys(TradeTimeFrameType tradeTimeFrame) {
+        return jdbcTemplate.query("SELECT DISTINCT data_feed_uuid, trade_asset FROM " + partitionOf(tradeTimeFrame),
+                (rs, rowNum) -> new CandlestickSeriesKey(rs.getObject(1, UUID.class),
+                        TradeAssetType.valueOf(rs.getString(2)), tradeTimeFrame));
+    }
+
+    /**
+     * Get the name of the partition holding a trade time frame.
+     *
+     * @param tradeTimeFrame the trade time frame
+     * @return the qualified partition name
+     */
+    public String partitionOf(TradeTimeFrameType tradeTimeFrame) {
+        return schema + ".candlestick_fact_" + tradeTimeFrame.name().toLowerCase();
+    }
+
+    /**
+     * Create the temporary staging table used by bulk imports.
+     * The table is dropped when the current transaction commits.
+     */
+    public void createImportStaging() {
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE IF NOT EXISTS " + IMPORT_STAGING_TABLE + " (" +
+                "datetime_id BIGINT NOT NULL, " +
+                "open DOUBLE PRECISION NOT NULL, " +
+                "high DOUBLE PRECISION NOT NULL, " +
+                "low DOUBLE PRECISION NOT NULL, " +
+                "close DOUBLE PRECISION NOT NULL, " +
+                "volume DOUBLE PRECISION NOT NULL" +
+                ") ON COMMIT DROP");
+    }
+
+    /**
+     * Load rows into the staging table with PostgreSQL COPY.
+     *
+     * @param copyData the rows in COPY text format (tab separated datetime_id, open, high, low, close, volume)
+     * @return the number of rows copied
+     */
+    public long copyIntoImportStaging(Reader copyData) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                        "COPY " + IMPORT_STAGING_TABLE + " (datetime_id, open, high, low, close, volume) " +
+                                "FROM STDIN (FORMAT text)", copyData);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Count the staged rows whose datetime ID is missing from datetime_dim.
+     *
+     * @return the number of staged rows without a datetime dimension
+     */
+    public long countImportStagingWithoutDateTime() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + IMPORT_STAGING_TABLE + " s " +
+                "WHERE NOT EXISTS (SELECT 1 FROM " + schema + ".datetime_dim d WHERE d.datetime_id = s.datetime_id)",
+                Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Merge the staging table into the partition of the trade time frame.
+     * Rows already present and rows without a datetime dimension are skipped.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @return the number of rows inserted
+     */
+    public int mergeImportStaging(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame) {
+        return jdbcTemplate.update("INSERT INTO " + partitionOf(tradeTimeFrame) +
+                " (data_feed_uuid, trade_asset, trade_time_frame, datetime_id, open, high, low, close, volume) " +
+                "SELECT ?, CAST(? AS " + schema + ".trade_asset_type), CAST(? AS " + schema + ".trade_time_frame_type), " +
+                "s.datetime_id, s.open, s.high, s.low, s.close, s.volume " +
+                "FROM " + IMPORT_STAGING_TABLE + " s " +
+                "JOIN " + schema + ".datetime_dim d ON d.datetime_id = s.datetime_id " +
+                "ON CONFLICT DO NOTHING",
+                dataFeedUuid, tradeAsset.name(), tradeTimeFrame.name());
+    }
+
+    /**
+     * Insert or update a batch of candlesticks of one series in the partition of its trade time frame.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param datetimeIds the datetime IDs
+     * @param opens the open prices
+     * @param highs the high prices
+     * @param lows the low prices
+     * @param closes the close prices
+     * @param volumes the volumes
+     * @param count the number of candlesticks to write from the arrays
+     */
+    public void upsertBatch(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame,
+                            long[] datetimeIds, double[] opens, double[] highs, double[] lows,
+                            double[] closes, double[] volumes, int count) {
+        if (count == 0) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO " + partitionOf(tradeTimeFrame) +
+                " (data_feed_uuid, trade_asset, trade_time_frame, datetime_id, open, high, low, close, volume) " +
+                "VALUES (?, CAST(? AS " + schema + ".trade_asset_type), CAST(? AS " + schema + ".trade_time_frame_type), " +
+                "?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT (data_feed_uuid, trade_asset, trade_time_frame, datetime_id) DO UPDATE SET " +
+                "open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low, " +
+                "close = EXCLUDED.close, volume = EXCLUDED.volume",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setObject(1, dataFeedUuid);
+                        ps.setString(2, tradeAsset.name());
+                        ps.setString(3, tradeTimeFrame.name());
+                        ps.setLong(4, datetimeIds[i]);
+                        ps.setDouble(5, opens[i]);
+                        ps.setDouble(6, highs[i]);
+                        ps.setDouble(7, lows[i]);
+                        ps.setDouble(8, closes[i]);
+                        ps.setDouble(9, volumes[i]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return count;
+                    }
+                });
+    }
+
+    /**
+     * Delete one candlestick if present.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param datetimeId the datetime ID
+     * @return the number of rows deleted
+     */
+    public int delete(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame,
+                      long datetimeId) {
+        return jdbcTemplate.update("DELETE FROM " + partitionOf(tradeTimeFrame) +
+                " WHERE data_feed_uuid = ? AND trade_asset = CAST(? AS " + schema + ".trade_asset_type) " +
+                "AND datetime_id = ?",
+                dataFeedUuid, tradeAsset.name(), datetimeId);
+    }
+
+    private static String bits(String column) {
+        return "('x' || encode(float8send(" + column + "), 'hex'))::bit(64)::bigint::numeric";
+    }
+
+    /**
+     * Number of candlesticks of a series and the fingerprint of their values.
+     */
+    @Data
+    public static final class SeriesFingerprint {
+
+        private final long count;
+
+        private final long value;
+    }
+
+    /**
+     * Callback receiving one candlestick row at a time without boxing.
+     */
+    @FunctionalInterface
+    public interface CandlestickRowHandler {
+
+        /**
+         * Handle one candlestick row.
+         *
+         * @param datetimeId the datetime ID
+         * @param open the open price
+         * @param high the high price
+         * @param low the low price
+         * @param close the close price
+         * @param volume the volume
+         * @throws IOException if the row cannot be written
+         */
+        void onRow(long datetimeId, double open, double high, double low, double close, double volume)
+                throws IOException;
+    }
+}
@@ -3,6 +3,7 @@ package com.trading.api.repository;
 import com.trading.api.model.CandlestickFact;
 import com.trading.api.model.enums.TradeAssetType;
 import com.trading.api.model.enums.TradeTimeFrameType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -61,4 +62,32 @@ public interface CandlestickFactRepository extends JpaRepository<CandlestickFact
             UUID dataFeedUuid, 
             TradeAssetType tradeAsset, 
             TradeTimeFrameType tradeTimeFrame);
+
+    /**
+     * Find a page of a candlestick series using keyset pagination on the primary key.
+     * Only the datetime ID bounds change between pages, so every page is an index range scan
+     * on the partition of the given trade time frame.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param afterDatetimeId the exclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @param pageable the page size (the page number is expected to be 0)
+     * @return a list of candlesticks ordered by datetime ID
+     */
+    @Query("SELECT c FROM CandlestickFact c " +
+            "WHERE c.id.dataFeedUuid = :dataFeedUuid " +
+            "AND c.id.tradeAsset = :tradeAsset " +
+            "AND c.id.tradeTimeFrame = :tradeTimeFrame " +
+            "AND c.id.datetimeId > :afterDatetimeId " +
+            "AND c.id.datetimeId <= :toDatetimeId " +
+            "ORDER BY c.id.datetimeId")
+    List<CandlestickFact> findSeriesPage(
+            @Param("dataFeedUuid") UUID dataFeedUuid,
+            @Param("tradeAsset") TradeAssetType tradeAsset,
+            @Param("tradeTimeFrame") TradeTimeFrameType tradeTimeFrame,
+            @Param("afterDatetimeId") Long afterDatetimeId,
+            @Param("toDatetimeId") Long toDatetimeId,
+            Pageable pageable);
 }
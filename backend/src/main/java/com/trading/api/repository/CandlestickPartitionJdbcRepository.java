@@ -0,0 +1,152 @@
+package com.trading.api.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * JDBC repository for the partition tree of candlestick_fact.
+ * Partition DDL has no JPA counterpart, so it is issued as plain SQL against the catalog.
+ */
+@Repository
+public class CandlestickPartitionJdbcRepository {
+
+    /**
+     * Name of the root partitioned table.
+     */
+    public static final String ROOT_TABLE = "candlestick_fact";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    public CandlestickPartitionJdbcRepository(JdbcTemplate jdbcTemplate,
+                                              @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    /**
+     * A table of the candlestick_fact partition tree with its catalog statistics.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class PartitionRow {
+
+        private String name;
+
+        private String parentName;
+
+        private int level;
+
+        private boolean partitioned;
+
+        /**
+         * Partition bound as printed by PostgreSQL, for example {@code FOR VALUES IN ('m1')} or {@code DEFAULT}.
+         */
+        private String bound;
+
+        /**
+         * Planner row estimate, or -1 if the table was never analyzed.
+         */
+        private long estimatedRows;
+
+        private long tableBytes;
+
+        private long indexBytes;
+
+        private long totalBytes;
+    }
+
+    /**
+     * Get every partition below candlestick_fact, parents before their children.
+     *
+     * @return the partitions
+     */
+    public List<PartitionRow> findPartitions() {
+        String sql = "WITH RECURSIVE tree AS (" +
+                "SELECT c.oid, NULL::TEXT AS parent_name, 0 AS level FROM pg_class c " +
+                "JOIN pg_namespace n ON n.oid = c.relnamespace WHERE n.nspname = ? AND c.relname = ? " +
+                "UNION ALL " +
+                "SELECT i.inhrelid, p.relname::TEXT, t.level + 1 FROM tree t " +
+                "JOIN pg_inherits i ON i.inhparent = t.oid " +
+                "JOIN pg_class p ON p.oid = t.oid) " +
+                "SELECT c.relname, t.parent_name, t.level, c.relkind = 'p', pg_get_expr(c.relpartbound, c.oid), " +
+                "c.reltuples::BIGINT, pg_relation_size(c.oid), pg_indexes_size(c.oid), pg_total_relation_size(c.oid) " +
+                "FROM tree t JOIN pg_class c ON c.oid = t.oid " +
+                "WHERE t.level > 0 " +
+                "ORDER BY t.level, c.relname";
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new PartitionRow(rs.getString(1), rs.getString(2),
+                rs.getInt(3), rs.getBoolean(4), rs.getString(5), rs.getLong(6), rs.getLong(7),
+                rs.getLong(8), rs.getLong(9)), schema, ROOT_TABLE);
+    }
+
+    /**
+     * Get the distinct values of a datetime ID prefix held by a default partition.
+     *
+     * @param defaultPartition the unqualified default partition name
+     * @param divisor the divisor truncating a datetime ID to its period, for example 1000000 for yyyyMM
+     * @return the periods, ascending
+     */
+    public List<Long> findDefaultPeriods(String defaultPartition, long divisor) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT datetime_id / ? FROM " + qualify(defaultPartition) +
+                " ORDER BY 1", Long.class, divisor);
+    }
+
+    /**
+     * Create a range partition, moving the rows of its range out of the default partition first.
+     * PostgreSQL refuses to create a partition whose range has rows in the default partition, so
+     * they are parked in a temporary table and re-inserted through the parent once it exists.
+     * Must run inside a transaction.
+     *
+     * @param parent the unqualified parent partition name
+     * @param defaultPartition the unqualified default partition name of the parent, or null if it has none
+     * @param name the unqualified name of the new partition
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the exclusive upper datetime ID bound
+     * @return the number of rows moved out of the default partition
+     */
+    public int createRangePartition(String parent, String defaultPartition, String name,
+                                    long fromDatetimeId, long toDatetimeId) {
+        if (defaultPartition == null) {
+            jdbcTemplate.execute("CREATE TABLE " + qualify(name) + " PARTITION OF " + qualify(parent) +
+                    " FOR VALUES FROM (" + fromDatetimeId + ") TO (" + toDatetimeId + ")");
+            return 0;
+        }
+        String moved = "candlestick_partition_move";
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE " + moved + " (LIKE " + qualify(parent) + ") ON COMMIT DROP");
+        jdbcTemplate.update("WITH deleted AS (DELETE FROM " + qualify(defaultPartition) + " " +
+                "WHERE datetime_id >= ? AND datetime_id < ? RETURNING *) " +
+                "INSERT INTO " + moved + " SELECT * FROM deleted", fromDatetimeId, toDatetimeId);
+        jdbcTemplate.execute("CREATE TABLE " + qualify(name) + " PARTITION OF " + qualify(parent) +
+                " FOR VALUES FROM (" + fromDatetimeId + ") TO (" + toDatetimeId + ")");
+        return jdbcTemplate.update("INSERT INTO " + qualify(parent) + " SELECT * FROM " + moved);
+    }
+
+    /**
+     * Detach a partition from its parent, keeping it as a standalone table.
+     *
+     * @param parent the unqualified parent partition name
+     * @param name the unqualified partition name
+     */
+    public void detachPartition(String parent, String name) {
+        jdbcTemplate.execute("ALTER TABLE " + qualify(parent) + " DETACH PARTITION " + qualify(name));
+    }
+
+    /**
+     * Drop a table.
+     *
+     * @param name the unqualified table name
+     */
+    public void dropTable(String name) {
+        jdbcTemplate.execute("DROP TABLE " + qualify(name));
+    }
+
+    private String qualify(String name) {
+        return schema + "." + name;
+    }
+}
@@ -0,0 +1,24 @@
+package com.trading.api.repository;
+
+import com.trading.api.model.CandlestickQualityFact;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for CandlestickQualityFact entity.
+ */
+@Repository
+public interface CandlestickQualityFactRepository
+        extends JpaRepository<CandlestickQualityFact, CandlestickQualityFact.CandlestickQualityFactId> {
+
+    /**
+     * Find all quality reports by data feed UUID.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @return a list of quality reports
+     */
+    List<CandlestickQualityFact> findByIdDataFeedUuid(UUID dataFeedUuid);
+}
@@ -0,0 +1,59 @@
+package com.trading.api.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC repository for ingest_checkpoint, the last sequence of each write-behind buffer whose rows are committed.
+ * The checkpoint is written in the transaction of the rows it covers, so replaying a journal never inserts a row
+ * twice and a snapshot that sees the checkpoint sees exactly the rows it covers.
+ */
+@Repository
+public class IngestCheckpointJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+
+    public IngestCheckpointJdbcRepository(JdbcTemplate jdbcTemplate,
+                                          @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = schema + ".ingest_checkpoint";
+    }
+
+    /**
+     * Get the committed sequence of a journal, or of a buffer running without one.
+     *
+     * @param journalUuid the journal UUID
+     * @return the last committed sequence, or 0 if none was committed
+     */
+    public long findSequence(UUID journalUuid) {
+        List<Long> sequences = jdbcTemplate.queryForList("SELECT sequence FROM " + table + " WHERE journal_uuid = ?",
+                Long.class, journalUuid);
+        return sequences.isEmpty() ? 0 : sequences.get(0);
+    }
+
+    /**
+     * Advance the committed sequence of a journal. Must run in the transaction of the rows.
+     *
+     * @param journalUuid the journal UUID
+     * @param sequence the last sequence committed by the transaction
+     */
+    public void saveSequence(UUID journalUuid, long sequence) {
+        jdbcTemplate.update("INSERT INTO " + table + " (journal_uuid, sequence) VALUES (?, ?) " +
+                "ON CONFLICT (journal_uuid) DO UPDATE SET sequence = GREATEST(" + table + ".sequence, EXCLUDED.sequence)",
+                journalUuid, sequence);
+    }
+
+    /**
+     * Delete the checkpoint of a buffer that ran without a journal and will not be replayed.
+     *
+     * @param journalUuid the UUID of the checkpoint
+     */
+    public void deleteSequence(UUID journalUuid) {
+        jdbcTemplate.update("DELETE FROM " + table + " WHERE journal_uuid = ?", journalUuid);
+    }
+}
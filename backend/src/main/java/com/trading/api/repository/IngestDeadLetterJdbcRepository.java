@@ -0,0 +1,49 @@
+package com.trading.api.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * JDBC repository for ingest_dead_letter, the write-behind rows the database rejected.
+ * A row is stored in the transaction that advances the checkpoint past it, so no accepted row is
+ * skipped without a trace.
+ */
+@Repository
+public class IngestDeadLetterJdbcRepository {
+
+    /**
+     * Longest error message kept for a row.
+     */
+    private static final int MAX_ERROR_LENGTH = 4000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+
+    public IngestDeadLetterJdbcRepository(JdbcTemplate jdbcTemplate,
+                                          @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = schema + ".ingest_dead_letter";
+    }
+
+    /**
+     * Store a rejected row. Must run in the transaction that advances the checkpoint past it.
+     *
+     * @param journalUuid the UUID of the checkpoint of the buffer
+     * @param sequence the sequence of the row
+     * @param tableName the fact table of the row
+     * @param row the row as JSON
+     * @param error the reason the row was rejected
+     */
+    public void save(UUID journalUuid, long sequence, String tableName, String row, String error) {
+        String message = error == null ? "unknown" : error;
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        jdbcTemplate.update("INSERT INTO " + table + " (journal_uuid, sequence, table_name, row_data, error) " +
+                "VALUES (?, ?, ?, CAST(? AS JSONB), ?) ON CONFLICT (journal_uuid, sequence) DO NOTHING",
+                journalUuid, sequence, tableName, row, message);
+    }
+}
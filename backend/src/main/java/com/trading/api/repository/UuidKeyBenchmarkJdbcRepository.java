@@ -0,0 +1,115 @@
+package com.trading.api.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * JDBC repository for the scratch tables of the primary key benchmark.
+ * The tables are regular logged tables shaped like balance_fact, so inserts pay for WAL and
+ * go through shared buffers exactly like the fact tables do.
+ */
+@Repository
+public class UuidKeyBenchmarkJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+
+    public UuidKeyBenchmarkJdbcRepository(JdbcTemplate jdbcTemplate,
+                                          @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+    }
+
+    /**
+     * Create an empty benchmark table, dropping any leftover of a previous run.
+     *
+     * @param name the unqualified table name
+     */
+    public void createTable(String name) {
+        dropTable(name);
+        jdbcTemplate.execute("CREATE TABLE " + qualify(name) + " (" +
+                "uuid UUID PRIMARY KEY, " +
+                "portfolio_uuid UUID NOT NULL, " +
+                "datetime_id BIGINT NOT NULL, " +
+                "initial DOUBLE PRECISION NOT NULL, " +
+                "current DOUBLE PRECISION NOT NULL, " +
+                "max DOUBLE PRECISION NOT NULL, " +
+                "min DOUBLE PRECISION NOT NULL)");
+    }
+
+    /**
+     * Insert rows in auto committed JDBC batches, drawing each primary key from a generator.
+     *
+     * @param name the unqualified table name
+     * @param portfolioUuid the portfolio UUID of every row
+     * @param rows the number of rows
+     * @param batchSize the number of rows per batch
+     * @param keys the primary key generator
+     */
+    public void insert(String name, UUID portfolioUuid, int rows, int batchSize, Supplier<UUID> keys) {
+        String sql = "INSERT INTO " + qualify(name) + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+        for (int offset = 0; offset < rows; offset += batchSize) {
+            int size = Math.min(batchSize, rows - offset);
+            int first = offset;
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    double value = ThreadLocalRandom.current().nextDouble(1000.0);
+                    ps.setObject(1, keys.get());
+                    ps.setObject(2, portfolioUuid);
+                    ps.setLong(3, first + i);
+                    ps.setDouble(4, value);
+                    ps.setDouble(5, value);
+                    ps.setDouble(6, value);
+                    ps.setDouble(7, value);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    /**
+     * Get the size of a table without its indexes.
+     *
+     * @param name the unqualified table name
+     * @return the size in bytes
+     */
+    public long tableBytes(String name) {
+        return jdbcTemplate.queryForObject("SELECT pg_relation_size(?::REGCLASS)", Long.class, qualify(name));
+    }
+
+    /**
+     * Get the size of the primary key index of a table.
+     *
+     * @param name the unqualified table name
+     * @return the size in bytes
+     */
+    public long indexBytes(String name) {
+        return jdbcTemplate.queryForObject("SELECT pg_indexes_size(?::REGCLASS)", Long.class, qualify(name));
+    }
+
+    /**
+     * Drop a benchmark table if it exists.
+     *
+     * @param name the unqualified table name
+     */
+    public void dropTable(String name) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + qualify(name));
+    }
+
+    private String qualify(String name) {
+        return schema + "." + name;
+    }
+}
@@ -1,5 +1,6 @@
 package com.trading.api.service;
 
+import com.trading.api.cache.DimensionRegistry;
 import com.trading.api.dto.ActionDimDTO;
 import com.trading.api.exception.ResourceNotFoundException;
 import com.trading.api.model.ActionDim;
@@ -23,6 +24,7 @@ import java.util.stream.Collectors;
 public class ActionDimService {
 
     private final ActionDimRepository actionDimRepository;
+    private final DimensionRegistry dimensionRegistry;
 
     /**
      * Get all actions.
@@ -95,6 +97,7 @@ public class ActionDimService {
         ActionDim actionDim = convertToEntity(actionDimDTO);
         actionDim.setActionDimUuid(null); // Ensure UUID is generated
         ActionDim savedActionDim = actionDimRepository.save(actionDim);
+        dimensionRegistry.register(ActionDim.class, savedActionDim.getActionDimUuid());
         return convertToDTO(savedActionDim);
     }
 
@@ -131,6 +134,7 @@ public class ActionDimService {
             throw new ResourceNotFoundException("Action not found with id: " + uuid);
         }
         actionDimRepository.deleteById(uuid);
+        dimensionRegistry.evict(ActionDim.class, uuid);
     }
 
     /**
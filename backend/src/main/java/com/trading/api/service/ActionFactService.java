@@ -1,21 +1,29 @@
 package com.trading.api.service;
 
+import com.trading.api.arrow.FactTable;
+import com.trading.api.bulk.BulkFactWriter;
+import com.trading.api.cache.DimensionRegistry;
+import com.trading.api.calendar.DateTimeCalendar;
+import com.trading.api.dto.BulkInsertReportDTO;
 import com.trading.api.dto.ActionFactDTO;
+import com.trading.api.exception.BadRequestException;
 import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.ingest.RecentFactOverlay;
 import com.trading.api.model.ActionDim;
 import com.trading.api.model.ActionFact;
 import com.trading.api.model.DateTimeDim;
 import com.trading.api.model.RiskManagementFact;
-import com.trading.api.repository.ActionDimRepository;
 import com.trading.api.repository.ActionFactRepository;
-import com.trading.api.repository.DateTimeDimRepository;
 import com.trading.api.repository.RiskManagementFactRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -26,9 +34,11 @@ import java.util.stream.Collectors;
 public class ActionFactService {
 
     private final ActionFactRepository actionFactRepository;
+    private final BulkFactWriter bulkFactWriter;
+    private final RecentFactOverlay recentFactOverlay;
     private final RiskManagementFactRepository riskManagementFactRepository;
-    private final ActionDimRepository actionDimRepository;
-    private final DateTimeDimRepository dateTimeDimRepository;
+    private final DimensionRegistry dimensionRegistry;
+    private final DateTimeCalendar dateTimeCalendar;
 
     /**
      * Get all action facts.
@@ -55,15 +65,19 @@ public class ActionFactService {
     }
 
     /**
-     * Get action facts by risk management UUID.
+     * Get action facts by risk management UUID, including the ones accepted asynchronously
+     * and not committed yet.
      *
      * @param riskManagementUuid the risk management UUID
      * @return list of action facts
      */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<ActionFactDTO> findByRiskManagementUuid(UUID riskManagementUuid) {
-        return actionFactRepository.findByRiskManagement_RiskManagementUuid(riskManagementUuid).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return recentFactOverlay.withRecent(FactTable.action_fact, ActionFactDTO.class,
+                actionFactDTO -> riskManagementUuid.equals(actionFactDTO.getRiskManagementUuid()),
+                () -> actionFactRepository.findByRiskManagement_RiskManagementUuid(riskManagementUuid).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
     /**
@@ -79,15 +93,19 @@ public class ActionFactService {
     }
 
     /**
-     * Get action facts by datetime ID.
+     * Get action facts by datetime ID, including the ones accepted asynchronously
+     * and not committed yet.
      *
      * @param datetimeId the datetime ID
      * @return list of action facts
      */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<ActionFactDTO> findByDatetimeId(Long datetimeId) {
-        return actionFactRepository.findByDateTime_DatetimeId(datetimeId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return recentFactOverlay.withRecent(FactTable.action_fact, ActionFactDTO.class,
+                actionFactDTO -> datetimeId.equals(actionFactDTO.getDatetimeId()),
+                () -> actionFactRepository.findByDateTime_DatetimeId(datetimeId).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
     /**
@@ -104,6 +122,51 @@ public class ActionFactService {
         return convertToDTO(savedActionFact);
     }
 
+    /**
+     * Check that every row referenced by action facts exists, with one query per referenced table.
+     *
+     * @param actionFactDTOs the action facts
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional(readOnly = true)
+    public void requireReferences(List<ActionFactDTO> actionFactDTOs) {
+        bulkFactWriter.requireExisting(RiskManagementFact.class, "Risk management fact", actionFactDTOs,
+                ActionFactDTO::getRiskManagementUuid);
+        dimensionRegistry.requireAll(ActionDim.class, BulkFactWriter.distinct(actionFactDTOs, ActionFactDTO::getActionDimUuid));
+        dateTimeCalendar.requireAll(actionFactDTOs, ActionFactDTO::getDatetimeId);
+    }
+
+    /**
+     * Create action facts in bulk, in one transaction.
+     * Foreign keys are checked with one query per referenced table and the rows are inserted in JDBC batches.
+     *
+     * @param actionFactDTOs the action facts to create
+     * @return the bulk insert report with the generated UUIDs in row order
+     * @throws BadRequestException if a row is invalid
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional
+    public BulkInsertReportDTO createAll(List<ActionFactDTO> actionFactDTOs) {
+        long start = System.nanoTime();
+        bulkFactWriter.validate(actionFactDTOs);
+        requireReferences(actionFactDTOs);
+
+        List<ActionFact> actionFacts = new ArrayList<>(actionFactDTOs.size());
+        for (ActionFactDTO actionFactDTO : actionFactDTOs) {
+            ActionFact actionFact = new ActionFact();
+            actionFact.setRiskManagement(bulkFactWriter.reference(RiskManagementFact.class, actionFactDTO.getRiskManagementUuid()));
+            actionFact.setActionDim(dimensionRegistry.reference(ActionDim.class, actionFactDTO.getActionDimUuid()));
+            actionFact.setDateTime(dateTimeCalendar.reference(actionFactDTO.getDatetimeId()));
+            actionFacts.add(actionFact);
+        }
+        bulkFactWriter.persistAll(actionFacts);
+
+        long elapsed = System.nanoTime() - start;
+        return new BulkInsertReportDTO(actionFacts.size(),
+                actionFacts.stream().map(ActionFact::getActionFactUuid).collect(Collectors.toList()),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), BulkFactWriter.rowsPerSecond(actionFacts.size(), elapsed));
+    }
+
     /**
      * Update an existing action fact.
      *
@@ -121,13 +184,9 @@ public class ActionFactService {
                             .orElseThrow(() -> new ResourceNotFoundException("Risk management fact not found with id: " +
                                     actionFactDTO.getRiskManagementUuid()));
 
-                    ActionDim actionDim = actionDimRepository.findById(actionFactDTO.getActionDimUuid())
-                            .orElseThrow(() -> new ResourceNotFoundException("Action dimension not found with id: " +
-                                    actionFactDTO.getActionDimUuid()));
+                    ActionDim actionDim = dimensionRegistry.reference(ActionDim.class, actionFactDTO.getActionDimUuid());
 
-                    DateTimeDim dateTime = dateTimeDimRepository.findById(actionFactDTO.getDatetimeId())
-                            .orElseThrow(() -> new ResourceNotFoundException("DateTime dimension not found with id: " +
-                                    actionFactDTO.getDatetimeId()));
+                    DateTimeDim dateTime = dateTimeCalendar.reference(actionFactDTO.getDatetimeId());
 
                     // Update entity with related entities
                     existingActionFact.setRiskManagement(riskManagement);
@@ -198,16 +257,12 @@ public class ActionFactService {
         }
 
         if (actionFactDTO.getActionDimUuid() != null) {
-            ActionDim actionDim = actionDimRepository.findById(actionFactDTO.getActionDimUuid())
-                    .orElseThrow(() -> new ResourceNotFoundException("Action dimension not found with id: " +
-                            actionFactDTO.getActionDimUuid()));
+            ActionDim actionDim = dimensionRegistry.reference(ActionDim.class, actionFactDTO.getActionDimUuid());
             entity.setActionDim(actionDim);
         }
 
         if (actionFactDTO.getDatetimeId() != null) {
-            DateTimeDim dateTime = dateTimeDimRepository.findById(actionFactDTO.getDatetimeId())
-                    .orElseThrow(() -> new ResourceNotFoundException("DateTime dimension not found with id: " +
-                            actionFactDTO.getDatetimeId()));
+            DateTimeDim dateTime = dateTimeCalendar.reference(actionFactDTO.getDatetimeId());
             entity.setDateTime(dateTime);
         }
 
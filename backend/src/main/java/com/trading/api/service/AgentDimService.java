@@ -1,5 +1,6 @@
 package com.trading.api.service;
 
+import com.trading.api.cache.DimensionRegistry;
 import com.trading.api.dto.AgentDimDTO;
 import com.trading.api.exception.ResourceNotFoundException;
 import com.trading.api.model.AgentDim;
@@ -20,6 +21,7 @@ import java.util.stream.Collectors;
 public class AgentDimService {
 
     private final AgentDimRepository agentDimRepository;
+    private final DimensionRegistry dimensionRegistry;
 
     /**
      * Get all agents.
@@ -69,6 +71,7 @@ public class AgentDimService {
         AgentDim agentDim = convertToEntity(agentDimDTO);
         agentDim.setAgentDimUuid(null); // Ensure UUID is generated
         AgentDim savedAgentDim = agentDimRepository.save(agentDim);
+        dimensionRegistry.register(AgentDim.class, savedAgentDim.getAgentDimUuid());
         return convertToDTO(savedAgentDim);
     }
 
@@ -102,6 +105,7 @@ public class AgentDimService {
             throw new ResourceNotFoundException("Agent not found with id: " + uuid);
         }
         agentDimRepository.deleteById(uuid);
+        dimensionRegistry.evict(AgentDim.class, uuid);
     }
 
     /**
@@ -0,0 +1,68 @@
+package com.trading.api.service;
+
+import com.trading.api.arrow.FactTable;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import com.trading.api.repository.ArrowJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * Service for streaming candlestick and fact tables in the Arrow IPC stream format.
+ * The Arrow writer closes the buffered output stream when the stream ends, which flushes it.
+ */
+@Service
+@RequiredArgsConstructor
+public class ArrowExportService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final ArrowJdbcRepository arrowJdbcRepository;
+
+    /**
+     * Write the candlesticks matching the optional filters as an Arrow stream.
+     *
+     * @param dataFeedUuid the data feed UUID, or null for all data feeds
+     * @param tradeAsset the trade asset, or null for all trade assets
+     * @param tradeTimeFrame the trade time frame, or null for all trade time frames
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null
+     * @param outputStream the output stream to write to
+     * @throws IOException if the output stream cannot be written
+     */
+    @Transactional(readOnly = true)
+    public void exportCandlesticks(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame,
+                                   Long fromDatetimeId, Long toDatetimeId, OutputStream outputStream) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputStream, WRITE_BUFFER_SIZE);
+        try {
+            arrowJdbcRepository.writeCandlesticks(dataFeedUuid, tradeAsset, tradeTimeFrame,
+                    fromDatetimeId, toDatetimeId, out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Write every row of a fact table as an Arrow stream.
+     *
+     * @param table the fact table
+     * @param outputStream the output stream to write to
+     * @throws IOException if the output stream cannot be written
+     */
+    @Transactional(readOnly = true)
+    public void exportFacts(FactTable table, OutputStream outputStream) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputStream, WRITE_BUFFER_SIZE);
+        try {
+            arrowJdbcRepository.writeFacts(table, out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
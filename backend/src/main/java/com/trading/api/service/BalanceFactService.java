@@ -1,15 +1,26 @@
 package com.trading.api.service;
 
+import com.trading.api.arrow.FactTable;
+import com.trading.api.bulk.BulkFactWriter;
+import com.trading.api.calendar.DateTimeCalendar;
 import com.trading.api.dto.BalanceFactDTO;
+import com.trading.api.dto.BulkInsertReportDTO;
+import com.trading.api.exception.BadRequestException;
 import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.ingest.RecentFactOverlay;
 import com.trading.api.model.BalanceFact;
+import com.trading.api.model.PortfolioFact;
 import com.trading.api.repository.BalanceFactRepository;
+import com.trading.api.repository.PortfolioFactRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -20,6 +31,10 @@ import java.util.stream.Collectors;
 public class BalanceFactService {
 
     private final BalanceFactRepository balanceFactRepository;
+    private final BulkFactWriter bulkFactWriter;
+    private final RecentFactOverlay recentFactOverlay;
+    private final PortfolioFactRepository portfolioFactRepository;
+    private final DateTimeCalendar dateTimeCalendar;
 
     /**
      * Get all balance facts.
@@ -46,27 +61,35 @@ public class BalanceFactService {
     }
 
     /**
-     * Get balance facts by portfolio UUID.
+     * Get balance facts by portfolio UUID, including the ones accepted asynchronously
+     * and not committed yet.
      *
      * @param portfolioUuid the portfolio UUID
      * @return list of balance facts
      */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<BalanceFactDTO> findByPortfolioUuid(UUID portfolioUuid) {
-        return balanceFactRepository.findByPortfolio_PortfolioUuid(portfolioUuid).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return recentFactOverlay.withRecent(FactTable.balance_fact, BalanceFactDTO.class,
+                balanceFactDTO -> portfolioUuid.equals(balanceFactDTO.getPortfolioUuid()),
+                () -> balanceFactRepository.findByPortfolio_PortfolioUuid(portfolioUuid).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
     /**
-     * Get balance facts by datetime ID.
+     * Get balance facts by datetime ID, including the ones accepted asynchronously
+     * and not committed yet.
      *
      * @param datetimeId the datetime ID
      * @return list of balance facts
      */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<BalanceFactDTO> findByDatetimeId(Long datetimeId) {
-        return balanceFactRepository.findByDateTime_DatetimeId(datetimeId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return recentFactOverlay.withRecent(FactTable.balance_fact, BalanceFactDTO.class,
+                balanceFactDTO -> datetimeId.equals(balanceFactDTO.getDatetimeId()),
+                () -> balanceFactRepository.findByDateTime_DatetimeId(datetimeId).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
     /**
@@ -98,6 +121,52 @@ public class BalanceFactService {
         return convertToDTO(savedBalanceFact);
     }
 
+    /**
+     * Check that every row referenced by balance facts exists, with one query per referenced table.
+     *
+     * @param balanceFactDTOs the balance facts
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional(readOnly = true)
+    public void requireReferences(List<BalanceFactDTO> balanceFactDTOs) {
+        bulkFactWriter.requireExisting(PortfolioFact.class, "Portfolio fact", balanceFactDTOs, BalanceFactDTO::getPortfolioUuid);
+        dateTimeCalendar.requireAll(balanceFactDTOs, BalanceFactDTO::getDatetimeId);
+    }
+
+    /**
+     * Create balance facts in bulk, in one transaction.
+     * Foreign keys are checked with one query per referenced table and the rows are inserted in JDBC batches.
+     *
+     * @param balanceFactDTOs the balance facts to create
+     * @return the bulk insert report with the generated UUIDs in row order
+     * @throws BadRequestException if a row is invalid
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional
+    public BulkInsertReportDTO createAll(List<BalanceFactDTO> balanceFactDTOs) {
+        long start = System.nanoTime();
+        bulkFactWriter.validate(balanceFactDTOs);
+        requireReferences(balanceFactDTOs);
+
+        List<BalanceFact> balanceFacts = new ArrayList<>(balanceFactDTOs.size());
+        for (BalanceFactDTO balanceFactDTO : balanceFactDTOs) {
+            BalanceFact balanceFact = new BalanceFact();
+            balanceFact.setPortfolio(bulkFactWriter.reference(PortfolioFact.class, balanceFactDTO.getPortfolioUuid()));
+            balanceFact.setDateTime(dateTimeCalendar.reference(balanceFactDTO.getDatetimeId()));
+            balanceFact.setInitial(balanceFactDTO.getInitial());
+            balanceFact.setCurrent(balanceFactDTO.getCurrent());
+            balanceFact.setMax(balanceFactDTO.getMax());
+            balanceFact.setMin(balanceFactDTO.getMin());
+            balanceFacts.add(balanceFact);
+        }
+        bulkFactWriter.persistAll(balanceFacts);
+
+        long elapsed = System.nanoTime() - start;
+        return new BulkInsertReportDTO(balanceFacts.size(),
+                balanceFacts.stream().map(BalanceFact::getBalanceUuid).collect(Collectors.toList()),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), BulkFactWriter.rowsPerSecond(balanceFacts.size(), elapsed));
+    }
+
     /**
      * Update an existing balance fact.
      *
@@ -110,8 +179,16 @@ public class BalanceFactService {
     public BalanceFactDTO update(UUID uuid, BalanceFactDTO balanceFactDTO) {
         return balanceFactRepository.findById(uuid)
                 .map(existingBalanceFact -> {
-                    // In a real implementation, you would need to fetch related entities
-                    // and set them properly instead of just UUIDs
+                    PortfolioFact portfolio = portfolioFactRepository.findById(balanceFactDTO.getPortfolioUuid())
+                            .orElseThrow(() -> new ResourceNotFoundException("Portfolio fact not found with id: " +
+                                    balanceFactDTO.getPortfolioUuid()));
+
+                    existingBalanceFact.setPortfolio(portfolio);
+                    existingBalanceFact.setDateTime(dateTimeCalendar.reference(balanceFactDTO.getDatetimeId()));
+                    existingBalanceFact.setInitial(balanceFactDTO.getInitial());
+                    existingBalanceFact.setCurrent(balanceFactDTO.getCurrent());
+                    existingBalanceFact.setMax(balanceFactDTO.getMax());
+                    existingBalanceFact.setMin(balanceFactDTO.getMin());
                     return convertToDTO(balanceFactRepository.save(existingBalanceFact));
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Balance fact not found with id: " + uuid));
@@ -160,8 +237,6 @@ public class BalanceFactService {
 
     /**
      * Convert DTO to entity.
-     * Note: In a real implementation, you would need to fetch related entities
-     * from their respective repositories.
      *
      * @param balanceFactDTO the DTO
      * @return the entity
@@ -170,8 +245,16 @@ public class BalanceFactService {
         BalanceFact entity = new BalanceFact();
         entity.setBalanceUuid(balanceFactDTO.getBalanceUuid());
 
-        // In a real implementation, you would fetch related entities
-        // and set them properly instead of just setting UUIDs
+        if (balanceFactDTO.getPortfolioUuid() != null) {
+            PortfolioFact portfolio = portfolioFactRepository.findById(balanceFactDTO.getPortfolioUuid())
+                    .orElseThrow(() -> new ResourceNotFoundException("Portfolio fact not found with id: " +
+                            balanceFactDTO.getPortfolioUuid()));
+            entity.setPortfolio(portfolio);
+        }
+
+        if (balanceFactDTO.getDatetimeId() != null) {
+            entity.setDateTime(dateTimeCalendar.reference(balanceFactDTO.getDatetimeId()));
+        }
 
         entity.setInitial(balanceFactDTO.getInitial());
         entity.setCurrent(balanceFactDTO.getCurrent());
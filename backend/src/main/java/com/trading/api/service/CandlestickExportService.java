@@ -0,0 +1,127 @@
+package com.trading.api.service;
+
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import com.trading.api.repository.CandlestickFactJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Service for streaming candlestick series exports.
+ * Rows are written to the response as they are read from the database cursor, so the memory
+ * used by an export does not depend on the size of the series.
+ */
+@Service
+@RequiredArgsConstructor
+public class CandlestickExportService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final CandlestickFactJdbcRepository candlestickFactJdbcRepository;
+
+    /**
+     * Export formats supported by the candlestick export.
+     */
+    public enum ExportFormat {
+        ndjson("application/x-ndjson"),
+        csv("text/csv");
+
+        private final String mediaType;
+
+        ExportFormat(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+    }
+
+    /**
+     * Write a candlestick series to the output stream row by row.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @param format the export format
+     * @param outputStream the output stream to write to
+     * @throws IOException if the output stream cannot be written
+     */
+    @Transactional(readOnly = true)
+    public void export(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame,
+                       Long fromDatetimeId, Long toDatetimeId, ExportFormat format,
+                       OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        long from = fromDatetimeId != null ? fromDatetimeId : Long.MIN_VALUE;
+        long to = toDatetimeId != null ? toDatetimeId : Long.MAX_VALUE;
+
+        try {
+            if (format == ExportFormat.csv) {
+                writer.write("data_feed_uuid,trade_asset,trade_time_frame,datetime_id,open,high,low,close,volume\n");
+                String prefix = dataFeedUuid + "," + tradeAsset.name() + "," + tradeTimeFrame.name() + ",";
+                candlestickFactJdbcRepository.streamSeries(dataFeedUuid, tradeAsset, tradeTimeFrame, from, to,
+                        (datetimeId, open, high, low, close, volume) -> {
+                            writer.write(prefix);
+                            writer.write(Long.toString(datetimeId));
+                            writer.write(',');
+                            writer.write(Double.toString(open));
+                            writer.write(',');
+                            writer.write(Double.toString(high));
+                            writer.write(',');
+                            writer.write(Double.toString(low));
+                            writer.write(',');
+                            writer.write(Double.toString(close));
+                            writer.write(',');
+                            writer.write(Double.toString(volume));
+                            writer.write('\n');
+                        });
+            } else {
+                // The series key is identical for every row, so its JSON is built once
+                String prefix = "{\"dataFeedUuid\":\"" + dataFeedUuid + "\",\"tradeAsset\":\"" + tradeAsset.name() +
+                        "\",\"tradeTimeFrame\":\"" + tradeTimeFrame.name() + "\",\"datetimeId\":";
+                candlestickFactJdbcRepository.streamSeries(dataFeedUuid, tradeAsset, tradeTimeFrame, from, to,
+                        (datetimeId, open, high, low, close, volume) -> {
+                            writer.write(prefix);
+                            writer.write(Long.toString(datetimeId));
+                            writer.write(",\"open\":");
+                            writer.write(jsonNumber(open));
+                            writer.write(",\"high\":");
+                            writer.write(jsonNumber(high));
+                            writer.write(",\"low\":");
+                            writer.write(jsonNumber(low));
+                            writer.write(",\"close\":");
+                            writer.write(jsonNumber(close));
+                            writer.write(",\"volume\":");
+                            writer.write(jsonNumber(volume));
+                            writer.write("}\n");
+                        });
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Format a price or volume as a JSON value. JSON has no NaN or infinity, so they are written as null.
+     *
+     * @param value the value
+     * @return the JSON number, or null if the value is not finite
+     */
+    private static String jsonNumber(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+}
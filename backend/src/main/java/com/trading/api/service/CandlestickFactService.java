@@ -1,16 +1,44 @@
 package com.trading.api.service;
 
+import com.trading.api.aggregate.RangeAggregate;
+import com.trading.api.aggregate.RangeAggregateEngine;
+import com.trading.api.cache.CandlestickSeries;
+import com.trading.api.cache.CandlestickSeriesCache;
+import com.trading.api.cache.CandlestickSeriesKey;
 import com.trading.api.dto.CandlestickFactDTO;
+import com.trading.api.dto.CandlestickIndicatorsDTO;
+import com.trading.api.dto.CandlestickMatrixDTO;
+import com.trading.api.dto.CandlestickPageDTO;
+import com.trading.api.dto.CandlestickRangeStatsDTO;
+import com.trading.api.dto.CandlestickWindowDTO;
+import com.trading.api.event.CandlestickFactChangedEvent;
+import com.trading.api.event.CandlestickFactChangedEvent.ChangeType;
+import com.trading.api.exception.BadRequestException;
 import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.indicator.IndicatorEngine;
+import com.trading.api.indicator.IndicatorSpec;
 import com.trading.api.model.CandlestickFact;
 import com.trading.api.model.enums.TradeAssetType;
 import com.trading.api.model.enums.TradeTimeFrameType;
 import com.trading.api.repository.CandlestickFactRepository;
+import com.trading.api.store.CandlestickFileStore;
+import com.trading.api.store.MappedCandlestickSeries;
+import com.trading.api.stream.CandlestickStreamHub;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -21,7 +49,46 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CandlestickFactService {
 
+    /**
+     * Default number of candlesticks per keyset page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    /**
+     * Maximum number of candlesticks per keyset page.
+     */
+    public static final int MAX_PAGE_SIZE = 10000;
+
+    /**
+     * Fields of every asset in a candlestick matrix, in order.
+     */
+    public static final List<String> MATRIX_FIELDS = List.of("open", "high", "low", "close", "volume");
+
+    /**
+     * Handling of the datetime IDs at which only some assets of a matrix have a bar.
+     */
+    public enum MissingBarPolicy {
+        /**
+         * Keep only the datetime IDs at which every asset has a bar.
+         */
+        skip,
+        /**
+         * Fill a missing bar with a flat bar at the previous close of the asset and zero volume.
+         */
+        ffill,
+        /**
+         * Leave a missing bar empty and mark it in the missing mask.
+         */
+        nan
+    }
+
     private final CandlestickFactRepository candlestickFactRepository;
+    private final CandlestickSeriesCache candlestickSeriesCache;
+    private final CandlestickFileStore candlestickFileStore;
+    private final IndicatorEngine indicatorEngine;
+    private final RangeAggregateEngine rangeAggregateEngine;
+    private final CandlestickStreamHub candlestickStreamHub;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all candlesticks.
@@ -83,19 +150,363 @@ public class CandlestickFactService {
     }
 
     /**
-     * Get candlesticks by data feed UUID, trade asset, and trade time frame.
+     * Get a keyset page of the candlestick series of a data feed, trade asset and trade time frame.
+     * The cursor is the opaque token returned as next cursor by the previous page; when present it
+     * takes precedence over the lower datetime ID bound.
      *
      * @param dataFeedUuid the data feed UUID
      * @param tradeAsset the trade asset
      * @param tradeTimeFrame the trade time frame
-     * @return list of candlesticks
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @param cursor the next cursor of the previous page, or null for the first page
+     * @param size the page size, or null for the default page size
+     * @return the page of candlesticks with the cursor of the next page
+     * @throws BadRequestException if the cursor or the page size is invalid
      */
-    public List<CandlestickFactDTO> findByDataFeedUuidAndTradeAssetAndTradeTimeFrame(
-            UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame) {
-        return candlestickFactRepository.findByIdDataFeedUuidAndIdTradeAssetAndIdTradeTimeFrame(
-                dataFeedUuid, tradeAsset, tradeTimeFrame).stream()
+    @Transactional(readOnly = true)
+    public CandlestickPageDTO findSeriesPage(UUID dataFeedUuid, TradeAssetType tradeAsset,
+                                             TradeTimeFrameType tradeTimeFrame, Long fromDatetimeId,
+                                             Long toDatetimeId, String cursor, Integer size) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        long afterDatetimeId = cursor != null ? decodeCursor(cursor)
+                : fromDatetimeId != null && fromDatetimeId > Long.MIN_VALUE ? fromDatetimeId - 1 : Long.MIN_VALUE;
+        long upperDatetimeId = toDatetimeId != null ? toDatetimeId : Long.MAX_VALUE;
+
+        // Pages lying entirely within the mapped history file are served without a database round trip
+        Optional<MappedCandlestickSeries> file = candlestickFileStore.find(
+                new CandlestickSeriesKey(dataFeedUuid, tradeAsset, tradeTimeFrame));
+        if (file.isPresent()) {
+            CandlestickPageDTO page = findSeriesPage(file.get(), afterDatetimeId, upperDatetimeId, pageSize);
+            if (page != null) {
+                return page;
+            }
+        }
+
+        // Fetch one extra row to know whether there is a next page without a count query
+        List<CandlestickFact> candlesticks = candlestickFactRepository.findSeriesPage(
+                dataFeedUuid, tradeAsset, tradeTimeFrame, afterDatetimeId, upperDatetimeId,
+                PageRequest.of(0, pageSize + 1));
+
+        String nextCursor = null;
+        if (candlesticks.size() > pageSize) {
+            candlesticks = candlesticks.subList(0, pageSize);
+            nextCursor = encodeCursor(candlesticks.get(pageSize - 1).getId().getDatetimeId());
+        }
+
+        List<CandlestickFactDTO> content = candlesticks.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        return new CandlestickPageDTO(content, content.size(), nextCursor);
+    }
+
+    /**
+     * Get a keyset page from a mapped series file.
+     *
+     * @return the page, or null if the file does not hold the whole page
+     */
+    private CandlestickPageDTO findSeriesPage(MappedCandlestickSeries file, long afterDatetimeId,
+                                              long upperDatetimeId, int pageSize) {
+        int from = afterDatetimeId == Long.MAX_VALUE ? file.size() : file.lowerBound(afterDatetimeId + 1);
+        int to = file.upperBound(upperDatetimeId);
+        boolean fileCoversRange = upperDatetimeId <= file.lastDatetimeId();
+        if (to - from <= pageSize && !fileCoversRange) {
+            // The end of the page may be in the database only
+            return null;
+        }
+
+        int end = Math.min(to, from + pageSize);
+        List<CandlestickFactDTO> content = new ArrayList<>(end - from);
+        for (int i = from; i < end; i++) {
+            content.add(new CandlestickFactDTO(file.getKey().getDataFeedUuid(), file.getKey().getTradeAsset(),
+                    file.getKey().getTradeTimeFrame(), file.datetimeId(i), file.open(i), file.high(i),
+                    file.low(i), file.close(i), file.volume(i)));
+        }
+        String nextCursor = end < to ? encodeCursor(file.datetimeId(end - 1)) : null;
+        return new CandlestickPageDTO(content, content.size(), nextCursor);
+    }
+
+    /**
+     * Get a window of a candlestick series from the in-memory series cache.
+     * When a count is given the window holds the last count candlesticks at or before the upper bound,
+     * otherwise every candlestick between the bounds.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @param count the number of candlesticks ending at the upper bound, or null
+     * @return the window in columnar form
+     * @throws BadRequestException if the count is not positive
+     */
+    public CandlestickWindowDTO findWindow(UUID dataFeedUuid, TradeAssetType tradeAsset,
+                                           TradeTimeFrameType tradeTimeFrame, Long fromDatetimeId,
+                                           Long toDatetimeId, Integer count) {
+        if (count != null && count < 1) {
+            throw new BadRequestException("Count must be positive");
+        }
+        CandlestickSeries series = candlestickSeriesCache.get(
+                new CandlestickSeriesKey(dataFeedUuid, tradeAsset, tradeTimeFrame));
+
+        int to = series.upperBound(toDatetimeId != null ? toDatetimeId : Long.MAX_VALUE);
+        int from = fromDatetimeId != null ? Math.min(series.lowerBound(fromDatetimeId), to) : 0;
+        if (count != null) {
+            from = Math.max(from, to - count);
+        }
+
+        return new CandlestickWindowDTO(dataFeedUuid, tradeAsset, tradeTimeFrame, to - from,
+                series.datetimeIds(from, to), series.opens(from, to), series.highs(from, to),
+                series.lows(from, to), series.closes(from, to), series.volumes(from, to));
+    }
+
+    /**
+     * Get the first candlesticks of a series between two datetime IDs from the in-memory series cache.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @param limit the maximum number of candlesticks, or null for the default page size
+     * @return the window in columnar form
+     * @throws BadRequestException if the limit is out of bounds
+     */
+    public CandlestickWindowDTO findWindowHead(UUID dataFeedUuid, TradeAssetType tradeAsset,
+                                               TradeTimeFrameType tradeTimeFrame, Long fromDatetimeId,
+                                               Long toDatetimeId, Integer limit) {
+        int maxSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (maxSize < 1 || maxSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        CandlestickSeries series = candlestickSeriesCache.get(
+                new CandlestickSeriesKey(dataFeedUuid, tradeAsset, tradeTimeFrame));
+
+        int to = series.upperBound(toDatetimeId != null ? toDatetimeId : Long.MAX_VALUE);
+        int from = fromDatetimeId != null ? Math.min(series.lowerBound(fromDatetimeId), to) : 0;
+        to = Math.min(to, from + maxSize);
+
+        return new CandlestickWindowDTO(dataFeedUuid, tradeAsset, tradeTimeFrame, to - from,
+                series.datetimeIds(from, to), series.opens(from, to), series.highs(from, to),
+                series.lows(from, to), series.closes(from, to), series.volumes(from, to));
+    }
+
+    /**
+     * Get technical indicators over a window of a series.
+     * Indicators are computed from the start of the series, so the first bars of the window are
+     * already warmed up when enough history precedes them.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @param indicators the comma separated indicator definitions, for example {@code ema:20,rsi:14}
+     * @return the indicator columns of the window
+     * @throws BadRequestException if an indicator definition is invalid
+     */
+    public CandlestickIndicatorsDTO findIndicators(UUID dataFeedUuid, TradeAssetType tradeAsset,
+                                                   TradeTimeFrameType tradeTimeFrame, Long fromDatetimeId,
+                                                   Long toDatetimeId, String indicators) {
+        List<IndicatorSpec> specs = IndicatorSpec.parseList(indicators);
+        CandlestickSeries series = candlestickSeriesCache.get(
+                new CandlestickSeriesKey(dataFeedUuid, tradeAsset, tradeTimeFrame));
+
+        int to = series.upperBound(toDatetimeId != null ? toDatetimeId : Long.MAX_VALUE);
+        int from = fromDatetimeId != null ? Math.min(series.lowerBound(fromDatetimeId), to) : 0;
+
+        Map<String, double[]> columns = new LinkedHashMap<>();
+        for (IndicatorSpec spec : specs) {
+            double[][] outputs = indicatorEngine.compute(series, spec, from, to);
+            String[] names = spec.outputNames();
+            for (int i = 0; i < names.length; i++) {
+                columns.put(names[i], outputs[i]);
+            }
+        }
+        return new CandlestickIndicatorsDTO(dataFeedUuid, tradeAsset, tradeTimeFrame, to - from,
+                series.datetimeIds(from, to), columns);
+    }
+
+    /**
+     * Get the OHLCV aggregate of a series between two datetime IDs in constant time from the
+     * range aggregate index of the series.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @return the aggregate of the candlesticks in the range
+     * @throws ResourceNotFoundException if no candlestick is in the range
+     */
+    public CandlestickRangeStatsDTO findRangeStats(UUID dataFeedUuid, TradeAssetType tradeAsset,
+                                                   TradeTimeFrameType tradeTimeFrame, Long fromDatetimeId,
+                                                   Long toDatetimeId) {
+        CandlestickSeries series = candlestickSeriesCache.get(
+                new CandlestickSeriesKey(dataFeedUuid, tradeAsset, tradeTimeFrame));
+
+        int to = series.upperBound(toDatetimeId != null ? toDatetimeId : Long.MAX_VALUE);
+        int from = fromDatetimeId != null ? series.lowerBound(fromDatetimeId) : 0;
+        if (from >= to) {
+            throw new ResourceNotFoundException("No candlestick found in the given range");
+        }
+
+        RangeAggregate aggregate = rangeAggregateEngine.aggregate(series, from, to - 1);
+        return new CandlestickRangeStatsDTO(dataFeedUuid, tradeAsset, tradeTimeFrame,
+                series.datetimeId(from), series.datetimeId(to - 1), aggregate.getCount(),
+                series.open(from), series.high(aggregate.getHighIndex()), series.datetimeId(aggregate.getHighIndex()),
+                series.low(aggregate.getLowIndex()), series.datetimeId(aggregate.getLowIndex()),
+                series.close(to - 1), aggregate.getVolume(), aggregate.getVwap());
+    }
+
+    /**
+     * Get the candlesticks of several assets of a data feed aligned on their datetime IDs.
+     * The sorted series of the assets are merge-joined in a single pass; before the first bar of an
+     * asset there is no previous close, so forward-filling leaves those bars missing. At most limit
+     * datetime IDs are returned; when more follow, the first of them is the next from datetime ID.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAssets the trade assets, in matrix order
+     * @param tradeTimeFrame the trade time frame
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @param missingBars the missing bar policy
+     * @param limit the maximum number of datetime IDs, or null for the default page size
+     * @return the aligned candlesticks
+     * @throws BadRequestException if no asset is given, an asset is repeated or the limit is out of bounds
+     */
+    public CandlestickMatrixDTO findMatrix(UUID dataFeedUuid, List<TradeAssetType> tradeAssets,
+                                           TradeTimeFrameType tradeTimeFrame, Long fromDatetimeId,
+                                           Long toDatetimeId, MissingBarPolicy missingBars, Integer limit) {
+        if (tradeAssets == null || tradeAssets.isEmpty()) {
+            throw new BadRequestException("At least one trade asset is required");
+        }
+        if (tradeAssets.stream().distinct().count() != tradeAssets.size()) {
+            throw new BadRequestException("Trade assets must not be repeated");
+        }
+        int maxSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (maxSize < 1 || maxSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        int assets = tradeAssets.size();
+        int fields = MATRIX_FIELDS.size();
+        CandlestickSeries[] series = new CandlestickSeries[assets];
+        int[] cursor = new int[assets];
+        int[] end = new int[assets];
+        int capacity = 0;
+        for (int a = 0; a < assets; a++) {
+            series[a] = candlestickSeriesCache.get(new CandlestickSeriesKey(dataFeedUuid, tradeAssets.get(a), tradeTimeFrame));
+            end[a] = series[a].upperBound(toDatetimeId != null ? toDatetimeId : Long.MAX_VALUE);
+            cursor[a] = fromDatetimeId != null ? Math.min(series[a].lowerBound(fromDatetimeId), end[a]) : 0;
+            capacity = missingBars == MissingBarPolicy.skip
+                    ? (a == 0 ? end[a] - cursor[a] : Math.min(capacity, end[a] - cursor[a]))
+                    : Math.min(capacity + end[a] - cursor[a], maxSize);
+        }
+        capacity = Math.min(capacity, maxSize);
+
+        long[] datetimeIds = new long[capacity];
+        double[] values = new double[capacity * assets * fields];
+        boolean[] missing = new boolean[capacity * assets];
+        double[] previousClose = new double[assets];
+        Arrays.fill(previousClose, Double.NaN);
+        if (missingBars == MissingBarPolicy.ffill) {
+            for (int a = 0; a < assets; a++) {
+                if (cursor[a] > 0) {
+                    previousClose[a] = series[a].close(cursor[a] - 1);
+                }
+            }
+        }
+
+        int size = 0;
+        Long nextFromDatetimeId = null;
+        while (true) {
+            long datetimeId = Long.MAX_VALUE;
+            int present = 0;
+            for (int a = 0; a < assets; a++) {
+                if (cursor[a] < end[a]) {
+                    long candidate = series[a].datetimeId(cursor[a]);
+                    if (candidate < datetimeId) {
+                        datetimeId = candidate;
+                        present = 1;
+                    } else if (candidate == datetimeId) {
+                        present++;
+                    }
+                } else if (missingBars == MissingBarPolicy.skip) {
+                    // An exhausted asset leaves no datetime ID shared by every asset
+                    datetimeId = Long.MAX_VALUE;
+                    break;
+                }
+            }
+            if (datetimeId == Long.MAX_VALUE) {
+                break;
+            }
+
+            boolean kept = missingBars != MissingBarPolicy.skip || present == assets;
+            if (kept && size == maxSize) {
+                nextFromDatetimeId = datetimeId;
+                break;
+            }
+            for (int a = 0; a < assets; a++) {
+                int cell = size * assets + a;
+                if (cursor[a] < end[a] && series[a].datetimeId(cursor[a]) == datetimeId) {
+                    int i = cursor[a]++;
+                    if (kept) {
+                        values[cell * fields] = series[a].open(i);
+                        values[cell * fields + 1] = series[a].high(i);
+                        values[cell * fields + 2] = series[a].low(i);
+                        values[cell * fields + 3] = series[a].close(i);
+                        values[cell * fields + 4] = series[a].volume(i);
+                    }
+                    previousClose[a] = series[a].close(i);
+                } else if (kept) {
+                    double fill = missingBars == MissingBarPolicy.ffill ? previousClose[a] : Double.NaN;
+                    if (Double.isNaN(fill)) {
+                        missing[cell] = true;
+                    } else {
+                        Arrays.fill(values, cell * fields, cell * fields + 4, fill);
+                    }
+                }
+            }
+            if (kept) {
+                datetimeIds[size++] = datetimeId;
+            }
+        }
+
+        return new CandlestickMatrixDTO(dataFeedUuid, tradeTimeFrame, List.copyOf(tradeAssets), MATRIX_FIELDS,
+                missingBars.name(), size, new int[]{size, assets, fields}, Arrays.copyOf(datetimeIds, size),
+                Arrays.copyOf(values, size * assets * fields), Arrays.copyOf(missing, size * assets),
+                nextFromDatetimeId);
+    }
+
+    /**
+     * Get the latest candlestick of a series.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @return the latest candlestick
+     * @throws ResourceNotFoundException if the series is empty
+     */
+    public CandlestickFactDTO findLatest(UUID dataFeedUuid, TradeAssetType tradeAsset,
+                                         TradeTimeFrameType tradeTimeFrame) {
+        return candlestickStreamHub.getLatest(new CandlestickSeriesKey(dataFeedUuid, tradeAsset, tradeTimeFrame))
+                .orElseThrow(() -> new ResourceNotFoundException("No candlestick found for the given series"));
+    }
+
+    /**
+     * Subscribe to the candlesticks created, updated and deleted in a series.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @return the SSE emitter of the subscription
+     */
+    public SseEmitter subscribe(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame) {
+        return candlestickStreamHub.subscribe(new CandlestickSeriesKey(dataFeedUuid, tradeAsset, tradeTimeFrame));
     }
 
     /**
@@ -108,7 +519,9 @@ public class CandlestickFactService {
     public CandlestickFactDTO create(CandlestickFactDTO candlestickFactDTO) {
         CandlestickFact candlestickFact = convertToEntity(candlestickFactDTO);
         CandlestickFact savedCandlestickFact = candlestickFactRepository.save(candlestickFact);
-        return convertToDTO(savedCandlestickFact);
+        CandlestickFactDTO createdCandlestick = convertToDTO(savedCandlestickFact);
+        eventPublisher.publishEvent(CandlestickFactChangedEvent.of(ChangeType.CREATED, createdCandlestick));
+        return createdCandlestick;
     }
 
     /**
@@ -136,7 +549,9 @@ public class CandlestickFactService {
                     existingCandlestick.setLow(candlestickFactDTO.getLow());
                     existingCandlestick.setClose(candlestickFactDTO.getClose());
                     existingCandlestick.setVolume(candlestickFactDTO.getVolume());
-                    return convertToDTO(candlestickFactRepository.save(existingCandlestick));
+                    CandlestickFactDTO updatedCandlestick = convertToDTO(candlestickFactRepository.save(existingCandlestick));
+                    eventPublisher.publishEvent(CandlestickFactChangedEvent.of(ChangeType.UPDATED, updatedCandlestick));
+                    return updatedCandlestick;
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Candlestick not found with the given composite key"));
     }
@@ -160,6 +575,34 @@ public class CandlestickFactService {
             throw new ResourceNotFoundException("Candlestick not found with the given composite key");
         }
         candlestickFactRepository.deleteById(id);
+        eventPublisher.publishEvent(new CandlestickFactChangedEvent(ChangeType.DELETED, dataFeedUuid, tradeAsset,
+                tradeTimeFrame, datetimeId, datetimeId, null));
+    }
+
+    /**
+     * Encode the last datetime ID of a page as an opaque cursor.
+     *
+     * @param datetimeId the last datetime ID of the page
+     * @return the cursor
+     */
+    private String encodeCursor(Long datetimeId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(datetimeId.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decode a cursor into the last datetime ID of the previous page.
+     *
+     * @param cursor the cursor
+     * @return the last datetime ID of the previous page
+     * @throws BadRequestException if the cursor is malformed
+     */
+    private long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor, e);
+        }
     }
 
     /**
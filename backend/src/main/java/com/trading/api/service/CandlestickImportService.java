@@ -0,0 +1,309 @@
+package com.trading.api.service;
+
+import com.trading.api.dto.CandlestickImportReportDTO;
+import com.trading.api.event.CandlestickFactChangedEvent;
+import com.trading.api.event.CandlestickFactChangedEvent.ChangeType;
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import com.trading.api.repository.CandlestickFactJdbcRepository;
+import com.trading.api.repository.DataFeedFactRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for bulk candlestick imports.
+ * MT5 exports are converted line by line into PostgreSQL COPY rows, loaded into a temporary
+ * staging table and merged into the partition of the trade time frame in one statement.
+ */
+@Service
+@RequiredArgsConstructor
+public class CandlestickImportService {
+
+    /**
+     * Maximum number of rejected lines echoed back in the import report.
+     */
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private final CandlestickFactJdbcRepository candlestickFactJdbcRepository;
+    private final DataFeedFactRepository dataFeedFactRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Import an MT5 tab separated export
+     * ({@code <DATE> <TIME> <OPEN> <HIGH> <LOW> <CLOSE> <TICKVOL> <VOL> <SPREAD>}).
+     *
+     * @param dataFeedUuid the data feed UUID of the candlesticks
+     * @param tradeAsset the trade asset of the candlesticks
+     * @param tradeTimeFrame the trade time frame of the candlesticks
+     * @param inputStream the MT5 export
+     * @return the import report
+     * @throws ResourceNotFoundException if the data feed is not found
+     * @throws BadRequestException if the export has no valid MT5 header
+     */
+    @Transactional
+    public CandlestickImportReportDTO importMt5(UUID dataFeedUuid, TradeAssetType tradeAsset,
+                                                TradeTimeFrameType tradeTimeFrame, InputStream inputStream)
+            throws IOException {
+        if (!dataFeedFactRepository.existsById(dataFeedUuid)) {
+            throw new ResourceNotFoundException("Data feed not found with id: " + dataFeedUuid);
+        }
+
+        long start = System.nanoTime();
+        Mt5CopyReader copyReader = new Mt5CopyReader(
+                new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+
+        candlestickFactJdbcRepository.createImportStaging();
+        long rowsCopied = candlestickFactJdbcRepository.copyIntoImportStaging(copyReader);
+        long rowsWithoutDatetime = candlestickFactJdbcRepository.countImportStagingWithoutDateTime();
+        long rowsInserted = candlestickFactJdbcRepository.mergeImportStaging(dataFeedUuid, tradeAsset, tradeTimeFrame);
+        if (rowsInserted > 0) {
+            eventPublisher.publishEvent(new CandlestickFactChangedEvent(ChangeType.BULK_LOADED, dataFeedUuid,
+                    tradeAsset, tradeTimeFrame, copyReader.minDatetimeId, copyReader.maxDatetimeId, null));
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        double rowsPerSecond = rowsCopied * 1000.0 / Math.max(elapsedMillis, 1);
+
+        return new CandlestickImportReportDTO(
+                copyReader.linesRead,
+                rowsCopied,
+                rowsInserted,
+                rowsCopied - rowsWithoutDatetime - rowsInserted,
+                rowsWithoutDatetime,
+                copyReader.rejectedLines,
+                copyReader.rejections,
+                elapsedMillis,
+                rowsPerSecond);
+    }
+
+    /**
+     * Reader converting MT5 export lines into COPY text rows on demand.
+     * Only one line is held in memory at a time; invalid lines are counted and skipped.
+     */
+    private static final class Mt5CopyReader extends Reader {
+
+        private final BufferedReader source;
+        private final StringBuilder row = new StringBuilder(128);
+        private int rowPosition;
+
+        private int dateColumn = -1;
+        private int timeColumn = -1;
+        private int openColumn = -1;
+        private int highColumn = -1;
+        private int lowColumn = -1;
+        private int closeColumn = -1;
+        private int volumeColumn = -1;
+
+        private long minDatetimeId = Long.MAX_VALUE;
+        private long maxDatetimeId = Long.MIN_VALUE;
+        private long lineNumber;
+        private long linesRead;
+        private long rejectedLines;
+        private final List<String> rejections = new ArrayList<>();
+
+        private Mt5CopyReader(BufferedReader source) throws IOException {
+            this.source = source;
+            readHeader();
+        }
+
+        private void readHeader() throws IOException {
+            String header = source.readLine();
+            lineNumber++;
+            if (header == null) {
+                throw new BadRequestException("Empty MT5 export");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            String[] names = header.trim().split("\t");
+            for (int i = 0; i < names.length; i++) {
+                columns.put(names[i].trim(), i);
+            }
+            dateColumn = columns.getOrDefault("<DATE>", -1);
+            timeColumn = columns.getOrDefault("<TIME>", -1);
+            openColumn = columns.getOrDefault("<OPEN>", -1);
+            highColumn = columns.getOrDefault("<HIGH>", -1);
+            lowColumn = columns.getOrDefault("<LOW>", -1);
+            closeColumn = columns.getOrDefault("<CLOSE>", -1);
+            volumeColumn = columns.getOrDefault("<VOL>", columns.getOrDefault("<TICKVOL>", -1));
+            if (dateColumn < 0 || openColumn < 0 || highColumn < 0 || lowColumn < 0
+                    || closeColumn < 0 || volumeColumn < 0) {
+                throw new BadRequestException("Invalid MT5 header, expected <DATE> <TIME> <OPEN> <HIGH> <LOW> " +
+                        "<CLOSE> <TICKVOL> <VOL> <SPREAD> but got: " + header);
+            }
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (rowPosition == row.length() && !nextRow()) {
+                return -1;
+            }
+            int count = Math.min(length, row.length() - rowPosition);
+            row.getChars(rowPosition, rowPosition + count, buffer, offset);
+            rowPosition += count;
+            return count;
+        }
+
+        /**
+         * Convert the next valid line into a COPY row.
+         *
+         * @return false when the export is exhausted
+         */
+        private boolean nextRow() throws IOException {
+            String line;
+            while ((line = source.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                linesRead++;
+                String rejection = toCopyRow(line);
+                if (rejection == null) {
+                    rowPosition = 0;
+                    return true;
+                }
+                rejectedLines++;
+                if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                    rejections.add("line " + lineNumber + ": " + rejection);
+                }
+            }
+            row.setLength(0);
+            rowPosition = 0;
+            return false;
+        }
+
+        /**
+         * Fill the row buffer with the COPY row of an MT5 line.
+         *
+         * @return null if the line is valid, otherwise the reason it was rejected
+         */
+        private String toCopyRow(String line) {
+            String[] fields = line.split("\t");
+            int required = Math.max(Math.max(Math.max(dateColumn, timeColumn), Math.max(openColumn, highColumn)),
+                    Math.max(Math.max(lowColumn, closeColumn), volumeColumn));
+            if (fields.length <= required) {
+                return "expected " + (required + 1) + " columns but got " + fields.length;
+            }
+
+            // MT5 writes dates as yyyy.MM.dd and times as HH:mm[:ss]
+            String date = fields[dateColumn].trim();
+            String time = timeColumn >= 0 ? fields[timeColumn].trim() : "00:00";
+            if (date.length() != 10 || date.charAt(4) != '.' || date.charAt(7) != '.'
+                    || time.length() < 5 || time.charAt(2) != ':') {
+                return "invalid date or time '" + date + " " + time + "'";
+            }
+
+            row.setLength(0);
+            row.append(date, 0, 4).append(date, 5, 7).append(date, 8, 10)
+                    .append(time, 0, 2).append(time, 3, 5);
+            for (int i = 0; i < row.length(); i++) {
+                if (!Character.isDigit(row.charAt(i))) {
+                    return "invalid date or time '" + date + " " + time + "'";
+                }
+            }
+
+            long datetimeId = Long.parseLong(row, 0, row.length(), 10);
+
+            int[] valueColumns = {openColumn, highColumn, lowColumn, closeColumn, volumeColumn};
+            for (int column : valueColumns) {
+                String value = fields[column].trim();
+                if (!isDecimal(value)) {
+                    return "invalid number '" + value + "'";
+                }
+                double parsed = Double.parseDouble(value);
+                if (!Double.isFinite(parsed) || parsed == 0 && hasNonZeroDigit(value)) {
+                    return "out of range value '" + value + "'";
+                }
+                row.append('\t').append(value);
+            }
+            row.append('\n');
+            minDatetimeId = Math.min(minDatetimeId, datetimeId);
+            maxDatetimeId = Math.max(maxDatetimeId, datetimeId);
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+
+        /**
+         * Check that a value is a plain decimal number, {@code [+-]digits[.digits][e[+-]digits]}.
+         * Double.parseDouble also takes hexadecimal floats, a trailing d or f and Infinity, which
+         * COPY rejects for the whole import, so anything else is rejected here line by line.
+         */
+        private static boolean isDecimal(String value) {
+            int i = 0;
+            int length = value.length();
+            if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+                i++;
+            }
+            int digits = 0;
+            while (i < length && isAsciiDigit(value.charAt(i))) {
+                i++;
+                digits++;
+            }
+            if (i < length && value.charAt(i) == '.') {
+                i++;
+                while (i < length && isAsciiDigit(value.charAt(i))) {
+                    i++;
+                    digits++;
+                }
+            }
+            if (digits == 0) {
+                return false;
+            }
+            if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+                i++;
+                if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+                    i++;
+                }
+                int exponentDigits = 0;
+                while (i < length && isAsciiDigit(value.charAt(i))) {
+                    i++;
+                    exponentDigits++;
+                }
+                if (exponentDigits == 0) {
+                    return false;
+                }
+            }
+            return i == length;
+        }
+
+        /**
+         * Check whether the mantissa of a decimal number has a non zero digit, so a value parsed as
+         * zero underflowed, which PostgreSQL reports as out of range.
+         */
+        private static boolean hasNonZeroDigit(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == 'e' || c == 'E') {
+                    return false;
+                }
+                if (c >= '1' && c <= '9') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isAsciiDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+}
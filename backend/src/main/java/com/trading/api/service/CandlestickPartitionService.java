@@ -0,0 +1,320 @@
+package com.trading.api.service;
+
+import com.trading.api.cache.CandlestickSeriesKey;
+import com.trading.api.dto.CandlestickPartitionDTO;
+import com.trading.api.dto.CandlestickPartitionMaintenanceDTO;
+import com.trading.api.event.CandlestickFactChangedEvent;
+import com.trading.api.event.CandlestickFactChangedEvent.ChangeType;
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import com.trading.api.repository.CandlestickFactJdbcRepository;
+import com.trading.api.repository.CandlestickPartitionJdbcRepository;
+import com.trading.api.repository.CandlestickPartitionJdbcRepository.PartitionRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Service managing the datetime ID range sub-partitions of the candlestick_fact time frame partitions.
+ * <p>
+ * Time frame partitions declared {@code PARTITION BY RANGE (datetime_id)} in init-db.sh get one
+ * partition per month or year. Maintenance creates the current period and the configured number of
+ * periods ahead, and splits out of the default partition the periods it holds, so historical
+ * imports land in the default partition and are moved to their periods on the next run.
+ * Queries bounded by datetime ID are then pruned to the relevant periods, and old periods can be
+ * detached without deleting rows.
+ */
+@Slf4j
+@Service
+public class CandlestickPartitionService {
+
+    /**
+     * Length of a range partition.
+     */
+    public enum PartitionPeriod {
+        month(1000000L),
+        year(100000000L);
+
+        private final long divisor;
+
+        PartitionPeriod(long divisor) {
+            this.divisor = divisor;
+        }
+
+        /**
+         * Get the divisor truncating a datetime ID to the key of its period (yyyyMM or yyyy).
+         *
+         * @return the divisor
+         */
+        public long getDivisor() {
+            return divisor;
+        }
+    }
+
+    private static final Pattern LIST_BOUND = Pattern.compile("IN \\('([^']+)'\\)");
+    private static final Pattern RANGE_BOUND = Pattern.compile("FROM \\('?(-?\\d+)'?\\) TO \\('?(-?\\d+)'?\\)");
+    private static final String DEFAULT_BOUND = "DEFAULT";
+
+    private final CandlestickPartitionJdbcRepository candlestickPartitionJdbcRepository;
+    private final CandlestickFactJdbcRepository candlestickFactJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<TradeTimeFrameType, PartitionPeriod> periods;
+    private final int periodsAhead;
+    private final boolean scheduled;
+
+    public CandlestickPartitionService(CandlestickPartitionJdbcRepository candlestickPartitionJdbcRepository,
+                                       CandlestickFactJdbcRepository candlestickFactJdbcRepository,
+                                       ApplicationEventPublisher eventPublisher,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${tradezero.candlestick.partition.periods:m1:month,m5:year}") String periods,
+                                       @Value("${tradezero.candlestick.partition.periods-ahead:2}") int periodsAhead,
+                                       @Value("${tradezero.candlestick.partition.scheduled:false}") boolean scheduled) {
+        this.candlestickPartitionJdbcRepository = candlestickPartitionJdbcRepository;
+        this.candlestickFactJdbcRepository = candlestickFactJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.periods = parsePeriods(periods);
+        this.periodsAhead = periodsAhead;
+        this.scheduled = scheduled;
+    }
+
+    /**
+     * Get every partition of candlestick_fact with its size.
+     *
+     * @return list of partitions, time frame partitions before their range partitions
+     */
+    public List<CandlestickPartitionDTO> findAll() {
+        Map<String, CandlestickPartitionDTO> partitions = new LinkedHashMap<>();
+        for (PartitionRow row : candlestickPartitionJdbcRepository.findPartitions()) {
+            CandlestickPartitionDTO parent = partitions.get(row.getParentName());
+            TradeTimeFrameType tradeTimeFrame = parent != null ? parent.getTradeTimeFrame() : listValue(row.getBound());
+            long[] range = rangeOf(row.getBound());
+            partitions.put(row.getName(), new CandlestickPartitionDTO(row.getName(), row.getParentName(), tradeTimeFrame,
+                    row.isPartitioned(), DEFAULT_BOUND.equals(row.getBound()),
+                    range != null ? range[0] : null, range != null ? range[1] : null,
+                    row.isPartitioned() || row.getEstimatedRows() < 0 ? null : row.getEstimatedRows(),
+                    row.getTableBytes(), row.getIndexBytes(), row.getTotalBytes()));
+        }
+
+        // Children come after their parents, so a reverse pass rolls sizes up the tree
+        List<CandlestickPartitionDTO> ordered = new ArrayList<>(partitions.values());
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            CandlestickPartitionDTO child = ordered.get(i);
+            CandlestickPartitionDTO parent = partitions.get(child.getParentName());
+            if (parent != null) {
+                parent.setTableBytes(parent.getTableBytes() + child.getTableBytes());
+                parent.setIndexBytes(parent.getIndexBytes() + child.getIndexBytes());
+                parent.setTotalBytes(parent.getTotalBytes() + child.getTotalBytes());
+                if (child.getEstimatedRows() != null) {
+                    parent.setEstimatedRows((parent.getEstimatedRows() != null ? parent.getEstimatedRows() : 0)
+                            + child.getEstimatedRows());
+                }
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Create the missing periods of every range partitioned time frame: the current one, the
+     * configured number ahead, and every period with rows in the default partition.
+     * Each period is created in its own transaction.
+     *
+     * @return the created partitions and the rows moved out of the default partitions
+     */
+    public synchronized CandlestickPartitionMaintenanceDTO maintain() {
+        List<CandlestickPartitionDTO> partitions = findAll();
+        List<String> created = new ArrayList<>();
+        long movedRows = 0;
+
+        for (CandlestickPartitionDTO timeFramePartition : partitions) {
+            if (!timeFramePartition.isPartitioned() || timeFramePartition.getTradeTimeFrame() == null
+                    || timeFramePartition.getParentName() == null
+                    || !timeFramePartition.getParentName().equals(CandlestickPartitionJdbcRepository.ROOT_TABLE)) {
+                continue;
+            }
+            PartitionPeriod period = periods.getOrDefault(timeFramePartition.getTradeTimeFrame(), PartitionPeriod.month);
+            String parent = timeFramePartition.getName();
+
+            List<long[]> existing = new ArrayList<>();
+            String defaultPartition = null;
+            for (CandlestickPartitionDTO partition : partitions) {
+                if (!parent.equals(partition.getParentName())) {
+                    continue;
+                }
+                if (partition.isDefaultPartition()) {
+                    defaultPartition = partition.getName();
+                } else if (partition.getFromDatetimeId() != null) {
+                    existing.add(new long[]{partition.getFromDatetimeId(), partition.getToDatetimeId()});
+                }
+            }
+
+            TreeSet<Long> wanted = new TreeSet<>();
+            YearMonth current = YearMonth.now();
+            for (int i = 0; i <= periodsAhead; i++) {
+                wanted.add(period == PartitionPeriod.month
+                        ? periodKey(current.plusMonths(i))
+                        : current.getYear() + i);
+            }
+            if (defaultPartition != null) {
+                wanted.addAll(candlestickPartitionJdbcRepository.findDefaultPeriods(defaultPartition, period.getDivisor()));
+            }
+
+            for (long key : wanted) {
+                long from = periodStart(key, period);
+                long to = periodStart(nextPeriodKey(key, period), period);
+                if (overlaps(existing, from, to)) {
+                    continue;
+                }
+                String name = parent + "_p" + key;
+                String defaultName = defaultPartition;
+                Integer moved = transactionTemplate.execute(status ->
+                        candlestickPartitionJdbcRepository.createRangePartition(parent, defaultName, name, from, to));
+                existing.add(new long[]{from, to});
+                created.add(name);
+                movedRows += moved != null ? moved : 0;
+                log.info("Created candlestick partition {} [{}, {}), moved {} rows from the default partition",
+                        name, from, to, moved);
+            }
+        }
+        return new CandlestickPartitionMaintenanceDTO(created, movedRows);
+    }
+
+    /**
+     * Detach the range partitions of a time frame entirely before a datetime ID.
+     * Detached partitions stay in the schema as standalone tables unless dropped.
+     *
+     * @param tradeTimeFrame the trade time frame
+     * @param beforeDatetimeId the exclusive datetime ID every detached partition ends at or before
+     * @param drop whether to drop the detached tables
+     * @return the detached partitions
+     * @throws BadRequestException if the time frame partition is not range partitioned
+     */
+    public synchronized CandlestickPartitionMaintenanceDTO detach(TradeTimeFrameType tradeTimeFrame,
+                                                                  long beforeDatetimeId, boolean drop) {
+        List<CandlestickPartitionDTO> partitions = findAll();
+        CandlestickPartitionDTO timeFramePartition = partitions.stream()
+                .filter(partition -> CandlestickPartitionJdbcRepository.ROOT_TABLE.equals(partition.getParentName()))
+                .filter(partition -> partition.getTradeTimeFrame() == tradeTimeFrame)
+                .filter(CandlestickPartitionDTO::isPartitioned)
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException(
+                        "Candlesticks of time frame " + tradeTimeFrame + " are not range partitioned"));
+
+        List<CandlestickPartitionDTO> detached = partitions.stream()
+                .filter(partition -> timeFramePartition.getName().equals(partition.getParentName()))
+                .filter(partition -> partition.getToDatetimeId() != null && partition.getToDatetimeId() <= beforeDatetimeId)
+                .toList();
+        if (detached.isEmpty()) {
+            return new CandlestickPartitionMaintenanceDTO(List.of(), 0);
+        }
+        long from = detached.stream().mapToLong(CandlestickPartitionDTO::getFromDatetimeId).min().getAsLong();
+        long to = detached.stream().mapToLong(CandlestickPartitionDTO::getToDatetimeId).max().getAsLong() - 1;
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<CandlestickSeriesKey> keys = candlestickFactJdbcRepository.findSeriesKeys(tradeTimeFrame);
+            for (CandlestickPartitionDTO partition : detached) {
+                candlestickPartitionJdbcRepository.detachPartition(timeFramePartition.getName(), partition.getName());
+                if (drop) {
+                    candlestickPartitionJdbcRepository.dropTable(partition.getName());
+                }
+            }
+            // The rows left candlestick_fact, so series derived from them must be reloaded
+            for (CandlestickSeriesKey key : keys) {
+                eventPublisher.publishEvent(new CandlestickFactChangedEvent(ChangeType.BULK_LOADED,
+                        key.getDataFeedUuid(), key.getTradeAsset(), tradeTimeFrame, from, to, null));
+            }
+        });
+        log.info("{} candlestick partitions {}", drop ? "Dropped" : "Detached", detached.stream()
+                .map(CandlestickPartitionDTO::getName).toList());
+        return new CandlestickPartitionMaintenanceDTO(
+                detached.stream().map(CandlestickPartitionDTO::getName).toList(),
+                0);
+    }
+
+    /**
+     * Create the upcoming periods ahead of time when scheduled maintenance is enabled with
+     * {@code tradezero.candlestick.partition.scheduled=true}. It is disabled by default because it runs DDL.
+     */
+    @Scheduled(fixedDelayString = "${tradezero.candlestick.partition.maintenance-interval-ms:86400000}",
+               initialDelayString = "${tradezero.candlestick.partition.initial-delay-ms:60000}")
+    public void scheduledMaintenance() {
+        if (!scheduled) {
+            return;
+        }
+        try {
+            CandlestickPartitionMaintenanceDTO result = maintain();
+            log.info("Created {} candlestick partitions", result.getPartitions().size());
+        } catch (RuntimeException e) {
+            log.warn("Scheduled candlestick partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private static Map<TradeTimeFrameType, PartitionPeriod> parsePeriods(String periods) {
+        Map<TradeTimeFrameType, PartitionPeriod> parsed = new EnumMap<>(TradeTimeFrameType.class);
+        for (String entry : periods.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid partition period: " + entry);
+            }
+            parsed.put(TradeTimeFrameType.valueOf(parts[0].trim()), PartitionPeriod.valueOf(parts[1].trim()));
+        }
+        return parsed;
+    }
+
+    private static TradeTimeFrameType listValue(String bound) {
+        Matcher matcher = bound != null ? LIST_BOUND.matcher(bound) : null;
+        return matcher != null && matcher.find() ? TradeTimeFrameType.valueOf(matcher.group(1)) : null;
+    }
+
+    private static long[] rangeOf(String bound) {
+        Matcher matcher = bound != null ? RANGE_BOUND.matcher(bound) : null;
+        return matcher != null && matcher.find()
+                ? new long[]{Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))}
+                : null;
+    }
+
+    private static boolean overlaps(List<long[]> ranges, long from, long to) {
+        for (long[] range : ranges) {
+            if (range[0] < to && from < range[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long periodKey(YearMonth month) {
+        return month.getYear() * 100L + month.getMonthValue();
+    }
+
+    private static long nextPeriodKey(long key, PartitionPeriod period) {
+        if (period == PartitionPeriod.year) {
+            return key + 1;
+        }
+        return periodKey(YearMonth.of((int) (key / 100), (int) (key % 100)).plusMonths(1));
+    }
+
+    private static long periodStart(long key, PartitionPeriod period) {
+        // First minute of the first day: yyyyMM010000 or yyyy01010000
+        return period == PartitionPeriod.month ? key * 1000000L + 10000L : key * 100000000L + 1010000L;
+    }
+}
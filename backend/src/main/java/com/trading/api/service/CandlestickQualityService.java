@@ -0,0 +1,380 @@
+package com.trading.api.service;
+
+import com.trading.api.cache.CandlestickSeriesKey;
+import com.trading.api.calendar.TradingSessionCalendar;
+import com.trading.api.dto.CandlestickQualityReportDTO;
+import com.trading.api.dto.CandlestickRepairReportDTO;
+import com.trading.api.event.CandlestickFactChangedEvent;
+import com.trading.api.event.CandlestickFactChangedEvent.ChangeType;
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.model.CandlestickQualityFact;
+import com.trading.api.model.CandlestickQualityFact.CandlestickQualityFactId;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import com.trading.api.quality.CandlestickQualityScanner;
+import com.trading.api.repository.CandlestickFactJdbcRepository;
+import com.trading.api.repository.CandlestickQualityFactRepository;
+import com.trading.api.repository.DataFeedFactRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service for scanning candlestick series for data quality issues and repairing them into another data feed.
+ * <p>
+ * Every series of every partition is scanned as its own task on a ForkJoin pool. Reports are
+ * stored in candlestick_quality_fact and rescans only read the candlesticks after the last
+ * scanned datetime ID, warming the rolling state up from the bars just before it.
+ */
+@Slf4j
+@Service
+public class CandlestickQualityService {
+
+    private static final int REPAIR_BATCH_SIZE = 5000;
+
+    private final CandlestickFactJdbcRepository candlestickFactJdbcRepository;
+    private final CandlestickQualityFactRepository candlestickQualityFactRepository;
+    private final DataFeedFactRepository dataFeedFactRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool scanPool;
+    private final boolean scheduled;
+    private final TradingSessionCalendar tradingSessionCalendar;
+    private final double spikeSigma;
+    private final int spikeWindow;
+    private final int maxIssues;
+
+    public CandlestickQualityService(CandlestickFactJdbcRepository candlestickFactJdbcRepository,
+                                     CandlestickQualityFactRepository candlestickQualityFactRepository,
+                                     DataFeedFactRepository dataFeedFactRepository,
+                                     ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager,
+                                     TradingSessionCalendar tradingSessionCalendar,
+                                     @Value("${tradezero.candlestick.quality.parallelism:4}") int parallelism,
+                                     @Value("${tradezero.candlestick.quality.scheduled:false}") boolean scheduled,
+                                     @Value("${tradezero.candlestick.quality.spike-sigma:8}") double spikeSigma,
+                                     @Value("${tradezero.candlestick.quality.spike-window:100}") int spikeWindow,
+                                     @Value("${tradezero.candlestick.quality.max-issues:50}") int maxIssues) {
+        this.candlestickFactJdbcRepository = candlestickFactJdbcRepository;
+        this.candlestickQualityFactRepository = candlestickQualityFactRepository;
+        this.dataFeedFactRepository = dataFeedFactRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.scanPool = new ForkJoinPool(parallelism);
+        this.scheduled = scheduled;
+        this.tradingSessionCalendar = tradingSessionCalendar;
+        this.spikeSigma = spikeSigma;
+        this.spikeWindow = spikeWindow;
+        this.maxIssues = maxIssues;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanPool.shutdown();
+    }
+
+    /**
+     * Get all stored quality reports.
+     *
+     * @param dataFeedUuid the data feed UUID, or null for all data feeds
+     * @return list of quality reports
+     */
+    public List<CandlestickQualityReportDTO> findAll(UUID dataFeedUuid) {
+        List<CandlestickQualityFact> reports = dataFeedUuid != null
+                ? candlestickQualityFactRepository.findByIdDataFeedUuid(dataFeedUuid)
+                : candlestickQualityFactRepository.findAll();
+        return reports.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the quality report of a series.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @return the quality report
+     * @throws ResourceNotFoundException if the series was never scanned
+     */
+    public CandlestickQualityReportDTO findById(UUID dataFeedUuid, TradeAssetType tradeAsset,
+                                                TradeTimeFrameType tradeTimeFrame) {
+        return candlestickQualityFactRepository.findById(
+                        new CandlestickQualityFactId(dataFeedUuid, tradeAsset, tradeTimeFrame))
+                .map(this::convertToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Quality report not found for the given series"));
+    }
+
+    /**
+     * Scan every series of the selected partitions, one series per ForkJoin task.
+     *
+     * @param dataFeedUuid the data feed UUID, or null for all data feeds
+     * @param tradeTimeFrames the trade time frames, or null or empty for all partitions
+     * @param full true to discard the stored reports and scan from the start of the series
+     * @return the updated reports
+     */
+    public List<CandlestickQualityReportDTO> scan(UUID dataFeedUuid, List<TradeTimeFrameType> tradeTimeFrames,
+                                                  boolean full) {
+        List<TradeTimeFrameType> frames = tradeTimeFrames == null || tradeTimeFrames.isEmpty()
+                ? Arrays.asList(TradeTimeFrameType.values()) : tradeTimeFrames;
+
+        List<Callable<CandlestickQualityReportDTO>> tasks = new ArrayList<>();
+        for (TradeTimeFrameType frame : frames) {
+            for (CandlestickSeriesKey key : candlestickFactJdbcRepository.findSeriesKeys(frame)) {
+                if (dataFeedUuid == null || dataFeedUuid.equals(key.getDataFeedUuid())) {
+                    tasks.add(() -> scanSeries(key, full));
+                }
+            }
+        }
+
+        List<CandlestickQualityReportDTO> reports = new ArrayList<>(tasks.size());
+        for (Future<CandlestickQualityReportDTO> future : scanPool.invokeAll(tasks)) {
+            try {
+                reports.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Quality scan interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Quality scan failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Incrementally rescan every series when scheduled scans are enabled.
+     */
+    @Scheduled(fixedDelayString = "${tradezero.candlestick.quality.scan-interval-ms:3600000}",
+               initialDelayString = "${tradezero.candlestick.quality.scan-interval-ms:3600000}")
+    public void scheduledScan() {
+        if (!scheduled) {
+            return;
+        }
+        try {
+            List<CandlestickQualityReportDTO> reports = scan(null, null, false);
+            log.info("Scanned {} candlestick series for quality issues", reports.size());
+        } catch (RuntimeException e) {
+            log.warn("Scheduled candlestick quality scan failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Copy a series into another data feed, forward-filling the gaps of the trading session calendar
+     * with flat bars at the previous close and zero volume, and correcting OHLC invariants.
+     *
+     * @param dataFeedUuid the source data feed UUID
+     * @param tradeAsset the trade asset
+     * @param tradeTimeFrame the trade time frame
+     * @param targetDataFeedUuid the data feed UUID receiving the repaired series
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @return the repair report
+     * @throws ResourceNotFoundException if the target data feed is not found
+     * @throws BadRequestException if the target data feed is the source data feed
+     */
+    public CandlestickRepairReportDTO repair(UUID dataFeedUuid, TradeAssetType tradeAsset,
+                                             TradeTimeFrameType tradeTimeFrame, UUID targetDataFeedUuid,
+                                             Long fromDatetimeId, Long toDatetimeId) {
+        if (dataFeedUuid.equals(targetDataFeedUuid)) {
+            throw new BadRequestException("The repaired series must be written to another data feed");
+        }
+        if (!dataFeedFactRepository.existsById(targetDataFeedUuid)) {
+            throw new ResourceNotFoundException("Data feed not found with id: " + targetDataFeedUuid);
+        }
+        long start = System.nanoTime();
+        long from = fromDatetimeId != null ? fromDatetimeId : Long.MIN_VALUE;
+        long to = toDatetimeId != null ? toDatetimeId : Long.MAX_VALUE;
+        Repairer repairer = new Repairer(targetDataFeedUuid, tradeAsset, tradeTimeFrame);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            candlestickFactJdbcRepository.streamSeries(dataFeedUuid, tradeAsset, tradeTimeFrame, from, to,
+                    repairer::accept);
+            repairer.flush();
+        });
+        if (repairer.copied > 0) {
+            eventPublisher.publishEvent(new CandlestickFactChangedEvent(ChangeType.BULK_LOADED, targetDataFeedUuid,
+                    tradeAsset, tradeTimeFrame, repairer.firstDatetimeId, repairer.lastDatetimeId, null));
+        }
+        return new CandlestickRepairReportDTO(dataFeedUuid, targetDataFeedUuid, tradeAsset, tradeTimeFrame,
+                repairer.copied, repairer.filled, repairer.corrected,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private CandlestickQualityReportDTO scanSeries(CandlestickSeriesKey key, boolean full) {
+        CandlestickQualityFactId id = new CandlestickQualityFactId(key.getDataFeedUuid(), key.getTradeAsset(),
+                key.getTradeTimeFrame());
+        CandlestickQualityFact report = full ? null : candlestickQualityFactRepository.findById(id).orElse(null);
+        if (report == null) {
+            report = new CandlestickQualityFact(id, null, null, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, null, null);
+        }
+
+        List<String> previousIssues = report.getIssues() == null || report.getIssues().isEmpty()
+                ? List.of() : Arrays.asList(report.getIssues().split("\n"));
+        CandlestickQualityScanner scanner = new CandlestickQualityScanner(key.getTradeTimeFrame(),
+                tradingSessionCalendar, spikeSigma, spikeWindow, maxIssues, previousIssues);
+        Long lastScanned = report.getLastScannedDatetimeId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            long from = Long.MIN_VALUE;
+            if (lastScanned != null) {
+                candlestickFactJdbcRepository.streamSeriesTail(key.getDataFeedUuid(), key.getTradeAsset(),
+                        key.getTradeTimeFrame(), lastScanned, spikeWindow + 1, scanner::warmUp);
+                from = lastScanned + 1;
+            }
+            candlestickFactJdbcRepository.streamSeries(key.getDataFeedUuid(), key.getTradeAsset(),
+                    key.getTradeTimeFrame(), from, Long.MAX_VALUE, scanner::accept);
+        });
+
+        if (report.getFirstDatetimeId() == null) {
+            report.setFirstDatetimeId(scanner.getFirstDatetimeId());
+        }
+        if (scanner.getLastDatetimeId() != null) {
+            report.setLastScannedDatetimeId(scanner.getLastDatetimeId());
+        }
+        report.setCandlesticks(report.getCandlesticks() + scanner.getCandlesticks());
+        report.setMissing(report.getMissing() + scanner.getMissing());
+        report.setGaps(report.getGaps() + scanner.getGaps());
+        report.setLargestGap(Math.max(report.getLargestGap(), scanner.getLargestGap()));
+        report.setDuplicates(report.getDuplicates() + scanner.getDuplicates());
+        report.setSpikes(report.getSpikes() + scanner.getSpikes());
+        report.setInvariantViolations(report.getInvariantViolations() + scanner.getInvariantViolations());
+        report.setZeroVolume(report.getZeroVolume() + scanner.getZeroVolume());
+        report.setIssues(String.join("\n", scanner.getIssues()));
+        report.setScannedAt(LocalDateTime.now());
+
+        CandlestickQualityFact toSave = report;
+        CandlestickQualityFact saved = transactionTemplate.execute(status -> candlestickQualityFactRepository.save(toSave));
+        return convertToDTO(saved);
+    }
+
+    /**
+     * Convert entity to DTO.
+     *
+     * @param report the entity
+     * @return the DTO
+     */
+    private CandlestickQualityReportDTO convertToDTO(CandlestickQualityFact report) {
+        CandlestickQualityReportDTO dto = new CandlestickQualityReportDTO();
+        dto.setDataFeedUuid(report.getId().getDataFeedUuid());
+        dto.setTradeAsset(report.getId().getTradeAsset());
+        dto.setTradeTimeFrame(report.getId().getTradeTimeFrame());
+        dto.setFirstDatetimeId(report.getFirstDatetimeId());
+        dto.setLastScannedDatetimeId(report.getLastScannedDatetimeId());
+        dto.setCandlesticks(report.getCandlesticks());
+        dto.setMissing(report.getMissing());
+        dto.setGaps(report.getGaps());
+        dto.setLargestGap(report.getLargestGap());
+        dto.setDuplicates(report.getDuplicates());
+        dto.setSpikes(report.getSpikes());
+        dto.setInvariantViolations(report.getInvariantViolations());
+        dto.setZeroVolume(report.getZeroVolume());
+        dto.setIssues(report.getIssues() == null || report.getIssues().isEmpty()
+                ? List.of() : Arrays.asList(report.getIssues().split("\n")));
+        dto.setScannedAt(report.getScannedAt());
+        return dto;
+    }
+
+    /**
+     * Writes a repaired copy of a series in batches.
+     */
+    private final class Repairer {
+
+        private final UUID dataFeedUuid;
+        private final TradeAssetType tradeAsset;
+        private final TradeTimeFrameType tradeTimeFrame;
+        private final int stepMinutes;
+
+        private final long[] datetimeIds = new long[REPAIR_BATCH_SIZE];
+        private final double[] opens = new double[REPAIR_BATCH_SIZE];
+        private final double[] highs = new double[REPAIR_BATCH_SIZE];
+        private final double[] lows = new double[REPAIR_BATCH_SIZE];
+        private final double[] closes = new double[REPAIR_BATCH_SIZE];
+        private final double[] volumes = new double[REPAIR_BATCH_SIZE];
+        private int count;
+
+        private boolean hasPrevious;
+        private long previousDatetimeId;
+        private double previousClose;
+
+        private long firstDatetimeId;
+        private long lastDatetimeId;
+        private long copied;
+        private long filled;
+        private long corrected;
+
+        private Repairer(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType tradeTimeFrame) {
+            this.dataFeedUuid = dataFeedUuid;
+            this.tradeAsset = tradeAsset;
+            this.tradeTimeFrame = tradeTimeFrame;
+            this.stepMinutes = CandlestickQualityScanner.stepMinutes(tradeTimeFrame);
+        }
+
+        private void accept(long datetimeId, double open, double high, double low, double close, double volume) {
+            if (hasPrevious && stepMinutes > 0) {
+                int missing = tradingSessionCalendar.countTradingBucketsBetween(previousDatetimeId, datetimeId, stepMinutes);
+                long bucket = previousDatetimeId;
+                for (int i = 0; i < missing; i++) {
+                    bucket = tradingSessionCalendar.nextTradingBucket(bucket, stepMinutes);
+                    add(bucket, previousClose, previousClose, previousClose, previousClose, 0);
+                    filled++;
+                }
+            }
+            double repairedHigh = Math.max(high, Math.max(open, close));
+            double repairedLow = Math.min(low, Math.min(open, close));
+            double repairedVolume = Math.max(volume, 0);
+            if (repairedHigh != high || repairedLow != low || repairedVolume != volume) {
+                corrected++;
+            }
+            add(datetimeId, open, repairedHigh, repairedLow, close, repairedVolume);
+            copied++;
+            hasPrevious = true;
+            previousDatetimeId = datetimeId;
+            previousClose = close;
+        }
+
+        private void add(long datetimeId, double open, double high, double low, double close, double volume) {
+            if (!hasPrevious) {
+                firstDatetimeId = datetimeId;
+            }
+            lastDatetimeId = datetimeId;
+            datetimeIds[count] = datetimeId;
+            opens[count] = open;
+            highs[count] = high;
+            lows[count] = low;
+            closes[count] = close;
+            volumes[count] = volume;
+            count++;
+            if (count == REPAIR_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (count > 0) {
+                candlestickFactJdbcRepository.upsertBatch(dataFeedUuid, tradeAsset, tradeTimeFrame,
+                        datetimeIds, opens, highs, lows, closes, volumes, count);
+                count = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,566 @@
+package com.trading.api.service;
+
+import com.trading.api.dto.CandlestickFactDTO;
+import com.trading.api.dto.CandlestickResampleReportDTO;
+import com.trading.api.event.CandlestickFactChangedEvent;
+import com.trading.api.event.CandlestickFactChangedEvent.ChangeType;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import com.trading.api.repository.CandlestickFactJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Service deriving the higher trade time frames (m5 to W1) from the m1 candlesticks.
+ * <p>
+ * Backfills aggregate every target time frame in a single pass over the m1 series, one trade asset
+ * per thread. New m1 candlesticks are folded into the open bucket of each target time frame, so a
+ * live bar costs one upsert per time frame; out of order bars, updates and deletes rebuild only the
+ * buckets they fall into. Committed m1 changes are resampled on the same thread pool as backfills,
+ * in commit order per series, so the request that wrote the m1 candlestick does not wait for them.
+ * Buckets follow the datetime_dim boundaries (hour, day, start_of_week).
+ */
+@Slf4j
+@Service
+public class CandlestickResamplingService {
+
+    /**
+     * Trade time frame the higher time frames are derived from.
+     */
+    public static final TradeTimeFrameType SOURCE_TIME_FRAME = TradeTimeFrameType.m1;
+
+    private static final TradeTimeFrameType[] TARGET_TIME_FRAMES = {
+            TradeTimeFrameType.m5, TradeTimeFrameType.m15, TradeTimeFrameType.m30, TradeTimeFrameType.H1,
+            TradeTimeFrameType.H4, TradeTimeFrameType.D1, TradeTimeFrameType.W1};
+
+    private static final int UPSERT_BATCH_SIZE = 1000;
+
+    private final CandlestickFactJdbcRepository candlestickFactJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService executor;
+    private final boolean incremental;
+
+    private final Map<SeriesKey, BucketState[]> openBuckets = new ConcurrentHashMap<>();
+    private final Map<SeriesKey, Object> locks = new ConcurrentHashMap<>();
+    private final Map<SeriesKey, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+
+    public CandlestickResamplingService(CandlestickFactJdbcRepository candlestickFactJdbcRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        ApplicationEventPublisher eventPublisher,
+                                        @Value("${tradezero.candlestick.resampling.parallelism:4}") int parallelism,
+                                        @Value("${tradezero.candlestick.resampling.incremental:true}") boolean incremental) {
+        this.candlestickFactJdbcRepository = candlestickFactJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.executor = Executors.newFixedThreadPool(parallelism);
+        this.incremental = incremental;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Rebuild the higher time frames of a data feed from its m1 candlesticks, one trade asset per thread.
+     * The range is widened to whole weeks so that no bucket is built from a partial set of m1 candlesticks.
+     *
+     * @param dataFeedUuid the data feed UUID
+     * @param tradeAssets the trade assets to resample, or null or empty for all trade assets
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @return one report per trade asset
+     */
+    public List<CandlestickResampleReportDTO> backfill(UUID dataFeedUuid, List<TradeAssetType> tradeAssets,
+                                                       Long fromDatetimeId, Long toDatetimeId) {
+        List<TradeAssetType> assets = tradeAssets == null || tradeAssets.isEmpty()
+                ? List.of(TradeAssetType.values()) : tradeAssets;
+        long from = fromDatetimeId != null ? bucketStart(fromDatetimeId, TradeTimeFrameType.W1) : Long.MIN_VALUE;
+        long to = toDatetimeId != null
+                ? bucketEnd(bucketStart(toDatetimeId, TradeTimeFrameType.W1), TradeTimeFrameType.W1) - 1
+                : Long.MAX_VALUE;
+
+        List<CompletableFuture<CandlestickResampleReportDTO>> futures = assets.stream()
+                .map(asset -> CompletableFuture.supplyAsync(
+                        () -> backfillAsset(dataFeedUuid, asset, from, to), executor))
+                .collect(Collectors.toList());
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    private CandlestickResampleReportDTO backfillAsset(UUID dataFeedUuid, TradeAssetType tradeAsset,
+                                                      long from, long to) {
+        long start = System.nanoTime();
+        SeriesKey key = new SeriesKey(dataFeedUuid, tradeAsset);
+        Resampler resampler = new Resampler(dataFeedUuid, tradeAsset, TARGET_TIME_FRAMES, from, to);
+
+        synchronized (lockOf(key)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                candlestickFactJdbcRepository.streamSeries(dataFeedUuid, tradeAsset, SOURCE_TIME_FRAME,
+                        from, to, resampler::accept);
+                resampler.finish();
+            });
+            // The open buckets are rebuilt from the database on the next live candlestick
+            openBuckets.remove(key);
+        }
+        resampler.publishChanges();
+
+        Map<TradeTimeFrameType, Long> written = new EnumMap<>(TradeTimeFrameType.class);
+        for (int i = 0; i < TARGET_TIME_FRAMES.length; i++) {
+            written.put(TARGET_TIME_FRAMES[i], resampler.written[i]);
+        }
+        return new CandlestickResampleReportDTO(dataFeedUuid, tradeAsset, resampler.sourceCandlesticks, written,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Propagate committed m1 changes to the higher time frames. The change is queued behind the
+     * earlier changes of the same series and applied on the resampling thread pool.
+     *
+     * @param event the candlestick change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCandlestickFactChanged(CandlestickFactChangedEvent event) {
+        if (!incremental || event.getTradeTimeFrame() != SOURCE_TIME_FRAME) {
+            return;
+        }
+        SeriesKey key = new SeriesKey(event.getDataFeedUuid(), event.getTradeAsset());
+        pending.compute(key, (k, previous) -> {
+            CompletableFuture<Void> applied = previous != null
+                    ? previous.exceptionally(e -> null) : CompletableFuture.completedFuture(null);
+            return applied.thenRunAsync(() -> applySafely(key, event), executor);
+        });
+    }
+
+    private void applySafely(SeriesKey key, CandlestickFactChangedEvent event) {
+        try {
+            apply(key, event);
+        } catch (RuntimeException e) {
+            log.warn("Could not resample {} {} at {}: {}", event.getDataFeedUuid(), event.getTradeAsset(),
+                    event.getFromDatetimeId(), e.getMessage(), e);
+        }
+    }
+
+    private void apply(SeriesKey key, CandlestickFactChangedEvent event) {
+        synchronized (lockOf(key)) {
+            BucketState[] states = openBuckets.computeIfAbsent(key, k -> new BucketState[TARGET_TIME_FRAMES.length]);
+
+            List<TradeTimeFrameType> rebuild = new ArrayList<>();
+            List<Integer> extended = new ArrayList<>();
+            for (int i = 0; i < TARGET_TIME_FRAMES.length; i++) {
+                TradeTimeFrameType target = TARGET_TIME_FRAMES[i];
+                BucketState state = states[i];
+                long bucketId = bucketStart(event.getFromDatetimeId(), target);
+                if (event.getChangeType() != ChangeType.CREATED || state == null
+                        || bucketId < state.bucketId || event.getFromDatetimeId() <= state.lastDatetimeId) {
+                    rebuild.add(target);
+                    continue;
+                }
+                // Fast path: the bar extends the open bucket or opens the next one
+                if (bucketId != state.bucketId) {
+                    state = new BucketState(bucketId);
+                    states[i] = state;
+                }
+                CandlestickFactDTO bar = event.getCandlestick();
+                state.add(bar.getDatetimeId(), bar.getOpen(), bar.getHigh(), bar.getLow(),
+                        bar.getClose(), bar.getVolume());
+                extended.add(i);
+            }
+            if (!extended.isEmpty()) {
+                try {
+                    upsertOpenBuckets(event, extended, states);
+                } catch (RuntimeException e) {
+                    // The open buckets are rebuilt from the committed m1 candlesticks on the next change
+                    openBuckets.remove(key);
+                    throw e;
+                }
+            }
+            if (!rebuild.isEmpty()) {
+                rebuildBuckets(event, rebuild.toArray(new TradeTimeFrameType[0]), states);
+            }
+        }
+    }
+
+    /**
+     * Write the open buckets a new m1 candlestick was folded into in their own transaction; listeners
+     * are notified once it commits.
+     */
+    private void upsertOpenBuckets(CandlestickFactChangedEvent event, List<Integer> extended, BucketState[] states) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i : extended) {
+                BucketState state = states[i];
+                candlestickFactJdbcRepository.upsertBatch(event.getDataFeedUuid(), event.getTradeAsset(),
+                        TARGET_TIME_FRAMES[i], new long[]{state.bucketId}, new double[]{state.open},
+                        new double[]{state.high}, new double[]{state.low}, new double[]{state.close},
+                        new double[]{state.volume}, 1);
+                eventPublisher.publishEvent(CandlestickFactChangedEvent.of(ChangeType.UPDATED,
+                        new CandlestickFactDTO(event.getDataFeedUuid(), event.getTradeAsset(), TARGET_TIME_FRAMES[i],
+                                state.bucketId, state.open, state.high, state.low, state.close, state.volume)));
+            }
+        });
+    }
+
+    /**
+     * Rebuild the buckets touched by a change from the m1 candlesticks in the database.
+     */
+    private void rebuildBuckets(CandlestickFactChangedEvent event, TradeTimeFrameType[] targets,
+                                BucketState[] states) {
+        long[] froms = new long[targets.length];
+        long[] tos = new long[targets.length];
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for (int i = 0; i < targets.length; i++) {
+            froms[i] = bucketStart(event.getFromDatetimeId(), targets[i]);
+            tos[i] = bucketEnd(bucketStart(event.getToDatetimeId(), targets[i]), targets[i]) - 1;
+            from = Math.min(from, froms[i]);
+            to = Math.max(to, tos[i]);
+        }
+
+        Resampler resampler = new Resampler(event.getDataFeedUuid(), event.getTradeAsset(), targets, froms, tos);
+        long streamFrom = from;
+        long streamTo = to;
+        transactionTemplate.executeWithoutResult(status -> {
+            candlestickFactJdbcRepository.streamSeries(event.getDataFeedUuid(), event.getTradeAsset(),
+                    SOURCE_TIME_FRAME, streamFrom, streamTo, resampler::accept);
+            resampler.finish();
+
+            if (event.getChangeType() == ChangeType.DELETED) {
+                // A bucket left without m1 candlesticks must disappear from the higher time frame too
+                for (int i = 0; i < targets.length; i++) {
+                    if (resampler.written[i] == 0 && candlestickFactJdbcRepository.delete(
+                            event.getDataFeedUuid(), event.getTradeAsset(), targets[i], froms[i]) > 0) {
+                        eventPublisher.publishEvent(new CandlestickFactChangedEvent(ChangeType.DELETED,
+                                event.getDataFeedUuid(), event.getTradeAsset(), targets[i], froms[i], froms[i], null));
+                    }
+                }
+            }
+        });
+
+        resampler.publishChanges();
+
+        for (int i = 0; i < targets.length; i++) {
+            int index = indexOf(targets[i]);
+            BucketState last = resampler.last[i];
+            states[index] = last != null && last.count > 0 ? last : null;
+        }
+    }
+
+    private Object lockOf(SeriesKey key) {
+        return locks.computeIfAbsent(key, k -> new Object());
+    }
+
+    private static int indexOf(TradeTimeFrameType target) {
+        for (int i = 0; i < TARGET_TIME_FRAMES.length; i++) {
+            if (TARGET_TIME_FRAMES[i] == target) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Not a resampling target: " + target);
+    }
+
+    /**
+     * Get the datetime ID of the bucket of a trade time frame containing a datetime ID.
+     *
+     * @param datetimeId the datetime ID (yyyyMMddHHmm)
+     * @param tradeTimeFrame the trade time frame
+     * @return the datetime ID of the first minute of the bucket
+     */
+    public static long bucketStart(long datetimeId, TradeTimeFrameType tradeTimeFrame) {
+        long minute = datetimeId % 100;
+        long hourId = datetimeId / 100;
+        long hour = hourId % 100;
+        long dayId = hourId / 100;
+        switch (tradeTimeFrame) {
+            case m1:
+                return datetimeId;
+            case m5:
+                return hourId * 100 + minute - minute % 5;
+            case m15:
+                return hourId * 100 + minute - minute % 15;
+            case m30:
+                return hourId * 100 + minute - minute % 30;
+            case H1:
+                return hourId * 100;
+            case H4:
+                return (dayId * 100 + hour - hour % 4) * 100;
+            case D1:
+                return dayId * 10000;
+            case W1:
+                // Same boundary as datetime_dim.start_of_week (ISO week starting on Monday)
+                LocalDate date = LocalDate.of((int) (dayId / 10000), (int) (dayId / 100 % 100), (int) (dayId % 100));
+                return toDatetimeId(date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay());
+            default:
+                throw new IllegalArgumentException("Unknown TradeTimeFrameType: " + tradeTimeFrame);
+        }
+    }
+
+    /**
+     * Get the datetime ID of the bucket following a bucket.
+     *
+     * @param bucketStart the datetime ID of the first minute of the bucket
+     * @param tradeTimeFrame the trade time frame
+     * @return the datetime ID of the first minute of the next bucket
+     */
+    public static long bucketEnd(long bucketStart, TradeTimeFrameType tradeTimeFrame) {
+        LocalDateTime start = toLocalDateTime(bucketStart);
+        switch (tradeTimeFrame) {
+            case m1:
+                return toDatetimeId(start.plusMinutes(1));
+            case m5:
+                return toDatetimeId(start.plusMinutes(5));
+            case m15:
+                return toDatetimeId(start.plusMinutes(15));
+            case m30:
+                return toDatetimeId(start.plusMinutes(30));
+            case H1:
+                return toDatetimeId(start.plusHours(1));
+            case H4:
+                return toDatetimeId(start.plusHours(4));
+            case D1:
+                return toDatetimeId(start.plusDays(1));
+            case W1:
+                return toDatetimeId(start.plusWeeks(1));
+            default:
+                throw new IllegalArgumentException("Unknown TradeTimeFrameType: " + tradeTimeFrame);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long datetimeId) {
+        return LocalDateTime.of((int) (datetimeId / 100000000L), (int) (datetimeId / 1000000 % 100),
+                (int) (datetimeId / 10000 % 100), (int) (datetimeId / 100 % 100), (int) (datetimeId % 100));
+    }
+
+    private static long toDatetimeId(LocalDateTime dateTime) {
+        return dateTime.getYear() * 100000000L + dateTime.getMonthValue() * 1000000L
+                + dateTime.getDayOfMonth() * 10000L + dateTime.getHour() * 100L + dateTime.getMinute();
+    }
+
+    /**
+     * Data feed and trade asset of an m1 series.
+     */
+    private static final class SeriesKey {
+        private final UUID dataFeedUuid;
+        private final TradeAssetType tradeAsset;
+
+        private SeriesKey(UUID dataFeedUuid, TradeAssetType tradeAsset) {
+            this.dataFeedUuid = dataFeedUuid;
+            this.tradeAsset = tradeAsset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SeriesKey)) {
+                return false;
+            }
+            SeriesKey other = (SeriesKey) o;
+            return dataFeedUuid.equals(other.dataFeedUuid) && tradeAsset == other.tradeAsset;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dataFeedUuid, tradeAsset);
+        }
+    }
+
+    /**
+     * OHLCV state of one bucket.
+     */
+    private static final class BucketState {
+        private long bucketId;
+        private long lastDatetimeId;
+        private double open;
+        private double high;
+        private double low;
+        private double close;
+        private double volume;
+        private int count;
+
+        private BucketState(long bucketId) {
+            this.bucketId = bucketId;
+        }
+
+        private void add(long datetimeId, double open, double high, double low, double close, double volume) {
+            if (count == 0) {
+                this.open = open;
+                this.high = high;
+                this.low = low;
+            } else {
+                this.high = Math.max(this.high, high);
+                this.low = Math.min(this.low, low);
+            }
+            this.close = close;
+            this.volume += volume;
+            this.lastDatetimeId = datetimeId;
+            count++;
+        }
+
+        private BucketState copy() {
+            BucketState copy = new BucketState(bucketId);
+            copy.lastDatetimeId = lastDatetimeId;
+            copy.open = open;
+            copy.high = high;
+            copy.low = low;
+            copy.close = close;
+            copy.volume = volume;
+            copy.count = count;
+            return copy;
+        }
+    }
+
+    /**
+     * Single pass aggregation of an ordered m1 stream into several target time frames.
+     * Each target only aggregates the m1 candlesticks within its own datetime ID range.
+     */
+    private final class Resampler {
+        private final UUID dataFeedUuid;
+        private final TradeAssetType tradeAsset;
+        private final TradeTimeFrameType[] targets;
+        private final long[] froms;
+        private final long[] tos;
+
+        private final BucketState[] current;
+        private final BucketState[] last;
+        private final long[] written;
+        private final long[] minWritten;
+        private final long[] maxWritten;
+        private long sourceCandlesticks;
+
+        private final long[][] datetimeIds;
+        private final double[][] opens;
+        private final double[][] highs;
+        private final double[][] lows;
+        private final double[][] closes;
+        private final double[][] volumes;
+        private final int[] buffered;
+
+        private Resampler(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType[] targets,
+                          long from, long to) {
+            this(dataFeedUuid, tradeAsset, targets, filled(targets.length, from), filled(targets.length, to));
+        }
+
+        private Resampler(UUID dataFeedUuid, TradeAssetType tradeAsset, TradeTimeFrameType[] targets,
+                          long[] froms, long[] tos) {
+            this.dataFeedUuid = dataFeedUuid;
+            this.tradeAsset = tradeAsset;
+            this.targets = targets;
+            this.froms = froms;
+            this.tos = tos;
+            int n = targets.length;
+            current = new BucketState[n];
+            last = new BucketState[n];
+            written = new long[n];
+            minWritten = filled(n, Long.MAX_VALUE);
+            maxWritten = filled(n, Long.MIN_VALUE);
+            datetimeIds = new long[n][UPSERT_BATCH_SIZE];
+            opens = new double[n][UPSERT_BATCH_SIZE];
+            highs = new double[n][UPSERT_BATCH_SIZE];
+            lows = new double[n][UPSERT_BATCH_SIZE];
+            closes = new double[n][UPSERT_BATCH_SIZE];
+            volumes = new double[n][UPSERT_BATCH_SIZE];
+            buffered = new int[n];
+        }
+
+        private void accept(long datetimeId, double open, double high, double low, double close, double volume) {
+            sourceCandlesticks++;
+            for (int t = 0; t < targets.length; t++) {
+                if (datetimeId < froms[t] || datetimeId > tos[t]) {
+                    continue;
+                }
+                long bucketId = bucketStart(datetimeId, targets[t]);
+                BucketState state = current[t];
+                if (state == null) {
+                    state = new BucketState(bucketId);
+                    current[t] = state;
+                } else if (state.bucketId != bucketId) {
+                    emit(t, state);
+                    state.bucketId = bucketId;
+                    state.volume = 0;
+                    state.count = 0;
+                }
+                state.add(datetimeId, open, high, low, close, volume);
+            }
+        }
+
+        private void finish() {
+            for (int t = 0; t < targets.length; t++) {
+                if (current[t] != null && current[t].count > 0) {
+                    emit(t, current[t]);
+                    last[t] = current[t].copy();
+                }
+                flush(t);
+            }
+        }
+
+        private void emit(int t, BucketState state) {
+            int i = buffered[t]++;
+            datetimeIds[t][i] = state.bucketId;
+            opens[t][i] = state.open;
+            highs[t][i] = state.high;
+            lows[t][i] = state.low;
+            closes[t][i] = state.close;
+            volumes[t][i] = state.volume;
+            written[t]++;
+            minWritten[t] = Math.min(minWritten[t], state.bucketId);
+            maxWritten[t] = Math.max(maxWritten[t], state.bucketId);
+            if (buffered[t] == UPSERT_BATCH_SIZE) {
+                flush(t);
+            }
+        }
+
+        /**
+         * Notify listeners (caches, subscribers) of the target series written by this resampler.
+         */
+        private void publishChanges() {
+            for (int t = 0; t < targets.length; t++) {
+                if (written[t] > 0) {
+                    eventPublisher.publishEvent(new CandlestickFactChangedEvent(ChangeType.BULK_LOADED,
+                            dataFeedUuid, tradeAsset, targets[t], minWritten[t], maxWritten[t], null));
+                }
+            }
+        }
+
+        private void flush(int t) {
+            candlestickFactJdbcRepository.upsertBatch(dataFeedUuid, tradeAsset, targets[t], datetimeIds[t],
+                    opens[t], highs[t], lows[t], closes[t], volumes[t], buffered[t]);
+            buffered[t] = 0;
+        }
+    }
+
+    private static long[] filled(int length, long value) {
+        long[] values = new long[length];
+        Arrays.fill(values, value);
+        return values;
+    }
+}
@@ -1,6 +1,9 @@
 package com.trading.api.service;
 
+import com.trading.api.calendar.DateTimeCalendar;
 import com.trading.api.dto.DateTimeDimDTO;
+import com.trading.api.dto.DateTimeDimPageDTO;
+import com.trading.api.exception.BadRequestException;
 import com.trading.api.exception.ResourceNotFoundException;
 import com.trading.api.model.DateTimeDim;
 import com.trading.api.repository.DateTimeDimRepository;
@@ -13,22 +16,51 @@ import java.util.stream.Collectors;
 
 /**
  * Service for DateTimeDim entity operations.
+ * Reads are computed by {@link DateTimeCalendar} without touching the database.
  */
 @Service
 @RequiredArgsConstructor
 public class DateTimeDimService {
 
+    /**
+     * Default number of datetimes per page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    /**
+     * Maximum number of datetimes per page.
+     */
+    public static final int MAX_PAGE_SIZE = 10000;
+
     private final DateTimeDimRepository dateTimeDimRepository;
+    private final DateTimeCalendar dateTimeCalendar;
 
     /**
-     * Get all datetime records.
+     * Get a page of the datetime records of a range.
      *
-     * @return list of all datetime records
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the calendar
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the calendar
+     * @param size the page size, or null for the default
+     * @return the page, whose next datetime ID starts the following page
+     * @throws BadRequestException if the page size is out of bounds
      */
-    public List<DateTimeDimDTO> findAll() {
-        return dateTimeDimRepository.findAll().stream()
+    public DateTimeDimPageDTO findRange(Long fromDatetimeId, Long toDatetimeId, Integer size) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long from = fromDatetimeId != null ? fromDatetimeId : dateTimeCalendar.getFirstDatetimeId();
+        long to = toDatetimeId != null ? toDatetimeId : dateTimeCalendar.getLastDatetimeId();
+
+        List<DateTimeDimDTO> content = dateTimeCalendar.range(from, to, pageSize).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        Long nextDatetimeId = null;
+        if (content.size() == pageSize) {
+            Long next = dateTimeCalendar.next(content.get(content.size() - 1).getDatetimeId());
+            nextDatetimeId = next != null && next <= to ? next : null;
+        }
+        return new DateTimeDimPageDTO(content, content.size(), nextDatetimeId);
     }
 
     /**
@@ -39,9 +71,7 @@ public class DateTimeDimService {
      * @throws ResourceNotFoundException if datetime not found
      */
     public DateTimeDimDTO findById(Long id) {
-        return dateTimeDimRepository.findById(id)
-                .map(this::convertToDTO)
-                .orElseThrow(() -> new ResourceNotFoundException("Datetime not found with id: " + id));
+        return convertToDTO(dateTimeCalendar.get(id));
     }
 
     /**
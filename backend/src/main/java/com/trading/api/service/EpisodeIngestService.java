@@ -0,0 +1,140 @@
+package com.trading.api.service;
+
+import com.trading.api.bulk.BulkFactWriter;
+import com.trading.api.dto.ActionFactDTO;
+import com.trading.api.dto.BalanceFactDTO;
+import com.trading.api.dto.EpisodeDTO;
+import com.trading.api.dto.EpisodeIngestReportDTO;
+import com.trading.api.dto.EpisodeStepDTO;
+import com.trading.api.dto.OrderFactDTO;
+import com.trading.api.dto.PositionFactDTO;
+import com.trading.api.dto.RiskMetricsFactDTO;
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for ingesting the facts of whole episodes.
+ * <p>
+ * The facts of every step are split by type and written through the bulk inserts of the fact
+ * services inside one transaction, so an episode costs one request and one commit. Each fact type
+ * checks its foreign keys once for the whole episode and the shared risk management and portfolio
+ * are looked up once per type rather than once per step.
+ */
+@Service
+@RequiredArgsConstructor
+public class EpisodeIngestService {
+
+    private final ActionFactService actionFactService;
+    private final OrderFactService orderFactService;
+    private final PositionFactService positionFactService;
+    private final BalanceFactService balanceFactService;
+    private final RiskMetricsFactService riskMetricsFactService;
+    private final BulkFactWriter bulkFactWriter;
+
+    /**
+     * Ingest the facts of an episode, or of a chunk of its steps, in one transaction.
+     *
+     * @param episodeDTO the episode
+     * @return the number of facts written by type
+     * @throws BadRequestException if a fact is invalid
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional
+    public EpisodeIngestReportDTO ingest(EpisodeDTO episodeDTO) {
+        long start = System.nanoTime();
+        List<ActionFactDTO> actions = new ArrayList<>();
+        List<OrderFactDTO> orders = new ArrayList<>();
+        List<PositionFactDTO> positions = new ArrayList<>();
+        List<BalanceFactDTO> balances = new ArrayList<>();
+        List<RiskMetricsFactDTO> riskMetrics = new ArrayList<>();
+
+        List<EpisodeStepDTO> steps = episodeDTO.getSteps();
+        for (int i = 0; i < steps.size(); i++) {
+            EpisodeStepDTO step = steps.get(i);
+            String name = "Step " + i;
+            if (step.getAction() != null) {
+                ActionFactDTO action = step.getAction();
+                if (action.getRiskManagementUuid() == null) {
+                    action.setRiskManagementUuid(episodeDTO.getRiskManagementUuid());
+                }
+                if (action.getDatetimeId() == null) {
+                    action.setDatetimeId(step.getDatetimeId());
+                }
+                bulkFactWriter.validateRow(action, name + " action");
+                actions.add(action);
+            }
+            if (step.getOrder() != null) {
+                OrderFactDTO order = step.getOrder();
+                if (order.getPortfolioUuid() == null) {
+                    order.setPortfolioUuid(episodeDTO.getPortfolioUuid());
+                }
+                if (order.getDatetimeId() == null) {
+                    order.setDatetimeId(step.getDatetimeId());
+                }
+                bulkFactWriter.validateRow(order, name + " order");
+                orders.add(order);
+            }
+            if (step.getPosition() != null) {
+                PositionFactDTO position = step.getPosition();
+                if (position.getPortfolioUuid() == null) {
+                    position.setPortfolioUuid(episodeDTO.getPortfolioUuid());
+                }
+                if (position.getDatetimeId() == null) {
+                    position.setDatetimeId(step.getDatetimeId());
+                }
+                bulkFactWriter.validateRow(position, name + " position");
+                positions.add(position);
+            }
+            if (step.getBalance() != null) {
+                BalanceFactDTO balance = step.getBalance();
+                if (balance.getPortfolioUuid() == null) {
+                    balance.setPortfolioUuid(episodeDTO.getPortfolioUuid());
+                }
+                if (balance.getDatetimeId() == null) {
+                    balance.setDatetimeId(step.getDatetimeId());
+                }
+                bulkFactWriter.validateRow(balance, name + " balance");
+                balances.add(balance);
+            }
+            if (step.getRiskMetrics() != null) {
+                RiskMetricsFactDTO metrics = step.getRiskMetrics();
+                if (metrics.getRiskManagementUuid() == null) {
+                    metrics.setRiskManagementUuid(episodeDTO.getRiskManagementUuid());
+                }
+                if (metrics.getDatetimeId() == null) {
+                    metrics.setDatetimeId(step.getDatetimeId());
+                }
+                bulkFactWriter.validateRow(metrics, name + " risk metrics");
+                riskMetrics.add(metrics);
+            }
+        }
+
+        if (!actions.isEmpty()) {
+            actionFactService.createAll(actions);
+        }
+        if (!orders.isEmpty()) {
+            orderFactService.createAll(orders);
+        }
+        if (!positions.isEmpty()) {
+            positionFactService.createAll(positions);
+        }
+        if (!balances.isEmpty()) {
+            balanceFactService.createAll(balances);
+        }
+        if (!riskMetrics.isEmpty()) {
+            riskMetricsFactService.createAll(riskMetrics);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        return new EpisodeIngestReportDTO(steps.size(), actions.size(), orders.size(), positions.size(),
+                balances.size(), riskMetrics.size(), TimeUnit.NANOSECONDS.toMillis(elapsed),
+                BulkFactWriter.rowsPerSecond(steps.size(), elapsed));
+    }
+}
@@ -0,0 +1,198 @@
+package com.trading.api.service;
+
+import com.trading.api.bulk.BulkFactWriter;
+import com.trading.api.cache.DimensionRegistry;
+import com.trading.api.calendar.DateTimeCalendar;
+import com.trading.api.codec.FactStreamDecoder;
+import com.trading.api.dto.FactStreamIngestReportDTO;
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.model.ActionDim;
+import com.trading.api.model.ActionFact;
+import com.trading.api.model.BalanceFact;
+import com.trading.api.model.OrderDim;
+import com.trading.api.model.OrderFact;
+import com.trading.api.model.OrderVenueDim;
+import com.trading.api.model.PortfolioFact;
+import com.trading.api.model.RiskManagementFact;
+import com.trading.api.model.enums.OrderStatusType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Service for ingesting per-step fact telemetry sent as a binary fact stream.
+ * <p>
+ * The facts are decoded straight into entities and persisted one JDBC batch at a time while the
+ * stream is read, so no DTO is built per row and memory does not grow with the stream. A foreign
+ * key is checked the first time the stream uses it in a role rather than once per row; the stream
+ * sends it once in its dictionary and every later fact refers to it by index. Every frame counts
+ * against the facts and dictionary UUIDs a stream may hold, so frames that add no fact cannot make
+ * a stream endless.
+ */
+@Service
+public class FactStreamIngestService {
+
+    private final BulkFactWriter bulkFactWriter;
+    private final DimensionRegistry dimensionRegistry;
+    private final DateTimeCalendar dateTimeCalendar;
+    private final int maxDictionarySize;
+
+    public FactStreamIngestService(BulkFactWriter bulkFactWriter, DimensionRegistry dimensionRegistry,
+                                   DateTimeCalendar dateTimeCalendar,
+                                   @Value("${tradezero.bulk.max-dictionary-size:100000}") int maxDictionarySize) {
+        this.bulkFactWriter = bulkFactWriter;
+        this.dimensionRegistry = dimensionRegistry;
+        this.dateTimeCalendar = dateTimeCalendar;
+        this.maxDictionarySize = maxDictionarySize;
+    }
+
+    /**
+     * Ingest the facts of a binary fact stream in one transaction.
+     *
+     * @param inputStream the encoded stream
+     * @return the number of facts written by type
+     * @throws BadRequestException if the stream is malformed or a fact is invalid
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional
+    public FactStreamIngestReportDTO ingest(InputStream inputStream) {
+        long start = System.nanoTime();
+        FactStreamDecoder decoder = new FactStreamDecoder(inputStream, maxDictionarySize,
+                (long) bulkFactWriter.getMaxRows() + maxDictionarySize);
+        FactStreamWriter writer = new FactStreamWriter();
+        try {
+            decoder.decode(writer);
+        } catch (IOException e) {
+            throw new BadRequestException("Invalid fact stream: " + e.getMessage(), e);
+        }
+        writer.flush();
+
+        long elapsed = System.nanoTime() - start;
+        return new FactStreamIngestReportDTO(decoder.getBytes(), decoder.getDictionarySize(), writer.actionFacts,
+                writer.balanceFacts, writer.orderFacts, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                BulkFactWriter.rowsPerSecond(writer.rows, elapsed));
+    }
+
+    /**
+     * Builds the entities of the decoded facts and persists them every JDBC batch.
+     */
+    private final class FactStreamWriter implements FactStreamDecoder.Handler {
+
+        private final List<Object> pending = new ArrayList<>(bulkFactWriter.getBatchSize());
+        private final Set<UUID> riskManagements = new HashSet<>();
+        private final Set<UUID> portfolios = new HashSet<>();
+        private final Set<UUID> actionDims = new HashSet<>();
+        private final Set<UUID> orderDims = new HashSet<>();
+        private final Set<UUID> orderVenueDims = new HashSet<>();
+        private int rows;
+        private int actionFacts;
+        private int balanceFacts;
+        private int orderFacts;
+
+        @Override
+        public void actionFact(UUID riskManagementUuid, UUID actionDimUuid, long datetimeId) {
+            countRow();
+            ActionFact actionFact = new ActionFact();
+            actionFact.setRiskManagement(fact(riskManagements, RiskManagementFact.class, "Risk management fact",
+                    riskManagementUuid));
+            actionFact.setActionDim(dimension(actionDims, ActionDim.class, actionDimUuid));
+            actionFact.setDateTime(dateTimeCalendar.reference(datetimeId));
+            add(actionFact);
+            actionFacts++;
+        }
+
+        @Override
+        public void balanceFact(UUID portfolioUuid, long datetimeId, double initial, double current, double max,
+                                double min) {
+            countRow();
+            requirePositiveOrZero(initial, "Initial balance must be positive or zero");
+            requirePositiveOrZero(current, "Current balance must be positive or zero");
+            requirePositiveOrZero(max, "Max balance must be positive or zero");
+            requirePositiveOrZero(min, "Min balance must be positive or zero");
+            BalanceFact balanceFact = new BalanceFact();
+            balanceFact.setPortfolio(fact(portfolios, PortfolioFact.class, "Portfolio fact", portfolioUuid));
+            balanceFact.setDateTime(dateTimeCalendar.reference(datetimeId));
+            balanceFact.setInitial(initial);
+            balanceFact.setCurrent(current);
+            balanceFact.setMax(max);
+            balanceFact.setMin(min);
+            add(balanceFact);
+            balanceFacts++;
+        }
+
+        @Override
+        public void orderFact(UUID orderDimUuid, UUID orderVenueDimUuid, UUID portfolioUuid, long datetimeId,
+                              OrderStatusType orderStatus, Double executedPrice, Double limitPrice, Double stopPrice,
+                              Double fees, Double slippage, Integer latencyMs) {
+            countRow();
+            if (fees != null) {
+                requirePositiveOrZero(fees, "Fees must be positive or zero");
+            }
+            OrderFact orderFact = new OrderFact();
+            orderFact.setOrderDim(dimension(orderDims, OrderDim.class, orderDimUuid));
+            orderFact.setOrderVenueDim(dimension(orderVenueDims, OrderVenueDim.class, orderVenueDimUuid));
+            orderFact.setDateTime(dateTimeCalendar.reference(datetimeId));
+            orderFact.setPortfolio(fact(portfolios, PortfolioFact.class, "Portfolio fact", portfolioUuid));
+            orderFact.setOrderStatus(orderStatus);
+            orderFact.setExecutedPrice(executedPrice);
+            orderFact.setLimitPrice(limitPrice);
+            orderFact.setStopPrice(stopPrice);
+            orderFact.setFees(fees);
+            orderFact.setSlippage(slippage);
+            orderFact.setLatencyMs(latencyMs);
+            add(orderFact);
+            orderFacts++;
+        }
+
+        private void flush() {
+            if (!pending.isEmpty()) {
+                bulkFactWriter.persistAll(pending);
+                pending.clear();
+            }
+        }
+
+        private void add(Object fact) {
+            pending.add(fact);
+            if (pending.size() == bulkFactWriter.getBatchSize()) {
+                flush();
+            }
+        }
+
+        private void requirePositiveOrZero(double value, String message) {
+            if (!(value >= 0)) {
+                throw new BadRequestException("Fact " + (rows - 1) + ": " + message);
+            }
+        }
+
+        private <T> T fact(Set<UUID> checked, Class<T> type, String label, UUID id) {
+            if (checked.add(id)) {
+                bulkFactWriter.requireExisting(type, label, List.of(id), Function.identity());
+            }
+            return bulkFactWriter.reference(type, id);
+        }
+
+        private <T> T dimension(Set<UUID> checked, Class<T> type, UUID id) {
+            if (checked.add(id)) {
+                dimensionRegistry.requireAll(type, List.of(id));
+            }
+            return dimensionRegistry.reference(type, id);
+        }
+
+        private void countRow() {
+            if (++rows > bulkFactWriter.getMaxRows()) {
+                throw new BadRequestException("A fact stream must hold at most " + bulkFactWriter.getMaxRows() + " facts");
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.trading.api.service;
 
+import com.trading.api.cache.DimensionRegistry;
 import com.trading.api.dto.OrderDimDTO;
 import com.trading.api.exception.ResourceNotFoundException;
 import com.trading.api.model.OrderDim;
@@ -24,6 +25,7 @@ import java.util.stream.Collectors;
 public class OrderDimService {
 
     private final OrderDimRepository orderDimRepository;
+    private final DimensionRegistry dimensionRegistry;
 
     /**
      * Get all order dimensions.
@@ -108,6 +110,7 @@ public class OrderDimService {
         OrderDim orderDim = convertToEntity(orderDimDTO);
         orderDim.setOrderDimUuid(null); // Ensure UUID is generated
         OrderDim savedOrderDim = orderDimRepository.save(orderDim);
+        dimensionRegistry.register(OrderDim.class, savedOrderDim.getOrderDimUuid());
         return convertToDTO(savedOrderDim);
     }
 
@@ -145,6 +148,7 @@ public class OrderDimService {
             throw new ResourceNotFoundException("Order dimension not found with id: " + uuid);
         }
         orderDimRepository.deleteById(uuid);
+        dimensionRegistry.evict(OrderDim.class, uuid);
     }
 
     /**
@@ -1,16 +1,26 @@
 package com.trading.api.service;
 
+import com.trading.api.arrow.FactTable;
+import com.trading.api.bulk.BulkFactWriter;
+import com.trading.api.cache.DimensionRegistry;
+import com.trading.api.calendar.DateTimeCalendar;
+import com.trading.api.dto.BulkInsertReportDTO;
 import com.trading.api.dto.OrderFactDTO;
+import com.trading.api.exception.BadRequestException;
 import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.ingest.RecentFactOverlay;
 import com.trading.api.model.*;
 import com.trading.api.model.enums.OrderStatusType;
 import com.trading.api.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -21,9 +31,10 @@ import java.util.stream.Collectors;
 public class OrderFactService {
 
     private final OrderFactRepository orderFactRepository;
-    private final OrderDimRepository orderDimRepository;
-    private final OrderVenueDimRepository orderVenueDimRepository;
-    private final DateTimeDimRepository dateTimeDimRepository;
+    private final BulkFactWriter bulkFactWriter;
+    private final RecentFactOverlay recentFactOverlay;
+    private final DimensionRegistry dimensionRegistry;
+    private final DateTimeCalendar dateTimeCalendar;
     private final PortfolioFactRepository portfolioFactRepository;
 
     /**
@@ -75,27 +86,35 @@ public class OrderFactService {
     }
 
     /**
-     * Get order facts by datetime ID.
+     * Get order facts by datetime ID, including the ones accepted asynchronously
+     * and not committed yet.
      *
      * @param datetimeId the datetime ID
      * @return list of order facts
      */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<OrderFactDTO> findByDatetimeId(Long datetimeId) {
-        return orderFactRepository.findByDateTime_DatetimeId(datetimeId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return recentFactOverlay.withRecent(FactTable.order_fact, OrderFactDTO.class,
+                orderFactDTO -> datetimeId.equals(orderFactDTO.getDatetimeId()),
+                () -> orderFactRepository.findByDateTime_DatetimeId(datetimeId).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
     /**
-     * Get order facts by portfolio UUID.
+     * Get order facts by portfolio UUID, including the ones accepted asynchronously
+     * and not committed yet.
      *
      * @param portfolioUuid the portfolio UUID
      * @return list of order facts
      */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<OrderFactDTO> findByPortfolioUuid(UUID portfolioUuid) {
-        return orderFactRepository.findByPortfolio_PortfolioUuid(portfolioUuid).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return recentFactOverlay.withRecent(FactTable.order_fact, OrderFactDTO.class,
+                orderFactDTO -> portfolioUuid.equals(orderFactDTO.getPortfolioUuid()),
+                () -> orderFactRepository.findByPortfolio_PortfolioUuid(portfolioUuid).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
     /**
@@ -124,6 +143,59 @@ public class OrderFactService {
         return convertToDTO(savedOrderFact);
     }
 
+    /**
+     * Check that every row referenced by order facts exists, with one query per referenced table.
+     *
+     * @param orderFactDTOs the order facts
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional(readOnly = true)
+    public void requireReferences(List<OrderFactDTO> orderFactDTOs) {
+        bulkFactWriter.requireExisting(PortfolioFact.class, "Portfolio fact", orderFactDTOs, OrderFactDTO::getPortfolioUuid);
+        dimensionRegistry.requireAll(OrderDim.class, BulkFactWriter.distinct(orderFactDTOs, OrderFactDTO::getOrderDimUuid));
+        dimensionRegistry.requireAll(OrderVenueDim.class, BulkFactWriter.distinct(orderFactDTOs, OrderFactDTO::getOrderVenueDimUuid));
+        dateTimeCalendar.requireAll(orderFactDTOs, OrderFactDTO::getDatetimeId);
+    }
+
+    /**
+     * Create order facts in bulk, in one transaction.
+     * Foreign keys are checked with one query per referenced table and the rows are inserted in JDBC batches.
+     *
+     * @param orderFactDTOs the order facts to create
+     * @return the bulk insert report with the generated UUIDs in row order
+     * @throws BadRequestException if a row is invalid
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional
+    public BulkInsertReportDTO createAll(List<OrderFactDTO> orderFactDTOs) {
+        long start = System.nanoTime();
+        bulkFactWriter.validate(orderFactDTOs);
+        requireReferences(orderFactDTOs);
+
+        List<OrderFact> orderFacts = new ArrayList<>(orderFactDTOs.size());
+        for (OrderFactDTO orderFactDTO : orderFactDTOs) {
+            OrderFact orderFact = new OrderFact();
+            orderFact.setOrderDim(dimensionRegistry.reference(OrderDim.class, orderFactDTO.getOrderDimUuid()));
+            orderFact.setOrderVenueDim(dimensionRegistry.reference(OrderVenueDim.class, orderFactDTO.getOrderVenueDimUuid()));
+            orderFact.setDateTime(dateTimeCalendar.reference(orderFactDTO.getDatetimeId()));
+            orderFact.setPortfolio(bulkFactWriter.reference(PortfolioFact.class, orderFactDTO.getPortfolioUuid()));
+            orderFact.setOrderStatus(orderFactDTO.getOrderStatus());
+            orderFact.setExecutedPrice(orderFactDTO.getExecutedPrice());
+            orderFact.setLimitPrice(orderFactDTO.getLimitPrice());
+            orderFact.setStopPrice(orderFactDTO.getStopPrice());
+            orderFact.setFees(orderFactDTO.getFees());
+            orderFact.setSlippage(orderFactDTO.getSlippage());
+            orderFact.setLatencyMs(orderFactDTO.getLatencyMs());
+            orderFacts.add(orderFact);
+        }
+        bulkFactWriter.persistAll(orderFacts);
+
+        long elapsed = System.nanoTime() - start;
+        return new BulkInsertReportDTO(orderFacts.size(),
+                orderFacts.stream().map(OrderFact::getOrderFactUuid).collect(Collectors.toList()),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), BulkFactWriter.rowsPerSecond(orderFacts.size(), elapsed));
+    }
+
     /**
      * Update an existing order fact.
      *
@@ -137,17 +209,11 @@ public class OrderFactService {
         return orderFactRepository.findById(uuid)
                 .map(existingOrderFact -> {
                     // Find related entities
-                    OrderDim orderDim = orderDimRepository.findById(orderFactDTO.getOrderDimUuid())
-                            .orElseThrow(() -> new ResourceNotFoundException("Order dimension not found with id: " +
-                                    orderFactDTO.getOrderDimUuid()));
+                    OrderDim orderDim = dimensionRegistry.reference(OrderDim.class, orderFactDTO.getOrderDimUuid());
 
-                    OrderVenueDim orderVenueDim = orderVenueDimRepository.findById(orderFactDTO.getOrderVenueDimUuid())
-                            .orElseThrow(() -> new ResourceNotFoundException("Order venue dimension not found with id: " +
-                                    orderFactDTO.getOrderVenueDimUuid()));
+                    OrderVenueDim orderVenueDim = dimensionRegistry.reference(OrderVenueDim.class, orderFactDTO.getOrderVenueDimUuid());
 
-                    DateTimeDim dateTime = dateTimeDimRepository.findById(orderFactDTO.getDatetimeId())
-                            .orElseThrow(() -> new ResourceNotFoundException("DateTime dimension not found with id: " +
-                                    orderFactDTO.getDatetimeId()));
+                    DateTimeDim dateTime = dateTimeCalendar.reference(orderFactDTO.getDatetimeId());
 
                     PortfolioFact portfolio = portfolioFactRepository.findById(orderFactDTO.getPortfolioUuid())
                             .orElseThrow(() -> new ResourceNotFoundException("Portfolio fact not found with id: " +
@@ -235,23 +301,17 @@ public class OrderFactService {
 
         // Set related entities if UUIDs are provided
         if (orderFactDTO.getOrderDimUuid() != null) {
-            OrderDim orderDim = orderDimRepository.findById(orderFactDTO.getOrderDimUuid())
-                    .orElseThrow(() -> new ResourceNotFoundException("Order dimension not found with id: " +
-                            orderFactDTO.getOrderDimUuid()));
+            OrderDim orderDim = dimensionRegistry.reference(OrderDim.class, orderFactDTO.getOrderDimUuid());
             entity.setOrderDim(orderDim);
         }
 
         if (orderFactDTO.getOrderVenueDimUuid() != null) {
-            OrderVenueDim orderVenueDim = orderVenueDimRepository.findById(orderFactDTO.getOrderVenueDimUuid())
-                    .orElseThrow(() -> new ResourceNotFoundException("Order venue dimension not found with id: " +
-                            orderFactDTO.getOrderVenueDimUuid()));
+            OrderVenueDim orderVenueDim = dimensionRegistry.reference(OrderVenueDim.class, orderFactDTO.getOrderVenueDimUuid());
             entity.setOrderVenueDim(orderVenueDim);
         }
 
         if (orderFactDTO.getDatetimeId() != null) {
-            DateTimeDim dateTime = dateTimeDimRepository.findById(orderFactDTO.getDatetimeId())
-                    .orElseThrow(() -> new ResourceNotFoundException("DateTime dimension not found with id: " +
-                            orderFactDTO.getDatetimeId()));
+            DateTimeDim dateTime = dateTimeCalendar.reference(orderFactDTO.getDatetimeId());
             entity.setDateTime(dateTime);
         }
 
@@ -1,5 +1,6 @@
 package com.trading.api.service;
 
+import com.trading.api.cache.DimensionRegistry;
 import com.trading.api.dto.OrderVenueDimDTO;
 import com.trading.api.exception.ResourceNotFoundException;
 import com.trading.api.model.OrderVenueDim;
@@ -20,6 +21,7 @@ import java.util.stream.Collectors;
 public class OrderVenueDimService {
 
     private final OrderVenueDimRepository orderVenueDimRepository;
+    private final DimensionRegistry dimensionRegistry;
 
     /**
      * Get all order venues.
@@ -92,6 +94,7 @@ public class OrderVenueDimService {
         OrderVenueDim orderVenueDim = convertToEntity(orderVenueDimDTO);
         orderVenueDim.setOrderVenueDimUuid(null); // Ensure UUID is generated
         OrderVenueDim savedOrderVenueDim = orderVenueDimRepository.save(orderVenueDim);
+        dimensionRegistry.register(OrderVenueDim.class, savedOrderVenueDim.getOrderVenueDimUuid());
         return convertToDTO(savedOrderVenueDim);
     }
 
@@ -127,6 +130,7 @@ public class OrderVenueDimService {
             throw new ResourceNotFoundException("Order venue not found with id: " + uuid);
         }
         orderVenueDimRepository.deleteById(uuid);
+        dimensionRegistry.evict(OrderVenueDim.class, uuid);
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.trading.api.service;
 
+import com.trading.api.cache.DimensionRegistry;
 import com.trading.api.dto.PositionDimDTO;
 import com.trading.api.exception.ResourceNotFoundException;
 import com.trading.api.model.PositionDim;
@@ -22,6 +23,7 @@ import java.util.stream.Collectors;
 public class PositionDimService {
 
     private final PositionDimRepository positionDimRepository;
+    private final DimensionRegistry dimensionRegistry;
 
     /**
      * Get all position dimensions.
@@ -82,6 +84,7 @@ public class PositionDimService {
         PositionDim positionDim = convertToEntity(positionDimDTO);
         positionDim.setPositionDimUuid(null); // Ensure UUID is generated
         PositionDim savedPositionDim = positionDimRepository.save(positionDim);
+        dimensionRegistry.register(PositionDim.class, savedPositionDim.getPositionDimUuid());
         return convertToDTO(savedPositionDim);
     }
 
@@ -116,6 +119,7 @@ public class PositionDimService {
             throw new ResourceNotFoundException("Position dimension not found with id: " + uuid);
         }
         positionDimRepository.deleteById(uuid);
+        dimensionRegistry.evict(PositionDim.class, uuid);
     }
 
     /**
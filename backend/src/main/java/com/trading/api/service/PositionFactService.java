@@ -1,15 +1,28 @@
 package com.trading.api.service;
 
+import com.trading.api.arrow.FactTable;
+import com.trading.api.bulk.BulkFactWriter;
+import com.trading.api.cache.DimensionRegistry;
+import com.trading.api.calendar.DateTimeCalendar;
+import com.trading.api.dto.BulkInsertReportDTO;
 import com.trading.api.dto.PositionFactDTO;
+import com.trading.api.exception.BadRequestException;
 import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.ingest.RecentFactOverlay;
+import com.trading.api.model.PortfolioFact;
+import com.trading.api.model.PositionDim;
 import com.trading.api.model.PositionFact;
+import com.trading.api.repository.PortfolioFactRepository;
 import com.trading.api.repository.PositionFactRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -20,6 +33,11 @@ import java.util.stream.Collectors;
 public class PositionFactService {
 
     private final PositionFactRepository positionFactRepository;
+    private final BulkFactWriter bulkFactWriter;
+    private final RecentFactOverlay recentFactOverlay;
+    private final PortfolioFactRepository portfolioFactRepository;
+    private final DimensionRegistry dimensionRegistry;
+    private final DateTimeCalendar dateTimeCalendar;
 
     /**
      * Get all position facts.
@@ -58,27 +76,35 @@ public class PositionFactService {
     }
 
     /**
-     * Get position facts by portfolio UUID.
+     * Get position facts by portfolio UUID, including the ones accepted asynchronously
+     * and not committed yet.
      *
      * @param portfolioUuid the portfolio UUID
      * @return list of position facts
      */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<PositionFactDTO> findByPortfolioUuid(UUID portfolioUuid) {
-        return positionFactRepository.findByPortfolio_PortfolioUuid(portfolioUuid).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return recentFactOverlay.withRecent(FactTable.position_fact, PositionFactDTO.class,
+                positionFactDTO -> portfolioUuid.equals(positionFactDTO.getPortfolioUuid()),
+                () -> positionFactRepository.findByPortfolio_PortfolioUuid(portfolioUuid).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
     /**
-     * Get position facts by datetime ID.
+     * Get position facts by datetime ID, including the ones accepted asynchronously
+     * and not committed yet.
      *
      * @param datetimeId the datetime ID
      * @return list of position facts
      */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<PositionFactDTO> findByDatetimeId(Long datetimeId) {
-        return positionFactRepository.findByDateTime_DatetimeId(datetimeId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return recentFactOverlay.withRecent(FactTable.position_fact, PositionFactDTO.class,
+                positionFactDTO -> datetimeId.equals(positionFactDTO.getDatetimeId()),
+                () -> positionFactRepository.findByDateTime_DatetimeId(datetimeId).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
     /**
@@ -119,6 +145,51 @@ public class PositionFactService {
         return convertToDTO(savedPositionFact);
     }
 
+    /**
+     * Check that every row referenced by position facts exists, with one query per referenced table.
+     *
+     * @param positionFactDTOs the position facts
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional(readOnly = true)
+    public void requireReferences(List<PositionFactDTO> positionFactDTOs) {
+        bulkFactWriter.requireExisting(PortfolioFact.class, "Portfolio fact", positionFactDTOs, PositionFactDTO::getPortfolioUuid);
+        dimensionRegistry.requireAll(PositionDim.class, BulkFactWriter.distinct(positionFactDTOs, PositionFactDTO::getPositionDimUuid));
+        dateTimeCalendar.requireAll(positionFactDTOs, PositionFactDTO::getDatetimeId);
+    }
+
+    /**
+     * Create position facts in bulk, in one transaction.
+     * Foreign keys are checked with one query per referenced table and the rows are inserted in JDBC batches.
+     *
+     * @param positionFactDTOs the position facts to create
+     * @return the bulk insert report with the generated UUIDs in row order
+     * @throws BadRequestException if a row is invalid
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional
+    public BulkInsertReportDTO createAll(List<PositionFactDTO> positionFactDTOs) {
+        long start = System.nanoTime();
+        bulkFactWriter.validate(positionFactDTOs);
+        requireReferences(positionFactDTOs);
+
+        List<PositionFact> positionFacts = new ArrayList<>(positionFactDTOs.size());
+        for (PositionFactDTO positionFactDTO : positionFactDTOs) {
+            PositionFact positionFact = new PositionFact();
+            positionFact.setPortfolio(bulkFactWriter.reference(PortfolioFact.class, positionFactDTO.getPortfolioUuid()));
+            positionFact.setPositionDim(dimensionRegistry.reference(PositionDim.class, positionFactDTO.getPositionDimUuid()));
+            positionFact.setDateTime(dateTimeCalendar.reference(positionFactDTO.getDatetimeId()));
+            positionFact.setEntryPrice(positionFactDTO.getEntryPrice());
+            positionFacts.add(positionFact);
+        }
+        bulkFactWriter.persistAll(positionFacts);
+
+        long elapsed = System.nanoTime() - start;
+        return new BulkInsertReportDTO(positionFacts.size(),
+                positionFacts.stream().map(PositionFact::getPositionUuid).collect(Collectors.toList()),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), BulkFactWriter.rowsPerSecond(positionFacts.size(), elapsed));
+    }
+
     /**
      * Update an existing position fact.
      *
@@ -131,9 +202,15 @@ public class PositionFactService {
     public PositionFactDTO update(UUID uuid, PositionFactDTO positionFactDTO) {
         return positionFactRepository.findById(uuid)
                 .map(existingPositionFact -> {
-                    // Update entity fields based on DTO
-                    // Note: In a real implementation, you would need to fetch related entities
-                    // and set them properly instead of just UUIDs
+                    PortfolioFact portfolio = portfolioFactRepository.findById(positionFactDTO.getPortfolioUuid())
+                            .orElseThrow(() -> new ResourceNotFoundException("Portfolio fact not found with id: " +
+                                    positionFactDTO.getPortfolioUuid()));
+
+                    existingPositionFact.setPortfolio(portfolio);
+                    existingPositionFact.setPositionDim(
+                            dimensionRegistry.reference(PositionDim.class, positionFactDTO.getPositionDimUuid()));
+                    existingPositionFact.setDateTime(dateTimeCalendar.reference(positionFactDTO.getDatetimeId()));
+                    existingPositionFact.setEntryPrice(positionFactDTO.getEntryPrice());
                     return convertToDTO(positionFactRepository.save(existingPositionFact));
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Position fact not found with id: " + uuid));
@@ -183,8 +260,6 @@ public class PositionFactService {
 
     /**
      * Convert DTO to entity.
-     * Note: In a real implementation, you would need to fetch related entities
-     * from their respective repositories.
      *
      * @param positionFactDTO the DTO
      * @return the entity
@@ -193,8 +268,20 @@ public class PositionFactService {
         PositionFact entity = new PositionFact();
         entity.setPositionUuid(positionFactDTO.getPositionUuid());
 
-        // In a real implementation, you would fetch related entities
-        // and set them properly instead of just setting UUIDs
+        if (positionFactDTO.getPortfolioUuid() != null) {
+            PortfolioFact portfolio = portfolioFactRepository.findById(positionFactDTO.getPortfolioUuid())
+                    .orElseThrow(() -> new ResourceNotFoundException("Portfolio fact not found with id: " +
+                            positionFactDTO.getPortfolioUuid()));
+            entity.setPortfolio(portfolio);
+        }
+
+        if (positionFactDTO.getPositionDimUuid() != null) {
+            entity.setPositionDim(dimensionRegistry.reference(PositionDim.class, positionFactDTO.getPositionDimUuid()));
+        }
+
+        if (positionFactDTO.getDatetimeId() != null) {
+            entity.setDateTime(dateTimeCalendar.reference(positionFactDTO.getDatetimeId()));
+        }
 
         entity.setEntryPrice(positionFactDTO.getEntryPrice());
 
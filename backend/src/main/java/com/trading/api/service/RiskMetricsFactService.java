@@ -1,20 +1,28 @@
 package com.trading.api.service;
 
+import com.trading.api.arrow.FactTable;
+import com.trading.api.bulk.BulkFactWriter;
+import com.trading.api.calendar.DateTimeCalendar;
+import com.trading.api.dto.BulkInsertReportDTO;
 import com.trading.api.dto.RiskMetricsFactDTO;
+import com.trading.api.exception.BadRequestException;
 import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.ingest.RecentFactOverlay;
 import com.trading.api.model.DateTimeDim;
 import com.trading.api.model.RiskManagementFact;
 import com.trading.api.model.RiskMetricsFact;
-import com.trading.api.repository.DateTimeDimRepository;
 import com.trading.api.repository.RiskManagementFactRepository;
 import com.trading.api.repository.RiskMetricsFactRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -25,8 +33,10 @@ import java.util.stream.Collectors;
 public class RiskMetricsFactService {
 
     private final RiskMetricsFactRepository riskMetricsFactRepository;
+    private final BulkFactWriter bulkFactWriter;
+    private final RecentFactOverlay recentFactOverlay;
     private final RiskManagementFactRepository riskManagementFactRepository;
-    private final DateTimeDimRepository dateTimeDimRepository;
+    private final DateTimeCalendar dateTimeCalendar;
 
     /**
      * Get all risk metrics facts.
@@ -53,27 +63,35 @@ public class RiskMetricsFactService {
     }
 
     /**
-     * Get risk metrics facts by risk management UUID.
+     * Get risk metrics facts by risk management UUID, including the ones accepted asynchronously
+     * and not committed yet.
      *
      * @param riskManagementUuid the risk management UUID
      * @return list of risk metrics facts
      */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<RiskMetricsFactDTO> findByRiskManagementUuid(UUID riskManagementUuid) {
-        return riskMetricsFactRepository.findByRiskManagement_RiskManagementUuid(riskManagementUuid).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return recentFactOverlay.withRecent(FactTable.risk_metrics_fact, RiskMetricsFactDTO.class,
+                riskMetricsFactDTO -> riskManagementUuid.equals(riskMetricsFactDTO.getRiskManagementUuid()),
+                () -> riskMetricsFactRepository.findByRiskManagement_RiskManagementUuid(riskManagementUuid).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
     /**
-     * Get risk metrics facts by datetime ID.
+     * Get risk metrics facts by datetime ID, including the ones accepted asynchronously
+     * and not committed yet.
      *
      * @param datetimeId the datetime ID
      * @return list of risk metrics facts
      */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public List<RiskMetricsFactDTO> findByDatetimeId(Long datetimeId) {
-        return riskMetricsFactRepository.findByDateTime_DatetimeId(datetimeId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return recentFactOverlay.withRecent(FactTable.risk_metrics_fact, RiskMetricsFactDTO.class,
+                riskMetricsFactDTO -> datetimeId.equals(riskMetricsFactDTO.getDatetimeId()),
+                () -> riskMetricsFactRepository.findByDateTime_DatetimeId(datetimeId).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()));
     }
 
     /**
@@ -142,6 +160,52 @@ public class RiskMetricsFactService {
         return convertToDTO(savedRiskMetricsFact);
     }
 
+    /**
+     * Check that every row referenced by risk metrics facts exists, with one query per referenced table.
+     *
+     * @param riskMetricsFactDTOs the risk metrics facts
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional(readOnly = true)
+    public void requireReferences(List<RiskMetricsFactDTO> riskMetricsFactDTOs) {
+        bulkFactWriter.requireExisting(RiskManagementFact.class, "Risk management fact", riskMetricsFactDTOs,
+                RiskMetricsFactDTO::getRiskManagementUuid);
+        dateTimeCalendar.requireAll(riskMetricsFactDTOs, RiskMetricsFactDTO::getDatetimeId);
+    }
+
+    /**
+     * Create risk metrics facts in bulk, in one transaction.
+     * Foreign keys are checked with one query per referenced table and the rows are inserted in JDBC batches.
+     *
+     * @param riskMetricsFactDTOs the risk metrics facts to create
+     * @return the bulk insert report with the generated UUIDs in row order
+     * @throws BadRequestException if a row is invalid
+     * @throws ResourceNotFoundException if a referenced row is not found
+     */
+    @Transactional
+    public BulkInsertReportDTO createAll(List<RiskMetricsFactDTO> riskMetricsFactDTOs) {
+        long start = System.nanoTime();
+        bulkFactWriter.validate(riskMetricsFactDTOs);
+        requireReferences(riskMetricsFactDTOs);
+
+        List<RiskMetricsFact> riskMetricsFacts = new ArrayList<>(riskMetricsFactDTOs.size());
+        for (RiskMetricsFactDTO riskMetricsFactDTO : riskMetricsFactDTOs) {
+            RiskMetricsFact riskMetricsFact = new RiskMetricsFact();
+            riskMetricsFact.setRiskManagement(bulkFactWriter.reference(RiskManagementFact.class, riskMetricsFactDTO.getRiskManagementUuid()));
+            riskMetricsFact.setDateTime(dateTimeCalendar.reference(riskMetricsFactDTO.getDatetimeId()));
+            riskMetricsFact.setMarginUsed(riskMetricsFactDTO.getMarginUsed());
+            riskMetricsFact.setMaxDrawdown(riskMetricsFactDTO.getMaxDrawdown());
+            riskMetricsFact.setSharpeRatio(riskMetricsFactDTO.getSharpeRatio());
+            riskMetricsFacts.add(riskMetricsFact);
+        }
+        bulkFactWriter.persistAll(riskMetricsFacts);
+
+        long elapsed = System.nanoTime() - start;
+        return new BulkInsertReportDTO(riskMetricsFacts.size(),
+                riskMetricsFacts.stream().map(RiskMetricsFact::getRiskMetricsUuid).collect(Collectors.toList()),
+                TimeUnit.NANOSECONDS.toMillis(elapsed), BulkFactWriter.rowsPerSecond(riskMetricsFacts.size(), elapsed));
+    }
+
     /**
      * Update an existing risk metrics fact.
      *
@@ -159,9 +223,7 @@ public class RiskMetricsFactService {
                             .orElseThrow(() -> new ResourceNotFoundException("Risk management fact not found with id: " +
                                     riskMetricsFactDTO.getRiskManagementUuid()));
 
-                    DateTimeDim dateTime = dateTimeDimRepository.findById(riskMetricsFactDTO.getDatetimeId())
-                            .orElseThrow(() -> new ResourceNotFoundException("DateTime dimension not found with id: " +
-                                    riskMetricsFactDTO.getDatetimeId()));
+                    DateTimeDim dateTime = dateTimeCalendar.reference(riskMetricsFactDTO.getDatetimeId());
 
                     // Update entity with related entities and values
                     existingRiskMetricsFact.setRiskManagement(riskManagement);
@@ -234,9 +296,7 @@ public class RiskMetricsFactService {
         }
 
         if (riskMetricsFactDTO.getDatetimeId() != null) {
-            DateTimeDim dateTime = dateTimeDimRepository.findById(riskMetricsFactDTO.getDatetimeId())
-                    .orElseThrow(() -> new ResourceNotFoundException("DateTime dimension not found with id: " +
-                            riskMetricsFactDTO.getDatetimeId()));
+            DateTimeDim dateTime = dateTimeCalendar.reference(riskMetricsFactDTO.getDatetimeId());
             entity.setDateTime(dateTime);
         }
 
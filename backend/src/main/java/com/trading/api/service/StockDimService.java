@@ -1,5 +1,6 @@
 package com.trading.api.service;
 
+import com.trading.api.cache.DimensionRegistry;
 import com.trading.api.dto.StockDimDTO;
 import com.trading.api.exception.ResourceNotFoundException;
 import com.trading.api.model.StockDim;
@@ -21,6 +22,7 @@ import java.util.stream.Collectors;
 public class StockDimService {
 
     private final StockDimRepository stockDimRepository;
+    private final DimensionRegistry dimensionRegistry;
 
     /**
      * Get all stocks.
@@ -70,6 +72,7 @@ public class StockDimService {
         StockDim stockDim = convertToEntity(stockDimDTO);
         stockDim.setStockUuid(null); // Ensure UUID is generated
         StockDim savedStockDim = stockDimRepository.save(stockDim);
+        dimensionRegistry.register(StockDim.class, savedStockDim.getStockUuid());
         return convertToDTO(savedStockDim);
     }
 
@@ -107,6 +110,7 @@ public class StockDimService {
             throw new ResourceNotFoundException("Stock not found with id: " + uuid);
         }
         stockDimRepository.deleteById(uuid);
+        dimensionRegistry.evict(StockDim.class, uuid);
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.trading.api.service;
 
+import com.trading.api.cache.DimensionRegistry;
 import com.trading.api.dto.TradeZeroDimDTO;
 import com.trading.api.exception.ResourceNotFoundException;
 import com.trading.api.model.TradeZeroDim;
@@ -21,6 +22,7 @@ import java.util.stream.Collectors;
 public class TradeZeroDimService {
 
     private final TradeZeroDimRepository tradeZeroDimRepository;
+    private final DimensionRegistry dimensionRegistry;
 
     /**
      * Get all trade zero dimensions.
@@ -69,6 +71,7 @@ public class TradeZeroDimService {
         TradeZeroDim tradeZeroDim = convertToEntity(tradeZeroDimDTO);
         tradeZeroDim.setTradeZeroDimUuid(null); // Ensure UUID is generated
         TradeZeroDim savedTradeZeroDim = tradeZeroDimRepository.save(tradeZeroDim);
+        dimensionRegistry.register(TradeZeroDim.class, savedTradeZeroDim.getTradeZeroDimUuid());
         return convertToDTO(savedTradeZeroDim);
     }
 
@@ -111,6 +114,7 @@ public class TradeZeroDimService {
             throw new ResourceNotFoundException("Trade zero dimension not found with id: " + uuid);
         }
         tradeZeroDimRepository.deleteById(uuid);
+        dimensionRegistry.evict(TradeZeroDim.class, uuid);
     }
 
     /**
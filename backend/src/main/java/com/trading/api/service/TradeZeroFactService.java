@@ -1,7 +1,10 @@
 package com.trading.api.service;
 
+import com.trading.api.cache.DimensionRegistry;
 import com.trading.api.dto.TradeZeroFactDTO;
 import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.model.AgentDim;
+import com.trading.api.model.TradeZeroDim;
 import com.trading.api.model.TradeZeroFact;
 import com.trading.api.repository.TradeZeroFactRepository;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +23,7 @@ import java.util.stream.Collectors;
 public class TradeZeroFactService {
 
     private final TradeZeroFactRepository tradeZeroFactRepository;
+    private final DimensionRegistry dimensionRegistry;
 
     /**
      * Get all trade zero facts.
@@ -119,8 +123,12 @@ public class TradeZeroFactService {
     public TradeZeroFactDTO update(UUID uuid, TradeZeroFactDTO tradeZeroFactDTO) {
         return tradeZeroFactRepository.findById(uuid)
                 .map(existingTradeZeroFact -> {
-                    // In a real implementation, you would need to fetch related entities
-                    // and set them properly instead of just UUIDs
+                    existingTradeZeroFact.setTradeZeroDim(
+                            dimensionRegistry.reference(TradeZeroDim.class, tradeZeroFactDTO.getTradeZeroDimUuid()));
+                    existingTradeZeroFact.setAgentDim(
+                            dimensionRegistry.reference(AgentDim.class, tradeZeroFactDTO.getAgentDimUuid()));
+                    existingTradeZeroFact.setEpoch(tradeZeroFactDTO.getEpoch());
+                    existingTradeZeroFact.setTrained(tradeZeroFactDTO.getTrained());
                     return convertToDTO(tradeZeroFactRepository.save(existingTradeZeroFact));
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Trade zero fact not found with id: " + uuid));
@@ -166,8 +174,6 @@ public class TradeZeroFactService {
 
     /**
      * Convert DTO to entity.
-     * Note: In a real implementation, you would need to fetch related entities
-     * from their respective repositories.
      *
      * @param tradeZeroFactDTO the DTO
      * @return the entity
@@ -176,8 +182,13 @@ public class TradeZeroFactService {
         TradeZeroFact entity = new TradeZeroFact();
         entity.setTradeZeroFactUuid(tradeZeroFactDTO.getTradeZeroFactUuid());
 
-        // In a real implementation, you would fetch related entities
-        // and set them properly instead of just setting UUIDs
+        if (tradeZeroFactDTO.getTradeZeroDimUuid() != null) {
+            entity.setTradeZeroDim(dimensionRegistry.reference(TradeZeroDim.class, tradeZeroFactDTO.getTradeZeroDimUuid()));
+        }
+
+        if (tradeZeroFactDTO.getAgentDimUuid() != null) {
+            entity.setAgentDim(dimensionRegistry.reference(AgentDim.class, tradeZeroFactDTO.getAgentDimUuid()));
+        }
 
         entity.setEpoch(tradeZeroFactDTO.getEpoch());
         entity.setTrained(tradeZeroFactDTO.getTrained());
@@ -0,0 +1,108 @@
+package com.trading.api.service;
+
+import com.trading.api.calendar.DateTimeCalendar;
+import com.trading.api.calendar.TradingSessionCalendar;
+import com.trading.api.dto.ContractRolloverDTO;
+import com.trading.api.dto.TradingMinuteCountDTO;
+import com.trading.api.dto.TradingMinuteDTO;
+import com.trading.api.dto.TradingMinutesDTO;
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.model.enums.TradeAssetType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service for B3 trading session calendar queries, answered from memory.
+ */
+@Service
+@RequiredArgsConstructor
+public class TradingCalendarService {
+
+    /**
+     * Maximum number of trading minutes returned at once.
+     */
+    public static final int MAX_TRADING_MINUTES = 100000;
+
+    private final TradingSessionCalendar tradingSessionCalendar;
+
+    /**
+     * Get the trading session status of a minute.
+     *
+     * @param datetimeId the datetime ID
+     * @return the status
+     * @throws BadRequestException if the datetime ID is not a valid minute
+     */
+    public TradingMinuteDTO findTradingMinute(long datetimeId) {
+        boolean tradingMinute = tradingSessionCalendar.isTradingMinute(datetimeId);
+        return new TradingMinuteDTO(datetimeId, tradingSessionCalendar.isTradingDay(toDate(datetimeId)), tradingMinute);
+    }
+
+    /**
+     * Get the trading minutes following a datetime.
+     *
+     * @param afterDatetimeId the exclusive datetime ID the minutes follow
+     * @param count the number of minutes
+     * @return the trading minutes
+     * @throws BadRequestException if the datetime ID is invalid or the count is out of bounds
+     */
+    public TradingMinutesDTO findNextTradingMinutes(long afterDatetimeId, int count) {
+        if (count < 1 || count > MAX_TRADING_MINUTES) {
+            throw new BadRequestException("Count must be between 1 and " + MAX_TRADING_MINUTES);
+        }
+        long[] datetimeIds = tradingSessionCalendar.nextTradingMinutes(afterDatetimeId, count);
+        return new TradingMinutesDTO(afterDatetimeId, datetimeIds.length, datetimeIds);
+    }
+
+    /**
+     * Count the trading minutes of a range.
+     *
+     * @param fromDatetimeId the inclusive lower datetime ID bound
+     * @param toDatetimeId the inclusive upper datetime ID bound
+     * @return the count
+     * @throws BadRequestException if a datetime ID is invalid
+     */
+    public TradingMinuteCountDTO countTradingMinutes(long fromDatetimeId, long toDatetimeId) {
+        return new TradingMinuteCountDTO(fromDatetimeId, toDatetimeId,
+                tradingSessionCalendar.countTradingMinutes(fromDatetimeId, toDatetimeId));
+    }
+
+    /**
+     * Get the rollovers of the continuous series of an asset.
+     *
+     * @param tradeAsset the trade asset
+     * @param fromDatetimeId the inclusive lower bound of the last trading days, or null for the start of the calendar
+     * @param toDatetimeId the inclusive upper bound of the last trading days, or null for the end of the calendar
+     * @return the rollovers in order
+     */
+    public List<ContractRolloverDTO> findRollovers(TradeAssetType tradeAsset, Long fromDatetimeId, Long toDatetimeId) {
+        LocalDate from = fromDatetimeId != null ? toDate(fromDatetimeId) : tradingSessionCalendar.getFirstDate();
+        LocalDate to = toDatetimeId != null ? toDate(toDatetimeId) : tradingSessionCalendar.getLastDate();
+        return tradingSessionCalendar.rollovers(tradeAsset, from, to).stream()
+                .map(rollover -> new ContractRolloverDTO(tradeAsset, rollover.getContract(),
+                        rollover.getLastTradingDate(), rollover.getRolloverDatetimeId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the holidays of a range, weekends excluded.
+     *
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the calendar
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the calendar
+     * @return the holidays in order
+     */
+    public List<LocalDate> findHolidays(Long fromDatetimeId, Long toDatetimeId) {
+        LocalDate from = fromDatetimeId != null ? toDate(fromDatetimeId) : tradingSessionCalendar.getFirstDate();
+        LocalDate to = toDatetimeId != null ? toDate(toDatetimeId) : tradingSessionCalendar.getLastDate();
+        return tradingSessionCalendar.holidays(from, to);
+    }
+
+    private LocalDate toDate(long datetimeId) {
+        // Rejects invalid datetime IDs
+        tradingSessionCalendar.minuteIndex(datetimeId);
+        return DateTimeCalendar.toLocalDateTime(datetimeId).toLocalDate();
+    }
+}
@@ -0,0 +1,273 @@
+package com.trading.api.service;
+
+import com.trading.api.cache.CandlestickSeriesKey;
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.model.TradeZeroDim;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.repository.TradeZeroDimRepository;
+import com.trading.api.training.TrainingFeatureCache;
+import com.trading.api.training.TrainingFeatures;
+import com.trading.api.training.WindowSampler;
+import com.trading.api.training.WindowStartIndex;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Service for streaming sliding windows of normalized training features.
+ * The window length is the look back plus the look forward of a TradeZeroDim, and the features
+ * come from {@link TrainingFeatureCache}, so repeated exports of a series only slice cached arrays.
+ */
+@Service
+@RequiredArgsConstructor
+public class TrainingWindowService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Maximum number of windows per sampled batch.
+     */
+    public static final int MAX_BATCH_SIZE = 65536;
+
+    /**
+     * Maximum number of bytes of a sampled batch.
+     */
+    public static final int MAX_BATCH_BYTES = 64 * 1024 * 1024;
+
+    private final TradeZeroDimRepository tradeZeroDimRepository;
+    private final TrainingFeatureCache trainingFeatureCache;
+
+    /**
+     * Formats supported by the training window export.
+     */
+    public enum WindowFormat {
+        ndjson("application/x-ndjson"),
+        float32("application/octet-stream");
+
+        private final String mediaType;
+
+        WindowFormat(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+    }
+
+    /**
+     * Resolve the window plan of a trade zero dimension before the response is committed.
+     *
+     * @param tradeZeroDimUuid the trade zero dimension UUID
+     * @param tradeAssets the trade assets to export, or null for all the assets of the dimension
+     * @return the window plan
+     * @throws ResourceNotFoundException if trade zero dimension not found
+     * @throws BadRequestException if a trade asset is not part of the dimension
+     */
+    public WindowPlan plan(UUID tradeZeroDimUuid, List<TradeAssetType> tradeAssets) {
+        TradeZeroDim tradeZeroDim = tradeZeroDimRepository.findById(tradeZeroDimUuid)
+                .orElseThrow(() -> new ResourceNotFoundException("Trade zero dimension not found with id: " + tradeZeroDimUuid));
+        List<TradeAssetType> dimAssets = Arrays.asList(tradeZeroDim.getTradeAsset());
+        List<TradeAssetType> assets = tradeAssets == null || tradeAssets.isEmpty() ? dimAssets : tradeAssets;
+        for (TradeAssetType asset : assets) {
+            if (!dimAssets.contains(asset)) {
+                throw new BadRequestException("Trade asset " + asset + " is not part of trade zero dimension " + tradeZeroDimUuid);
+            }
+        }
+        int windowLength = tradeZeroDim.getLookBack() + tradeZeroDim.getLookForward();
+        if (windowLength <= 0) {
+            throw new BadRequestException("Trade zero dimension " + tradeZeroDimUuid + " has an empty window");
+        }
+        return new WindowPlan(tradeZeroDim, new ArrayList<>(assets), windowLength);
+    }
+
+    /**
+     * Write the sliding windows of a plan to the output stream.
+     * <p>
+     * A window covers {@code lookBack + lookForward} consecutive bars and is identified by the
+     * datetime ID of its last look back bar. Only windows lying entirely inside the datetime bounds
+     * and the defined rows of the features are written. In float32 format windows are written back to back as little-endian
+     * {@code [window length, feature count]} matrices, trade asset after trade asset.
+     *
+     * @param plan the window plan
+     * @param dataFeedUuid the data feed UUID
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @param stride the number of bars between the starts of consecutive windows
+     * @param format the export format
+     * @param outputStream the output stream to write to
+     * @throws IOException if the output stream cannot be written
+     */
+    public void export(WindowPlan plan, UUID dataFeedUuid, Long fromDatetimeId, Long toDatetimeId, int stride,
+                       WindowFormat format, OutputStream outputStream) throws IOException {
+        if (stride <= 0) {
+            throw new BadRequestException("Stride must be positive");
+        }
+        OutputStream out = new BufferedOutputStream(outputStream, WRITE_BUFFER_SIZE);
+        int length = plan.getWindowLength();
+        int lookBack = plan.getTradeZeroDim().getLookBack();
+        int windowFloats = length * TrainingFeatures.FEATURE_COUNT;
+        ByteBuffer buffer = ByteBuffer.allocate(windowFloats * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        StringBuilder line = new StringBuilder();
+
+        for (TradeAssetType asset : plan.getTradeAssets()) {
+            TrainingFeatures features = trainingFeatureCache.get(new CandlestickSeriesKey(
+                    dataFeedUuid, asset, plan.getTradeZeroDim().getTradeTimeFrame()));
+            int first = fromDatetimeId != null ? features.lowerBound(fromDatetimeId) : 0;
+            int end = Math.min(toDatetimeId != null && toDatetimeId < Long.MAX_VALUE
+                    ? features.lowerBound(toDatetimeId + 1) : features.size(), features.definedSize());
+            float[] values = features.values();
+
+            for (int start = first; start + length <= end; start += stride) {
+                if (format == WindowFormat.float32) {
+                    buffer.clear();
+                    buffer.asFloatBuffer().put(values, start * TrainingFeatures.FEATURE_COUNT, windowFloats);
+                    out.write(buffer.array());
+                } else {
+                    line.setLength(0);
+                    line.append("{\"tradeAsset\":\"").append(asset.name())
+                            .append("\",\"datetimeId\":").append(features.datetimeId(start + Math.max(lookBack, 1) - 1))
+                            .append(",\"features\":[");
+                    for (int row = start; row < start + length; row++) {
+                        line.append(row == start ? "[" : ",[");
+                        for (int feature = 0; feature < TrainingFeatures.FEATURE_COUNT; feature++) {
+                            if (feature > 0) {
+                                line.append(',');
+                            }
+                            line.append(features.value(row, feature));
+                        }
+                        line.append(']');
+                    }
+                    line.append("]}\n");
+                    out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Build the sampler of the windows of a plan that lie inside the datetime bounds and do not
+     * cross a data gap, before the response is committed.
+     *
+     * @param plan the window plan
+     * @param dataFeedUuid the data feed UUID
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @param stratification the stratification of the draws
+     * @return the sampler
+     * @throws BadRequestException if no window is valid
+     */
+    public WindowSampler sampler(WindowPlan plan, UUID dataFeedUuid, Long fromDatetimeId, Long toDatetimeId,
+                                 WindowStartIndex.Stratification stratification) {
+        int anchorOffset = Math.max(plan.getTradeZeroDim().getLookBack(), 1) - 1;
+        List<WindowStartIndex> indexes = new ArrayList<>();
+        for (TradeAssetType asset : plan.getTradeAssets()) {
+            indexes.add(trainingFeatureCache.getIndex(new CandlestickSeriesKey(dataFeedUuid, asset,
+                    plan.getTradeZeroDim().getTradeTimeFrame()), plan.getWindowLength(), anchorOffset, stratification));
+        }
+        WindowSampler sampler = new WindowSampler(indexes, fromDatetimeId, toDatetimeId,
+                stratification != WindowStartIndex.Stratification.none);
+        if (sampler.getValidWindows() == 0) {
+            throw new BadRequestException("No window of " + plan.getWindowLength() + " bars without gaps in the given range");
+        }
+        return sampler;
+    }
+
+    /**
+     * Get the number of bytes of a sampled batch of a plan before the response is committed.
+     *
+     * @param plan the window plan
+     * @param batchSize the number of windows per batch
+     * @return the number of bytes of a batch
+     * @throws BadRequestException if the batch size is out of bounds or a batch exceeds {@link #MAX_BATCH_BYTES}
+     */
+    public int batchBytes(WindowPlan plan, int batchSize) {
+        return batchBytes(batchSize, plan.getWindowLength());
+    }
+
+    private static int batchBytes(int batchSize, int windowLength) {
+        if (batchSize <= 0 || batchSize > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        int bytes;
+        try {
+            bytes = Math.multiplyExact(Math.multiplyExact(batchSize, windowLength),
+                    TrainingFeatures.FEATURE_COUNT * Float.BYTES);
+        } catch (ArithmeticException e) {
+            bytes = Integer.MAX_VALUE;
+        }
+        if (bytes > MAX_BATCH_BYTES) {
+            throw new BadRequestException("A batch of " + batchSize + " windows of " + windowLength
+                    + " bars exceeds " + MAX_BATCH_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    /**
+     * Write random minibatches of windows drawn with replacement by a sampler.
+     * Every batch is one contiguous little-endian float32 block of shape
+     * {@code [batch size, window length, feature count]}; the same seed gives the same batches.
+     *
+     * @param sampler the window sampler
+     * @param batchSize the number of windows per batch
+     * @param batches the number of batches
+     * @param seed the seed of the random generator
+     * @param outputStream the output stream to write to
+     * @throws IOException if the output stream cannot be written
+     * @throws BadRequestException if the batch size is out of bounds or a batch exceeds {@link #MAX_BATCH_BYTES}
+     */
+    public void sample(WindowSampler sampler, int batchSize, int batches, long seed,
+                       OutputStream outputStream) throws IOException {
+        int windowLength = sampler.getIndex(0).getWindowLength();
+        int bytes = batchBytes(batchSize, windowLength);
+        if (batches <= 0) {
+            throw new BadRequestException("Batches must be positive");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        int windowFloats = windowLength * TrainingFeatures.FEATURE_COUNT;
+        ByteBuffer buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        FloatBuffer floats = buffer.asFloatBuffer();
+        int[] window = new int[2];
+
+        for (int batch = 0; batch < batches; batch++) {
+            floats.clear();
+            for (int i = 0; i < batchSize; i++) {
+                sampler.next(random, window);
+                float[] values = sampler.getIndex(window[0]).getFeatures().values();
+                floats.put(values, window[1] * TrainingFeatures.FEATURE_COUNT, windowFloats);
+            }
+            outputStream.write(buffer.array());
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Resolved trade zero dimension, trade assets and window length of an export.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class WindowPlan {
+
+        private final TradeZeroDim tradeZeroDim;
+
+        private final List<TradeAssetType> tradeAssets;
+
+        private final int windowLength;
+    }
+}
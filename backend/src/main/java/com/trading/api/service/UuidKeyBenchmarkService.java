@@ -0,0 +1,87 @@
+package com.trading.api.service;
+
+import com.trading.api.bulk.BulkFactWriter;
+import com.trading.api.dto.UuidKeyBenchmarkDTO;
+import com.trading.api.exception.BadRequestException;
+import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.model.id.UuidV7;
+import com.trading.api.repository.UuidKeyBenchmarkJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Service comparing random version 4 against time ordered version 7 primary keys.
+ * <p>
+ * Each key version fills its own scratch table with the same rows and batch size, and the elapsed
+ * time includes key generation, as it does for the fact inserts. The gap in throughput only opens
+ * once the primary key index outgrows shared_buffers, so the row count should be sized against it.
+ * Writes to the database, so it must be enabled explicitly.
+ */
+@Service
+@Slf4j
+public class UuidKeyBenchmarkService {
+
+    private static final int MAX_ROWS = 50_000_000;
+
+    private final UuidKeyBenchmarkJdbcRepository uuidKeyBenchmarkJdbcRepository;
+    private final boolean enabled;
+
+    public UuidKeyBenchmarkService(UuidKeyBenchmarkJdbcRepository uuidKeyBenchmarkJdbcRepository,
+                                   @Value("${tradezero.benchmark.enabled:false}") boolean enabled) {
+        this.uuidKeyBenchmarkJdbcRepository = uuidKeyBenchmarkJdbcRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Insert the same rows under version 4 and version 7 keys and measure both tables.
+     *
+     * @param rows the number of rows per key version
+     * @param batchSize the number of rows per JDBC batch
+     * @return one result per key version, version 4 first
+     * @throws ResourceNotFoundException if benchmarks are disabled
+     * @throws BadRequestException if the row count or batch size is out of range
+     */
+    public List<UuidKeyBenchmarkDTO> run(int rows, int batchSize) {
+        if (!enabled) {
+            throw new ResourceNotFoundException("Benchmarks are disabled, set tradezero.benchmark.enabled=true");
+        }
+        if (rows < 1 || rows > MAX_ROWS) {
+            throw new BadRequestException("rows must be between 1 and " + MAX_ROWS);
+        }
+        if (batchSize < 1 || batchSize > rows) {
+            throw new BadRequestException("batchSize must be between 1 and rows");
+        }
+
+        UUID portfolioUuid = UUID.randomUUID();
+        List<UuidKeyBenchmarkDTO> results = new ArrayList<>(2);
+        results.add(measure("uuid_key_benchmark_v4", 4, rows, batchSize, portfolioUuid, UUID::randomUUID));
+        results.add(measure("uuid_key_benchmark_v7", 7, rows, batchSize, portfolioUuid, UuidV7::next));
+        return results;
+    }
+
+    private UuidKeyBenchmarkDTO measure(String table, int uuidVersion, int rows, int batchSize, UUID portfolioUuid,
+                                        Supplier<UUID> keys) {
+        uuidKeyBenchmarkJdbcRepository.createTable(table);
+        try {
+            long start = System.nanoTime();
+            uuidKeyBenchmarkJdbcRepository.insert(table, portfolioUuid, rows, batchSize, keys);
+            long elapsed = System.nanoTime() - start;
+
+            UuidKeyBenchmarkDTO result = new UuidKeyBenchmarkDTO(uuidVersion, rows, batchSize,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), BulkFactWriter.rowsPerSecond(rows, elapsed),
+                    uuidKeyBenchmarkJdbcRepository.tableBytes(table), uuidKeyBenchmarkJdbcRepository.indexBytes(table));
+            log.info("UUID v{} keys: {} rows in {} ms, primary key index {} bytes",
+                    uuidVersion, rows, result.getElapsedMillis(), result.getIndexBytes());
+            return result;
+        } finally {
+            uuidKeyBenchmarkJdbcRepository.dropTable(table);
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.trading.api.store;
+
+import com.trading.api.cache.CandlestickSeries;
+import com.trading.api.cache.CandlestickSeriesKey;
+import com.trading.api.event.CandlestickFactChangedEvent;
+import com.trading.api.model.DataFeedFact;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import com.trading.api.repository.CandlestickFactJdbcRepository;
+import com.trading.api.repository.DataFeedFactRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only, memory-mapped columnar store of historical candlestick series.
+ * <p>
+ * Every series lives in one little-endian file {@code <feed>/<asset>_<timeframe>.tzc}:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "TZCS"
+ *      4     4  format version
+ *      8    16  data feed UUID (most, least significant bits)
+ *     24     4  trade asset ordinal
+ *     28     4  trade time frame ordinal
+ *     32     8  capacity (candlesticks)
+ *     40     8  committed count (candlesticks)
+ *     48     4  flags (bit 0: stale)
+ *     52     4  reserved
+ *     56     8  fingerprint of the committed candlesticks
+ *     64        datetime_id column (capacity longs), then open, high, low, close and volume
+ *               columns (capacity doubles each)
+ * </pre>
+ * Appends write the column values first and publish them by updating the committed count, so a
+ * reader never sees a partially written candlestick. Files are mapped read-only with
+ * {@link FileChannel#map}, which lets every JVM on the host share the same page cache.
+ * Only one JVM should run the sync job against a store directory.
+ * <p>
+ * A file never holds the last candlestick of its series: the last bucket of a resampled time frame
+ * is still open and updated by every new m1 candlestick, so it is read from the database instead.
+ * <p>
+ * A change to candlesticks a file already holds sets its stale flag on disk, so a restart before
+ * the next sync does not serve it again. Changes committed while no JVM was listening are caught
+ * by the first sync of a file after startup, which checks its count and fingerprint against the
+ * database, see {@link CandlestickFactJdbcRepository#fingerprint}. A file is only served once it
+ * has been checked; a stale file is not served and is rebuilt by the next sync.
+ */
+@Slf4j
+@Component
+public class CandlestickFileStore {
+
+    static final int MAGIC = 0x545A4353;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int COLUMNS = 6;
+
+    private static final int CAPACITY_OFFSET = 32;
+    private static final int COUNT_OFFSET = 40;
+    private static final int FLAGS_OFFSET = 48;
+    private static final int FINGERPRINT_OFFSET = 56;
+    private static final int STALE_FLAG = 1;
+    private static final long INITIAL_CAPACITY = 1 << 16;
+    private static final int SYNC_CHUNK_SIZE = 1 << 16;
+    private static final long MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_BYTES) / (COLUMNS * Long.BYTES);
+
+    private final CandlestickFactJdbcRepository candlestickFactJdbcRepository;
+    private final DataFeedFactRepository dataFeedFactRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final boolean serveReads;
+    private final Path directory;
+    private final List<TradeTimeFrameType> syncedTimeFrames;
+
+    private final Map<CandlestickSeriesKey, MappedCandlestickSeries> mapped = new ConcurrentHashMap<>();
+    private final Map<CandlestickSeriesKey, Object> locks = new ConcurrentHashMap<>();
+    private final Set<CandlestickSeriesKey> stale = ConcurrentHashMap.newKeySet();
+    private final Set<CandlestickSeriesKey> verified = ConcurrentHashMap.newKeySet();
+
+    public CandlestickFileStore(CandlestickFactJdbcRepository candlestickFactJdbcRepository,
+                                DataFeedFactRepository dataFeedFactRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${tradezero.candlestick.store.enabled:false}") boolean enabled,
+                                @Value("${tradezero.candlestick.store.serve-reads:true}") boolean serveReads,
+                                @Value("${tradezero.candlestick.store.directory:data/candlesticks}") String directory,
+                                @Value("${tradezero.candlestick.store.time-frames:m1,m5,m15,m30,H1,H4,D1,W1}")
+                                List<TradeTimeFrameType> syncedTimeFrames) {
+        this.candlestickFactJdbcRepository = candlestickFactJdbcRepository;
+        this.dataFeedFactRepository = dataFeedFactRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.serveReads = serveReads;
+        this.directory = Paths.get(directory);
+        this.syncedTimeFrames = syncedTimeFrames;
+    }
+
+    /**
+     * Get the mapped file of a series when reads may be served from the store.
+     * Series whose file is missing, not yet checked by a sync or out of date with the database are
+     * not returned.
+     *
+     * @param key the series key
+     * @return the mapped series, if available
+     */
+    public Optional<MappedCandlestickSeries> find(CandlestickSeriesKey key) {
+        if (!enabled || !serveReads || stale.contains(key) || !verified.contains(key)) {
+            return Optional.empty();
+        }
+        MappedCandlestickSeries series = mapped.get(key);
+        if (series != null) {
+            return Optional.of(series);
+        }
+        synchronized (lockOf(key)) {
+            Path file = fileOf(key);
+            if (stale.contains(key) || !verified.contains(key) || !Files.exists(file)) {
+                return Optional.empty();
+            }
+            series = map(key, file);
+            mapped.put(key, series);
+            return Optional.of(series);
+        }
+    }
+
+    /**
+     * Extend the files of every data feed, trade asset and synced time frame with the candlesticks
+     * added to the database since the last sync. Files made stale by updates are rebuilt. The first
+     * run after startup checks every file against the database before it is served.
+     */
+    @Scheduled(fixedDelayString = "${tradezero.candlestick.store.sync-interval-ms:60000}",
+               initialDelayString = "${tradezero.candlestick.store.initial-delay-ms:1000}")
+    public void syncAll() {
+        if (!enabled) {
+            return;
+        }
+        for (DataFeedFact dataFeed : dataFeedFactRepository.findAll()) {
+            for (TradeAssetType tradeAsset : TradeAssetType.values()) {
+                for (TradeTimeFrameType tradeTimeFrame : syncedTimeFrames) {
+                    CandlestickSeriesKey key = new CandlestickSeriesKey(
+                            dataFeed.getDataFeedUuid(), tradeAsset, tradeTimeFrame);
+                    try {
+                        sync(key);
+                    } catch (RuntimeException e) {
+                        log.warn("Could not sync candlestick file of {}: {}", key, e.getMessage(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Extend the file of a series with the candlesticks after its last datetime ID, except the last
+     * candlestick of the series.
+     *
+     * @param key the series key
+     * @return the number of candlesticks appended
+     */
+    public long sync(CandlestickSeriesKey key) {
+        synchronized (lockOf(key)) {
+            Path file = fileOf(key);
+            try {
+                if (stale.contains(key) || Files.exists(file) && !isCurrent(key, file)) {
+                    stale.remove(key);
+                    mapped.remove(key);
+                    Files.deleteIfExists(file);
+                }
+                long after = Files.exists(file) ? map(key, file).lastDatetimeId() : Long.MIN_VALUE;
+
+                // Append in chunks so that the first sync of a long series runs in constant memory.
+                // Every row is held back until the next one arrives, so the last candlestick is never appended.
+                CandlestickSeries.Builder[] chunk = {new CandlestickSeries.Builder(key)};
+                long[] appended = {0};
+                long[] heldDatetimeId = {Long.MIN_VALUE};
+                double[] held = new double[5];
+                readOnlyTransaction.executeWithoutResult(status -> candlestickFactJdbcRepository.streamSeries(
+                        key.getDataFeedUuid(), key.getTradeAsset(), key.getTradeTimeFrame(),
+                        after == Long.MIN_VALUE ? Long.MIN_VALUE : after + 1, Long.MAX_VALUE,
+                        (datetimeId, open, high, low, close, volume) -> {
+                            if (heldDatetimeId[0] != Long.MIN_VALUE) {
+                                chunk[0].add(heldDatetimeId[0], held[0], held[1], held[2], held[3], held[4]);
+                                if (chunk[0].size() == SYNC_CHUNK_SIZE) {
+                                    append(key, file, chunk[0].build());
+                                    appended[0] += SYNC_CHUNK_SIZE;
+                                    chunk[0] = new CandlestickSeries.Builder(key);
+                                }
+                            }
+                            heldDatetimeId[0] = datetimeId;
+                            held[0] = open;
+                            held[1] = high;
+                            held[2] = low;
+                            held[3] = close;
+                            held[4] = volume;
+                        }));
+                if (chunk[0].size() > 0) {
+                    append(key, file, chunk[0].build());
+                    appended[0] += chunk[0].size();
+                }
+                if (appended[0] > 0) {
+                    mapped.put(key, map(key, file));
+                }
+                // Every candlestick of the file was just read from the database or checked against it
+                verified.add(key);
+                return appended[0];
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Mark series files out of date when committed changes touch candlesticks already covered by the file.
+     * Appends after the last datetime ID are picked up by the next sync instead.
+     *
+     * @param event the candlestick change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCandlestickFactChanged(CandlestickFactChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        CandlestickSeriesKey key = new CandlestickSeriesKey(event.getDataFeedUuid(), event.getTradeAsset(),
+                event.getTradeTimeFrame());
+        synchronized (lockOf(key)) {
+            Path file = fileOf(key);
+            MappedCandlestickSeries series = mapped.get(key);
+            if (series == null && Files.exists(file)) {
+                series = map(key, file);
+            }
+            if (series != null && event.getFromDatetimeId() <= series.lastDatetimeId()) {
+                markStale(key, file);
+            }
+        }
+    }
+
+    /**
+     * Check that a file still holds the candlesticks of the database: its stale flag is clear and,
+     * the first time it is synced by this JVM, its count and fingerprint match the database.
+     * Called by the sync with the lock of the series held.
+     */
+    private boolean isCurrent(CandlestickSeriesKey key, Path file) {
+        if (stale.contains(key)) {
+            return false;
+        }
+        ByteBuffer header = readHeader(file);
+        if ((header.getInt(FLAGS_OFFSET) & STALE_FLAG) != 0) {
+            stale.add(key);
+            return false;
+        }
+        if (verified.contains(key)) {
+            return true;
+        }
+        MappedCandlestickSeries series = map(key, file);
+        CandlestickFactJdbcRepository.SeriesFingerprint fingerprint = candlestickFactJdbcRepository.fingerprint(
+                key.getDataFeedUuid(), key.getTradeAsset(), key.getTradeTimeFrame(), series.lastDatetimeId());
+        if (fingerprint.getCount() != series.size() || fingerprint.getValue() != header.getLong(FINGERPRINT_OFFSET)) {
+            log.info("Candlestick file of {} no longer matches the database and will be rebuilt", key);
+            markStale(key, file);
+            return false;
+        }
+        verified.add(key);
+        return true;
+    }
+
+    /**
+     * Stop serving a file and set its stale flag on disk. Called with the lock of the series held.
+     */
+    private void markStale(CandlestickSeriesKey key, Path file) {
+        stale.add(key);
+        mapped.remove(key);
+        verified.remove(key);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer flags = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            flags.putInt(0, STALE_FLAG);
+            channel.write(flags, FLAGS_OFFSET);
+            channel.force(false);
+        } catch (IOException e) {
+            log.warn("Could not flag candlestick file of {} as stale: {}", key, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Add a candlestick to the fingerprint of a series.
+     * {@link CandlestickFactJdbcRepository#fingerprint} computes the same sum in the database.
+     *
+     * @param fingerprint the fingerprint of the previous candlesticks
+     * @return the fingerprint including the candlestick
+     */
+    static long fingerprint(long fingerprint, long datetimeId, double open, double high, double low, double close,
+                            double volume) {
+        return fingerprint + (2 * datetimeId + 1) * (Double.doubleToRawLongBits(open)
+                + 3 * Double.doubleToRawLongBits(high) + 5 * Double.doubleToRawLongBits(low)
+                + 7 * Double.doubleToRawLongBits(close) + 11 * Double.doubleToRawLongBits(volume));
+    }
+
+    private void append(CandlestickSeriesKey key, Path file, CandlestickSeries candlesticks) throws IOException {
+        Files.createDirectories(file.getParent());
+        long count = 0;
+        long capacity = 0;
+        long fingerprint = 0;
+        if (Files.exists(file)) {
+            ByteBuffer header = readHeader(file);
+            capacity = header.getLong(CAPACITY_OFFSET);
+            count = header.getLong(COUNT_OFFSET);
+            fingerprint = header.getLong(FINGERPRINT_OFFSET);
+        }
+
+        long required = count + candlesticks.size();
+        if (required > MAX_CAPACITY) {
+            throw new IllegalStateException("Candlestick file of " + key + " would exceed " + MAX_CAPACITY + " candlesticks");
+        }
+        if (required > capacity) {
+            long newCapacity = Math.min(MAX_CAPACITY, Math.max(INITIAL_CAPACITY, Math.max(required, capacity * 2)));
+            resize(key, file, count, fingerprint, capacity, newCapacity);
+            capacity = newCapacity;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < candlesticks.size(); i++) {
+                int index = (int) count + i;
+                buffer.putLong(columnOffset(0, capacity) + index * Long.BYTES, candlesticks.datetimeId(i));
+                buffer.putDouble(columnOffset(1, capacity) + index * Double.BYTES, candlesticks.open(i));
+                buffer.putDouble(columnOffset(2, capacity) + index * Double.BYTES, candlesticks.high(i));
+                buffer.putDouble(columnOffset(3, capacity) + index * Double.BYTES, candlesticks.low(i));
+                buffer.putDouble(columnOffset(4, capacity) + index * Double.BYTES, candlesticks.close(i));
+                buffer.putDouble(columnOffset(5, capacity) + index * Double.BYTES, candlesticks.volume(i));
+                fingerprint = fingerprint(fingerprint, candlesticks.datetimeId(i), candlesticks.open(i),
+                        candlesticks.high(i), candlesticks.low(i), candlesticks.close(i), candlesticks.volume(i));
+            }
+            // Column values must be durable before the count that publishes them
+            buffer.force();
+            buffer.putLong(FINGERPRINT_OFFSET, fingerprint);
+            buffer.putLong(COUNT_OFFSET, required);
+            buffer.force();
+        }
+    }
+
+    /**
+     * Copy a series file into a new file with a larger capacity and atomically replace it.
+     * Readers holding the old mapping keep reading the old file until they remap.
+     */
+    private void resize(CandlestickSeriesKey key, Path file, long count, long fingerprint, long capacity,
+                        long newCapacity) throws IOException {
+        Path resized = file.resolveSibling(file.getFileName() + ".resize");
+        try (FileChannel target = FileChannel.open(resized, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = target.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(newCapacity));
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, key.getDataFeedUuid().getMostSignificantBits());
+            buffer.putLong(16, key.getDataFeedUuid().getLeastSignificantBits());
+            buffer.putInt(24, key.getTradeAsset().ordinal());
+            buffer.putInt(28, key.getTradeTimeFrame().ordinal());
+            buffer.putLong(CAPACITY_OFFSET, newCapacity);
+            buffer.putLong(COUNT_OFFSET, count);
+            buffer.putLong(FINGERPRINT_OFFSET, fingerprint);
+
+            if (count > 0) {
+                try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                    MappedByteBuffer old = source.map(FileChannel.MapMode.READ_ONLY, 0, fileSize(capacity));
+                    for (int column = 0; column < COLUMNS; column++) {
+                        ByteBuffer slice = old.slice(columnOffset(column, capacity), (int) count * Long.BYTES);
+                        buffer.put(columnOffset(column, newCapacity), slice, 0, slice.remaining());
+                    }
+                }
+            }
+            buffer.force();
+        }
+        Files.move(resized, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static ByteBuffer readHeader(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            return header;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedCandlestickSeries map(CandlestickSeriesKey key, Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("Not a candlestick file: " + file);
+            }
+            long capacity = buffer.getLong(CAPACITY_OFFSET);
+            int count = (int) buffer.getLong(COUNT_OFFSET);
+            return new MappedCandlestickSeries(key, buffer, count, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path fileOf(CandlestickSeriesKey key) {
+        return directory.resolve(key.getDataFeedUuid().toString())
+                .resolve(key.getTradeAsset().name().replace("$", "") + "_" + key.getTradeTimeFrame().name() + ".tzc");
+    }
+
+    private Object lockOf(CandlestickSeriesKey key) {
+        return locks.computeIfAbsent(key, k -> new Object());
+    }
+
+    private static long fileSize(long capacity) {
+        return HEADER_BYTES + COLUMNS * capacity * Long.BYTES;
+    }
+
+    static int columnOffset(int column, long capacity) {
+        return (int) (HEADER_BYTES + column * capacity * Long.BYTES);
+    }
+}
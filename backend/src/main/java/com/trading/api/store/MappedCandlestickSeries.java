@@ -0,0 +1,102 @@
+package com.trading.api.store;
+
+import com.trading.api.cache.CandlestickSeriesKey;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only view of a candlestick series file mapped into memory.
+ * Values are read straight from the mapped pages; nothing is deserialized or copied.
+ * The view is a snapshot of the candlesticks committed when it was opened.
+ *
+ * @see CandlestickFileStore for the file layout
+ */
+public final class MappedCandlestickSeries {
+
+    private final CandlestickSeriesKey key;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final long capacity;
+
+    MappedCandlestickSeries(CandlestickSeriesKey key, ByteBuffer buffer, int size, long capacity) {
+        this.key = key;
+        this.buffer = buffer;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    public CandlestickSeriesKey getKey() {
+        return key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long datetimeId(int index) {
+        return buffer.getLong(CandlestickFileStore.columnOffset(0, capacity) + index * Long.BYTES);
+    }
+
+    public double open(int index) {
+        return value(1, index);
+    }
+
+    public double high(int index) {
+        return value(2, index);
+    }
+
+    public double low(int index) {
+        return value(3, index);
+    }
+
+    public double close(int index) {
+        return value(4, index);
+    }
+
+    public double volume(int index) {
+        return value(5, index);
+    }
+
+    /**
+     * Get the last datetime ID of the series.
+     *
+     * @return the last datetime ID, or Long.MIN_VALUE if the series is empty
+     */
+    public long lastDatetimeId() {
+        return size == 0 ? Long.MIN_VALUE : datetimeId(size - 1);
+    }
+
+    /**
+     * Get the index of the first candlestick at or after a datetime ID.
+     *
+     * @param datetimeId the datetime ID
+     * @return the index, or {@link #size()} if every candlestick is before the datetime ID
+     */
+    public int lowerBound(long datetimeId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (datetimeId(mid) < datetimeId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the index following the last candlestick at or before a datetime ID.
+     *
+     * @param datetimeId the datetime ID
+     * @return the exclusive end index
+     */
+    public int upperBound(long datetimeId) {
+        return datetimeId == Long.MAX_VALUE ? size : lowerBound(datetimeId + 1);
+    }
+
+    private double value(int column, int index) {
+        return buffer.getDouble(CandlestickFileStore.columnOffset(column, capacity) + index * Double.BYTES);
+    }
+}
@@ -0,0 +1,438 @@
+package com.trading.api.stream;
+
+import com.trading.api.cache.CandlestickSeriesKey;
+import com.trading.api.dto.CandlestickFactDTO;
+import com.trading.api.event.CandlestickFactChangedEvent;
+import com.trading.api.event.CandlestickFactChangedEvent.ChangeType;
+import com.trading.api.repository.CandlestickFactJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes committed candlestick changes to Server-Sent Events subscribers of a series and keeps
+ * a pointer to the latest bar of every subscribed series.
+ * <p>
+ * Every subscriber has a bounded map of pending bars keyed by datetime ID. A bar changed again
+ * before it was sent replaces the pending value, so a slow consumer receives the last state of
+ * each bar instead of every intermediate update. Once more distinct bars are pending than the
+ * configured limit the oldest ones are dropped; such a consumer can catch up through
+ * {@code /api/candlesticks/series}.
+ * <p>
+ * Sending blocks while the client does not read, so a subscriber whose send has not returned
+ * within the send timeout is dropped from its series and its connection is completed as soon as
+ * the send returns. The dispatcher grows up to its maximum thread count meanwhile, so a few stuck
+ * connections do not delay the others. A series is tracked only while it has subscribers.
+ */
+@Slf4j
+@Component
+public class CandlestickStreamHub {
+
+    /**
+     * SSE event name of a created or updated candlestick.
+     */
+    public static final String CANDLESTICK_EVENT = "candlestick";
+
+    /**
+     * SSE event name of a deleted candlestick.
+     */
+    public static final String DELETED_EVENT = "deleted";
+
+    private final CandlestickFactJdbcRepository candlestickFactJdbcRepository;
+    private final long timeoutMillis;
+    private final int maxPendingBars;
+    private final long sendTimeoutNanos;
+    private final ThreadPoolExecutor dispatcher;
+
+    private final Map<CandlestickSeriesKey, Topic> topics = new ConcurrentHashMap<>();
+
+    public CandlestickStreamHub(CandlestickFactJdbcRepository candlestickFactJdbcRepository,
+                                @Value("${tradezero.candlestick.stream.timeout-ms:3600000}") long timeoutMillis,
+                                @Value("${tradezero.candlestick.stream.max-pending-bars:256}") int maxPendingBars,
+                                @Value("${tradezero.candlestick.stream.dispatch-threads:4}") int dispatchThreads,
+                                @Value("${tradezero.candlestick.stream.max-dispatch-threads:64}") int maxDispatchThreads,
+                                @Value("${tradezero.candlestick.stream.send-timeout-ms:10000}") long sendTimeoutMillis) {
+        this.candlestickFactJdbcRepository = candlestickFactJdbcRepository;
+        this.timeoutMillis = timeoutMillis;
+        this.maxPendingBars = maxPendingBars;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, Math.max(dispatchThreads, maxDispatchThreads),
+                60, TimeUnit.SECONDS, new SynchronousQueue<>());
+    }
+
+    /**
+     * Subscribe to the changes of a series. The latest bar, if any, is sent right away.
+     *
+     * @param key the series key
+     * @return the emitter of the subscription
+     */
+    public SseEmitter subscribe(CandlestickSeriesKey key) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(key, emitter);
+        Topic topic = topics.compute(key, (k, current) -> {
+            Topic subscribed = current != null ? current : new Topic();
+            subscribed.subscribers.add(subscriber);
+            return subscribed;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+        if (!topic.latestLoaded) {
+            loadLatest(key, topic);
+        }
+        CandlestickFactDTO latest = topic.latest.get();
+        if (latest != null) {
+            subscriber.offer(latest.getDatetimeId(), CANDLESTICK_EVENT, latest);
+        }
+        return emitter;
+    }
+
+    /**
+     * Get the latest bar of a series. The bar of a subscribed series is kept up to date by its
+     * changes and read from the database only the first time or after a bulk change; the bar of
+     * another series is read from the database on every call.
+     *
+     * @param key the series key
+     * @return the latest bar, or empty for an empty series
+     */
+    public Optional<CandlestickFactDTO> getLatest(CandlestickSeriesKey key) {
+        Topic topic = topics.get(key);
+        if (topic == null) {
+            AtomicReference<CandlestickFactDTO> latest = new AtomicReference<>();
+            candlestickFactJdbcRepository.findLatest(key.getDataFeedUuid(), key.getTradeAsset(),
+                    key.getTradeTimeFrame(), (datetimeId, open, high, low, close, volume) -> latest.set(
+                            new CandlestickFactDTO(key.getDataFeedUuid(), key.getTradeAsset(),
+                                    key.getTradeTimeFrame(), datetimeId, open, high, low, close, volume)));
+            return Optional.ofNullable(latest.get());
+        }
+        if (!topic.latestLoaded) {
+            loadLatest(key, topic);
+        }
+        return Optional.ofNullable(topic.latest.get());
+    }
+
+    /**
+     * Push a committed candlestick change to the subscribers of its series.
+     *
+     * @param event the candlestick change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCandlestickFactChanged(CandlestickFactChangedEvent event) {
+        CandlestickSeriesKey key = new CandlestickSeriesKey(event.getDataFeedUuid(), event.getTradeAsset(),
+                event.getTradeTimeFrame());
+        Topic topic = topics.get(key);
+        if (topic == null) {
+            return;
+        }
+
+        if (event.getChangeType() == ChangeType.DELETED) {
+            CandlestickFactDTO latest = topic.latest.get();
+            if (latest != null && latest.getDatetimeId() == event.getFromDatetimeId()) {
+                topic.invalidateLatest();
+            }
+            CandlestickFactDTO deleted = new CandlestickFactDTO(event.getDataFeedUuid(), event.getTradeAsset(),
+                    event.getTradeTimeFrame(), event.getFromDatetimeId(), null, null, null, null, null);
+            for (Subscriber subscriber : topic.subscribers) {
+                subscriber.offer(event.getFromDatetimeId(), DELETED_EVENT, deleted);
+            }
+        } else if (event.getCandlestick() != null) {
+            CandlestickFactDTO candlestick = event.getCandlestick();
+            topic.offerLatest(candlestick);
+            for (Subscriber subscriber : topic.subscribers) {
+                subscriber.offer(candlestick.getDatetimeId(), CANDLESTICK_EVENT, candlestick);
+            }
+        } else {
+            // Bulk changes carry no bars, so subscribers get the new latest bar if the change reached it
+            topic.invalidateLatest();
+            if (!topic.subscribers.isEmpty()) {
+                loadLatest(key, topic);
+                CandlestickFactDTO latest = topic.latest.get();
+                if (latest != null && latest.getDatetimeId() >= event.getFromDatetimeId()) {
+                    for (Subscriber subscriber : topic.subscribers) {
+                        subscriber.offer(latest.getDatetimeId(), CANDLESTICK_EVENT, latest);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Send a heartbeat comment to every subscriber so closed connections are detected.
+     */
+    @Scheduled(fixedDelayString = "${tradezero.candlestick.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Topic topic : topics.values()) {
+            for (Subscriber subscriber : topic.subscribers) {
+                subscriber.offerHeartbeat();
+            }
+        }
+    }
+
+    /**
+     * Drop the subscribers whose send has been blocked for longer than the send timeout.
+     */
+    @Scheduled(fixedDelayString = "${tradezero.candlestick.stream.laggard-check-ms:1000}")
+    public void dropLaggards() {
+        long now = System.nanoTime();
+        for (Topic topic : topics.values()) {
+            for (Subscriber subscriber : topic.subscribers) {
+                long sendingSince = subscriber.sendingSince;
+                if (sendingSince != 0 && now - sendingSince > sendTimeoutNanos) {
+                    log.debug("Dropping candlestick stream subscriber blocked for {} ms",
+                            TimeUnit.NANOSECONDS.toMillis(now - sendingSince));
+                    subscriber.abandon();
+                }
+            }
+        }
+    }
+
+    public int getTopicCount() {
+        return topics.size();
+    }
+
+    public int getSubscriberCount() {
+        return topics.values().stream().mapToInt(topic -> topic.subscribers.size()).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        for (Topic topic : topics.values()) {
+            for (Subscriber subscriber : topic.subscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * Remove a subscriber from its series, and the series once it has no subscribers left.
+     */
+    private void unsubscribe(Subscriber subscriber) {
+        topics.computeIfPresent(subscriber.key, (k, topic) -> {
+            topic.subscribers.remove(subscriber);
+            return topic.subscribers.isEmpty() ? null : topic;
+        });
+    }
+
+    private void loadLatest(CandlestickSeriesKey key, Topic topic) {
+        candlestickFactJdbcRepository.findLatest(key.getDataFeedUuid(), key.getTradeAsset(), key.getTradeTimeFrame(),
+                (datetimeId, open, high, low, close, volume) -> topic.offerLatest(new CandlestickFactDTO(
+                        key.getDataFeedUuid(), key.getTradeAsset(), key.getTradeTimeFrame(),
+                        datetimeId, open, high, low, close, volume)));
+        topic.latestLoaded = true;
+    }
+
+    /**
+     * Latest bar and subscribers of one series.
+     */
+    private static final class Topic {
+
+        private final AtomicReference<CandlestickFactDTO> latest = new AtomicReference<>();
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private volatile boolean latestLoaded;
+
+        void offerLatest(CandlestickFactDTO candlestick) {
+            latest.accumulateAndGet(candlestick, (current, offered) ->
+                    current == null || offered.getDatetimeId() >= current.getDatetimeId() ? offered : current);
+        }
+
+        void invalidateLatest() {
+            latestLoaded = false;
+            latest.set(null);
+        }
+    }
+
+    /**
+     * Pending SSE event of one bar.
+     */
+    private static final class Pending {
+
+        private final String name;
+        private final CandlestickFactDTO candlestick;
+
+        Pending(String name, CandlestickFactDTO candlestick) {
+            this.name = name;
+            this.candlestick = candlestick;
+        }
+    }
+
+    /**
+     * One SSE connection with its coalescing buffer. At most one dispatcher task drains a
+     * subscriber at a time, so events of a connection are sent in order.
+     */
+    private final class Subscriber {
+
+        private final CandlestickSeriesKey key;
+        private final SseEmitter emitter;
+        private final LinkedHashMap<Long, Pending> pending = new LinkedHashMap<>();
+        private volatile long sendingSince;
+        private boolean heartbeatDue;
+        private boolean scheduled;
+        private boolean closed;
+        private boolean abandoned;
+
+        Subscriber(CandlestickSeriesKey key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+
+        void offer(long datetimeId, String name, CandlestickFactDTO candlestick) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                pending.put(datetimeId, new Pending(name, candlestick));
+                if (pending.size() > maxPendingBars) {
+                    Iterator<Long> eldest = pending.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+                if (!schedule()) {
+                    return;
+                }
+            }
+            dispatch();
+        }
+
+        void offerHeartbeat() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                heartbeatDue = true;
+                if (!schedule()) {
+                    return;
+                }
+            }
+            dispatch();
+        }
+
+        /**
+         * Mark the subscriber scheduled; must hold the monitor.
+         *
+         * @return true if the caller must submit the drain task
+         */
+        private boolean schedule() {
+            if (scheduled) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        private void dispatch() {
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                if (dispatcher.isShutdown()) {
+                    close(null);
+                } else {
+                    // Every dispatcher thread is busy; the pending bars are sent on the next offer
+                    synchronized (this) {
+                        scheduled = false;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Drop a lagging subscriber from its series without waiting for its blocked send. The
+         * connection is completed by the drain task once the send returns.
+         */
+        void abandon() {
+            boolean draining;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                abandoned = true;
+                pending.clear();
+                draining = scheduled;
+            }
+            unsubscribe(this);
+            if (!draining) {
+                emitter.complete();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<Map.Entry<Long, Pending>> batch;
+                boolean heartbeat;
+                boolean abandoned;
+                synchronized (this) {
+                    abandoned = this.abandoned;
+                    if (closed || (pending.isEmpty() && !heartbeatDue)) {
+                        scheduled = false;
+                        batch = null;
+                        heartbeat = false;
+                    } else {
+                        batch = new ArrayList<>(pending.entrySet());
+                        pending.clear();
+                        heartbeat = heartbeatDue;
+                        heartbeatDue = false;
+                    }
+                }
+                if (batch == null) {
+                    if (abandoned) {
+                        emitter.complete();
+                    }
+                    return;
+                }
+                sendingSince = System.nanoTime();
+                try {
+                    for (Map.Entry<Long, Pending> entry : batch) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(entry.getKey()))
+                                .name(entry.getValue().name)
+                                .data(entry.getValue().candlestick, MediaType.APPLICATION_JSON));
+                    }
+                    if (heartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Closing candlestick stream subscriber: {}", e.getMessage());
+                    close(e);
+                    return;
+                } finally {
+                    sendingSince = 0;
+                }
+            }
+        }
+
+        private void close(Throwable error) {
+            synchronized (this) {
+                closed = true;
+                scheduled = false;
+                pending.clear();
+            }
+            unsubscribe(this);
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.trading.api.training;
+
+import java.util.Arrays;
+
+/**
+ * Mean and sample standard deviation over a sliding window of the last values, updated in O(1).
+ * <p>
+ * The updates are the ones of the pandas 2.2 rolling kernels ({@code roll_mean} and {@code roll_var}
+ * with Kahan compensation, evicting the oldest value before adding the newest), so the results match
+ * pandas {@code rolling(window, min_periods=1)} with {@code std(ddof=1)} bit for bit, including a
+ * standard deviation of exactly 0 and a mean equal to the value when the whole window holds one
+ * repeated value.
+ */
+public final class RollingStatistics {
+
+    private final double[] window;
+    private int count;
+    private int next;
+
+    // roll_mean state
+    private double sum;
+    private double sumAddCompensation;
+    private double sumRemoveCompensation;
+    private int negativeCount;
+
+    // roll_var state
+    private double mean;
+    private double m2;
+    private double meanAddCompensation;
+    private double meanRemoveCompensation;
+
+    // Trailing run of equal values, shared by both kernels
+    private int sameValues;
+    private double previous = Double.NaN;
+
+    public RollingStatistics(int windowSize) {
+        if (windowSize < 2) {
+            throw new IllegalArgumentException("Window size must be at least 2");
+        }
+        this.window = new double[windowSize];
+    }
+
+    private RollingStatistics(RollingStatistics other) {
+        this.window = Arrays.copyOf(other.window, other.window.length);
+        this.count = other.count;
+        this.next = other.next;
+        this.sum = other.sum;
+        this.sumAddCompensation = other.sumAddCompensation;
+        this.sumRemoveCompensation = other.sumRemoveCompensation;
+        this.negativeCount = other.negativeCount;
+        this.mean = other.mean;
+        this.m2 = other.m2;
+        this.meanAddCompensation = other.meanAddCompensation;
+        this.meanRemoveCompensation = other.meanRemoveCompensation;
+        this.sameValues = other.sameValues;
+        this.previous = other.previous;
+    }
+
+    /**
+     * Copy the statistics, so a series can be extended from a snapshot of its window.
+     *
+     * @return an independent copy
+     */
+    public RollingStatistics copy() {
+        return new RollingStatistics(this);
+    }
+
+    /**
+     * Add a value, evicting the oldest value once the window is full.
+     *
+     * @param value the value
+     */
+    public void add(double value) {
+        if (count == window.length) {
+            remove(window[next]);
+        }
+        count++;
+
+        double y = value - sumAddCompensation;
+        double t = sum + y;
+        sumAddCompensation = t - sum - y;
+        sum = t;
+        if (Double.doubleToRawLongBits(value) < 0) {
+            negativeCount++;
+        }
+
+        sameValues = value == previous ? sameValues + 1 : 1;
+        previous = value;
+
+        double previousMean = mean - meanAddCompensation;
+        y = value - meanAddCompensation;
+        t = y - mean;
+        meanAddCompensation = t + mean - y;
+        mean += t / count;
+        m2 += (value - previousMean) * (value - mean);
+
+        window[next] = value;
+        next = (next + 1) % window.length;
+    }
+
+    private void remove(double value) {
+        count--;
+
+        double y = -value - sumRemoveCompensation;
+        double t = sum + y;
+        sumRemoveCompensation = t - sum - y;
+        sum = t;
+        if (Double.doubleToRawLongBits(value) < 0) {
+            negativeCount--;
+        }
+
+        if (count > 0) {
+            double previousMean = mean - meanRemoveCompensation;
+            y = value - meanRemoveCompensation;
+            t = y - mean;
+            meanRemoveCompensation = t + mean - y;
+            mean -= t / count;
+            m2 -= (value - previousMean) * (value - mean);
+        } else {
+            mean = 0;
+            m2 = 0;
+        }
+    }
+
+    /**
+     * Get the mean of the window.
+     *
+     * @return the mean, or NaN for an empty window
+     */
+    public double mean() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (sameValues >= count) {
+            return previous;
+        }
+        double result = sum / count;
+        if (negativeCount == 0 && result < 0) {
+            return 0;
+        }
+        if (negativeCount == count && result > 0) {
+            return 0;
+        }
+        return result;
+    }
+
+    /**
+     * Get the sample standard deviation of the window.
+     *
+     * @return the standard deviation, or NaN with fewer than two values
+     */
+    public double std() {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double variance = sameValues >= count ? 0 : m2 / (count - 1);
+        return variance < 0 ? 0 : Math.sqrt(variance);
+    }
+
+    /**
+     * Get the z-score of a value against the window as pandas computes it, so it is NaN when the
+     * standard deviation is undefined or when the value equals the mean of a flat window.
+     *
+     * @param value the value
+     * @return the z-score
+     */
+    public double zScore(double value) {
+        return (value - mean()) / std();
+    }
+}
@@ -0,0 +1,204 @@
+package com.trading.api.training;
+
+import com.trading.api.cache.CandlestickSeries;
+import com.trading.api.cache.CandlestickSeriesCache;
+import com.trading.api.cache.CandlestickSeriesKey;
+import com.trading.api.calendar.TradingSessionCalendar;
+import com.trading.api.event.CandlestickFactChangedEvent;
+import com.trading.api.quality.CandlestickQualityScanner;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the training features of candlestick series.
+ * <p>
+ * Features are computed from the series cache outside the cache lock and belong to the generation
+ * of the series they were computed from. When the series of the same generation has grown, only the
+ * appended bars are computed; a series of another generation is computed from the start. The window
+ * start indexes built from features are kept in the same entry and count against the same memory
+ * budget. Entries are evicted in least recently used order once they exceed the budget.
+ */
+@Component
+public class TrainingFeatureCache {
+
+    private final CandlestickSeriesCache candlestickSeriesCache;
+    private final TradingSessionCalendar tradingSessionCalendar;
+    private final int normalizationWindow;
+    private final long maxBytes;
+
+    private final LinkedHashMap<CandlestickSeriesKey, Entry> features = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    public TrainingFeatureCache(CandlestickSeriesCache candlestickSeriesCache,
+                                TradingSessionCalendar tradingSessionCalendar,
+                                @Value("${tradezero.training.normalization-window:12}") int normalizationWindow,
+                                @Value("${tradezero.training.feature-cache.max-bytes:268435456}") long maxBytes) {
+        this.candlestickSeriesCache = candlestickSeriesCache;
+        this.tradingSessionCalendar = tradingSessionCalendar;
+        this.normalizationWindow = normalizationWindow;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get the features of a series, computing or extending them when the series has changed.
+     *
+     * @param key the series key
+     * @return the features
+     */
+    public TrainingFeatures get(CandlestickSeriesKey key) {
+        CandlestickSeries series = candlestickSeriesCache.get(key);
+        TrainingFeatures cached;
+        synchronized (features) {
+            Entry entry = features.get(key);
+            cached = entry != null ? entry.features : null;
+        }
+        if (cached != null && cached.getGeneration() == series.getGeneration()) {
+            if (cached.size() >= series.size()) {
+                return cached;
+            }
+            TrainingFeatures extended = cached.extend(series);
+            put(key, extended);
+            return extended;
+        }
+        TrainingFeatures computed = TrainingFeatures.of(series, normalizationWindow);
+        put(key, computed);
+        return computed;
+    }
+
+    /**
+     * Get the window start index of the current features of a series, building it on first use.
+     * The index is built outside the cache lock and is dropped together with the features.
+     *
+     * @param key the series key
+     * @param windowLength the number of bars of a window
+     * @param anchorOffset the position of the anchor bar inside a window
+     * @param stratification the stratification
+     * @return the index
+     */
+    public WindowStartIndex getIndex(CandlestickSeriesKey key, int windowLength, int anchorOffset,
+                                     WindowStartIndex.Stratification stratification) {
+        TrainingFeatures current = get(key);
+        IndexKey indexKey = new IndexKey(windowLength, anchorOffset, stratification);
+        synchronized (features) {
+            Entry entry = features.get(key);
+            WindowStartIndex index = entry != null && entry.features == current ? entry.indexes.get(indexKey) : null;
+            if (index != null) {
+                return index;
+            }
+        }
+        WindowStartIndex index = WindowStartIndex.of(current, windowLength, anchorOffset, stratification,
+                CandlestickQualityScanner.stepMinutes(key.getTradeTimeFrame()), tradingSessionCalendar);
+        synchronized (features) {
+            Entry entry = features.get(key);
+            if (entry != null && entry.features == current && !entry.indexes.containsKey(indexKey)) {
+                entry.indexes.put(indexKey, index);
+                long bytes = index.estimatedBytes();
+                entry.accountedBytes += bytes;
+                cachedBytes += bytes;
+                evict(key);
+            }
+        }
+        return index;
+    }
+
+    public long getCachedBytes() {
+        synchronized (features) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * Drop the features of a series a committed write lands in to release their memory early;
+     * features of a superseded generation would be recomputed on their next use anyway.
+     *
+     * @param event the candlestick change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCandlestickFactChanged(CandlestickFactChangedEvent event) {
+        CandlestickSeriesKey key = new CandlestickSeriesKey(event.getDataFeedUuid(), event.getTradeAsset(),
+                event.getTradeTimeFrame());
+        synchronized (features) {
+            Entry entry = features.get(key);
+            if (entry != null && entry.features.size() > 0
+                    && entry.features.datetimeId(entry.features.size() - 1) >= event.getFromDatetimeId()) {
+                features.remove(key);
+                cachedBytes -= entry.accountedBytes;
+            }
+        }
+    }
+
+    /**
+     * Cache features unless newer ones of the series are cached already, then evict the least
+     * recently used entries while the budget is exceeded. The indexes of replaced features are dropped.
+     */
+    private void put(CandlestickSeriesKey key, TrainingFeatures computed) {
+        long bytes = computed.estimatedBytes();
+        if (bytes > maxBytes) {
+            return;
+        }
+        synchronized (features) {
+            Entry previous = features.get(key);
+            if (previous != null && (previous.features.getGeneration() > computed.getGeneration()
+                    || previous.features.getGeneration() == computed.getGeneration()
+                    && previous.features.size() >= computed.size())) {
+                return;
+            }
+            features.put(key, new Entry(computed, bytes));
+            if (previous != null) {
+                cachedBytes -= previous.accountedBytes;
+            }
+            cachedBytes += bytes;
+            evict(key);
+        }
+    }
+
+    /**
+     * Evict the least recently used entries other than the given one while the budget is exceeded.
+     * Must be called holding the cache lock.
+     */
+    private void evict(CandlestickSeriesKey key) {
+        Iterator<Map.Entry<CandlestickSeriesKey, Entry>> eldest = features.entrySet().iterator();
+        while (cachedBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<CandlestickSeriesKey, Entry> entry = eldest.next();
+            if (entry.getKey().equals(key)) {
+                continue;
+            }
+            cachedBytes -= entry.getValue().accountedBytes;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Features of a series with the window start indexes built from them.
+     */
+    private static final class Entry {
+
+        private final TrainingFeatures features;
+
+        private final Map<IndexKey, WindowStartIndex> indexes = new HashMap<>();
+
+        private long accountedBytes;
+
+        private Entry(TrainingFeatures features, long accountedBytes) {
+            this.features = features;
+            this.accountedBytes = accountedBytes;
+        }
+    }
+
+    @Data
+    private static final class IndexKey {
+
+        private final int windowLength;
+
+        private final int anchorOffset;
+
+        private final WindowStartIndex.Stratification stratification;
+    }
+}
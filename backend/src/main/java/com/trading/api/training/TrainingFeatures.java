@@ -0,0 +1,238 @@
+package com.trading.api.training;
+
+import com.trading.api.cache.CandlestickSeries;
+import com.trading.api.cache.CandlestickSeriesKey;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Normalized model features of a candlestick series, one float32 row per candlestick.
+ * <p>
+ * The columns are the ones built by {@code training/get_candlestick.py}: DAY-SIN and DAY-COS of
+ * the timestamp, then OPEN, HIGH, LOW, CLOSE and VOL as z-scores against the rolling mean and
+ * sample standard deviation of the last bars. Undefined z-scores (first bar of the series, flat
+ * windows) are filled the way the script fills them: 0 for VOL, the next defined value of the
+ * column for the prices. Prices at the end of the series with no defined value after them stay
+ * NaN; {@link #definedSize()} counts the rows before them.
+ * <p>
+ * Features are extended with the bars appended to their series without recomputing the rows
+ * already built. An extension shares the row arrays of the features it extends, which keep their
+ * size; only their rows at and after {@link #definedSize()} may be filled in by the extension.
+ */
+public final class TrainingFeatures {
+
+    /**
+     * Names of the feature columns in row order.
+     */
+    public static final String[] FEATURE_NAMES = {"DAY-SIN", "DAY-COS", "OPEN", "HIGH", "LOW", "CLOSE", "VOL"};
+
+    public static final int FEATURE_COUNT = FEATURE_NAMES.length;
+
+    private static final int FIRST_PRICE = 2;
+    private static final int PRICE_COUNT = 4;
+    private static final int VOLUME = 6;
+    private static final double SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final CandlestickSeriesKey key;
+    private final long generation;
+    private final long[] datetimeIds;
+    private final float[] values;
+    private final int size;
+    private final int definedSize;
+    private final int[] undefinedFrom;
+    private final RollingStatistics[] statistics;
+    private final AtomicBoolean extended = new AtomicBoolean();
+
+    private TrainingFeatures(CandlestickSeriesKey key, long generation, long[] datetimeIds, float[] values,
+                             int size, int[] undefinedFrom, RollingStatistics[] statistics) {
+        this.key = key;
+        this.generation = generation;
+        this.datetimeIds = datetimeIds;
+        this.values = values;
+        this.size = size;
+        this.undefinedFrom = undefinedFrom;
+        this.statistics = statistics;
+        this.definedSize = Arrays.stream(undefinedFrom).min().orElse(size);
+    }
+
+    /**
+     * Compute the features of a series in one pass.
+     *
+     * @param series the candlestick series
+     * @param normalizationWindow the number of bars of the rolling z-score window
+     * @return the features
+     */
+    public static TrainingFeatures of(CandlestickSeries series, int normalizationWindow) {
+        int size = series.size();
+        RollingStatistics[] statistics = new RollingStatistics[PRICE_COUNT + 1];
+        for (int i = 0; i < statistics.length; i++) {
+            statistics[i] = new RollingStatistics(normalizationWindow);
+        }
+        return append(series, series.getGeneration(), new long[size], new float[size * FEATURE_COUNT], 0,
+                new int[PRICE_COUNT], statistics);
+    }
+
+    /**
+     * Extend the features with the bars appended to their series since they were computed.
+     *
+     * @param series a later series of the same generation
+     * @return the extended features
+     * @throws IllegalStateException if the series is not of the generation of the features
+     */
+    public TrainingFeatures extend(CandlestickSeries series) {
+        if (series.getGeneration() != generation || series.size() < size) {
+            throw new IllegalStateException("Series " + key + " is not an extension of its training features");
+        }
+        if (series.size() == size) {
+            return this;
+        }
+        int target = series.size();
+        long[] extendedDatetimeIds = datetimeIds;
+        float[] extendedValues = values;
+        // The spare capacity after the last row is handed to one extension only
+        if (target > datetimeIds.length || !extended.compareAndSet(false, true)) {
+            int capacity = Math.max(target, size + (size >> 1));
+            extendedDatetimeIds = Arrays.copyOf(datetimeIds, capacity);
+            extendedValues = Arrays.copyOf(values, capacity * FEATURE_COUNT);
+            // Another extension may have filled the undefined rows of the shared arrays already
+            for (int price = 0; price < PRICE_COUNT; price++) {
+                for (int undefined = undefinedFrom[price]; undefined < size; undefined++) {
+                    extendedValues[undefined * FEATURE_COUNT + FIRST_PRICE + price] = Float.NaN;
+                }
+            }
+        }
+        RollingStatistics[] extendedStatistics = new RollingStatistics[statistics.length];
+        for (int i = 0; i < statistics.length; i++) {
+            extendedStatistics[i] = statistics[i].copy();
+        }
+        return append(series, generation, extendedDatetimeIds, extendedValues, size, undefinedFrom.clone(),
+                extendedStatistics);
+    }
+
+    private static TrainingFeatures append(CandlestickSeries series, long generation, long[] datetimeIds,
+                                           float[] values, int from, int[] undefinedFrom,
+                                           RollingStatistics[] statistics) {
+        int size = series.size();
+        double[] z = new double[PRICE_COUNT];
+        for (int i = from; i < size; i++) {
+            long datetimeId = series.datetimeId(i);
+            datetimeIds[i] = datetimeId;
+            // Same expression as the script, which takes the naive datetime as UTC seconds
+            double phase = epochSecond(datetimeId) * (2 * Math.PI / SECONDS_PER_DAY);
+
+            statistics[0].add(series.open(i));
+            statistics[1].add(series.high(i));
+            statistics[2].add(series.low(i));
+            statistics[3].add(series.close(i));
+            statistics[4].add(series.volume(i));
+            z[0] = statistics[0].zScore(series.open(i));
+            z[1] = statistics[1].zScore(series.high(i));
+            z[2] = statistics[2].zScore(series.low(i));
+            z[3] = statistics[3].zScore(series.close(i));
+            double volume = statistics[4].zScore(series.volume(i));
+
+            int row = i * FEATURE_COUNT;
+            values[row] = (float) Math.sin(phase);
+            values[row + 1] = (float) Math.cos(phase);
+            for (int price = 0; price < PRICE_COUNT; price++) {
+                float value = (float) z[price];
+                values[row + FIRST_PRICE + price] = value;
+                if (!Float.isNaN(value)) {
+                    // bfill: the undefined rows before this one take its value
+                    for (int undefined = undefinedFrom[price]; undefined < i; undefined++) {
+                        values[undefined * FEATURE_COUNT + FIRST_PRICE + price] = value;
+                    }
+                    undefinedFrom[price] = i + 1;
+                }
+            }
+            values[row + VOLUME] = Double.isNaN(volume) ? 0 : (float) volume;
+        }
+        return new TrainingFeatures(series.getKey(), generation, datetimeIds, values, size, undefinedFrom,
+                statistics);
+    }
+
+    private static long epochSecond(long datetimeId) {
+        return LocalDateTime.of((int) (datetimeId / 100000000L), (int) (datetimeId / 1000000 % 100),
+                (int) (datetimeId / 10000 % 100), (int) (datetimeId / 100 % 100), (int) (datetimeId % 100))
+                .toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public CandlestickSeriesKey getKey() {
+        return key;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of leading rows whose features are all defined; the remaining rows hold
+     * price z-scores that only a later bar can fill.
+     *
+     * @return the number of defined rows
+     */
+    public int definedSize() {
+        return definedSize;
+    }
+
+    public long datetimeId(int index) {
+        return datetimeIds[index];
+    }
+
+    /**
+     * Get one feature of one row.
+     *
+     * @param row the row index
+     * @param feature the feature column
+     * @return the feature value
+     */
+    public float value(int row, int feature) {
+        return values[row * FEATURE_COUNT + feature];
+    }
+
+    /**
+     * Get the row-major feature array; rows {@code [from, to)} are contiguous. The array may be
+     * longer than {@code size() * FEATURE_COUNT}.
+     *
+     * @return the backing array, which must not be modified
+     */
+    public float[] values() {
+        return values;
+    }
+
+    /**
+     * Get the index of the first row at or after a datetime ID.
+     *
+     * @param datetimeId the datetime ID
+     * @return the row index
+     */
+    public int lowerBound(long datetimeId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (datetimeIds[mid] < datetimeId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the approximate heap size of the features.
+     *
+     * @return the size in bytes
+     */
+    public long estimatedBytes() {
+        return (long) datetimeIds.length * (Long.BYTES + FEATURE_COUNT * Float.BYTES) + 64;
+    }
+}
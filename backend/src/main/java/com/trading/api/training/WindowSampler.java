@@ -0,0 +1,118 @@
+package com.trading.api.training;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Draws training windows with replacement from the window start indexes of several series,
+ * restricted to the windows lying inside a datetime ID range.
+ * <p>
+ * Without stratification every valid window of every series is equally likely. With
+ * stratification a non-empty stratum is drawn first with equal probability, then a window of
+ * that stratum uniformly across the series.
+ */
+public final class WindowSampler {
+
+    private final List<WindowStartIndex> indexes = new ArrayList<>();
+    private final List<Stratum> strata = new ArrayList<>();
+    private long validWindows;
+
+    /**
+     * Create a sampler.
+     *
+     * @param indexes the window start indexes, one per series
+     * @param fromDatetimeId the inclusive lower datetime ID bound, or null for the start of the series
+     * @param toDatetimeId the inclusive upper datetime ID bound, or null for the end of the series
+     * @param stratified whether to draw strata with equal probability
+     */
+    public WindowSampler(List<WindowStartIndex> indexes, Long fromDatetimeId, Long toDatetimeId, boolean stratified) {
+        Map<Integer, Stratum> byKey = new LinkedHashMap<>();
+        for (WindowStartIndex index : indexes) {
+            TrainingFeatures features = index.getFeatures();
+            int first = fromDatetimeId != null ? features.lowerBound(fromDatetimeId) : 0;
+            int end = toDatetimeId != null && toDatetimeId < Long.MAX_VALUE
+                    ? features.lowerBound(toDatetimeId + 1) : features.size();
+            int lastStart = end - index.getWindowLength();
+            int series = this.indexes.size();
+            this.indexes.add(index);
+
+            for (int k = 0; k < index.strataCount(); k++) {
+                int[] starts = index.starts(k);
+                int from = WindowStartIndex.lowerBound(starts, first);
+                int to = WindowStartIndex.lowerBound(starts, lastStart + 1);
+                if (from >= to) {
+                    continue;
+                }
+                Stratum stratum = byKey.computeIfAbsent(stratified ? index.stratum(k) : 0, key -> new Stratum());
+                stratum.add(series, starts, from, to);
+                validWindows += to - from;
+            }
+        }
+        strata.addAll(byKey.values());
+    }
+
+    /**
+     * Get the number of windows the sampler draws from.
+     *
+     * @return the number of valid windows inside the range
+     */
+    public long getValidWindows() {
+        return validWindows;
+    }
+
+    /**
+     * Draw a window.
+     *
+     * @param random the random generator
+     * @param window receives the series index at 0 and the start position at 1
+     * @throws IllegalStateException if there is no valid window
+     */
+    public void next(SplittableRandom random, int[] window) {
+        if (strata.isEmpty()) {
+            throw new IllegalStateException("No valid window to sample");
+        }
+        Stratum stratum = strata.get(random.nextInt(strata.size()));
+        long draw = random.nextLong(stratum.total);
+        int run = Arrays.binarySearch(stratum.cumulative, 0, stratum.runs, draw + 1);
+        run = run >= 0 ? run : -run - 1;
+        long offset = draw - (run > 0 ? stratum.cumulative[run - 1] : 0);
+        window[0] = stratum.series[run];
+        window[1] = stratum.starts[run][stratum.from[run] + (int) offset];
+    }
+
+    public WindowStartIndex getIndex(int series) {
+        return indexes.get(series);
+    }
+
+    /**
+     * Runs of start positions of one stratum, one per series, with their cumulative sizes.
+     */
+    private static final class Stratum {
+
+        private int runs;
+        private int[] series = new int[2];
+        private int[][] starts = new int[2][];
+        private int[] from = new int[2];
+        private long[] cumulative = new long[2];
+        private long total;
+
+        void add(int seriesIndex, int[] runStarts, int runFrom, int runTo) {
+            if (runs == series.length) {
+                series = Arrays.copyOf(series, runs * 2);
+                starts = Arrays.copyOf(starts, runs * 2);
+                from = Arrays.copyOf(from, runs * 2);
+                cumulative = Arrays.copyOf(cumulative, runs * 2);
+            }
+            total += runTo - runFrom;
+            series[runs] = seriesIndex;
+            starts[runs] = runStarts;
+            from[runs] = runFrom;
+            cumulative[runs] = total;
+            runs++;
+        }
+    }
+}
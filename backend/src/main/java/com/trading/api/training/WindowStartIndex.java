@@ -0,0 +1,194 @@
+package com.trading.api.training;
+
+import com.trading.api.calendar.TradingSessionCalendar;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Valid start positions of the training windows of one series, grouped by stratum.
+ * <p>
+ * A window is valid when all its bars have defined features and none of its consecutive bars are separated by a
+ * gap, using the same trading session calendar as the quality scanner: overnight, weekend and holiday jumps are
+ * not gaps. The stratum
+ * of a window is taken from the datetime of its anchor bar (the last look back bar), matching the
+ * datetime ID the window export reports. Start positions are ascending inside every stratum, so
+ * datetime bounds reduce to two binary searches per stratum.
+ */
+public final class WindowStartIndex {
+
+    /**
+     * Grouping of windows sampled with equal probability per group.
+     * Hours and days of the week follow datetime_dim (ISO day of week, Monday is 1).
+     */
+    public enum Stratification {
+        none,
+        hour,
+        day_of_week,
+        hour_day_of_week
+    }
+
+    private final TrainingFeatures features;
+    private final int windowLength;
+    private final int[] strata;
+    private final int[][] starts;
+
+    private WindowStartIndex(TrainingFeatures features, int windowLength, int[] strata, int[][] starts) {
+        this.features = features;
+        this.windowLength = windowLength;
+        this.strata = strata;
+        this.starts = starts;
+    }
+
+    /**
+     * Build the index of a series.
+     *
+     * @param features the training features of the series
+     * @param windowLength the number of bars of a window
+     * @param anchorOffset the position of the anchor bar inside a window
+     * @param stratification the stratification
+     * @param stepMinutes the bucket length of the time frame, 0 for D1 and W1
+     * @param tradingSessionCalendar the trading session calendar
+     * @return the index
+     */
+    public static WindowStartIndex of(TrainingFeatures features, int windowLength, int anchorOffset,
+                                      Stratification stratification, int stepMinutes,
+                                      TradingSessionCalendar tradingSessionCalendar) {
+        int size = features.definedSize();
+        // gaps[i] counts the gaps between bars 0..i, so a window [s, s + length) is valid when
+        // gaps[s + length - 1] == gaps[s]
+        int[] gaps = new int[size];
+        for (int i = 1; i < size; i++) {
+            boolean gap = stepMinutes > 0 && tradingSessionCalendar.countTradingBucketsBetween(
+                    features.datetimeId(i - 1), features.datetimeId(i), stepMinutes) > 0;
+            gaps[i] = gaps[i - 1] + (gap ? 1 : 0);
+        }
+
+        int strataCount = strataCount(stratification);
+        int[] counts = new int[strataCount];
+        int[] stratumOf = new int[Math.max(size - windowLength + 1, 0)];
+        for (int start = 0; start + windowLength <= size; start++) {
+            if (gaps[start + windowLength - 1] != gaps[start]) {
+                stratumOf[start] = -1;
+                continue;
+            }
+            int stratum = stratum(features.datetimeId(start + anchorOffset), stratification);
+            stratumOf[start] = stratum;
+            counts[stratum]++;
+        }
+
+        int nonEmpty = (int) Arrays.stream(counts).filter(count -> count > 0).count();
+        int[] strata = new int[nonEmpty];
+        int[][] starts = new int[nonEmpty][];
+        int[] slot = new int[strataCount];
+        for (int stratum = 0, k = 0; stratum < strataCount; stratum++) {
+            if (counts[stratum] > 0) {
+                strata[k] = stratum;
+                starts[k] = new int[counts[stratum]];
+                slot[stratum] = k++;
+            }
+        }
+        int[] filled = new int[nonEmpty];
+        for (int start = 0; start < stratumOf.length; start++) {
+            if (stratumOf[start] >= 0) {
+                int k = slot[stratumOf[start]];
+                starts[k][filled[k]++] = start;
+            }
+        }
+        return new WindowStartIndex(features, windowLength, strata, starts);
+    }
+
+    public TrainingFeatures getFeatures() {
+        return features;
+    }
+
+    public int getWindowLength() {
+        return windowLength;
+    }
+
+    /**
+     * Get the number of non-empty strata.
+     *
+     * @return the number of strata
+     */
+    public int strataCount() {
+        return strata.length;
+    }
+
+    /**
+     * Get the stratum key of a non-empty stratum, for example the hour or {@code dayOfWeek * 24 + hour}.
+     *
+     * @param index the stratum index
+     * @return the stratum key
+     */
+    public int stratum(int index) {
+        return strata[index];
+    }
+
+    /**
+     * Get the ascending valid start positions of a stratum.
+     *
+     * @param index the stratum index
+     * @return the start positions, not to be modified
+     */
+    public int[] starts(int index) {
+        return starts[index];
+    }
+
+    /**
+     * Estimate the heap bytes of the index, excluding the features it was built from.
+     *
+     * @return the estimated bytes
+     */
+    public long estimatedBytes() {
+        long bytes = 64 + 16 + (long) strata.length * (Integer.BYTES + 8 + 16);
+        for (int[] stratumStarts : starts) {
+            bytes += (long) stratumStarts.length * Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Get the index of the first start position at or after a position.
+     *
+     * @param starts the ascending start positions
+     * @param position the position
+     * @return the index
+     */
+    public static int lowerBound(int[] starts, int position) {
+        int index = Arrays.binarySearch(starts, position);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int strataCount(Stratification stratification) {
+        switch (stratification) {
+            case hour:
+                return 24;
+            case day_of_week:
+                return 8;
+            case hour_day_of_week:
+                return 8 * 24;
+            default:
+                return 1;
+        }
+    }
+
+    private static int stratum(long datetimeId, Stratification stratification) {
+        int hour = (int) (datetimeId / 100 % 100);
+        switch (stratification) {
+            case hour:
+                return hour;
+            case day_of_week:
+                return dayOfWeek(datetimeId);
+            case hour_day_of_week:
+                return dayOfWeek(datetimeId) * 24 + hour;
+            default:
+                return 0;
+        }
+    }
+
+    private static int dayOfWeek(long datetimeId) {
+        return LocalDate.of((int) (datetimeId / 100000000L), (int) (datetimeId / 1000000 % 100),
+                (int) (datetimeId / 10000 % 100)).getDayOfWeek().getValue();
+    }
+}
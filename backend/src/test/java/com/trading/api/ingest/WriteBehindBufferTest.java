@@ -0,0 +1,220 @@
+package com.trading.api.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.trading.api.arrow.FactTable;
+import com.trading.api.bulk.BulkFactWriter;
+import com.trading.api.dto.ActionFactDTO;
+import com.trading.api.dto.BulkInsertReportDTO;
+import com.trading.api.exception.ResourceNotFoundException;
+import com.trading.api.repository.IngestCheckpointJdbcRepository;
+import com.trading.api.repository.IngestDeadLetterJdbcRepository;
+import com.trading.api.service.ActionFactService;
+import com.trading.api.service.BalanceFactService;
+import com.trading.api.service.OrderFactService;
+import com.trading.api.service.PositionFactService;
+import com.trading.api.service.RiskMetricsFactService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WriteBehindBufferTest {
+
+    private static final UUID RISK_MANAGEMENT = UUID.randomUUID();
+    private static final UUID REJECTED = UUID.randomUUID();
+    private static final UUID ACTION_DIM = UUID.randomUUID();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<UUID, Long> checkpoints = new ConcurrentHashMap<>();
+    private final Map<Long, String> deadLetters = new ConcurrentHashMap<>();
+    private final List<ActionFactDTO> inserted = Collections.synchronizedList(new ArrayList<>());
+    private final List<WriteBehindBuffer> buffers = new ArrayList<>();
+    private final AtomicBoolean databaseDown = new AtomicBoolean();
+    private final AtomicInteger insertAttempts = new AtomicInteger();
+
+    private ActionFactService actionFactService;
+
+    @BeforeEach
+    void setUp() {
+        actionFactService = mock(ActionFactService.class);
+        when(actionFactService.createAll(anyList())).thenAnswer(invocation -> {
+            insertAttempts.incrementAndGet();
+            if (databaseDown.get()) {
+                throw new CannotGetJdbcConnectionException("Connection refused");
+            }
+            List<ActionFactDTO> rows = invocation.getArgument(0);
+            for (ActionFactDTO row : rows) {
+                if (REJECTED.equals(row.getRiskManagementUuid())) {
+                    throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+                }
+            }
+            inserted.addAll(rows);
+            return new BulkInsertReportDTO();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (WriteBehindBuffer buffer : buffers) {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    void rejectedRowIsDeadLetteredAndTheRestIsCommitted() {
+        WriteBehindBuffer buffer = buffer(new FactJournal(objectMapper, false, "unused", 1 << 16, false));
+        buffer.start();
+
+        List<ActionFactDTO> rows = new ArrayList<>();
+        for (long i = 0; i < 5; i++) {
+            rows.add(action(i == 2 ? REJECTED : RISK_MANAGEMENT, 202401021230L + i));
+        }
+        buffer.enqueue(FactTable.action_fact, rows);
+
+        await(() -> checkpoints.values().stream().anyMatch(sequence -> sequence == 5));
+        assertEquals(4, inserted.size());
+        assertEquals(Map.of(3L, FactTable.action_fact.name()), deadLetters);
+    }
+
+    @Test
+    void rowWithMissingReferenceIsRejectedOnEnqueue() {
+        doThrow(new ResourceNotFoundException("Risk management fact not found with id: " + REJECTED))
+                .when(actionFactService).requireReferences(anyList());
+        WriteBehindBuffer buffer = buffer(new FactJournal(objectMapper, false, "unused", 1 << 16, false));
+        buffer.start();
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> buffer.enqueue(FactTable.action_fact, List.of(action(REJECTED, 202401021230L))));
+        assertEquals(0, buffer.getDepth());
+    }
+
+    @Test
+    void rowsAcceptedWhileTheDatabaseFailsAreReplayedAfterARestart(@TempDir Path directory)
+            throws InterruptedException, IOException {
+        databaseDown.set(true);
+        FactJournal journal = new FactJournal(objectMapper, true, directory.toString(), 1 << 16, false);
+        WriteBehindBuffer buffer = buffer(journal);
+        buffer.start();
+        List<ActionFactDTO> rows = List.of(action(RISK_MANAGEMENT, 202401021230L),
+                action(RISK_MANAGEMENT, 202401021231L), action(RISK_MANAGEMENT, 202401021232L));
+        buffer.enqueue(FactTable.action_fact, rows);
+
+        await(() -> insertAttempts.get() >= 3);
+        buffer.shutdown();
+        journal.close();
+        assertTrue(inserted.isEmpty());
+        assertTrue(checkpoints.isEmpty());
+        try (var files = Files.list(directory)) {
+            assertTrue(files.anyMatch(file -> file.getFileName().toString().endsWith(".seg")));
+        }
+
+        databaseDown.set(false);
+        WriteBehindBuffer restarted = buffer(new FactJournal(objectMapper, true, directory.toString(), 1 << 16, false));
+        restarted.start();
+
+        await(() -> inserted.size() == rows.size());
+        assertEquals(rows, inserted);
+        assertEquals(List.of(3L), List.copyOf(checkpoints.values()));
+        assertTrue(deadLetters.isEmpty());
+    }
+
+    private WriteBehindBuffer buffer(FactJournal factJournal) {
+        IngestCheckpointJdbcRepository checkpointRepository = new IngestCheckpointJdbcRepository(null, "test") {
+            @Override
+            public long findSequence(UUID journalUuid) {
+                return checkpoints.getOrDefault(journalUuid, 0L);
+            }
+
+            @Override
+            public void saveSequence(UUID journalUuid, long sequence) {
+                checkpoints.merge(journalUuid, sequence, Math::max);
+            }
+
+            @Override
+            public void deleteSequence(UUID journalUuid) {
+                checkpoints.remove(journalUuid);
+            }
+        };
+        IngestDeadLetterJdbcRepository deadLetterRepository = new IngestDeadLetterJdbcRepository(null, "test") {
+            @Override
+            public void save(UUID journalUuid, long sequence, String tableName, String row, String error) {
+                deadLetters.put(sequence, tableName);
+            }
+        };
+        WriteBehindBuffer buffer = new WriteBehindBuffer(actionFactService, mock(BalanceFactService.class),
+                mock(OrderFactService.class), mock(PositionFactService.class), mock(RiskMetricsFactService.class),
+                mock(BulkFactWriter.class), factJournal, new RecentFactOverlay(checkpointRepository),
+                checkpointRepository, deadLetterRepository, objectMapper, new NoOpTransactionManager(),
+                new SimpleMeterRegistry(), true, 1000, 100, 100, 10, 1, 20, 1000);
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    private static ActionFactDTO action(UUID riskManagementUuid, long datetimeId) {
+        return new ActionFactDTO(null, riskManagementUuid, ACTION_DIM, datetimeId);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Transactions of the fakes above, which apply their writes immediately.
+     */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager
+            implements PlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.trading.api.training;
+
+import com.trading.api.cache.CandlestickSeries;
+import com.trading.api.cache.CandlestickSeriesKey;
+import com.trading.api.model.enums.TradeAssetType;
+import com.trading.api.model.enums.TradeTimeFrameType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the features against the ones {@code training/get_candlestick.py} builds from the same bars;
+ * {@code training/make_feature_fixture.py} writes both fixture files.
+ */
+class TrainingFeaturesTest {
+
+    private static final CandlestickSeriesKey KEY =
+            new CandlestickSeriesKey(UUID.randomUUID(), TradeAssetType.WIN$, TradeTimeFrameType.m5);
+    private static final int NORMALIZATION_WINDOW = 12;
+
+    private static List<double[]> bars;
+    private static List<double[]> expected;
+
+    @BeforeAll
+    static void readFixture() throws IOException {
+        bars = new ArrayList<>();
+        for (String[] fields : read("/training/features-input.tsv", "\t")) {
+            String[] date = fields[0].split("\\.");
+            String[] time = fields[1].split(":");
+            double datetimeId = Long.parseLong(date[0] + date[1] + date[2] + time[0] + time[1]);
+            bars.add(new double[]{datetimeId, Double.parseDouble(fields[2]), Double.parseDouble(fields[3]),
+                    Double.parseDouble(fields[4]), Double.parseDouble(fields[5]), Double.parseDouble(fields[7])});
+        }
+        expected = new ArrayList<>();
+        for (String[] fields : read("/training/features-expected.csv", ",")) {
+            double[] row = new double[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                row[i] = fields[i].equals("nan") ? Double.NaN : Double.parseDouble(fields[i]);
+            }
+            expected.add(row);
+        }
+        assertEquals(bars.size(), expected.size());
+    }
+
+    @Test
+    void featuresMatchTheTrainingScript() {
+        TrainingFeatures features = TrainingFeatures.of(series(bars.size()), NORMALIZATION_WINDOW);
+
+        assertEquals(bars.size(), features.size());
+        for (int row = 0; row < features.size(); row++) {
+            for (int feature = 0; feature < TrainingFeatures.FEATURE_COUNT; feature++) {
+                double value = expected.get(row)[feature];
+                float actual = features.value(row, feature);
+                String where = TrainingFeatures.FEATURE_NAMES[feature] + " of row " + row;
+                if (Double.isNaN(value)) {
+                    assertTrue(Float.isNaN(actual), where + " is " + actual);
+                } else {
+                    assertEquals(value, actual, 1e-6 * Math.max(1, Math.abs(value)), where);
+                }
+            }
+        }
+    }
+
+    @Test
+    void definedSizeStopsAtTheFirstPriceOnlyALaterBarCanFill() {
+        TrainingFeatures features = TrainingFeatures.of(series(bars.size()), NORMALIZATION_WINDOW);
+
+        int defined = 0;
+        while (defined < expected.size() && !hasNaN(expected.get(defined))) {
+            defined++;
+        }
+        assertTrue(defined < expected.size());
+        assertEquals(defined, features.definedSize());
+    }
+
+    @Test
+    void extendingComputesTheSameFeaturesAsAFullPass() {
+        TrainingFeatures full = TrainingFeatures.of(series(bars.size()), NORMALIZATION_WINDOW);
+
+        // Cut inside the flat stretch so the extension has to backfill rows built before it
+        TrainingFeatures features = TrainingFeatures.of(series(33), NORMALIZATION_WINDOW);
+        for (int size = 34; size <= bars.size(); size += 7) {
+            features = features.extend(series(size));
+        }
+        features = features.extend(series(bars.size()));
+
+        assertEquals(full.size(), features.size());
+        assertEquals(full.definedSize(), features.definedSize());
+        for (int row = 0; row < full.size(); row++) {
+            for (int feature = 0; feature < TrainingFeatures.FEATURE_COUNT; feature++) {
+                assertEquals(full.value(row, feature), features.value(row, feature),
+                        TrainingFeatures.FEATURE_NAMES[feature] + " of row " + row);
+            }
+        }
+    }
+
+    private static CandlestickSeries series(int size) {
+        CandlestickSeries.Builder builder = new CandlestickSeries.Builder(KEY);
+        for (double[] bar : bars.subList(0, size)) {
+            builder.add((long) bar[0], bar[1], bar[2], bar[3], bar[4], bar[5]);
+        }
+        return builder.build(1);
+    }
+
+    private static boolean hasNaN(double[] row) {
+        for (double value : row) {
+            if (Double.isNaN(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String[]> read(String resource, String separator) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (InputStream in = TrainingFeaturesTest.class.getResourceAsStream(resource);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    rows.add(line.split(separator));
+                }
+            }
+        }
+        return rows;
+    }
+}
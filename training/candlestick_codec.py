@@ -0,0 +1,142 @@
+import datetime
+import struct
+import urllib.parse
+import urllib.request
+import uuid
+
+import numpy as np
+
+MEDIA_TYPE = "application/vnd.tradezero.candlestick-series"
+COLUMNS = ["OPEN", "HIGH", "LOW", "CLOSE", "VOL"]
+
+_EPOCH = datetime.datetime(1970, 1, 1)
+
+
+class _Reader:
+
+    def __init__(self, data: bytes):
+        self.data = data
+        self.pos = 0
+
+    def read(self, n: int) -> bytes:
+        if self.pos + n > len(self.data):
+            raise ValueError("Truncated candlestick series")
+        chunk = self.data[self.pos:self.pos + n]
+        self.pos += n
+        return chunk
+
+    def varint(self) -> int:
+        value = 0
+        shift = 0
+        while True:
+            b = self.read(1)[0]
+            value |= (b & 0x7F) << shift
+            if not b & 0x80:
+                return value
+            shift += 7
+
+    def zigzag(self) -> int:
+        value = self.varint()
+        return (value >> 1) ^ -(value & 1)
+
+    def string(self) -> str:
+        return self.read(self.read(1)[0]).decode("utf-8")
+
+
+class _BitReader:
+
+    def __init__(self, reader: _Reader):
+        self.reader = reader
+        self.current = 0
+        self.remaining = 0
+
+    def read(self, n: int) -> int:
+        value = 0
+        while n > 0:
+            if self.remaining == 0:
+                self.current = self.reader.read(1)[0]
+                self.remaining = 8
+            take = min(n, self.remaining)
+            value = (value << take) | ((self.current >> (self.remaining - take)) & ((1 << take) - 1))
+            self.remaining -= take
+            n -= take
+        return value
+
+    def align(self):
+        self.remaining = 0
+
+
+def _decode_xor(bits: _BitReader, count: int) -> np.ndarray:
+    words = np.empty(count, dtype=np.uint64)
+    previous = 0
+    leading = 0
+    trailing = 0
+    for i in range(count):
+        if i == 0:
+            previous = bits.read(64)
+        elif bits.read(1):
+            if bits.read(1):
+                leading = bits.read(5)
+                meaningful = bits.read(6) or 64
+                trailing = 64 - leading - meaningful
+            previous ^= bits.read(64 - leading - trailing) << trailing
+        words[i] = previous
+    return words.view(np.float64)
+
+
+def _datetime_id(epoch_minute: int) -> int:
+    t = _EPOCH + datetime.timedelta(minutes=epoch_minute)
+    return t.year * 100000000 + t.month * 1000000 + t.day * 10000 + t.hour * 100 + t.minute
+
+
+def decode(data: bytes):
+    """Decode a series served as application/vnd.tradezero.candlestick-series.
+
+    Returns a dict with the series key, the datetime IDs (yyyyMMddHHmm) as int64 and one
+    float64 array per column in COLUMNS.
+    """
+    reader = _Reader(data)
+    if reader.read(4) != b"TZCS":
+        raise ValueError("Not an encoded candlestick series")
+    version = reader.read(1)[0]
+    if version != 1:
+        raise ValueError(f"Unsupported candlestick series version: {version}")
+    most, least = struct.unpack(">QQ", reader.read(16))
+    series = {
+        "dataFeedUuid": uuid.UUID(int=(most << 64) | least),
+        "tradeAsset": reader.string(),
+        "tradeTimeFrame": reader.string(),
+    }
+    count = reader.varint()
+
+    minutes = np.empty(count, dtype=np.int64)
+    previous = 0
+    delta = 0
+    for i in range(count):
+        if i == 0:
+            previous = reader.zigzag()
+        elif i == 1:
+            delta = reader.zigzag()
+            previous += delta
+        else:
+            delta += reader.zigzag()
+            previous += delta
+        minutes[i] = previous
+    series["datetimeId"] = np.array([_datetime_id(int(m)) for m in minutes], dtype=np.int64)
+    series["epochMinute"] = minutes
+
+    bits = _BitReader(reader)
+    for column in COLUMNS:
+        series[column] = _decode_xor(bits, count)
+        bits.align()
+    return series
+
+
+def http_repository(base_url: str, data_feed_uuid: str, trade_asset: str, trade_time_frame: str, **params):
+    """Fetch a candlestick window in the binary format and decode it."""
+    query = {"dataFeedUuid": data_feed_uuid, "tradeAsset": trade_asset, "tradeTimeFrame": trade_time_frame}
+    query.update({k: v for k, v in params.items() if v is not None})
+    request = urllib.request.Request(f"{base_url}/api/candlesticks/window?{urllib.parse.urlencode(query)}",
+                                     headers={"Accept": MEDIA_TYPE})
+    with urllib.request.urlopen(request) as response:
+        return decode(response.read())
@@ -0,0 +1,101 @@
+import json
+import struct
+import urllib.request
+import uuid
+
+MEDIA_TYPE = "application/vnd.tradezero.fact-stream"
+ORDER_STATUSES = ["pending", "filled", "canceled", "rejected", "partially_filled"]
+
+_DICTIONARY = 0x01
+_ACTION_FACT = 0x02
+_BALANCE_FACT = 0x03
+_ORDER_FACT = 0x04
+
+
+def _varint(value: int) -> bytes:
+    out = bytearray()
+    while True:
+        b = value & 0x7F
+        value >>= 7
+        if value:
+            out.append(b | 0x80)
+        else:
+            out.append(b)
+            return bytes(out)
+
+
+def _zigzag(value: int) -> int:
+    return (value << 1) ^ (value >> 63)
+
+
+class FactStreamEncoder:
+    """Encode per-step facts as application/vnd.tradezero.fact-stream.
+
+    Every UUID is sent once in a dictionary frame and referenced by index afterwards, datetime IDs
+    (yyyyMMddHHmm) as the difference to the previous fact and order statuses as ordinals of
+    ORDER_STATUSES. The backend decodes the same format in FactStreamDecoder.
+    """
+
+    def __init__(self):
+        self.out = bytearray(b"TZFS")
+        self.out.append(1)
+        self.refs = {}
+        self.datetime_id = 0
+
+    def _frame(self, frame_type: int, body: bytes):
+        self.out.append(frame_type)
+        self.out += _varint(len(body))
+        self.out += body
+
+    def _ref(self, value) -> bytes:
+        key = value if isinstance(value, uuid.UUID) else uuid.UUID(str(value))
+        index = self.refs.get(key)
+        if index is None:
+            index = len(self.refs)
+            self.refs[key] = index
+            self._frame(_DICTIONARY, key.bytes)
+        return _varint(index)
+
+    def _datetime(self, datetime_id: int) -> bytes:
+        delta = int(datetime_id) - self.datetime_id
+        self.datetime_id = int(datetime_id)
+        return _varint(_zigzag(delta))
+
+    def action_fact(self, risk_management_uuid, action_dim_uuid, datetime_id: int):
+        body = self._ref(risk_management_uuid) + self._ref(action_dim_uuid) + self._datetime(datetime_id)
+        self._frame(_ACTION_FACT, body)
+
+    def balance_fact(self, portfolio_uuid, datetime_id: int, initial: float, current: float, max_: float,
+                     min_: float):
+        body = self._ref(portfolio_uuid) + self._datetime(datetime_id) + struct.pack(">dddd", initial, current,
+                                                                                     max_, min_)
+        self._frame(_BALANCE_FACT, body)
+
+    def order_fact(self, order_dim_uuid, order_venue_dim_uuid, portfolio_uuid, datetime_id: int, order_status: str,
+                   executed_price=None, limit_price=None, stop_price=None, fees=None, slippage=None,
+                   latency_ms=None):
+        body = bytearray(self._ref(order_dim_uuid) + self._ref(order_venue_dim_uuid) + self._ref(portfolio_uuid)
+                         + self._datetime(datetime_id))
+        body.append(ORDER_STATUSES.index(order_status))
+        doubles = [executed_price, limit_price, stop_price, fees, slippage]
+        present = sum(1 << i for i, v in enumerate(doubles) if v is not None)
+        if latency_ms is not None:
+            present |= 0x20
+        body.append(present)
+        for v in doubles:
+            if v is not None:
+                body += struct.pack(">d", v)
+        if latency_ms is not None:
+            body += _varint(int(latency_ms))
+        self._frame(_ORDER_FACT, bytes(body))
+
+    def to_bytes(self) -> bytes:
+        return bytes(self.out)
+
+
+def http_ingest(base_url: str, encoder: FactStreamEncoder) -> dict:
+    """POST an encoded stream to /api/episodes and return the ingest report."""
+    request = urllib.request.Request(f"{base_url}/api/episodes", data=encoder.to_bytes(), method="POST",
+                                     headers={"Content-Type": MEDIA_TYPE, "Accept": "application/json"})
+    with urllib.request.urlopen(request) as response:
+        return json.loads(response.read())
@@ -0,0 +1,69 @@
+import os
+import sys
+import tempfile
+
+import numpy as np
+
+from get_candlestick import csv_repository
+
+FIXTURE_DIR = os.path.join(os.path.dirname(os.path.abspath(__file__)), "..", "backend", "src", "test", "resources",
+                           "training")
+HEADER = "<DATE>\t<TIME>\t<OPEN>\t<HIGH>\t<LOW>\t<CLOSE>\t<TICKVOL>\t<VOL>\t<SPREAD>"
+
+
+def _bars(count: int = 96):
+    """Deterministic M5 bars crossing midnight, with flat stretches of prices and of volume.
+
+    Bars 20 to 35 repeat one candle and zero volume (flat windows longer than the rolling window),
+    the last 14 bars repeat another candle so the series ends with prices only a later bar can fill.
+    """
+    seed = 12345
+    price = 5000.0
+    minute = 22 * 60
+    day = 2
+    for i in range(count):
+        seed = (seed * 1103515245 + 12345) % 2 ** 31
+        step = ((seed >> 8) % 2001 - 1000) / 4.0
+        if 20 <= i < 36 or i >= count - 14:
+            o = h = l = c = price
+            volume = 0 if i < 36 else 150
+        else:
+            o = price
+            c = price + step
+            h = max(o, c) + ((seed >> 4) % 7) * 0.5
+            l = min(o, c) - ((seed >> 2) % 5) * 0.5
+            volume = 100 + (seed >> 12) % 900
+            price = c
+        yield f"2024.01.{day:02d}", f"{minute // 60:02d}:{minute % 60:02d}:00", o, h, l, c, volume
+        minute += 5
+        if minute == 24 * 60:
+            minute = 0
+            day += 1
+
+
+def main():
+    """Write the MT5 export of _bars() and the features get_candlestick.py builds from it.
+
+    TrainingFeaturesTest checks the backend features against these files.
+    """
+    os.makedirs(FIXTURE_DIR, exist_ok=True)
+    lines = [HEADER] + [f"{d}\t{t}\t{o}\t{h}\t{l}\t{c}\t{v}\t{v}\t0" for d, t, o, h, l, c, v in _bars()]
+    export = "\n".join(lines) + "\n"
+    with open(os.path.join(FIXTURE_DIR, "features-input.tsv"), "w") as f:
+        f.write(export)
+
+    cwd = os.getcwd()
+    with tempfile.TemporaryDirectory() as directory:
+        with open(os.path.join(directory, "candlestick.csv"), "w") as f:
+            f.write(export)
+        os.chdir(directory)
+        try:
+            xs = csv_repository(add_time=True)
+        finally:
+            os.chdir(cwd)
+    np.savetxt(os.path.join(FIXTURE_DIR, "features-expected.csv"), xs, delimiter=",", fmt="%.17g",
+               header="DAY-SIN,DAY-COS,OPEN,HIGH,LOW,CLOSE,VOL", comments="")
+
+
+if __name__ == "__main__":
+    sys.exit(main())